@@ -0,0 +1,74 @@
+package org.xgbi.vaadin.container.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xgbi.vaadin.container.AliasBeanContainer;
+import org.xgbi.vaadin.container.BeanContainerFactory;
+import org.xgbi.vaadin.container.HierarchicalAliasBeanContainer;
+import org.xgbi.vaadin.container.HierarchicalBeanContainerFactory;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.util.BeanItemContainer;
+
+/**
+ * Population of a {@link BeanItemContainer} and an {@link AliasBeanContainer}
+ * by a {@link BeanContainerFactory}, and of a
+ * {@link HierarchicalAliasBeanContainer} by a
+ * {@link HierarchicalBeanContainerFactory}.
+ *
+ * @since 0.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class BeanContainerFactoryBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private List<FlatBean> flatBeans;
+    private List<TreeBean> treeBeans;
+    private BeanContainerFactory<FlatBean, FlatBean> beanItemFactory;
+    private BeanContainerFactory<Integer, FlatBean> aliasFactory;
+    private HierarchicalBeanContainerFactory<Integer, TreeBean> hierarchicalAliasFactory;
+
+    @Setup
+    public void setUp() {
+        flatBeans = Beans.flat(size);
+        treeBeans = Beans.tree(size);
+        beanItemFactory = BeanContainerFactory.getSimple(FlatBean.class);
+        aliasFactory = BeanContainerFactory.getSimple(FlatBean.class, AliasBeanContainer.class, "id");
+        hierarchicalAliasFactory = HierarchicalBeanContainerFactory.getSimple(TreeBean.class,
+                HierarchicalAliasBeanContainer.class, Beans.TREE_BUILDER, "id");
+    }
+
+    @Benchmark
+    public Container beanItemContainer() {
+        return beanItemFactory.getContainerFromCollection((Container) null, flatBeans);
+    }
+
+    @Benchmark
+    public Container aliasBeanContainer() {
+        return aliasFactory.getContainerFromCollection((Container) null, flatBeans);
+    }
+
+    @Benchmark
+    public Container hierarchicalAliasBeanContainer() {
+        return hierarchicalAliasFactory.getContainerFromCollection((Container) null, treeBeans);
+    }
+}
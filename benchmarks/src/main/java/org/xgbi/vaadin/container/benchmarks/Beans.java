@@ -0,0 +1,116 @@
+package org.xgbi.vaadin.container.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.xgbi.vaadin.container.property.HierarchicalBeanBuilder;
+
+/**
+ * Generate the (deterministic) beans of the benchmarks.
+ *
+ * @since 0.4.0
+ */
+public final class Beans {
+
+    /**
+     * The number of children of each node of the generated trees.
+     */
+    public static final int FAN_OUT = 10;
+
+    /**
+     * A {@link HierarchicalBeanBuilder} that returns the identifiers of the
+     * children of a {@link TreeBean}.
+     */
+    public static final HierarchicalBeanBuilder<Integer, TreeBean> TREE_BUILDER = new HierarchicalBeanBuilder<Integer, TreeBean>() {
+
+        @Override
+        public Collection<Integer> getChildren(TreeBean bean) {
+            List<Integer> ids = new ArrayList<Integer>(bean.getChildren().size());
+            for (TreeBean child : bean.getChildren()) {
+                ids.add(child.getId());
+            }
+            return ids;
+        }
+    };
+
+    private Beans() {
+    }
+
+    /**
+     * Create size flat beans.
+     */
+    public static List<FlatBean> flat(int size) {
+        Random random = new Random(size);
+        List<FlatBean> beans = new ArrayList<FlatBean>(size);
+        for (int i = 0; i < size; i++) {
+            beans.add(new FlatBean(i, "name" + i, random.nextDouble() * 1000, random.nextBoolean()));
+        }
+        return beans;
+    }
+
+    /**
+     * Create a balanced tree of size beans (each node has {@link #FAN_OUT}
+     * children), in breadth-first order: the first one is the root.
+     */
+    public static List<TreeBean> tree(int size) {
+        return tree(size, TreeShape.BALANCED);
+    }
+
+    /**
+     * Create a tree of size beans of the given shape, in breadth-first order:
+     * the first one is the root, the parent of a bean always comes before it.
+     */
+    public static List<TreeBean> tree(int size, TreeShape shape) {
+        Random random = new Random(size);
+        List<TreeBean> beans = new ArrayList<TreeBean>(size);
+        for (int i = 0; i < size; i++) {
+            TreeBean bean = new TreeBean(i, "name" + i, random.nextDouble() * 1000);
+            if (i > 0) {
+                beans.get(shape.getParent(i)).getChildren().add(bean);
+            }
+            beans.add(bean);
+        }
+        return beans;
+    }
+
+    /**
+     * The shapes of the generated trees.
+     */
+    public enum TreeShape {
+        /**
+         * A root with all the other beans as children.
+         */
+        WIDE {
+            @Override
+            int getParent(int index) {
+                return 0;
+            }
+        },
+        /**
+         * A single branch: each bean is the child of the previous one.
+         */
+        DEEP {
+            @Override
+            int getParent(int index) {
+                return index - 1;
+            }
+        },
+        /**
+         * Each bean has {@link Beans#FAN_OUT} children.
+         */
+        BALANCED {
+            @Override
+            int getParent(int index) {
+                return (index - 1) / FAN_OUT;
+            }
+        };
+
+        /**
+         * Get the index of the parent of the bean at the given (positive)
+         * index.
+         */
+        abstract int getParent(int index);
+    }
+}
@@ -0,0 +1,86 @@
+package org.xgbi.vaadin.container.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xgbi.vaadin.container.ContainerFactory;
+import org.xgbi.vaadin.container.annotation.ContainerType;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.util.HierarchicalContainer;
+import com.vaadin.data.util.IndexedContainer;
+
+/**
+ * Population of an {@link IndexedContainer} and a {@link HierarchicalContainer}
+ * by the {@link ContainerFactory} of each property reader algorithm.
+ *
+ * @since 0.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ContainerFactoryBenchmark {
+
+    /**
+     * The property reader algorithms.
+     */
+    public enum Algorithm {
+        ATTRIBUTES, GETTERS, ANNOTATION
+    }
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "ATTRIBUTES", "GETTERS", "ANNOTATION" })
+    public Algorithm algorithm;
+
+    private List<FlatBean> flatBeans;
+    private List<TreeBean> roots;
+    private ContainerFactory<FlatBean> flatFactory;
+    private ContainerFactory<TreeBean> treeFactory;
+
+    @Setup
+    public void setUp() {
+        flatBeans = Beans.flat(size);
+        roots = Collections.singletonList(Beans.tree(size).get(0));
+        switch (algorithm) {
+        case ATTRIBUTES:
+            flatFactory = ContainerFactory.getByAttributes(FlatBean.class);
+            treeFactory = ContainerFactory.getByAttributes(TreeBean.class);
+            break;
+        case GETTERS:
+            flatFactory = ContainerFactory.getByGetters(FlatBean.class);
+            treeFactory = ContainerFactory.getByGetters(TreeBean.class);
+            break;
+        default:
+            flatFactory = ContainerFactory.getByAnnotation(FlatBean.class, ContainerType.EXTENDED);
+            treeFactory = ContainerFactory.getByAnnotation(TreeBean.class, ContainerType.EXTENDED);
+            break;
+        }
+    }
+
+    @Benchmark
+    public Container indexedContainer() {
+        return flatFactory.getContainerFromCollection(flatBeans, IndexedContainer.class);
+    }
+
+    @Benchmark
+    public Container hierarchicalContainer() {
+        return treeFactory.getContainerFromCollection(roots, HierarchicalContainer.class);
+    }
+}
@@ -0,0 +1,58 @@
+package org.xgbi.vaadin.container.benchmarks;
+
+import org.xgbi.vaadin.container.annotation.Container;
+import org.xgbi.vaadin.container.annotation.Property;
+
+/**
+ * A bean without children, with a few properties of the usual types.
+ *
+ * @since 0.4.0
+ */
+@Container(properties = { @Property(name = "id"), @Property(name = "name"), @Property(name = "amount"),
+        @Property(name = "active") })
+public class FlatBean {
+
+    private Integer id;
+    private String name;
+    private Double amount;
+    private Boolean active;
+
+    public FlatBean(Integer id, String name, Double amount, Boolean active) {
+        this.id = id;
+        this.name = name;
+        this.amount = amount;
+        this.active = active;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+}
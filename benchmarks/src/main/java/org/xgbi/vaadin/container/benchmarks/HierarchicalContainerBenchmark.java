@@ -0,0 +1,188 @@
+package org.xgbi.vaadin.container.benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xgbi.vaadin.container.HierarchicalAliasBeanContainer;
+import org.xgbi.vaadin.container.benchmarks.Beans.TreeShape;
+
+import com.vaadin.data.util.AbstractHierarchicalBeanContainer;
+import com.vaadin.data.util.HierarchicalBeanContainer;
+
+/**
+ * Construction and mutation of the hierarchical bean containers, for wide,
+ * deep and balanced trees of growing sizes.
+ *
+ * The mutations ({@link #addBean(Mutation)}, {@link #removeItem(Mutation)} and
+ * {@link #setParent(Mutation)}) are applied {@value #OPERATIONS} times on a
+ * populated container and reported per operation, so that the cost of a
+ * single change can be compared across the sizes: a cost growing with the
+ * size means the hierarchy is rebuilt (or walked) on each change.
+ *
+ * @since 0.4.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class HierarchicalContainerBenchmark {
+
+    /**
+     * The number of changes of each mutation benchmark.
+     */
+    public static final int OPERATIONS = 100;
+
+    /**
+     * The hierarchical bean containers.
+     */
+    public enum ContainerKind {
+        HIERARCHICAL_BEAN, HIERARCHICAL_ALIAS_BEAN;
+
+        AbstractHierarchicalBeanContainer<Integer, TreeBean> create() {
+            AbstractHierarchicalBeanContainer<Integer, TreeBean> container;
+            if (this == HIERARCHICAL_BEAN) {
+                container = new HierarchicalBeanContainer<Integer, TreeBean>(TreeBean.class, Beans.TREE_BUILDER);
+            } else {
+                container = new HierarchicalAliasBeanContainer<Integer, TreeBean>(TreeBean.class, Beans.TREE_BUILDER);
+            }
+            container.setBeanIdProperty("id");
+            return container;
+        }
+    }
+
+    /**
+     * The parameters shared by the states.
+     */
+    @State(Scope.Benchmark)
+    public static class Tree {
+
+        @Param({ "1000", "10000", "100000" })
+        public int size;
+
+        @Param({ "WIDE", "DEEP", "BALANCED" })
+        public TreeShape shape;
+
+        @Param({ "HIERARCHICAL_BEAN", "HIERARCHICAL_ALIAS_BEAN" })
+        public ContainerKind kind;
+
+        List<TreeBean> beans;
+
+        /**
+         * A populated container, for the read-only benchmarks.
+         */
+        AbstractHierarchicalBeanContainer<Integer, TreeBean> container;
+
+        @Setup
+        public void setUp() {
+            beans = Beans.tree(size, shape);
+            container = kind.create();
+            container.addAll(beans);
+        }
+    }
+
+    /**
+     * A populated container, created again before each invocation of a
+     * mutation benchmark.
+     */
+    @State(Scope.Thread)
+    public static class Mutation {
+
+        AbstractHierarchicalBeanContainer<Integer, TreeBean> container;
+
+        /**
+         * The beans that are not in the container yet (their parents are).
+         */
+        List<TreeBean> added;
+
+        /**
+         * The identifiers of the items to change, spread over the container
+         * (the root excluded).
+         */
+        Integer[] itemIds = new Integer[OPERATIONS];
+
+        @Setup(Level.Invocation)
+        public void setUp(Tree tree) {
+            List<TreeBean> beans = Beans.tree(tree.size + OPERATIONS, tree.shape);
+            container = tree.kind.create();
+            container.addAll(beans.subList(0, tree.size));
+            added = beans.subList(tree.size, beans.size());
+            int step = Math.max(1, (tree.size - 1) / OPERATIONS);
+            for (int i = 0; i < OPERATIONS; i++) {
+                itemIds[i] = Integer.valueOf(1 + ((i * step) % (tree.size - 1)));
+            }
+        }
+    }
+
+    @Benchmark
+    public AbstractHierarchicalBeanContainer<Integer, TreeBean> addAll(Tree tree) {
+        AbstractHierarchicalBeanContainer<Integer, TreeBean> container = tree.kind.create();
+        container.addAll(tree.beans);
+        return container;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public AbstractHierarchicalBeanContainer<Integer, TreeBean> addBean(Mutation mutation) {
+        for (TreeBean bean : mutation.added) {
+            mutation.container.addBean(bean);
+        }
+        return mutation.container;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public AbstractHierarchicalBeanContainer<Integer, TreeBean> removeItem(Mutation mutation) {
+        for (Integer itemId : mutation.itemIds) {
+            mutation.container.removeItem(itemId);
+        }
+        return mutation.container;
+    }
+
+    /**
+     * Detach items from their parent (they become roots).
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public AbstractHierarchicalBeanContainer<Integer, TreeBean> setParent(Mutation mutation) {
+        for (Integer itemId : mutation.itemIds) {
+            mutation.container.setParent(itemId, null);
+        }
+        return mutation.container;
+    }
+
+    /**
+     * Walk the whole hierarchy from the roots (iteratively, the deep trees
+     * would overflow the stack).
+     */
+    @Benchmark
+    public int traversal(Tree tree) {
+        int count = 0;
+        Deque<Object> pending = new ArrayDeque<Object>(tree.container.rootItemIds());
+        while (!pending.isEmpty()) {
+            Object itemId = pending.pop();
+            count++;
+            Collection<?> children = tree.container.getChildren(itemId);
+            if (children != null) {
+                pending.addAll(children);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,60 @@
+package org.xgbi.vaadin.container.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xgbi.vaadin.container.annotation.Container;
+import org.xgbi.vaadin.container.annotation.Property;
+
+/**
+ * A bean with children (the <code>children</code> property followed by the
+ * container factories).
+ *
+ * @since 0.4.0
+ */
+@Container(properties = { @Property(name = "id"), @Property(name = "name"), @Property(name = "amount") })
+public class TreeBean {
+
+    private Integer id;
+    private String name;
+    private Double amount;
+    private List<TreeBean> children = new ArrayList<TreeBean>();
+
+    public TreeBean(Integer id, String name, Double amount) {
+        this.id = id;
+        this.name = name;
+        this.amount = amount;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public List<TreeBean> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<TreeBean> children) {
+        this.children = children;
+    }
+}
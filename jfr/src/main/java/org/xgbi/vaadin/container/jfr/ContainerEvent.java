@@ -0,0 +1,34 @@
+package org.xgbi.vaadin.container.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The fields shared by the events of the factories and containers.
+ *
+ * The events begin when the operation starts and are committed once it is
+ * done, so the thresholds of the recording settings apply to the duration of
+ * the operation. The {@link #operationDuration} field holds the duration
+ * measured by {@link org.xgbi.vaadin.container.metrics.Metrics} (the only
+ * one of an operation started before the recording). The stack trace tells
+ * which screen did the operation.
+ *
+ * @since 0.4.0
+ */
+@Category({ "Vaadin", "Containers" })
+@StackTrace(true)
+public abstract class ContainerEvent extends Event {
+
+    @Label("Bean Class")
+    Class<?> beanClass;
+
+    @Label("Item Count")
+    int itemCount;
+
+    @Label("Operation Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long operationDuration;
+}
@@ -0,0 +1,16 @@
+package org.xgbi.vaadin.container.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The filtering of an alias bean container.
+ *
+ * @since 0.4.0
+ */
+@Name("org.xgbi.vaadin.container.Filter")
+@Label("Container Filter")
+@Description("Filtering of an alias bean container, the item count being the number of items that passed the filters")
+public class FilterEvent extends ContainerEvent {
+}
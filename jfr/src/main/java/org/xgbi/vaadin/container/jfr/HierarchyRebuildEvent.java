@@ -0,0 +1,16 @@
+package org.xgbi.vaadin.container.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The rebuild of the whole hierarchy of a hierarchical bean container.
+ *
+ * @since 0.4.0
+ */
+@Name("org.xgbi.vaadin.container.HierarchyRebuild")
+@Label("Hierarchy Rebuild")
+@Description("Rebuild of the whole hierarchy of a hierarchical bean container")
+public class HierarchyRebuildEvent extends ContainerEvent {
+}
@@ -0,0 +1,21 @@
+package org.xgbi.vaadin.container.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The creation of an item by a factory, reading the properties of a bean and
+ * adding the item to the container.
+ *
+ * Disabled by default: there is one event per item.
+ *
+ * @since 0.4.0
+ */
+@Name("org.xgbi.vaadin.container.ItemCreation")
+@Label("Item Creation")
+@Description("Creation of an item by a factory from a bean")
+@Enabled(false)
+public class ItemCreationEvent extends ContainerEvent {
+}
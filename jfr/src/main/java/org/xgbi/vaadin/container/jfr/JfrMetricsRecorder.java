@@ -0,0 +1,163 @@
+package org.xgbi.vaadin.container.jfr;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import jdk.jfr.EventType;
+
+import org.xgbi.vaadin.container.metrics.BeanMetricsRecorder;
+import org.xgbi.vaadin.container.metrics.CompositeMetricsRecorder;
+import org.xgbi.vaadin.container.metrics.Metrics;
+import org.xgbi.vaadin.container.metrics.Operation;
+
+/**
+ * A {@link org.xgbi.vaadin.container.metrics.MetricsRecorder} that emits a
+ * JDK Flight Recorder event for the population of the containers
+ * ({@link PopulateEvent}), the creation of the items
+ * ({@link ItemCreationEvent}), the rebuild of the hierarchies
+ * ({@link HierarchyRebuildEvent}), the sorts ({@link SortEvent}) and the
+ * filtering ({@link FilterEvent}).
+ *
+ * An operation is only timed while its event is enabled by a running
+ * recording: otherwise it costs a check of the event type.
+ *
+ * The event of an operation begins when the operation starts and is committed
+ * once it is done, so the duration of the event is the duration of the
+ * operation (see {@link ContainerEvent}).
+ *
+ * <pre>
+ * JfrMetricsRecorder.install();
+ * </pre>
+ *
+ * @since 0.4.0
+ */
+public class JfrMetricsRecorder implements BeanMetricsRecorder {
+
+    private final Map<Operation, EventType> eventTypes = new EnumMap<Operation, EventType>(Operation.class);
+
+    /**
+     * The events begun by each thread, by operation (the operations might be
+     * nested).
+     */
+    private final ThreadLocal<Map<Operation, Deque<ContainerEvent>>> startedEvents =
+            new ThreadLocal<Map<Operation, Deque<ContainerEvent>>>() {
+                @Override
+                protected Map<Operation, Deque<ContainerEvent>> initialValue() {
+                    return new EnumMap<Operation, Deque<ContainerEvent>>(Operation.class);
+                }
+            };
+
+    /**
+     * The number of begun events of all the threads, by operation: the
+     * operations are still recorded while their events are pending, even if
+     * the recording stopped meanwhile, so that the events are not kept.
+     */
+    private final AtomicIntegerArray pendingCounts = new AtomicIntegerArray(Operation.values().length);
+
+    /**
+     * Create a {@link JfrMetricsRecorder} (registering the event types).
+     */
+    public JfrMetricsRecorder() {
+        eventTypes.put(Operation.POPULATE, EventType.getEventType(PopulateEvent.class));
+        eventTypes.put(Operation.NEW_ITEM, EventType.getEventType(ItemCreationEvent.class));
+        eventTypes.put(Operation.REBUILD_HIERARCHY, EventType.getEventType(HierarchyRebuildEvent.class));
+        eventTypes.put(Operation.SORT, EventType.getEventType(SortEvent.class));
+        eventTypes.put(Operation.FILTER, EventType.getEventType(FilterEvent.class));
+    }
+
+    /**
+     * Add a {@link JfrMetricsRecorder} to the recorder of {@link Metrics}.
+     *
+     * @return The installed recorder
+     */
+    public static JfrMetricsRecorder install() {
+        JfrMetricsRecorder recorder = new JfrMetricsRecorder();
+        Metrics.setRecorder(new CompositeMetricsRecorder(Metrics.getRecorder(), recorder));
+        return recorder;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled(Operation operation) {
+        EventType eventType = eventTypes.get(operation);
+        return eventType != null && (eventType.isEnabled() || pendingCounts.get(operation.ordinal()) > 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(Operation operation) {
+        ContainerEvent event = createEvent(operation);
+        if (event == null || !event.isEnabled()) {
+            return;
+        }
+        Map<Operation, Deque<ContainerEvent>> events = startedEvents.get();
+        Deque<ContainerEvent> started = events.get(operation);
+        if (started == null) {
+            started = new ArrayDeque<ContainerEvent>();
+            events.put(operation, started);
+        }
+        event.begin();
+        started.push(event);
+        pendingCounts.incrementAndGet(operation.ordinal());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void record(Operation operation, long durationNanos, int itemCount) {
+        record(operation, null, durationNanos, itemCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void record(Operation operation, Class<?> beanClass, long durationNanos, int itemCount) {
+        ContainerEvent event = pollStartedEvent(operation);
+        if (event == null) {
+            // Not started while the event was enabled
+            event = createEvent(operation);
+        }
+        if (event == null || !event.shouldCommit()) {
+            return;
+        }
+        event.beanClass = beanClass;
+        event.itemCount = itemCount;
+        event.operationDuration = durationNanos;
+        event.commit();
+    }
+
+    private ContainerEvent pollStartedEvent(Operation operation) {
+        Deque<ContainerEvent> started = startedEvents.get().get(operation);
+        if (started == null || started.isEmpty()) {
+            return null;
+        }
+        pendingCounts.decrementAndGet(operation.ordinal());
+        return started.pop();
+    }
+
+    private static ContainerEvent createEvent(Operation operation) {
+        switch (operation) {
+        case POPULATE:
+            return new PopulateEvent();
+        case NEW_ITEM:
+            return new ItemCreationEvent();
+        case REBUILD_HIERARCHY:
+            return new HierarchyRebuildEvent();
+        case SORT:
+            return new SortEvent();
+        case FILTER:
+            return new FilterEvent();
+        default:
+            return null;
+        }
+    }
+}
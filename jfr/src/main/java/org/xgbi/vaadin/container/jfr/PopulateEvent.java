@@ -0,0 +1,16 @@
+package org.xgbi.vaadin.container.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The population (or merge) of a container by a factory.
+ *
+ * @since 0.4.0
+ */
+@Name("org.xgbi.vaadin.container.Populate")
+@Label("Container Population")
+@Description("Population (or merge) of a container by a factory, the item count being the size of the container afterwards")
+public class PopulateEvent extends ContainerEvent {
+}
@@ -0,0 +1,16 @@
+package org.xgbi.vaadin.container.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The sort of an alias bean container.
+ *
+ * @since 0.4.0
+ */
+@Name("org.xgbi.vaadin.container.Sort")
+@Label("Container Sort")
+@Description("Sort of an alias bean container, the item count being the number of sorted items")
+public class SortEvent extends ContainerEvent {
+}
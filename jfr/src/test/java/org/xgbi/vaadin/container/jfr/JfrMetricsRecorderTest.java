@@ -0,0 +1,70 @@
+package org.xgbi.vaadin.container.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.metrics.Metrics;
+import org.xgbi.vaadin.container.metrics.Operation;
+
+/**
+ * Test class for {@link JfrMetricsRecorder}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class JfrMetricsRecorderTest {
+
+    @After
+    public void tearDown() {
+        Metrics.setRecorder(null);
+    }
+
+    @Test
+    public void disabled() {
+        Metrics.setRecorder(new JfrMetricsRecorder());
+        assertEquals(Metrics.NOT_RECORDED, Metrics.start(Operation.POPULATE));
+        assertEquals(Metrics.NOT_RECORDED, Metrics.start(Operation.INIT_CONTAINER));
+    }
+
+    @Test
+    public void recorded() throws Exception {
+        Metrics.setRecorder(new JfrMetricsRecorder());
+        File file = File.createTempFile("containers", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PopulateEvent.class);
+            recording.enable(SortEvent.class);
+            recording.start();
+            assertFalse(Metrics.getRecorder().isEnabled(Operation.NEW_ITEM));
+            long start = Metrics.start(Operation.POPULATE);
+            assertTrue(start != Metrics.NOT_RECORDED);
+            Thread.sleep(10L);
+            Metrics.stop(Operation.POPULATE, start, String.class, 10);
+            recording.stop();
+            // Nothing pending anymore
+            assertFalse(Metrics.getRecorder().isEnabled(Operation.POPULATE));
+            recording.dump(file.toPath());
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            assertEquals(1, events.size());
+            RecordedEvent event = events.get(0);
+            assertEquals("org.xgbi.vaadin.container.Populate", event.getEventType().getName());
+            assertEquals(String.class.getName(), event.<RecordedClass> getValue("beanClass").getName());
+            assertEquals(10, event.getInt("itemCount"));
+            // The event spans the operation
+            assertTrue(event.getLong("operationDuration") >= 10000000L);
+            assertTrue(event.getDuration().toNanos() >= 10000000L);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -1,15 +1,25 @@
 package com.vaadin.data.util;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xgbi.vaadin.container.AliasBeanContainer;
+import org.xgbi.vaadin.container.metrics.Metrics;
+import org.xgbi.vaadin.container.metrics.Operation;
+import org.xgbi.vaadin.container.metrics.OperationTrace;
 import org.xgbi.vaadin.container.property.HierarchicalBeanBuilder;
 
 import com.vaadin.data.Container;
@@ -25,7 +35,11 @@ import com.vaadin.data.util.filter.UnsupportedFilterException;
  * ...)
  * 
  * <p>
- * Behind the scene it uses {@link ContainerHierarchicalWrapper}.
+ * The hierarchy has the same semantic as a {@link ContainerHierarchicalWrapper}
+ * but is maintained incrementally: adding or removing beans through this
+ * container only applies the {@link HierarchicalBeanBuilder} to the added (or
+ * removed) beans. Other changes of the wrapped container (filtering, sorting,
+ * ...) rebuild the whole hierarchy.
  * </p>
  * 
  * @author Vincent Demeester <vincent@shortbrain.org>
@@ -51,12 +65,63 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 	private static final Logger log = LoggerFactory
 			.getLogger(AbstractHierarchicalBeanContainer.class);
 
+	/**
+	 * Default minimum number of beans to resolve their children in parallel.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1000;
+
+	/**
+	 * Minimum number of beans per parallel task.
+	 */
+	private static final int MIN_CHUNK_SIZE = 256;
+
 	private Field modelField;
 
 	/**
-	 * The {@link Hierarchical} wrapper.
+	 * The hierarchy of the (visible) items.
+	 */
+	private final BeanHierarchy hierarchy = new BeanHierarchy();
+
+	/**
+	 * The children declared by each bean (using the
+	 * {@link HierarchicalBeanBuilder}), by item identifier.
+	 */
+	private final Map<IDTYPE, Collection<IDTYPE>> declaredChildren = new LinkedHashMap<IDTYPE, Collection<IDTYPE>>();
+
+	/**
+	 * The parent declaring each child, by item identifier.
+	 */
+	private final Map<IDTYPE, IDTYPE> declaredParents = new HashMap<IDTYPE, IDTYPE>();
+
+	/**
+	 * The beans (or item) being added, or the item being removed, by this
+	 * container ; used to update the hierarchy incrementally when the wrapped
+	 * container fires its event.
+	 */
+	private transient Collection<? extends BEANTYPE> pendingBeans;
+	private transient Object pendingItemId;
+	private transient boolean pendingRemoval;
+	private transient boolean pendingRemoveAll;
+
+	/**
+	 * True during a bulk load.
+	 */
+	private transient boolean bulkLoading;
+
+	/**
+	 * The listeners of the wrapped container, suspended during a bulk load.
+	 */
+	private transient Collection<Container.ItemSetChangeListener> suspendedListeners;
+
+	/**
+	 * The executor used to resolve children in parallel (might be null).
+	 */
+	private transient ExecutorService childrenExecutor;
+
+	/**
+	 * Minimum number of beans to resolve their children in parallel.
 	 */
-	private ContainerHierarchicalWrapper wrapper;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
 
 	/**
 	 * The wrapped {@link Container} ({@link BeanContainer})
@@ -78,9 +143,9 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 			AbstractBeanContainer<IDTYPE, BEANTYPE> container) {
 		super(type);
 		this.container = container;
-		wrapper = new ContainerHierarchicalWrapper(container);
-		wrapper.addListener((Container.ItemSetChangeListener) this);
-		wrapper.addListener((Container.PropertySetChangeListener) this);
+		hierarchy.reset(container.getItemIds());
+		container.addItemSetChangeListener(this);
+		container.addPropertySetChangeListener(this);
 		try {
 			modelField = AbstractBeanContainer.class.getDeclaredField("model");
 			modelField.setAccessible(true);
@@ -100,29 +165,272 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 
 	@Override
 	public void containerItemSetChange(ItemSetChangeEvent event) {
-		// Working only if hierarchicalPropertyId is defined
-		if (hierarchicalBeanBuilder != null) {
-			// Map the parent and their children
-			Map<IDTYPE, Collection<IDTYPE>> mapParent = new HashMap<IDTYPE, Collection<IDTYPE>>();
-			// Walk the container
-			for (IDTYPE itemId : container.getItemIds()) {
-				BEANTYPE bean = container.getItem(itemId).getBean();
-				Collection<IDTYPE> ids = hierarchicalBeanBuilder
-						.getChildren(bean);
-				if (ids != null && !ids.isEmpty()) {
-					mapParent.put(itemId, ids);
+		OperationTrace trace = OperationTrace.begin(Operation.ITEM_SET_CHANGE);
+		try {
+			updateHierarchy();
+		} finally {
+			trace.end(getBeanType(), this, size());
+		}
+		log.trace("ItemSet event {}", event);
+	}
+
+	/**
+	 * Update the hierarchy after a change of the wrapped container.
+	 */
+	@SuppressWarnings("unchecked")
+	private void updateHierarchy() {
+		if (pendingRemoveAll) {
+			hierarchy.clear();
+			declaredChildren.clear();
+			declaredParents.clear();
+		} else if (pendingBeans != null) {
+			List<IDTYPE> itemIds = new ArrayList<IDTYPE>();
+			for (BEANTYPE bean : pendingBeans) {
+				if (bean != null
+						&& getBeanType().isAssignableFrom(bean.getClass())) {
+					itemIds.add(container.resolveBeanId(bean));
 				}
 			}
+			itemsAdded(itemIds);
+		} else if (pendingItemId != null && !pendingRemoval) {
+			itemsAdded(Collections.singletonList((IDTYPE) pendingItemId));
+		} else if (pendingItemId != null) {
+			itemRemoved(pendingItemId);
+		} else {
+			rebuildHierarchy();
+		}
+		clearPending();
+	}
+
+	/**
+	 * Start a bulk load.
+	 * 
+	 * Until {@link #endBulkLoad()} is called, no ItemSetChange event is fired
+	 * and the hierarchy is not updated (it is then not accurate): beans can be
+	 * added (or removed) at the cost of the wrapped container only.
+	 * 
+	 * @throws IllegalStateException
+	 *             if a bulk load is already started.
+	 */
+	public void beginBulkLoad() {
+		if (bulkLoading) {
+			throw new IllegalStateException("bulk load already started.");
+		}
+		bulkLoading = true;
+		suspendedListeners = container.getItemSetChangeListeners();
+		container.setItemSetChangeListeners(null);
+	}
+
+	/**
+	 * End a bulk load: the hierarchy is built once, then a single
+	 * ItemSetChange event is fired.
+	 * 
+	 * @throws IllegalStateException
+	 *             if no bulk load is started.
+	 */
+	public void endBulkLoad() {
+		if (!bulkLoading) {
+			throw new IllegalStateException("no bulk load started.");
+		}
+		// Listeners added during the bulk load
+		Collection<Container.ItemSetChangeListener> added = container
+				.getItemSetChangeListeners();
+		container.setItemSetChangeListeners(suspendedListeners);
+		if (added != null) {
+			for (Container.ItemSetChangeListener listener : added) {
+				container.addItemSetChangeListener(listener);
+			}
+		}
+		suspendedListeners = null;
+		bulkLoading = false;
+		// This container is the first listener, it rebuilds the hierarchy
+		container.fireItemSetChange();
+	}
+
+	/**
+	 * Check if a bulk load is started.
+	 * 
+	 * @return true during a bulk load.
+	 */
+	public boolean isBulkLoading() {
+		return bulkLoading;
+	}
+
+	/**
+	 * Rebuild the whole hierarchy from the items of the wrapped container,
+	 * applying the {@link HierarchicalBeanBuilder} on each bean.
+	 * 
+	 * This is done automatically when the wrapped container changes by other
+	 * means than adding or removing beans through this container (filtering,
+	 * sorting, ...) ; it might be called if the children of the beans have
+	 * changed.
+	 */
+	public void rebuildHierarchy() {
+		long start = Metrics.start(Operation.REBUILD_HIERARCHY);
+		Collection<IDTYPE> itemIds = container.getItemIds();
+		hierarchy.synchronize(itemIds);
+		// Detach the children that were declared by the beans, they might
+		// have changed (other relations are kept)
+		for (Entry<IDTYPE, IDTYPE> entry : declaredParents.entrySet()) {
+			if (entry.getValue().equals(hierarchy.getParent(entry.getKey()))) {
+				hierarchy.setParent(entry.getKey(), null);
+			}
+		}
+		declaredChildren.clear();
+		declaredParents.clear();
+		// Working only if hierarchicalBeanBuilder is defined
+		if (hierarchicalBeanBuilder != null) {
+			// Map the parent and their children
+			declareChildren(new ArrayList<IDTYPE>(itemIds));
 			// Walk the map and set parents
-			for (Entry<IDTYPE, Collection<IDTYPE>> entry : mapParent.entrySet()) {
+			for (Entry<IDTYPE, Collection<IDTYPE>> entry : declaredChildren
+					.entrySet()) {
 				IDTYPE parent = entry.getKey();
-				wrapper.setChildrenAllowed(parent, true);
+				hierarchy.setChildrenAllowed(parent, true);
 				for (IDTYPE id : entry.getValue()) {
-					wrapper.setParent(id, parent);
+					hierarchy.setParent(id, parent);
+				}
+			}
+		}
+		Metrics.stop(Operation.REBUILD_HIERARCHY, start, getBeanType(),
+				itemIds.size());
+	}
+
+	/**
+	 * Add the given items to the hierarchy, linking them to their children
+	 * and to their parent.
+	 * 
+	 * @param itemIds
+	 *            the identifiers of the items that might have been added.
+	 */
+	private void itemsAdded(Collection<IDTYPE> itemIds) {
+		List<IDTYPE> added = new ArrayList<IDTYPE>();
+		for (IDTYPE itemId : itemIds) {
+			if (!hierarchy.contains(itemId) && container.containsId(itemId)) {
+				hierarchy.add(itemId);
+				added.add(itemId);
+			}
+		}
+		if (added.isEmpty()) {
+			return;
+		}
+		// Items added elsewhere than at the end (addItemAt, ...)
+		if (added.size() == 1 && !added.get(0).equals(container.lastItemId())) {
+			hierarchy.renumber(container.getItemIds());
+		}
+		if (hierarchicalBeanBuilder != null) {
+			declareChildren(added);
+			for (IDTYPE itemId : added) {
+				Collection<IDTYPE> children = declaredChildren.get(itemId);
+				if (children != null) {
+					hierarchy.setChildrenAllowed(itemId, true);
+					for (IDTYPE id : children) {
+						hierarchy.setParent(id, itemId);
+					}
+				}
+				IDTYPE parent = declaredParents.get(itemId);
+				if (parent != null && hierarchy.contains(parent)) {
+					hierarchy.setChildrenAllowed(parent, true);
+					hierarchy.setParent(itemId, parent);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove the given item from the hierarchy, its children becoming roots.
+	 * 
+	 * @param itemId
+	 *            the identifier of the item that might have been removed.
+	 */
+	private void itemRemoved(Object itemId) {
+		if (!container.containsId(itemId) && hierarchy.remove(itemId)) {
+			Collection<IDTYPE> children = declaredChildren.remove(itemId);
+			if (children != null) {
+				for (IDTYPE id : children) {
+					if (itemId.equals(declaredParents.get(id))) {
+						declaredParents.remove(id);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Record the children declared by the beans of the given items.
+	 * 
+	 * @param itemIds
+	 *            the item identifiers.
+	 */
+	private void declareChildren(List<IDTYPE> itemIds) {
+		List<BEANTYPE> beans = new ArrayList<BEANTYPE>(itemIds.size());
+		for (IDTYPE itemId : itemIds) {
+			beans.add(container.getItem(itemId).getBean());
+		}
+		List<Collection<IDTYPE>> children = resolveChildren(beans);
+		for (int i = 0; i < itemIds.size(); i++) {
+			Collection<IDTYPE> ids = children.get(i);
+			if (ids != null && !ids.isEmpty()) {
+				IDTYPE itemId = itemIds.get(i);
+				declaredChildren.put(itemId, ids);
+				for (IDTYPE id : ids) {
+					declaredParents.put(id, itemId);
 				}
 			}
 		}
-		log.trace("ItemSet event {}", event);
+	}
+
+	/**
+	 * Call the {@link HierarchicalBeanBuilder} on the given beans, in parallel
+	 * on the children executor if there are enough beans.
+	 * 
+	 * @param beans
+	 *            the beans.
+	 * @return the children of each bean, in the same order.
+	 */
+	private List<Collection<IDTYPE>> resolveChildren(List<BEANTYPE> beans) {
+		ExecutorService executor = childrenExecutor;
+		if (executor == null || beans.size() < parallelThreshold) {
+			return new ChildrenResolver<IDTYPE, BEANTYPE>(
+					hierarchicalBeanBuilder, beans).call();
+		}
+		int tasks = Runtime.getRuntime().availableProcessors() * 4;
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, (beans.size() + tasks - 1)
+				/ tasks);
+		List<ChildrenResolver<IDTYPE, BEANTYPE>> resolvers = new ArrayList<ChildrenResolver<IDTYPE, BEANTYPE>>();
+		for (int from = 0; from < beans.size(); from += chunkSize) {
+			resolvers.add(new ChildrenResolver<IDTYPE, BEANTYPE>(
+					hierarchicalBeanBuilder, beans.subList(from,
+							Math.min(from + chunkSize, beans.size()))));
+		}
+		List<Collection<IDTYPE>> children = new ArrayList<Collection<IDTYPE>>(
+				beans.size());
+		try {
+			for (Future<List<Collection<IDTYPE>>> future : executor
+					.invokeAll(resolvers)) {
+				children.addAll(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"interrupted while resolving children.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("cannot resolve children.", cause);
+		}
+		return children;
+	}
+
+	private void clearPending() {
+		pendingBeans = null;
+		pendingItemId = null;
+		pendingRemoval = false;
+		pendingRemoveAll = false;
 	}
 
 	// Getter and Setter
@@ -134,15 +442,62 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 	public void setHierarchicalBeanBuilder(
 			HierarchicalBeanBuilder<IDTYPE, BEANTYPE> hierarchicalBeanBuilder) {
 		this.hierarchicalBeanBuilder = hierarchicalBeanBuilder;
+		if (container.size() > 0) {
+			rebuildHierarchy();
+		}
+	}
+
+	/**
+	 * Set the executor used to call the {@link HierarchicalBeanBuilder} in
+	 * parallel, when the hierarchy is built for at least
+	 * {@link #DEFAULT_PARALLEL_THRESHOLD} beans. The links are always applied
+	 * on the calling thread.
+	 * 
+	 * @param childrenExecutor
+	 *            the executor, or null to resolve children sequentially.
+	 */
+	public void setChildrenExecutor(ExecutorService childrenExecutor) {
+		setChildrenExecutor(childrenExecutor, DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Set the executor used to call the {@link HierarchicalBeanBuilder} in
+	 * parallel, when the hierarchy is built for at least parallelThreshold
+	 * beans. The links are always applied on the calling thread.
+	 * 
+	 * @param childrenExecutor
+	 *            the executor, or null to resolve children sequentially.
+	 * @param parallelThreshold
+	 *            the minimum number of beans to resolve them in parallel.
+	 * @throws IllegalArgumentException
+	 *             if parallelThreshold is lower than 1.
+	 */
+	public void setChildrenExecutor(ExecutorService childrenExecutor,
+			int parallelThreshold) {
+		if (parallelThreshold < 1) {
+			throw new IllegalArgumentException(
+					"parallelThreshold must be greater than 0.");
+		}
+		this.childrenExecutor = childrenExecutor;
+		this.parallelThreshold = parallelThreshold;
 	}
 
 	/**
-	 * Get the {@link ContainerHierarchicalWrapper} wrapper
+	 * Get the executor used to resolve children in parallel.
 	 * 
-	 * @return the wrapper
+	 * @return the executor (might be null).
 	 */
-	protected ContainerHierarchicalWrapper getWrapper() {
-		return wrapper;
+	public ExecutorService getChildrenExecutor() {
+		return childrenExecutor;
+	}
+
+	/**
+	 * Get the minimum number of beans to resolve their children in parallel.
+	 * 
+	 * @return the parallel threshold.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
 	}
 
 	/**
@@ -163,65 +518,80 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 		return hierarchicalBeanBuilder;
 	}
 
-	// wrapper forwarding
+	// hierarchy forwarding
 	@Override
 	public Collection<?> getChildren(Object itemId) {
-		return wrapper.getChildren(itemId);
+		return hierarchy.getChildren(itemId);
 	}
 
 	@Override
 	public Object getParent(Object itemId) {
-		return wrapper.getParent(itemId);
+		return hierarchy.getParent(itemId);
 	}
 
 	@Override
 	public Collection<?> rootItemIds() {
-		return wrapper.rootItemIds();
+		return hierarchy.rootItemIds();
 	}
 
 	@Override
 	public boolean setParent(Object itemId, Object newParentId)
 			throws UnsupportedOperationException {
-		return wrapper.setParent(itemId, newParentId);
+		return hierarchy.setParent(itemId, newParentId);
 	}
 
 	@Override
 	public boolean areChildrenAllowed(Object itemId) {
-		return wrapper.areChildrenAllowed(itemId);
+		return hierarchy.areChildrenAllowed(itemId);
 	}
 
 	@Override
 	public boolean setChildrenAllowed(Object itemId, boolean areChildrenAllowed)
 			throws UnsupportedOperationException {
-		return wrapper.setChildrenAllowed(itemId, areChildrenAllowed);
+		return hierarchy.setChildrenAllowed(itemId, areChildrenAllowed);
 	}
 
 	@Override
 	public boolean isRoot(Object itemId) {
-		return wrapper.isRoot(itemId);
+		return hierarchy.isRoot(itemId);
 	}
 
 	@Override
 	public boolean hasChildren(Object itemId) {
-		return wrapper.hasChildren(itemId);
+		return hierarchy.hasChildren(itemId);
 	}
 
 	// container forwarding
 	@Override
 	public BeanItem<BEANTYPE> addItem(IDTYPE itemId, BEANTYPE bean) {
-		return container.addItem(itemId, bean);
+		pendingItemId = itemId;
+		try {
+			return container.addItem(itemId, bean);
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
 	public BeanItem<BEANTYPE> addItemAfter(IDTYPE previousItemId,
 			IDTYPE newItemId, BEANTYPE bean) {
-		return container.addItemAfter(previousItemId, newItemId, bean);
+		pendingItemId = newItemId;
+		try {
+			return container.addItemAfter(previousItemId, newItemId, bean);
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
 	public BeanItem<BEANTYPE> addItemAt(int index, IDTYPE newItemId,
 			BEANTYPE bean) {
-		return container.addItemAt(index, newItemId, bean);
+		pendingItemId = newItemId;
+		try {
+			return container.addItemAt(index, newItemId, bean);
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
@@ -236,25 +606,45 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 	@Override
 	public BeanItem<BEANTYPE> addBean(BEANTYPE bean)
 			throws IllegalStateException, IllegalArgumentException {
-		return container.addBean(bean);
+		pendingBeans = Collections.singletonList(bean);
+		try {
+			return container.addBean(bean);
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
 	public BeanItem<BEANTYPE> addBeanAfter(IDTYPE previousItemId, BEANTYPE bean)
 			throws IllegalStateException, IllegalArgumentException {
-		return container.addBeanAfter(previousItemId, bean);
+		pendingBeans = Collections.singletonList(bean);
+		try {
+			return container.addBeanAfter(previousItemId, bean);
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
 	public BeanItem<BEANTYPE> addBeanAt(int index, BEANTYPE bean)
 			throws IllegalStateException, IllegalArgumentException {
-		return container.addBeanAt(index, bean);
+		pendingBeans = Collections.singletonList(bean);
+		try {
+			return container.addBeanAt(index, bean);
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
 	public void addAll(Collection<? extends BEANTYPE> collection)
 			throws IllegalStateException {
-		container.addAll(collection);
+		pendingBeans = collection;
+		try {
+			container.addAll(collection);
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
@@ -274,7 +664,12 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 
 	@Override
 	public boolean removeAllItems() {
-		return container.removeAllItems();
+		pendingRemoveAll = true;
+		try {
+			return container.removeAllItems();
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
@@ -294,7 +689,13 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 
 	@Override
 	public boolean removeItem(Object itemId) {
-		return container.removeItem(itemId);
+		pendingItemId = itemId;
+		pendingRemoval = true;
+		try {
+			return container.removeItem(itemId);
+		} finally {
+			clearPending();
+		}
 	}
 
 	@Override
@@ -330,6 +731,83 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 		container.removeContainerFilter(filter);
 	}
 
+	/**
+	 * Mark a property as indexed (or not) for the string filters, if the
+	 * wrapped container is an {@link AliasBeanContainer}.
+	 * 
+	 * @param propertyId
+	 *            The property identifier
+	 * @param indexed
+	 *            true to index the property
+	 * @throws UnsupportedOperationException
+	 *             if the wrapped container does not support filter indexes
+	 * 
+	 * @see AliasBeanContainer#setFilterIndexed(Object, boolean)
+	 * @since 0.4.0
+	 */
+	public void setFilterIndexed(Object propertyId, boolean indexed) {
+		getAliasContainer().setFilterIndexed(propertyId, indexed);
+	}
+
+	/**
+	 * Tell if a property is indexed for the string filters.
+	 * 
+	 * @param propertyId
+	 *            The property identifier
+	 * @return true if the property is indexed
+	 * 
+	 * @see AliasBeanContainer#isFilterIndexed(Object)
+	 * @since 0.4.0
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean isFilterIndexed(Object propertyId) {
+		return (container instanceof AliasBeanContainer)
+				&& ((AliasBeanContainer<IDTYPE, BEANTYPE>) container)
+						.isFilterIndexed(propertyId);
+	}
+
+	/**
+	 * Drop the content of the filter indexes, to be built again on the next
+	 * filter.
+	 * 
+	 * @see AliasBeanContainer#invalidateFilterIndexes()
+	 * @since 0.4.0
+	 */
+	public void invalidateFilterIndexes() {
+		getAliasContainer().invalidateFilterIndexes();
+	}
+
+	/**
+	 * Set the executor used to evaluate the filters of the wrapped container
+	 * in parallel, when it is filtered on at least parallelFilterThreshold
+	 * items.
+	 * 
+	 * @param filterExecutor
+	 *            the executor, or null to filter sequentially.
+	 * @param parallelFilterThreshold
+	 *            the minimum number of items to filter them in parallel.
+	 * @throws UnsupportedOperationException
+	 *             if the wrapped container is not an
+	 *             {@link AliasBeanContainer}
+	 * 
+	 * @see AliasBeanContainer#setFilterExecutor(ExecutorService, int)
+	 * @since 0.4.0
+	 */
+	public void setFilterExecutor(ExecutorService filterExecutor,
+			int parallelFilterThreshold) {
+		getAliasContainer().setFilterExecutor(filterExecutor,
+				parallelFilterThreshold);
+	}
+
+	@SuppressWarnings("unchecked")
+	private AliasBeanContainer<IDTYPE, BEANTYPE> getAliasContainer() {
+		if (!(container instanceof AliasBeanContainer)) {
+			throw new UnsupportedOperationException(
+					"The wrapped container is not an AliasBeanContainer.");
+		}
+		return (AliasBeanContainer<IDTYPE, BEANTYPE>) container;
+	}
+
 	@Override
 	public Collection<?> getSortableContainerPropertyIds() {
 		return container.getSortableContainerPropertyIds();
@@ -494,4 +972,31 @@ public abstract class AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>
 		}
 		return false;
 	}
+
+	/**
+	 * Call the {@link HierarchicalBeanBuilder} on a list of beans.
+	 */
+	private static final class ChildrenResolver<IDTYPE, BEANTYPE> implements
+			Callable<List<Collection<IDTYPE>>> {
+
+		private final HierarchicalBeanBuilder<IDTYPE, BEANTYPE> builder;
+		private final List<BEANTYPE> beans;
+
+		private ChildrenResolver(
+				HierarchicalBeanBuilder<IDTYPE, BEANTYPE> builder,
+				List<BEANTYPE> beans) {
+			this.builder = builder;
+			this.beans = beans;
+		}
+
+		@Override
+		public List<Collection<IDTYPE>> call() {
+			List<Collection<IDTYPE>> children = new ArrayList<Collection<IDTYPE>>(
+					beans.size());
+			for (BEANTYPE bean : beans) {
+				children.add(builder.getChildren(bean));
+			}
+			return children;
+		}
+	}
 }
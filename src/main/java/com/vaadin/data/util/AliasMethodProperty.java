@@ -0,0 +1,132 @@
+package com.vaadin.data.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.xgbi.vaadin.container.metrics.PropertyProfile;
+import org.xgbi.vaadin.container.metrics.PropertyProfiler;
+
+import com.vaadin.data.util.MethodProperty.MethodException;
+
+/**
+ * Lightweight shortcut property, created by an {@link AliasPropertyDescriptor}.
+ * 
+ * It only holds the bean and its descriptor, the getter (and setter) chain being resolved once by the descriptor. If
+ * an intermediate bean of the chain is null, the value of the property is null.
+ * 
+ * @param <T>
+ *            property type
+ * 
+ * @since 0.4.0
+ * 
+ * @see AliasPropertyDescriptor
+ */
+@SuppressWarnings("unchecked")
+public class AliasMethodProperty<T> extends AbstractProperty<T> {
+
+    private static final long serialVersionUID = -3287265394431297418L;
+
+    private final Object instance;
+    private final AliasPropertyDescriptor<?> descriptor;
+
+    /**
+     * Create an {@link AliasMethodProperty}.
+     * 
+     * @param instance
+     *            the bean.
+     * @param descriptor
+     *            the descriptor of the property.
+     */
+    AliasMethodProperty(Object instance, AliasPropertyDescriptor<?> descriptor) {
+        this.instance = instance;
+        this.descriptor = descriptor;
+    }
+
+    @Override
+    public Class<? extends T> getType() {
+        return (Class<? extends T>) descriptor.getPropertyType();
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return super.isReadOnly() || (null == descriptor.getSetMethod());
+    }
+
+    @Override
+    public T getValue() {
+        PropertyProfiler profiler = PropertyProfiler.getInstalled();
+        if (profiler == null) {
+            return readValue();
+        }
+        PropertyProfile profile = descriptor.getProfile(profiler);
+        boolean sampled = profile.sample();
+        long start = sampled ? System.nanoTime() : 0L;
+        boolean failed = true;
+        try {
+            T value = readValue();
+            failed = false;
+            return value;
+        } finally {
+            if (failed) {
+                profile.failure();
+            } else if (sampled) {
+                profile.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Walk the getter chain.
+     */
+    private T readValue() {
+        Object object = instance;
+        try {
+            for (Method m : descriptor.getGetMethods()) {
+                if (object == null) {
+                    return null;
+                }
+                object = m.invoke(object);
+            }
+        } catch (final InvocationTargetException e) {
+            throw new MethodException(this, e.getTargetException());
+        } catch (final Exception e) {
+            throw new MethodException(this, e);
+        }
+        return (T) object;
+    }
+
+    @Override
+    public void setValue(T newValue) throws ReadOnlyException {
+        // Checks the mode
+        if (isReadOnly()) {
+            throw new ReadOnlyException();
+        }
+        Method[] getMethods = descriptor.getGetMethods();
+        Object object = instance;
+        try {
+            for (int i = 0; i < getMethods.length - 1 && object != null; i++) {
+                object = getMethods[i].invoke(object);
+            }
+            if (object == null) {
+                throw new MethodException(this, "Cannot set '" + descriptor.getPath()
+                        + "', an intermediate bean is null");
+            }
+            descriptor.getSetMethod().invoke(object, new Object[] { newValue });
+        } catch (final InvocationTargetException e) {
+            throw new MethodException(this, e.getTargetException());
+        } catch (final IllegalAccessException e) {
+            throw new MethodException(this, e);
+        }
+        fireValueChange();
+    }
+
+    /**
+     * Get the bean of this property.
+     * 
+     * @return the bean.
+     */
+    public Object getInstance() {
+        return instance;
+    }
+
+}
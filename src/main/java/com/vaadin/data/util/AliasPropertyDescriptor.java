@@ -1,5 +1,11 @@
 package com.vaadin.data.util;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import org.xgbi.vaadin.container.metrics.PropertyProfile;
+import org.xgbi.vaadin.container.metrics.PropertyProfiler;
+
 import com.vaadin.data.Property;
 
 /**
@@ -8,6 +14,9 @@ import com.vaadin.data.Property;
  * The property path is specified in the dotted notation, e.g. "address.street", and can contain multiple levels of nesting. The property
  * name can be anything (but a String).
  * 
+ * The getter (and setter) chain is resolved once, when the descriptor is created ; the created properties (
+ * {@link AliasMethodProperty}) only hold the bean and share this chain.
+ * 
  * @param <BT>
  *            bean type
  * 
@@ -23,7 +32,20 @@ public class AliasPropertyDescriptor<BT> implements VaadinPropertyDescriptor<BT>
 
     private final String name;
     private final String path;
-    private final Class<?> propertyType;
+    private final Class<BT> beanType;
+    private final Class<?> containerType;
+    private Class<?> propertyType;
+
+    /*
+     * Methods are not serializable, they are resolved again on read based on beanType and path.
+     */
+    private transient Method[] getMethods;
+    private transient Method setMethod;
+
+    /**
+     * The profile of the properties, for the last installed {@link PropertyProfiler}.
+     */
+    private transient volatile PropertyProfile profile;
 
     /**
      * Create a {@link AliasPropertyDescriptor}.
@@ -34,12 +56,77 @@ public class AliasPropertyDescriptor<BT> implements VaadinPropertyDescriptor<BT>
      *            The path of the real property
      * @param beanType
      *            the type of bean to look for this property
+     * @throws IllegalArgumentException
+     *             if the path is not valid for the given bean type.
      */
     public AliasPropertyDescriptor(String name, String path, Class<BT> beanType) {
+        this(name, path, beanType, null);
+    }
+
+    /**
+     * Create a {@link AliasPropertyDescriptor}.
+     * 
+     * @param name
+     *            The given name of the property
+     * @param path
+     *            The path of the real property
+     * @param beanType
+     *            the type of bean to look for this property
+     * @param containerType
+     *            the type of the container that holds the properties, reported to the
+     *            {@link org.xgbi.vaadin.container.metrics.PropertyProfiler} (might be null)
+     * @throws IllegalArgumentException
+     *             if the path is not valid for the given bean type.
+     */
+    public AliasPropertyDescriptor(String name, String path, Class<BT> beanType, Class<?> containerType) {
         this.name = name;
         this.path = path;
-        NestedMethodProperty property = new NestedMethodProperty(beanType, path);
-        this.propertyType = property.getType();
+        this.beanType = beanType;
+        this.containerType = containerType;
+        initialize();
+    }
+
+    /* Special serialization to handle method references */
+    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initialize();
+    }
+
+    /**
+     * Resolve the getter chain, the setter and the type of the property.
+     */
+    private void initialize() {
+        String[] simplePropertyNames = path.split("\\.");
+        if (path.endsWith(".") || 0 == simplePropertyNames.length) {
+            throw new IllegalArgumentException("Invalid property name '" + path + "'");
+        }
+        Method[] getters = new Method[simplePropertyNames.length];
+        Class<?> propertyClass = beanType;
+        Class<?> lastClass = beanType;
+        String lastSimplePropertyName = null;
+        for (int i = 0; i < simplePropertyNames.length; i++) {
+            String simplePropertyName = simplePropertyNames[i].trim();
+            if (simplePropertyName.length() == 0) {
+                throw new IllegalArgumentException("Empty or invalid bean property identifier in '" + path + "'");
+            }
+            lastSimplePropertyName = simplePropertyName;
+            lastClass = propertyClass;
+            try {
+                getters[i] = MethodProperty.initGetterMethod(simplePropertyName, propertyClass);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Bean property '" + simplePropertyName + "' not found", e);
+            }
+            propertyClass = getters[i].getReturnType();
+        }
+        Method setter = null;
+        try {
+            setter = lastClass.getMethod("set" + Character.toUpperCase(lastSimplePropertyName.charAt(0))
+                    + lastSimplePropertyName.substring(1), propertyClass);
+        } catch (NoSuchMethodException skipped) {
+        }
+        this.getMethods = getters;
+        this.setMethod = setter;
+        this.propertyType = MethodProperty.convertPrimitiveType(propertyClass);
     }
 
     @Override
@@ -53,8 +140,51 @@ public class AliasPropertyDescriptor<BT> implements VaadinPropertyDescriptor<BT>
     }
 
     @Override
-    public Property createProperty(BT bean) {
-        return new NestedMethodProperty(bean, path);
+    public Property<?> createProperty(BT bean) {
+        return new AliasMethodProperty<Object>(bean, this);
+    }
+
+    /**
+     * Get the path of the real property.
+     * 
+     * @return the path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Get the profile of the properties for the given profiler, looked up once per profiler.
+     * 
+     * @param profiler
+     *            the installed profiler.
+     * @return the profile.
+     */
+    PropertyProfile getProfile(PropertyProfiler profiler) {
+        PropertyProfile current = profile;
+        if (current == null || current.getProfiler() != profiler) {
+            current = profiler.getProfile(beanType, containerType, name, path);
+            profile = current;
+        }
+        return current;
+    }
+
+    /**
+     * Get the resolved getter chain (shared, must not be modified).
+     * 
+     * @return the getter chain.
+     */
+    Method[] getGetMethods() {
+        return getMethods;
+    }
+
+    /**
+     * Get the resolved setter.
+     * 
+     * @return the setter, or null if the property is read-only.
+     */
+    Method getSetMethod() {
+        return setMethod;
     }
 
 }
@@ -0,0 +1,204 @@
+package com.vaadin.data.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.Property;
+
+/**
+ * Update the items of an {@link AbstractBeanContainer} from a collection of
+ * beans, keyed by item identifier (as resolved by the
+ * {@link AbstractBeanContainer.BeanIdResolver} of the container).
+ *
+ * <p>
+ * Only the differences are applied: the items whose identifier is not
+ * resolved by any bean are removed, the items whose property values changed
+ * are replaced (at the same position), and the new beans are added after the
+ * item of the bean that precedes them. Kept items are not moved, and an item
+ * whose bean is another instance with the same property values is kept as is
+ * (with its bean). Listeners are only notified once, with a single
+ * ItemSetChange event, and only if something changed.
+ *
+ * The merge is linear in the number of items and beans: the removals and
+ * insertions rebuild the item list once.
+ * </p>
+ *
+ * @since 0.4.0
+ */
+public final class BeanContainerMerger {
+
+    /**
+     * Private constructor to force the non-instantiation of this class.
+     */
+    private BeanContainerMerger() {
+    }
+
+    /**
+     * Merge the given beans into the given container.
+     *
+     * If the container is an {@link AbstractHierarchicalBeanContainer}, the
+     * wrapped container is updated and the hierarchy is rebuilt once.
+     *
+     * @param container
+     *            the container to be updated.
+     * @param beans
+     *            the beans (might be null, the container is then emptied).
+     * @return true if the container has been modified.
+     * @throws IllegalArgumentException
+     *             if container is null, or if a bean identifier is resolved to
+     *             null.
+     * @throws IllegalStateException
+     *             if the container has no bean identifier resolver.
+     */
+    @SuppressWarnings("unchecked")
+    public static <IDTYPE, BEANTYPE> boolean merge(AbstractBeanContainer<IDTYPE, BEANTYPE> container,
+            Collection<? extends BEANTYPE> beans) {
+        if (container == null) {
+            throw new IllegalArgumentException("container cannot be null.");
+        }
+        if (container instanceof AbstractHierarchicalBeanContainer<?, ?>) {
+            return merge(((AbstractHierarchicalBeanContainer<IDTYPE, BEANTYPE>) container).getContainer(), beans);
+        }
+        // The beans, by item identifier
+        Map<IDTYPE, BEANTYPE> targets = new LinkedHashMap<IDTYPE, BEANTYPE>();
+        if (beans != null) {
+            for (BEANTYPE bean : beans) {
+                // Skip invalid beans, like addAll
+                if (bean == null || !container.getBeanType().isAssignableFrom(bean.getClass())) {
+                    continue;
+                }
+                IDTYPE itemId = container.resolveBeanId(bean);
+                if (itemId == null) {
+                    throw new IllegalArgumentException("Resolved identifier for a bean must not be null");
+                }
+                if (!targets.containsKey(itemId)) {
+                    targets.put(itemId, bean);
+                }
+            }
+        }
+        Collection<Container.ItemSetChangeListener> listeners = container.getItemSetChangeListeners();
+        container.setItemSetChangeListeners(null);
+        boolean modified = false;
+        try {
+            modified = apply(container, targets);
+        } finally {
+            // Listeners added meanwhile
+            Collection<Container.ItemSetChangeListener> added = container.getItemSetChangeListeners();
+            container.setItemSetChangeListeners(listeners);
+            if (added != null) {
+                for (Container.ItemSetChangeListener listener : added) {
+                    container.addItemSetChangeListener(listener);
+                }
+            }
+        }
+        if (modified) {
+            container.fireItemSetChange();
+        }
+        return modified;
+    }
+
+    private static <IDTYPE, BEANTYPE> boolean apply(AbstractBeanContainer<IDTYPE, BEANTYPE> container,
+            Map<IDTYPE, BEANTYPE> targets) {
+        List<IDTYPE> currentItemIds = new ArrayList<IDTYPE>(container.getAllItemIds());
+        // The items once merged, by item identifier
+        Map<IDTYPE, BeanItem<BEANTYPE>> items = new HashMap<IDTYPE, BeanItem<BEANTYPE>>(targets.size() * 4 / 3 + 1);
+        // The replaced items, by position
+        Map<Integer, IDTYPE> replaced = new LinkedHashMap<Integer, IDTYPE>();
+        boolean removed = false;
+        for (int i = 0; i < currentItemIds.size(); i++) {
+            IDTYPE itemId = currentItemIds.get(i);
+            BEANTYPE bean = targets.get(itemId);
+            if (bean == null) {
+                removed = true;
+                continue;
+            }
+            BeanItem<BEANTYPE> item = container.getUnfilteredItem(itemId);
+            if (item.getBean() != bean) {
+                BeanItem<BEANTYPE> newItem = container.createBeanItem(bean);
+                if (!hasSameValues(container, item, newItem)) {
+                    item = newItem;
+                    replaced.put(i, itemId);
+                }
+            }
+            items.put(itemId, item);
+        }
+        // Added beans, after the kept item of the bean that precedes them
+        List<IDTYPE> addedFirst = new ArrayList<IDTYPE>();
+        Map<IDTYPE, List<IDTYPE>> addedAfter = new HashMap<IDTYPE, List<IDTYPE>>();
+        IDTYPE previousItemId = null;
+        for (Entry<IDTYPE, BEANTYPE> entry : targets.entrySet()) {
+            IDTYPE itemId = entry.getKey();
+            if (items.containsKey(itemId)) {
+                previousItemId = itemId;
+                continue;
+            }
+            items.put(itemId, container.createBeanItem(entry.getValue()));
+            List<IDTYPE> added = addedFirst;
+            if (previousItemId != null) {
+                added = addedAfter.get(previousItemId);
+                if (added == null) {
+                    added = new ArrayList<IDTYPE>(2);
+                    addedAfter.put(previousItemId, added);
+                }
+            }
+            added.add(itemId);
+        }
+        boolean structural = removed || !addedFirst.isEmpty() || !addedAfter.isEmpty();
+        if (!structural && replaced.isEmpty()) {
+            return false;
+        }
+        if (structural) {
+            // Rebuild the item list in one pass (the removal or insertion of
+            // each item would be linear)
+            List<IDTYPE> itemIds = new ArrayList<IDTYPE>(items.size());
+            itemIds.addAll(addedFirst);
+            for (IDTYPE itemId : currentItemIds) {
+                if (items.containsKey(itemId)) {
+                    itemIds.add(itemId);
+                    List<IDTYPE> added = addedAfter.get(itemId);
+                    if (added != null) {
+                        itemIds.addAll(added);
+                    }
+                }
+            }
+            container.removeAllItems();
+            container.getAllItemIds().addAll(itemIds);
+            for (int i = 0; i < itemIds.size(); i++) {
+                container.registerNewItem(i, itemIds.get(i), items.get(itemIds.get(i)));
+            }
+        } else {
+            // Swap the items in place
+            for (Entry<Integer, IDTYPE> entry : replaced.entrySet()) {
+                container.registerNewItem(entry.getKey(), entry.getValue(), items.get(entry.getValue()));
+            }
+        }
+        if (container.isFiltered()) {
+            container.filterAll();
+        }
+        return true;
+    }
+
+    /**
+     * Tell if two items have the same values for all the properties of the
+     * container.
+     */
+    private static boolean hasSameValues(AbstractBeanContainer<?, ?> container, BeanItem<?> item,
+            BeanItem<?> other) {
+        for (Object propertyId : container.getContainerPropertyIds()) {
+            Property<?> property = item.getItemProperty(propertyId);
+            Property<?> otherProperty = other.getItemProperty(propertyId);
+            Object value = (property != null) ? property.getValue() : null;
+            Object otherValue = (otherProperty != null) ? otherProperty.getValue() : null;
+            if (value != otherValue && (value == null || !value.equals(otherValue))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
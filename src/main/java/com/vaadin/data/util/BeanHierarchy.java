@@ -0,0 +1,345 @@
+package com.vaadin.data.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parent/children relations of the items of an
+ * {@link AbstractHierarchicalBeanContainer}.
+ *
+ * <p>
+ * It has the same semantic as the non hierarchical mode of
+ * {@link ContainerHierarchicalWrapper} (roots and children are ordered as in
+ * the wrapped container) but it is updated item by item: adding, removing or
+ * moving an item does not walk the whole container. Each item has a position,
+ * given when it is added at the end of the container or by
+ * {@link #renumber(Collection)} ; root and children lists are kept ordered by
+ * position, the roots being sorted lazily.
+ * </p>
+ *
+ * @since 0.4.0
+ */
+final class BeanHierarchy implements Serializable {
+
+    private static final long serialVersionUID = 5930683146364916178L;
+
+    private final Map<Object, Integer> positions = new HashMap<Object, Integer>();
+    private final Map<Object, Object> parents = new HashMap<Object, Object>();
+    private final Map<Object, LinkedList<Object>> children = new HashMap<Object, LinkedList<Object>>();
+    private final Set<Object> noChildrenAllowed = new HashSet<Object>();
+    private LinkedHashSet<Object> roots = new LinkedHashSet<Object>();
+    private int maxRootPosition = -1;
+    private boolean rootsSorted = true;
+    private int nextPosition;
+
+    private final Comparator<Object> positionComparator = new PositionComparator();
+
+    /**
+     * Check if the given item is in the hierarchy.
+     *
+     * @param itemId
+     *            the item identifier.
+     * @return true if the item is in the hierarchy.
+     */
+    boolean contains(Object itemId) {
+        return itemId != null && positions.containsKey(itemId);
+    }
+
+    /**
+     * Get the number of items in the hierarchy.
+     *
+     * @return the number of items.
+     */
+    int size() {
+        return positions.size();
+    }
+
+    /**
+     * Remove all the items.
+     */
+    void clear() {
+        positions.clear();
+        parents.clear();
+        children.clear();
+        noChildrenAllowed.clear();
+        roots = new LinkedHashSet<Object>();
+        maxRootPosition = -1;
+        rootsSorted = true;
+        nextPosition = 0;
+    }
+
+    /**
+     * Replace the items of the hierarchy by the given ones, as roots.
+     *
+     * @param itemIds
+     *            the item identifiers, in order.
+     */
+    void reset(Collection<?> itemIds) {
+        clear();
+        for (Object itemId : itemIds) {
+            add(itemId);
+        }
+    }
+
+    /**
+     * Add an item, as a root, after all the others.
+     *
+     * @param itemId
+     *            the item identifier.
+     * @return false if the item was already in the hierarchy.
+     */
+    boolean add(Object itemId) {
+        if (itemId == null || positions.containsKey(itemId)) {
+            return false;
+        }
+        positions.put(itemId, nextPosition++);
+        addRoot(itemId);
+        return true;
+    }
+
+    /**
+     * Synchronize the hierarchy with the given items: items that are not in
+     * the given ones are removed, missing ones are added as roots, and
+     * positions follow the given order. Relations between items that are kept
+     * are not modified.
+     *
+     * @param itemIds
+     *            the item identifiers, in order.
+     */
+    void synchronize(Collection<?> itemIds) {
+        Set<Object> ids = new HashSet<Object>(itemIds);
+        for (Object itemId : new ArrayList<Object>(positions.keySet())) {
+            if (!ids.contains(itemId)) {
+                remove(itemId);
+            }
+        }
+        for (Object itemId : itemIds) {
+            add(itemId);
+        }
+        renumber(itemIds);
+    }
+
+    /**
+     * Give new positions to the items, following the given order. Items that
+     * are not in the hierarchy are ignored.
+     *
+     * @param itemIds
+     *            the item identifiers, in order.
+     */
+    void renumber(Collection<?> itemIds) {
+        nextPosition = 0;
+        for (Object itemId : itemIds) {
+            if (positions.containsKey(itemId)) {
+                positions.put(itemId, nextPosition++);
+            }
+        }
+        for (LinkedList<Object> list : children.values()) {
+            Collections.sort(list, positionComparator);
+        }
+        rootsSorted = false;
+    }
+
+    /**
+     * Remove an item ; its children become roots.
+     *
+     * @param itemId
+     *            the item identifier.
+     * @return false if the item was not in the hierarchy.
+     */
+    boolean remove(Object itemId) {
+        if (!contains(itemId)) {
+            return false;
+        }
+        LinkedList<Object> orphans = children.remove(itemId);
+        if (orphans != null) {
+            for (Object orphan : orphans) {
+                parents.remove(orphan);
+                addRoot(orphan);
+            }
+        }
+        Object parent = parents.remove(itemId);
+        if (parent != null) {
+            removeChild(parent, itemId);
+        } else {
+            roots.remove(itemId);
+        }
+        noChildrenAllowed.remove(itemId);
+        positions.remove(itemId);
+        return true;
+    }
+
+    /**
+     * @see com.vaadin.data.Container.Hierarchical#setParent(Object, Object)
+     */
+    boolean setParent(Object itemId, Object newParentId) {
+        if (!contains(itemId)) {
+            return false;
+        }
+        Object oldParentId = parents.get(itemId);
+        if ((newParentId == null && oldParentId == null)
+                || (newParentId != null && newParentId.equals(oldParentId))) {
+            return true;
+        }
+        if (newParentId != null) {
+            if (!contains(newParentId) || noChildrenAllowed.contains(newParentId)) {
+                return false;
+            }
+            // Check that setting parent doesn't result to a loop
+            Object o = newParentId;
+            while (o != null && !o.equals(itemId)) {
+                o = parents.get(o);
+            }
+            if (o != null) {
+                return false;
+            }
+        }
+        if (oldParentId == null) {
+            roots.remove(itemId);
+        } else {
+            removeChild(oldParentId, itemId);
+        }
+        if (newParentId == null) {
+            parents.remove(itemId);
+            addRoot(itemId);
+        } else {
+            parents.put(itemId, newParentId);
+            addChild(newParentId, itemId);
+        }
+        return true;
+    }
+
+    /**
+     * @see com.vaadin.data.Container.Hierarchical#setChildrenAllowed(Object,
+     *      boolean)
+     */
+    boolean setChildrenAllowed(Object itemId, boolean childrenAllowed) {
+        if (!contains(itemId)) {
+            return false;
+        }
+        if (childrenAllowed) {
+            noChildrenAllowed.remove(itemId);
+        } else {
+            noChildrenAllowed.add(itemId);
+        }
+        return true;
+    }
+
+    /**
+     * @see com.vaadin.data.Container.Hierarchical#areChildrenAllowed(Object)
+     */
+    boolean areChildrenAllowed(Object itemId) {
+        return contains(itemId) && !noChildrenAllowed.contains(itemId);
+    }
+
+    /**
+     * @see com.vaadin.data.Container.Hierarchical#getChildren(Object)
+     */
+    Collection<?> getChildren(Object itemId) {
+        Collection<?> c = children.get(itemId);
+        if (c == null) {
+            return null;
+        }
+        return Collections.unmodifiableCollection(c);
+    }
+
+    /**
+     * @see com.vaadin.data.Container.Hierarchical#getParent(Object)
+     */
+    Object getParent(Object itemId) {
+        return parents.get(itemId);
+    }
+
+    /**
+     * @see com.vaadin.data.Container.Hierarchical#hasChildren(Object)
+     */
+    boolean hasChildren(Object itemId) {
+        LinkedList<Object> list = children.get(itemId);
+        return list != null && !list.isEmpty();
+    }
+
+    /**
+     * @see com.vaadin.data.Container.Hierarchical#isRoot(Object)
+     */
+    boolean isRoot(Object itemId) {
+        return contains(itemId) && !parents.containsKey(itemId);
+    }
+
+    /**
+     * @see com.vaadin.data.Container.Hierarchical#rootItemIds()
+     */
+    Collection<?> rootItemIds() {
+        if (!rootsSorted) {
+            List<Object> sorted = new ArrayList<Object>(roots);
+            Collections.sort(sorted, positionComparator);
+            roots = new LinkedHashSet<Object>(sorted);
+            maxRootPosition = sorted.isEmpty() ? -1 : positions.get(sorted.get(sorted.size() - 1));
+            rootsSorted = true;
+        }
+        return Collections.unmodifiableCollection(roots);
+    }
+
+    private void addRoot(Object itemId) {
+        // Roots stay sorted as long as they are added in increasing position
+        int position = positions.get(itemId);
+        if (position < maxRootPosition) {
+            rootsSorted = false;
+        } else {
+            maxRootPosition = position;
+        }
+        roots.add(itemId);
+    }
+
+    private void addChild(Object parentId, Object itemId) {
+        LinkedList<Object> list = children.get(parentId);
+        if (list == null) {
+            list = new LinkedList<Object>();
+            children.put(parentId, list);
+        }
+        // Children are usually added in order, look for the position from the
+        // end
+        ListIterator<Object> it = list.listIterator(list.size());
+        while (it.hasPrevious()) {
+            if (positionComparator.compare(it.previous(), itemId) < 0) {
+                it.next();
+                break;
+            }
+        }
+        it.add(itemId);
+    }
+
+    private void removeChild(Object parentId, Object itemId) {
+        LinkedList<Object> list = children.get(parentId);
+        if (list != null) {
+            list.remove(itemId);
+            if (list.isEmpty()) {
+                children.remove(parentId);
+            }
+        }
+    }
+
+    /**
+     * Compare items by position.
+     */
+    private final class PositionComparator implements Comparator<Object>, Serializable {
+
+        private static final long serialVersionUID = -2542516385130883004L;
+
+        @Override
+        public int compare(Object o1, Object o2) {
+            int p1 = positions.get(o1);
+            int p2 = positions.get(o2);
+            return (p1 < p2) ? -1 : ((p1 == p2) ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.vaadin.data.util;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xgbi.vaadin.container.property.PropertyMetadata;
+
+/**
+ * Immutable template of the property descriptors of a bean class, used to
+ * create {@link BeanItem} without any introspection.
+ *
+ * The descriptors (bean properties and, if asked, alias properties) are
+ * computed once when the template is created ; {@link #newItem(Object)} then
+ * only creates the properties of the new item.
+ *
+ * @param <BT>
+ *            bean type
+ *
+ * @since 0.4.0
+ */
+public final class BeanItemTemplate<BT> implements Serializable {
+
+    private static final long serialVersionUID = 2967407285712371564L;
+
+    private final Class<BT> beanClass;
+    private final Map<String, VaadinPropertyDescriptor<BT>> propertyDescriptors;
+
+    /**
+     * Create a {@link BeanItemTemplate}.
+     *
+     * @param beanClass
+     *            the type of the bean.
+     * @param properties
+     *            the properties (might be null) ; properties with an attribute
+     *            are added as {@link AliasPropertyDescriptor} if alias is true.
+     * @param alias
+     *            true to add the alias properties.
+     * @throws IllegalArgumentException
+     *             if beanClass is null.
+     */
+    public BeanItemTemplate(Class<BT> beanClass, List<PropertyMetadata> properties, boolean alias) {
+        this(beanClass, properties, alias, null);
+    }
+
+    /**
+     * Create a {@link BeanItemTemplate}.
+     *
+     * @param beanClass
+     *            the type of the bean.
+     * @param properties
+     *            the properties (might be null) ; properties with an attribute
+     *            are added as {@link AliasPropertyDescriptor} if alias is true.
+     * @param alias
+     *            true to add the alias properties.
+     * @param containerType
+     *            the type of the container of the items (might be null).
+     * @throws IllegalArgumentException
+     *             if beanClass is null.
+     */
+    public BeanItemTemplate(Class<BT> beanClass, List<PropertyMetadata> properties, boolean alias,
+            Class<?> containerType) {
+        if (beanClass == null) {
+            throw new IllegalArgumentException("beanClass cannot be null.");
+        }
+        this.beanClass = beanClass;
+        LinkedHashMap<String, VaadinPropertyDescriptor<BT>> descriptors = BeanItem.getPropertyDescriptors(beanClass);
+        if (alias && properties != null) {
+            for (PropertyMetadata property : properties) {
+                if (property.getPropertyAttribute() != null) {
+                    descriptors.put(property.getPropertyName(),
+                            new AliasPropertyDescriptor<BT>(property.getPropertyName(), property.getPropertyAttribute(),
+                                    beanClass, containerType));
+                }
+            }
+        }
+        this.propertyDescriptors = Collections.unmodifiableMap(descriptors);
+    }
+
+    /**
+     * Create a new {@link BeanItem} for the given bean.
+     *
+     * @param bean
+     *            the bean.
+     * @return the new item.
+     */
+    public BeanItem<BT> newItem(BT bean) {
+        return new BeanItem<BT>(bean, propertyDescriptors);
+    }
+
+    /**
+     * Get the type of the bean.
+     *
+     * @return the type of the bean.
+     */
+    public Class<BT> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Get the property descriptors (immutable), by property name.
+     *
+     * @return the property descriptors.
+     */
+    public Map<String, VaadinPropertyDescriptor<BT>> getPropertyDescriptors() {
+        return propertyDescriptors;
+    }
+}
@@ -1,5 +1,6 @@
 package com.vaadin.data.util;
 
+import org.xgbi.vaadin.container.AliasBeanContainer;
 import org.xgbi.vaadin.container.property.HierarchicalBeanBuilder;
 
 import com.vaadin.data.Container.Hierarchical;
@@ -36,7 +37,7 @@ public class HierarchicalBeanContainer<IDTYPE, BEANTYPE> extends AbstractHierarc
      *            The type of the Bean
      */
     public HierarchicalBeanContainer(Class<BEANTYPE> type) {
-        super(type, new BeanContainer<IDTYPE, BEANTYPE>(type));
+        super(type, new AliasBeanContainer<IDTYPE, BEANTYPE>(type));
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.vaadin.data.util;
 
+import org.xgbi.vaadin.container.AliasBeanItemContainer;
 import org.xgbi.vaadin.container.property.HierarchicalBeanBuilder;
 
 /**
@@ -32,7 +33,7 @@ public class HierarchicalBeanItemContainer<BEANTYPE> extends AbstractHierarchica
      *            The type of the Bean
      */
     public HierarchicalBeanItemContainer(Class<BEANTYPE> type) {
-        super(type, new BeanItemContainer<BEANTYPE>(type));
+        super(type, new AliasBeanItemContainer<BEANTYPE>(type));
     }
 
     /**
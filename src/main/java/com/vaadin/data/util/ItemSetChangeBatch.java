@@ -0,0 +1,73 @@
+package com.vaadin.data.util;
+
+import java.util.Collection;
+
+import com.vaadin.data.Container;
+
+/**
+ * Hold back the ItemSetChange events of a container during a batch of
+ * changes, so that its listeners are notified once at the end of the batch.
+ *
+ * <p>
+ * Only the containers extending {@link AbstractContainer} can be held back;
+ * the other containers keep firing their own events during the batch.
+ * </p>
+ *
+ * @since 0.4.0
+ */
+public final class ItemSetChangeBatch {
+
+    private final AbstractContainer container;
+
+    private final Collection<Container.ItemSetChangeListener> listeners;
+
+    private ItemSetChangeBatch(AbstractContainer container) {
+        this.container = container;
+        if (container != null) {
+            listeners = container.getItemSetChangeListeners();
+            container.setItemSetChangeListeners(null);
+        } else {
+            listeners = null;
+        }
+    }
+
+    /**
+     * Start a batch of changes on the given container.
+     *
+     * @param container
+     *            the container.
+     * @return the batch, to be ended once the changes are done.
+     * @throws IllegalArgumentException
+     *             if container is null.
+     */
+    public static ItemSetChangeBatch begin(Container container) {
+        if (container == null) {
+            throw new IllegalArgumentException("container cannot be null.");
+        }
+        return new ItemSetChangeBatch((container instanceof AbstractContainer) ? (AbstractContainer) container
+                : null);
+    }
+
+    /**
+     * End the batch: restore the listeners (along with the ones added during
+     * the batch) and notify them once if the items changed.
+     *
+     * @param modified
+     *            true if the items of the container changed.
+     */
+    public void end(boolean modified) {
+        if (container == null) {
+            return;
+        }
+        Collection<Container.ItemSetChangeListener> added = container.getItemSetChangeListeners();
+        container.setItemSetChangeListeners(listeners);
+        if (added != null) {
+            for (Container.ItemSetChangeListener listener : added) {
+                container.addItemSetChangeListener(listener);
+            }
+        }
+        if (modified) {
+            container.fireItemSetChange();
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package com.vaadin.data.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.xgbi.vaadin.container.property.BeanDataSource;
+import org.xgbi.vaadin.container.property.PropertyMetadata;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.ContainerHelpers;
+import com.vaadin.data.Item;
+import com.vaadin.data.Property;
+
+/**
+ * A read-only container that loads its beans lazily, page by page, from a
+ * {@link BeanDataSource}.
+ *
+ * <p>
+ * The item identifiers are the indexes of the beans (as {@link Integer}).
+ * Only the number of beans is asked first ; the pages of beans are fetched
+ * when their items are accessed, and kept in a least recently used cache of
+ * {@link #getMaxCachedPages()} pages. When a page is fetched, the next (or
+ * previous, when scrolling backward) {@link #getPrefetchPages()} pages are
+ * fetched with it, in a single call to the data source.
+ * </p>
+ *
+ * <p>
+ * Filtering and sorting are delegated to the data source: changing them
+ * drops the cached pages and fires an ItemSetChange event, like
+ * {@link #refresh()}.
+ * </p>
+ *
+ * <p>
+ * The properties are the ones of the given {@link PropertyMetadata} (those
+ * with an attribute being nested properties), or all the bean properties.
+ * </p>
+ *
+ * @param <BEANTYPE>
+ *            The type of the Bean
+ *
+ * @since 0.4.0
+ *
+ * @see BeanDataSource
+ */
+public class LazyBeanContainer<BEANTYPE> extends AbstractContainer implements Container.Indexed, Container.Sortable,
+        Container.Filterable, Container.ItemSetChangeNotifier {
+
+    private static final long serialVersionUID = 6519806436733561624L;
+
+    /**
+     * Default number of beans per page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Default maximum number of cached pages.
+     */
+    public static final int DEFAULT_MAX_CACHED_PAGES = 10;
+
+    /**
+     * Default number of pages fetched ahead.
+     */
+    public static final int DEFAULT_PREFETCH_PAGES = 1;
+
+    private final BeanDataSource<BEANTYPE> dataSource;
+
+    private final BeanItemTemplate<BEANTYPE> itemTemplate;
+
+    private final List<String> propertyIds;
+
+    private final List<Filter> filters = new LinkedList<Filter>();
+
+    private Object[] sortPropertyIds = new Object[0];
+
+    private boolean[] sortAscending = new boolean[0];
+
+    private final PageCache<BEANTYPE> pages = new PageCache<BEANTYPE>(DEFAULT_MAX_CACHED_PAGES);
+
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    private int prefetchPages = DEFAULT_PREFETCH_PAGES;
+
+    /**
+     * The number of beans, -1 if not counted yet.
+     */
+    private int size = -1;
+
+    /**
+     * The last accessed page, to guess the scrolling direction.
+     */
+    private int lastPage = -1;
+
+    /**
+     * Create a {@link LazyBeanContainer} with all the bean properties.
+     *
+     * @param type
+     *            The type of the Bean
+     * @param dataSource
+     *            The data source
+     * @throws IllegalArgumentException
+     *             if type or dataSource is null.
+     */
+    public LazyBeanContainer(Class<BEANTYPE> type, BeanDataSource<BEANTYPE> dataSource) {
+        this(type, dataSource, null);
+    }
+
+    /**
+     * Create a {@link LazyBeanContainer}.
+     *
+     * @param type
+     *            The type of the Bean
+     * @param dataSource
+     *            The data source
+     * @param properties
+     *            The properties (null for all the bean properties)
+     * @throws IllegalArgumentException
+     *             if type or dataSource is null.
+     */
+    public LazyBeanContainer(Class<BEANTYPE> type, BeanDataSource<BEANTYPE> dataSource,
+            List<PropertyMetadata> properties) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource cannot be null.");
+        }
+        this.dataSource = dataSource;
+        this.itemTemplate = new BeanItemTemplate<BEANTYPE>(type, properties, true);
+        Map<String, VaadinPropertyDescriptor<BEANTYPE>> descriptors = itemTemplate.getPropertyDescriptors();
+        if (properties == null) {
+            propertyIds = Collections.unmodifiableList(new ArrayList<String>(descriptors.keySet()));
+        } else {
+            List<String> ids = new ArrayList<String>();
+            for (PropertyMetadata property : properties) {
+                if (descriptors.containsKey(property.getPropertyName())) {
+                    ids.add(property.getPropertyName());
+                }
+            }
+            propertyIds = Collections.unmodifiableList(ids);
+        }
+    }
+
+    /**
+     * Drop the cached pages and count the beans again, firing an
+     * ItemSetChange event.
+     */
+    public void refresh() {
+        pages.clear();
+        size = -1;
+        lastPage = -1;
+        fireItemSetChange();
+    }
+
+    /**
+     * Get the data source.
+     *
+     * @return the data source.
+     */
+    public BeanDataSource<BEANTYPE> getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Get the number of beans per page.
+     *
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Set the number of beans per page ; the cached pages are dropped.
+     *
+     * @param pageSize
+     *            the page size.
+     * @throws IllegalArgumentException
+     *             if pageSize is lower than 1.
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be greater than 0.");
+        }
+        this.pageSize = pageSize;
+        pages.clear();
+        lastPage = -1;
+    }
+
+    /**
+     * Get the maximum number of cached pages.
+     *
+     * @return the maximum number of cached pages.
+     */
+    public int getMaxCachedPages() {
+        return pages.getMaxSize();
+    }
+
+    /**
+     * Set the maximum number of cached pages.
+     *
+     * @param maxCachedPages
+     *            the maximum number of cached pages.
+     * @throws IllegalArgumentException
+     *             if maxCachedPages is lower than 1.
+     */
+    public void setMaxCachedPages(int maxCachedPages) {
+        if (maxCachedPages < 1) {
+            throw new IllegalArgumentException("maxCachedPages must be greater than 0.");
+        }
+        pages.setMaxSize(maxCachedPages);
+    }
+
+    /**
+     * Get the number of pages fetched ahead.
+     *
+     * @return the number of pages fetched ahead.
+     */
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    /**
+     * Set the number of pages fetched ahead (0 to disable prefetching). It is
+     * bounded by the maximum number of cached pages.
+     *
+     * @param prefetchPages
+     *            the number of pages fetched ahead.
+     * @throws IllegalArgumentException
+     *             if prefetchPages is negative.
+     */
+    public void setPrefetchPages(int prefetchPages) {
+        if (prefetchPages < 0) {
+            throw new IllegalArgumentException("prefetchPages cannot be negative.");
+        }
+        this.prefetchPages = prefetchPages;
+    }
+
+    /**
+     * Check if the page of the given item is cached.
+     *
+     * @param itemId
+     *            the item identifier.
+     * @return true if the page of the item is cached.
+     */
+    public boolean isCached(Object itemId) {
+        return containsId(itemId) && pages.containsKey((Integer) itemId / pageSize);
+    }
+
+    // Container
+
+    @Override
+    public BeanItem<BEANTYPE> getItem(Object itemId) {
+        if (!containsId(itemId)) {
+            return null;
+        }
+        int index = (Integer) itemId;
+        List<BeanItem<BEANTYPE>> page = getPage(index / pageSize);
+        int offset = index % pageSize;
+        return (offset < page.size()) ? page.get(offset) : null;
+    }
+
+    @Override
+    public Collection<?> getContainerPropertyIds() {
+        return propertyIds;
+    }
+
+    @Override
+    public List<Integer> getItemIds() {
+        return new AbstractList<Integer>() {
+
+            @Override
+            public Integer get(int index) {
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return LazyBeanContainer.this.size();
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Property getContainerProperty(Object itemId, Object propertyId) {
+        BeanItem<BEANTYPE> item = getItem(itemId);
+        return (item != null) ? item.getItemProperty(propertyId) : null;
+    }
+
+    @Override
+    public Class<?> getType(Object propertyId) {
+        VaadinPropertyDescriptor<BEANTYPE> descriptor = itemTemplate.getPropertyDescriptors().get(propertyId);
+        return (descriptor != null) ? descriptor.getPropertyType() : null;
+    }
+
+    @Override
+    public int size() {
+        if (size < 0) {
+            size = Math.max(0, dataSource.count(Collections.unmodifiableList(filters)));
+        }
+        return size;
+    }
+
+    @Override
+    public boolean containsId(Object itemId) {
+        return itemId instanceof Integer && (Integer) itemId >= 0 && (Integer) itemId < size();
+    }
+
+    @Override
+    public Item addItem(Object itemId) {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    @Override
+    public Object addItem() {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    @Override
+    public boolean removeItem(Object itemId) {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    @Override
+    public boolean addContainerProperty(Object propertyId, Class<?> type, Object defaultValue) {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    @Override
+    public boolean removeContainerProperty(Object propertyId) {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    @Override
+    public boolean removeAllItems() {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    // Container.Ordered
+
+    @Override
+    public Object nextItemId(Object itemId) {
+        return (containsId(itemId) && (Integer) itemId < size() - 1) ? (Integer) itemId + 1 : null;
+    }
+
+    @Override
+    public Object prevItemId(Object itemId) {
+        return (containsId(itemId) && (Integer) itemId > 0) ? (Integer) itemId - 1 : null;
+    }
+
+    @Override
+    public Object firstItemId() {
+        return (size() > 0) ? 0 : null;
+    }
+
+    @Override
+    public Object lastItemId() {
+        return (size() > 0) ? size() - 1 : null;
+    }
+
+    @Override
+    public boolean isFirstId(Object itemId) {
+        return containsId(itemId) && (Integer) itemId == 0;
+    }
+
+    @Override
+    public boolean isLastId(Object itemId) {
+        return containsId(itemId) && (Integer) itemId == size() - 1;
+    }
+
+    @Override
+    public Object addItemAfter(Object previousItemId) {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    @Override
+    public Item addItemAfter(Object previousItemId, Object newItemId) {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    // Container.Indexed
+
+    @Override
+    public int indexOfId(Object itemId) {
+        return containsId(itemId) ? (Integer) itemId : -1;
+    }
+
+    @Override
+    public Object getIdByIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return index;
+    }
+
+    @Override
+    public List<?> getItemIds(int startIndex, int numberOfItems) {
+        return ContainerHelpers.getItemIdsUsingGetIdByIndex(startIndex, numberOfItems, this);
+    }
+
+    @Override
+    public Object addItemAt(int index) {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    @Override
+    public Item addItemAt(int index, Object newItemId) {
+        throw new UnsupportedOperationException("LazyBeanContainer is read-only.");
+    }
+
+    // Container.Sortable
+
+    @Override
+    public void sort(Object[] propertyId, boolean[] ascending) {
+        List<Object> ids = new ArrayList<Object>();
+        List<Boolean> orders = new ArrayList<Boolean>();
+        for (int i = 0; i < propertyId.length; i++) {
+            if (propertyIds.contains(propertyId[i])) {
+                ids.add(propertyId[i]);
+                orders.add((i < ascending.length) ? ascending[i] : true);
+            }
+        }
+        sortPropertyIds = ids.toArray();
+        sortAscending = new boolean[orders.size()];
+        for (int i = 0; i < sortAscending.length; i++) {
+            sortAscending[i] = orders.get(i);
+        }
+        refresh();
+    }
+
+    @Override
+    public Collection<?> getSortableContainerPropertyIds() {
+        return propertyIds;
+    }
+
+    // Container.Filterable
+
+    @Override
+    public void addContainerFilter(Filter filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("filter cannot be null.");
+        }
+        filters.add(filter);
+        refresh();
+    }
+
+    @Override
+    public void removeContainerFilter(Filter filter) {
+        if (filters.remove(filter)) {
+            refresh();
+        }
+    }
+
+    @Override
+    public void removeAllContainerFilters() {
+        if (!filters.isEmpty()) {
+            filters.clear();
+            refresh();
+        }
+    }
+
+    @Override
+    public Collection<Filter> getContainerFilters() {
+        return Collections.unmodifiableList(filters);
+    }
+
+    // Container.ItemSetChangeNotifier
+
+    @Override
+    public void addItemSetChangeListener(Container.ItemSetChangeListener listener) {
+        super.addItemSetChangeListener(listener);
+    }
+
+    /**
+     * @deprecated As of 7.0, replaced by
+     *             {@link #addItemSetChangeListener(com.vaadin.data.Container.ItemSetChangeListener)}
+     **/
+    @Deprecated
+    @Override
+    public void addListener(Container.ItemSetChangeListener listener) {
+        addItemSetChangeListener(listener);
+    }
+
+    @Override
+    public void removeItemSetChangeListener(Container.ItemSetChangeListener listener) {
+        super.removeItemSetChangeListener(listener);
+    }
+
+    /**
+     * @deprecated As of 7.0, replaced by
+     *             {@link #removeItemSetChangeListener(com.vaadin.data.Container.ItemSetChangeListener)}
+     **/
+    @Deprecated
+    @Override
+    public void removeListener(Container.ItemSetChangeListener listener) {
+        removeItemSetChangeListener(listener);
+    }
+
+    // Pages
+
+    /**
+     * Get a page of items, fetching it (with the adjacent pages in the
+     * scrolling direction) if it is not cached.
+     *
+     * @param page
+     *            the page number.
+     * @return the items of the page.
+     */
+    private List<BeanItem<BEANTYPE>> getPage(int page) {
+        boolean backward = page < lastPage;
+        lastPage = page;
+        List<BeanItem<BEANTYPE>> items = pages.get(page);
+        if (items != null) {
+            return items;
+        }
+        // The requested page and the next (or previous) ones that are not
+        // cached
+        int ahead = Math.min(prefetchPages, pages.getMaxSize() - 1);
+        int lastPageNumber = (size() - 1) / pageSize;
+        int first = page;
+        int last = page;
+        for (int i = 1; i <= ahead; i++) {
+            int adjacent = backward ? page - i : page + i;
+            if (adjacent < 0 || adjacent > lastPageNumber || pages.containsKey(adjacent)) {
+                break;
+            }
+            first = Math.min(first, adjacent);
+            last = Math.max(last, adjacent);
+        }
+        List<? extends BEANTYPE> beans = dataSource.fetch(first * pageSize, (last - first + 1) * pageSize,
+                Arrays.copyOf(sortPropertyIds, sortPropertyIds.length),
+                Arrays.copyOf(sortAscending, sortAscending.length), Collections.unmodifiableList(filters));
+        for (int p = first; p <= last; p++) {
+            List<BeanItem<BEANTYPE>> pageItems = new ArrayList<BeanItem<BEANTYPE>>(pageSize);
+            if (beans != null) {
+                int end = Math.min(beans.size(), (p - first + 1) * pageSize);
+                for (int i = (p - first) * pageSize; i < end; i++) {
+                    pageItems.add(itemTemplate.newItem(beans.get(i)));
+                }
+            }
+            if (p == page) {
+                items = pageItems;
+            } else {
+                pages.put(p, pageItems);
+            }
+        }
+        // The requested page is the most recently used
+        pages.put(page, items);
+        return items;
+    }
+
+    /**
+     * The least recently used pages cache.
+     */
+    private static final class PageCache<BT> extends LinkedHashMap<Integer, List<BeanItem<BT>>> {
+
+        private static final long serialVersionUID = -3411683526170311349L;
+
+        private int maxSize;
+
+        private PageCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        private int getMaxSize() {
+            return maxSize;
+        }
+
+        private void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            while (size() > maxSize) {
+                remove(keySet().iterator().next());
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<BeanItem<BT>>> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.vaadin.data.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xgbi.vaadin.container.property.HierarchicalBeanLoader;
+
+import com.vaadin.data.Container;
+
+/**
+ * A {@link BeanContainer} that is {@link Hierarchical} and loads its tree on
+ * demand, using a {@link HierarchicalBeanLoader}.
+ * 
+ * <p>
+ * Only the root beans are loaded first (on {@link #refresh()} or on the first
+ * call of {@link #rootItemIds()}). The children of an item are loaded the
+ * first time {@link #getChildren(Object)} is called for it ;
+ * {@link #hasChildren(Object)} asks the loader without loading them, and
+ * remembers the answer until the item is removed or unloaded.
+ * </p>
+ * 
+ * <p>
+ * At most {@link #getMaxLoadedParents()} items keep their children loaded:
+ * when this limit is exceeded, the subtree of the least recently expanded
+ * item is removed from the container, and loaded again if needed. Accessing
+ * the children of an item also marks its ancestors as used.
+ * </p>
+ * 
+ * <p>
+ * Items added with the usual {@link BeanContainer} methods are roots. Filters
+ * and sorting apply on the loaded items, not on the hierarchy.
+ * </p>
+ * 
+ * @param <IDTYPE>
+ *            The type of the item identifier
+ * @param <BEANTYPE>
+ *            The type of the Bean
+ * 
+ * @since 0.4.0
+ * 
+ * @see HierarchicalBeanLoader
+ */
+public class LazyHierarchicalBeanContainer<IDTYPE, BEANTYPE> extends BeanContainer<IDTYPE, BEANTYPE> implements
+        Container.Hierarchical {
+
+    private static final long serialVersionUID = -5254430432437163281L;
+
+    /**
+     * Default maximum number of items with loaded children.
+     */
+    public static final int DEFAULT_MAX_LOADED_PARENTS = 1000;
+
+    private final HierarchicalBeanLoader<BEANTYPE> loader;
+
+    private final BeanHierarchy hierarchy = new BeanHierarchy();
+
+    /**
+     * Items with loaded children, the least recently used first.
+     */
+    private final LinkedHashMap<Object, Boolean> loadedParents = new LinkedHashMap<Object, Boolean>(16, 0.75f, true);
+
+    /**
+     * The answers of the loader to {@link #hasChildren(Object)}, for the items
+     * with children not loaded.
+     */
+    private final Map<Object, Boolean> hasChildren = new HashMap<Object, Boolean>();
+
+    private int maxLoadedParents = DEFAULT_MAX_LOADED_PARENTS;
+
+    private boolean rootsLoaded;
+
+    /**
+     * Create a {@link LazyHierarchicalBeanContainer}.
+     * 
+     * @param type
+     *            The type of the Bean
+     * @param loader
+     *            The loader of the beans
+     * @throws IllegalArgumentException
+     *             if loader is null.
+     */
+    public LazyHierarchicalBeanContainer(Class<? super BEANTYPE> type, HierarchicalBeanLoader<BEANTYPE> loader) {
+        super(type);
+        if (loader == null) {
+            throw new IllegalArgumentException("loader cannot be null.");
+        }
+        this.loader = loader;
+    }
+
+    /**
+     * Remove all the items and load the root beans again.
+     */
+    public void refresh() {
+        removeAllItems();
+        rootsLoaded = true;
+        Collection<? extends BEANTYPE> roots = loader.getRoots();
+        if (roots != null) {
+            addAll(roots);
+        }
+    }
+
+    /**
+     * Check if the children of the given item are loaded.
+     * 
+     * @param itemId
+     *            the item identifier.
+     * @return true if the children are loaded.
+     */
+    public boolean isLoaded(Object itemId) {
+        return loadedParents.containsKey(itemId);
+    }
+
+    /**
+     * Get the maximum number of items with loaded children.
+     * 
+     * @return the maximum number of items with loaded children.
+     */
+    public int getMaxLoadedParents() {
+        return maxLoadedParents;
+    }
+
+    /**
+     * Set the maximum number of items with loaded children, 0 meaning no
+     * limit.
+     * 
+     * @param maxLoadedParents
+     *            the maximum number of items with loaded children.
+     * @throws IllegalArgumentException
+     *             if maxLoadedParents is negative.
+     */
+    public void setMaxLoadedParents(int maxLoadedParents) {
+        if (maxLoadedParents < 0) {
+            throw new IllegalArgumentException("maxLoadedParents cannot be negative.");
+        }
+        this.maxLoadedParents = maxLoadedParents;
+    }
+
+    /**
+     * Get the loader.
+     * 
+     * @return the loader.
+     */
+    public HierarchicalBeanLoader<BEANTYPE> getLoader() {
+        return loader;
+    }
+
+    // Hierarchical
+    @Override
+    public Collection<?> rootItemIds() {
+        if (!rootsLoaded) {
+            refresh();
+        }
+        return hierarchy.rootItemIds();
+    }
+
+    @Override
+    public Collection<?> getChildren(Object itemId) {
+        loadChildren(itemId);
+        return hierarchy.getChildren(itemId);
+    }
+
+    @Override
+    public boolean hasChildren(Object itemId) {
+        if (!hierarchy.contains(itemId)) {
+            return false;
+        }
+        if (loadedParents.containsKey(itemId)) {
+            return hierarchy.hasChildren(itemId);
+        }
+        Boolean children = hasChildren.get(itemId);
+        if (children == null) {
+            children = loader.hasChildren(getUnfilteredItem(itemId).getBean());
+            hasChildren.put(itemId, children);
+        }
+        return children;
+    }
+
+    @Override
+    public Object getParent(Object itemId) {
+        return hierarchy.getParent(itemId);
+    }
+
+    @Override
+    public boolean setParent(Object itemId, Object newParentId) throws UnsupportedOperationException {
+        return hierarchy.setParent(itemId, newParentId);
+    }
+
+    @Override
+    public boolean areChildrenAllowed(Object itemId) {
+        return hierarchy.areChildrenAllowed(itemId);
+    }
+
+    @Override
+    public boolean setChildrenAllowed(Object itemId, boolean areChildrenAllowed) throws UnsupportedOperationException {
+        return hierarchy.setChildrenAllowed(itemId, areChildrenAllowed);
+    }
+
+    @Override
+    public boolean isRoot(Object itemId) {
+        return hierarchy.isRoot(itemId);
+    }
+
+    // Keep the hierarchy in sync with the items
+    @Override
+    protected void registerNewItem(int position, IDTYPE itemId, BeanItem<BEANTYPE> item) {
+        super.registerNewItem(position, itemId, item);
+        hierarchy.add(itemId);
+        if (position != getAllItemIds().size() - 1) {
+            hierarchy.renumber(getAllItemIds());
+        }
+    }
+
+    @Override
+    protected boolean internalRemoveItem(Object itemId) {
+        if (super.internalRemoveItem(itemId)) {
+            hierarchy.remove(itemId);
+            loadedParents.remove(itemId);
+            hasChildren.remove(itemId);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void internalRemoveAllItems() {
+        super.internalRemoveAllItems();
+        hierarchy.clear();
+        loadedParents.clear();
+        hasChildren.clear();
+    }
+
+    @Override
+    protected void doSort() {
+        super.doSort();
+        hierarchy.renumber(getAllItemIds());
+    }
+
+    /**
+     * Load the children of the given item, if not already loaded, and evict
+     * the least recently used subtrees if needed.
+     * 
+     * @param itemId
+     *            the item identifier.
+     */
+    private void loadChildren(Object itemId) {
+        if (!hierarchy.contains(itemId)) {
+            return;
+        }
+        if (loadedParents.get(itemId) == null) {
+            loadedParents.put(itemId, Boolean.TRUE);
+            Collection<? extends BEANTYPE> children = loader.getChildren(getUnfilteredItem(itemId).getBean());
+            if (children != null && !children.isEmpty()) {
+                // Link the children before notifying the listeners
+                Collection<Container.ItemSetChangeListener> listeners = getItemSetChangeListeners();
+                setItemSetChangeListeners(null);
+                try {
+                    addAll(children);
+                    for (BEANTYPE child : children) {
+                        hierarchy.setParent(resolveBeanId(child), itemId);
+                    }
+                } finally {
+                    setItemSetChangeListeners(listeners);
+                }
+                fireItemSetChange();
+            }
+        }
+        // Mark the ancestors as used after the item
+        for (Object parent = hierarchy.getParent(itemId); parent != null; parent = hierarchy.getParent(parent)) {
+            loadedParents.get(parent);
+        }
+        evict(itemId);
+    }
+
+    /**
+     * Unload the least recently used subtrees, except the ones containing the
+     * given item.
+     * 
+     * @param itemId
+     *            the item identifier.
+     */
+    private void evict(Object itemId) {
+        boolean evicted = false;
+        Collection<Container.ItemSetChangeListener> listeners = getItemSetChangeListeners();
+        setItemSetChangeListeners(null);
+        try {
+            while (maxLoadedParents > 0 && loadedParents.size() > maxLoadedParents) {
+                Object eldest = loadedParents.keySet().iterator().next();
+                if (isAncestorOrSelf(eldest, itemId)) {
+                    break;
+                }
+                unload(eldest);
+                evicted = true;
+            }
+        } finally {
+            setItemSetChangeListeners(listeners);
+        }
+        if (evicted) {
+            fireItemSetChange();
+        }
+    }
+
+    /**
+     * Remove the descendants of the given item from the container.
+     * 
+     * @param itemId
+     *            the item identifier.
+     */
+    private void unload(Object itemId) {
+        List<Object> descendants = new ArrayList<Object>();
+        Deque<Object> stack = new ArrayDeque<Object>();
+        stack.push(itemId);
+        while (!stack.isEmpty()) {
+            Collection<?> children = hierarchy.getChildren(stack.pop());
+            if (children != null) {
+                for (Object child : children) {
+                    descendants.add(child);
+                    stack.push(child);
+                }
+            }
+        }
+        loadedParents.remove(itemId);
+        hasChildren.remove(itemId);
+        // Leaves first, so that no descendant becomes a root
+        for (int i = descendants.size() - 1; i >= 0; i--) {
+            super.removeItem(descendants.get(i));
+        }
+    }
+
+    private boolean isAncestorOrSelf(Object ancestorId, Object itemId) {
+        for (Object id = itemId; id != null; id = hierarchy.getParent(id)) {
+            if (id.equals(ancestorId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove the given item, and its loaded descendants.
+     */
+    @Override
+    public boolean removeItem(Object itemId) {
+        if (hierarchy.contains(itemId)) {
+            Collection<Container.ItemSetChangeListener> listeners = getItemSetChangeListeners();
+            setItemSetChangeListeners(null);
+            try {
+                unload(itemId);
+            } finally {
+                setItemSetChangeListeners(listeners);
+            }
+        }
+        return super.removeItem(itemId);
+    }
+}
@@ -3,12 +3,16 @@ package org.xgbi.vaadin.container;
 import java.io.InvalidClassException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.beanutils.ConstructorUtils;
+import org.xgbi.vaadin.container.metrics.Metrics;
+import org.xgbi.vaadin.container.metrics.Operation;
+import org.xgbi.vaadin.container.metrics.OperationTrace;
+import org.xgbi.vaadin.container.property.BeanDataSource;
 import org.xgbi.vaadin.container.property.PropertyMetadata;
 import org.xgbi.vaadin.container.property.PropertyReaderAlgorithm;
 
@@ -18,11 +22,11 @@ import com.vaadin.data.Container.Hierarchical;
 import com.vaadin.data.Item;
 import com.vaadin.data.util.AbstractBeanContainer;
 import com.vaadin.data.util.AbstractBeanContainer.BeanIdResolver;
-import com.vaadin.data.util.AliasPropertyDescriptor;
 import com.vaadin.data.util.BeanContainer;
-import com.vaadin.data.util.BeanItem;
+import com.vaadin.data.util.BeanContainerMerger;
 import com.vaadin.data.util.BeanItemContainer;
-import com.vaadin.data.util.VaadinPropertyDescriptor;
+import com.vaadin.data.util.BeanItemTemplate;
+import com.vaadin.data.util.LazyBeanContainer;
 
 import static org.xgbi.vaadin.container.ContainerUtils.addContainerProperty;
 
@@ -50,8 +54,10 @@ public abstract class AbstractBeanContainerFactory<IDTYPE, BEANTYPE> extends Bea
 
     private Constructor<? extends AbstractBeanContainer> containerConstructor;
 
-    private Method itemGropertyDescriptorsMethod;
-    private Constructor<? extends BeanItem> itemBeanItemConstructor;
+    /**
+     * The template used to create items (built on first use).
+     */
+    private volatile BeanItemTemplate<BEANTYPE> itemTemplate;
 
     private String propertyId;
 
@@ -125,24 +131,6 @@ public abstract class AbstractBeanContainerFactory<IDTYPE, BEANTYPE> extends Bea
         this.propertyReaderAlgorithm = propertyReaderAlgorithm;
         this.propertyId = propertyId;
         this.beanIdResolver = beanIdResolver;
-        try {
-            Method method = BeanItem.class.getDeclaredMethod("getPropertyDescriptors", Class.class);
-            if (!method.isAccessible()) {
-                method.setAccessible(true);
-            }
-            itemGropertyDescriptorsMethod = method;
-            Constructor<? extends BeanItem> constructor = BeanItem.class.getDeclaredConstructor(Object.class, Map.class);
-            if (!constructor.isAccessible()) {
-                constructor.setAccessible(true);
-            }
-            itemBeanItemConstructor = constructor;
-        } catch (SecurityException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        } catch (NoSuchMethodException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
     }
 
     /**
@@ -168,14 +156,15 @@ public abstract class AbstractBeanContainerFactory<IDTYPE, BEANTYPE> extends Bea
     @Override
     public Container getContainerFromCollection(Container container, Collection<BEANTYPE> beans,
             Class<? extends Container> containerClass) {
+        OperationTrace trace = OperationTrace.begin(Operation.GET_CONTAINER);
         // Instansiate it
         // FIXME How to handle Exception ?
         try {
-            if (container == null || !(container instanceof AbstractBeanContainer<?, ?>)) {
-                container = initContainer(containerClass);
-            }
-            updateProperties(container);
-            if (container.removeAllItems()) {
+            container = prepareContainer(container, containerClass);
+            long start = Metrics.start(Operation.POPULATE);
+            if (getRefreshMode() == RefreshMode.MERGE) {
+                BeanContainerMerger.merge((AbstractBeanContainer<IDTYPE, BEANTYPE>) container, beans);
+            } else if (container.removeAllItems()) {
                 // Re-add them
                 if (container instanceof BeanContainer<?, ?>) {
                     ((BeanContainer<IDTYPE, BEANTYPE>) container).addAll(beans);
@@ -186,6 +175,9 @@ public abstract class AbstractBeanContainerFactory<IDTYPE, BEANTYPE> extends Bea
                     throw new InvalidClassException("container class is not supported.");
                 }
             }
+            if (start != Metrics.NOT_RECORDED) {
+                Metrics.stop(Operation.POPULATE, start, beanClass, container.size());
+            }
         } catch (IllegalArgumentException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
@@ -201,51 +193,102 @@ public abstract class AbstractBeanContainerFactory<IDTYPE, BEANTYPE> extends Bea
         } catch (InvalidClassException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
+        } finally {
+            trace.end(beanClass, container, (container != null) ? container.size() : 0);
         }
         return container;
     }
 
+    /**
+     * {@inheritDoc}
+     */
     @Override
-    public Item newItem(BEANTYPE bean) {
-        Item item = null;
-        if (itemGropertyDescriptorsMethod != null) {
-            try {
-                // 1. Get propertyDescriptors
-                Map<String, VaadinPropertyDescriptor<BEANTYPE>> propertyDescriptors = (Map<String, VaadinPropertyDescriptor<BEANTYPE>>) itemGropertyDescriptorsMethod
-                        .invoke(null, beanClass);
-                // 2. Update propertyDescriptors
-                if (propertyReaderAlgorithm != null) {
-                    List<PropertyMetadata> properties = propertyReaderAlgorithm.getProperties(beanClass);
-                    for (PropertyMetadata property : properties) {
-                        if (AliasContainer.class.isAssignableFrom(beanContainerType)) {
-                            if (property.getPropertyAttribute() != null) {
-                                propertyDescriptors.put(
-                                        property.getPropertyName(),
-                                        new AliasPropertyDescriptor<BEANTYPE>(property.getPropertyName(), property
-                                                .getPropertyAttribute(), (Class<BEANTYPE>) beanClass));
-                            }
+    public Container getContainerFromIterator(Container container, Iterator<BEANTYPE> beans,
+            Class<? extends Container> containerClass) {
+        OperationTrace trace = OperationTrace.begin(Operation.GET_CONTAINER);
+        try {
+            container = prepareContainer(container, containerClass);
+            long start = Metrics.start(Operation.POPULATE);
+            // Always replace the items, whatever the refresh mode
+            container.removeAllItems();
+            if (beans != null) {
+                int chunkSize = getChunkSize();
+                List<BEANTYPE> chunk = new ArrayList<BEANTYPE>(Math.min(chunkSize, DEFAULT_CHUNK_SIZE));
+                while (beans.hasNext()) {
+                    chunk.add(beans.next());
+                    if (chunk.size() == chunkSize || !beans.hasNext()) {
+                        // One event per chunk
+                        if (container instanceof BeanContainer<?, ?>) {
+                            ((BeanContainer<IDTYPE, BEANTYPE>) container).addAll(chunk);
+                        } else {
+                            ((BeanItemContainer<BEANTYPE>) container).addAll(chunk);
                         }
+                        chunk.clear();
                     }
                 }
-                // 3. Instantiate beanItem
-                item = itemBeanItemConstructor.newInstance(bean, propertyDescriptors);
-            } catch (IllegalArgumentException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (IllegalAccessException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (InvocationTargetException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (InstantiationException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
             }
-        } else {
-            item = new BeanItem<BEANTYPE>(bean);
+            if (start != Metrics.NOT_RECORDED) {
+                Metrics.stop(Operation.POPULATE, start, beanClass, container.size());
+            }
+        } catch (InstantiationException e) {
+            throw new IllegalArgumentException("containerClass cannot be instantiated.", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("containerClass cannot be instantiated.", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("containerClass cannot be instantiated.", e);
+        } catch (InvalidClassException e) {
+            throw new IllegalArgumentException("containerClass is not supported.", e);
+        } finally {
+            trace.end(beanClass, container, (container != null) ? container.size() : 0);
+        }
+        return container;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Container getContainerFromDataSource(BeanDataSource<BEANTYPE> dataSource) {
+        List<PropertyMetadata> properties = (propertyReaderAlgorithm != null) ? propertyReaderAlgorithm
+                .getProperties(beanClass) : null;
+        return new LazyBeanContainer<BEANTYPE>((Class<BEANTYPE>) beanClass, dataSource, properties);
+    }
+
+    @Override
+    public Item newItem(BEANTYPE bean) {
+        return getItemTemplate().newItem(bean);
+    }
+
+    /**
+     * Get the template used to create items, building it if needed.
+     * 
+     * @return the item template.
+     */
+    private BeanItemTemplate<BEANTYPE> getItemTemplate() {
+        BeanItemTemplate<BEANTYPE> template = itemTemplate;
+        if (template == null) {
+            List<PropertyMetadata> properties = (propertyReaderAlgorithm != null) ? propertyReaderAlgorithm
+                    .getProperties(beanClass) : null;
+            template = new BeanItemTemplate<BEANTYPE>((Class<BEANTYPE>) beanClass, properties,
+                    AliasContainer.class.isAssignableFrom(beanContainerType), beanContainerType);
+            itemTemplate = template;
         }
-        return item;
+        return template;
+    }
+
+    private Container prepareContainer(Container container, Class<? extends Container> containerClass)
+            throws InvalidClassException, IllegalArgumentException, InstantiationException, IllegalAccessException,
+            InvocationTargetException {
+        if (container == null || !(container instanceof AbstractBeanContainer<?, ?>)) {
+            long start = Metrics.start(Operation.INIT_CONTAINER);
+            container = initContainer(containerClass);
+            Metrics.stop(Operation.INIT_CONTAINER, start, beanClass, 0);
+            ContainerStatistics.track(container);
+        }
+        long start = Metrics.start(Operation.UPDATE_PROPERTIES);
+        updateProperties(container);
+        Metrics.stop(Operation.UPDATE_PROPERTIES, start, beanClass, 0);
+        return container;
     }
 
     private Container initContainer(Class<? extends Container> containerClass) throws InvalidClassException,
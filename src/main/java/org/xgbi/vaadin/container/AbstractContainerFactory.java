@@ -19,17 +19,42 @@ import static org.xgbi.vaadin.container.ContainerUtils.addContainerProperty;
 import static org.xgbi.vaadin.container.ContainerUtils.initContainer;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.apache.commons.beanutils.PropertyUtils;
+import org.xgbi.vaadin.container.metrics.Metrics;
+import org.xgbi.vaadin.container.metrics.Operation;
+import org.xgbi.vaadin.container.metrics.OperationTrace;
+import org.xgbi.vaadin.container.metrics.PropertyProfile;
+import org.xgbi.vaadin.container.metrics.PropertyProfiler;
+import org.xgbi.vaadin.container.property.BeanDataSource;
+import org.xgbi.vaadin.container.property.PropertyAccessor;
+import org.xgbi.vaadin.container.property.PropertyAccessors;
 import org.xgbi.vaadin.container.property.PropertyMetadata;
 import org.xgbi.vaadin.container.property.PropertyReaderAlgorithm;
 
 import com.vaadin.data.Container;
 import com.vaadin.data.Container.Filterable;
 import com.vaadin.data.Container.Hierarchical;
+import com.vaadin.data.Container.Ordered;
 import com.vaadin.data.Item;
+import com.vaadin.data.Property;
+import com.vaadin.data.util.AbstractBeanContainer.BeanIdResolver;
+import com.vaadin.data.util.BeanItem;
+import com.vaadin.data.util.ItemSetChangeBatch;
+import com.vaadin.data.util.LazyBeanContainer;
 
 /**
  * Default abstract implementation of {@link ContainerFactory}.
@@ -47,6 +72,22 @@ public abstract class AbstractContainerFactory<BEAN> extends
 	 */
 	private static final String DEFAULT_BEAN_PROPERTY = "bean";
 
+	/**
+	 * Default children property name.
+	 */
+	private static final String DEFAULT_CHILDREN_PROPERTY = "children";
+
+	/**
+	 * Accessor of the types of bean without children.
+	 */
+	private static final PropertyAccessor NO_CHILDREN = PropertyAccessors
+			.compile(Object.class, (String) null);
+
+	/**
+	 * Marker of the items without parent, during a traversal.
+	 */
+	private static final Object NO_PARENT = new Object();
+
 	/**
 	 * Type of the bean.
 	 */
@@ -62,6 +103,39 @@ public abstract class AbstractContainerFactory<BEAN> extends
 	 */
 	private String beanProperty = DEFAULT_BEAN_PROPERTY;
 
+	/**
+	 * The name of the property that holds the children.
+	 */
+	private volatile String childrenProperty = DEFAULT_CHILDREN_PROPERTY;
+
+	/**
+	 * The resolver of the keys the items are matched by when merging (null to
+	 * match them by bean).
+	 */
+	private volatile BeanIdResolver<?, ? super BEAN> mergeIdResolver;
+
+	/**
+	 * The children accessors, by type of bean.
+	 */
+	private final ConcurrentMap<Class<?>, PropertyAccessor> childrenAccessors = new ConcurrentHashMap<Class<?>, PropertyAccessor>();
+
+	/**
+	 * The compiled accessors, by type of bean.
+	 */
+	private final ConcurrentMap<Class<?>, CompiledProperties> compiledProperties = new ConcurrentHashMap<Class<?>, CompiledProperties>();
+
+	/**
+	 * The profiles of the last profiled items (while a
+	 * {@link PropertyProfiler} is installed).
+	 */
+	private volatile ItemProfiles itemProfiles;
+
+	/**
+	 * The generation of the {@link ContainerStatistics} this factory has been
+	 * tracked in.
+	 */
+	private volatile int statisticsGeneration;
+
 	/**
 	 * Creates an AbstractContainerFactory.
 	 * 
@@ -138,21 +212,87 @@ public abstract class AbstractContainerFactory<BEAN> extends
 	@Override
 	public Container getContainerFromCollection(Container container,
 			Collection<BEAN> beans, Class<? extends Container> containerClass) {
+		OperationTrace trace = OperationTrace.begin(Operation.GET_CONTAINER);
 		try {
-			// Initialize the container if null
-			if (container == null) {
-				container = initContainer(containerClass);
+			container = prepareContainer(container, containerClass);
+			List<PropertyMetadata> properties = updateProperties(container);
+			long start = Metrics.start(Operation.POPULATE);
+			if (getRefreshMode() == RefreshMode.MERGE) {
+				mergeContainer(container, properties, beans);
+			} else if (container.removeAllItems()) {
+				// Cleaned, re-add them
+				populateContainer(container, properties,
+						(beans != null) ? beans.iterator() : null);
 			}
-			// Property
+			if (start != Metrics.NOT_RECORDED) {
+				Metrics.stop(Operation.POPULATE, start, beanClass,
+						container.size());
+			}
+		} catch (InstantiationException e) {
+			// TODO Auto-generated catch block
+		} catch (IllegalAccessException e) {
+			// TODO Auto-generated catch block
+		} finally {
+			trace.end(beanClass, container,
+					(container != null) ? container.size() : 0);
+		}
+		return container;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The containers that are not bean containers fire their own events for
+	 * each item, the beans are added one by one.
+	 */
+	public Container getContainerFromIterator(Container container,
+			Iterator<BEAN> beans, Class<? extends Container> containerClass) {
+		OperationTrace trace = OperationTrace.begin(Operation.GET_CONTAINER);
+		try {
+			container = prepareContainer(container, containerClass);
 			List<PropertyMetadata> properties = updateProperties(container);
-			// Clean it
+			long start = Metrics.start(Operation.POPULATE);
+			// Always replace the items, whatever the refresh mode
 			if (container.removeAllItems()) {
 				populateContainer(container, properties, beans);
 			}
+			if (start != Metrics.NOT_RECORDED) {
+				Metrics.stop(Operation.POPULATE, start, beanClass,
+						container.size());
+			}
 		} catch (InstantiationException e) {
-			// TODO Auto-generated catch block
+			throw new IllegalArgumentException(
+					"containerClass cannot be instantiated.", e);
 		} catch (IllegalAccessException e) {
-			// TODO Auto-generated catch block
+			throw new IllegalArgumentException(
+					"containerClass cannot be instantiated.", e);
+		} finally {
+			trace.end(beanClass, container,
+					(container != null) ? container.size() : 0);
+		}
+		return container;
+	}
+
+	/**
+	 * Initialize the container if null.
+	 * 
+	 * @param container
+	 *            the container to be updated (might be null).
+	 * @param containerClass
+	 *            the class of the container to create if null.
+	 * @return the container.
+	 */
+	private Container prepareContainer(Container container,
+			Class<? extends Container> containerClass)
+			throws InstantiationException, IllegalAccessException {
+		statisticsGeneration = ContainerStatistics.track(this,
+				statisticsGeneration);
+		// Initialize the container if null
+		if (container == null) {
+			long start = Metrics.start(Operation.INIT_CONTAINER);
+			container = initContainer(containerClass);
+			Metrics.stop(Operation.INIT_CONTAINER, start, beanClass, 0);
+			ContainerStatistics.track(container);
 		}
 		return container;
 	}
@@ -164,6 +304,7 @@ public abstract class AbstractContainerFactory<BEAN> extends
 	 *            the container to be updated.
 	 */
 	private List<PropertyMetadata> updateProperties(Container container) {
+		long start = Metrics.start(Operation.UPDATE_PROPERTIES);
 		List<PropertyMetadata> properties = propertyReaderAlgorithm
 				.getProperties(beanClass);
 		Collection<?> containerProperties = container.getContainerPropertyIds();
@@ -174,6 +315,7 @@ public abstract class AbstractContainerFactory<BEAN> extends
 		}
 		// Add a bean property at the end.
 		addContainerProperty(container, getBeanProperty(), beanClass, null);
+		Metrics.stop(Operation.UPDATE_PROPERTIES, start, beanClass, 0);
 		return properties;
 	}
 
@@ -184,28 +326,28 @@ public abstract class AbstractContainerFactory<BEAN> extends
 	 * {@link Hierarchical} containers, that could have children, so this method
 	 * needs a way to identify the children, etc…
 	 * 
-	 * Notes : the default behavior for now is to look for an attribute
-	 * <code>children</code> of the BEAN object. But in the future it will need
-	 * to support more flexible way to know how to handle specific case.
+	 * Notes : the default behavior is to look for an attribute
+	 * <code>children</code> of the BEAN object (see
+	 * {@link #setChildrenProperty(String)}).
 	 * 
 	 * @param container
 	 *            the container to be populated.
 	 * @param properties
 	 *            the properties.
 	 * @param beans
-	 *            the list of beans.
+	 *            the beans (might be null).
 	 */
 	private void populateContainer(Container container,
-			List<PropertyMetadata> properties, Collection<BEAN> beans) {
+			List<PropertyMetadata> properties, Iterator<BEAN> beans) {
 		if (beans != null) {
 			if (container instanceof Hierarchical) {
-				for (BEAN bean : beans) {
+				while (beans.hasNext()) {
 					addHierarchicalItem((Hierarchical) container, properties,
-							bean, null);
+							beans.next(), null);
 				}
 			} else {
-				for (BEAN bean : beans) {
-					addItem(container, properties, bean, true);
+				while (beans.hasNext()) {
+					addItem(container, properties, beans.next(), true);
 				}
 			}
 		}
@@ -215,6 +357,9 @@ public abstract class AbstractContainerFactory<BEAN> extends
 	 * Add an item (using bean) to the container, and look for
 	 * <code>children</code> if needed.
 	 * 
+	 * The children (and their own children) are added after the item, in
+	 * depth-first order, each through this method (without introspection).
+	 * 
 	 * @param container
 	 *            the container.
 	 * @param properties
@@ -225,16 +370,116 @@ public abstract class AbstractContainerFactory<BEAN> extends
 	 *            introspect for children.
 	 * @return the id of the added item
 	 */
-	@SuppressWarnings("unchecked")
 	protected Object addItem(Container container,
 			List<PropertyMetadata> properties, BEAN bean, boolean introspect) {
+		Object itemId = addBeanItem(container, properties, bean);
+		if (introspect) {
+			Deque<BEAN> stack = new ArrayDeque<BEAN>();
+			pushChildren(stack, bean);
+			while (!stack.isEmpty()) {
+				BEAN child = stack.pop();
+				addItem(container, properties, child, false);
+				pushChildren(stack, child);
+			}
+		}
+		return itemId;
+	}
+
+	/**
+	 * Add a hierarchical item (using bean) to the container, with its
+	 * <code>children</code>. Each item is added through
+	 * {@link #addItem(Container, List, Object, boolean)} (without
+	 * introspection).
+	 * 
+	 * @param container
+	 *            the container.
+	 * @param properties
+	 *            the properties.
+	 * @param bean
+	 *            the bean to add.
+	 * @param parentId
+	 *            the parent of the bean.
+	 */
+	protected void addHierarchicalItem(Hierarchical container,
+			List<PropertyMetadata> properties, BEAN bean, Object parentId) {
+		Deque<BEAN> beans = new ArrayDeque<BEAN>();
+		Deque<Object> parentIds = new ArrayDeque<Object>();
+		beans.push(bean);
+		parentIds.push((parentId != null) ? parentId : NO_PARENT);
+		while (!beans.isEmpty()) {
+			BEAN current = beans.pop();
+			Object currentParentId = parentIds.pop();
+			Object itemId = addItem(container, properties, current, false);
+			if (currentParentId != NO_PARENT) {
+				// Parent id can have children.
+				container.setChildrenAllowed(currentParentId, true);
+				// Set the parent for the current id.
+				container.setParent(itemId, currentParentId);
+				// Set no children by default
+				container.setChildrenAllowed(itemId, false);
+			}
+			int size = beans.size();
+			pushChildren(beans, current);
+			for (int i = beans.size() - size; i > 0; i--) {
+				parentIds.push(itemId);
+			}
+		}
+	}
+
+	/**
+	 * Add an item (using bean) to the container.
+	 * 
+	 * @param container
+	 *            the container.
+	 * @param properties
+	 *            the properties.
+	 * @param bean
+	 *            the bean to add.
+	 * @return the id of the added item
+	 */
+	private Object addBeanItem(Container container,
+			List<PropertyMetadata> properties, BEAN bean) {
+		long start = Metrics.start(Operation.NEW_ITEM);
 		Object itemId = container.addItem();
+		setItemValues(container, itemId, properties, bean, false);
+		Metrics.stop(Operation.NEW_ITEM, start, beanClass, 1);
+		return itemId;
+	}
+
+	/**
+	 * Set the values of the item from the bean (profiling the extraction of
+	 * the properties if a {@link PropertyProfiler} is installed).
+	 * 
+	 * @param container
+	 *            the container.
+	 * @param itemId
+	 *            the id of the item.
+	 * @param properties
+	 *            the properties.
+	 * @param bean
+	 *            the bean.
+	 * @param onlyChanged
+	 *            true to only set the values that changed.
+	 */
+	private void setItemValues(Container container, Object itemId,
+			List<PropertyMetadata> properties, BEAN bean, boolean onlyChanged) {
+		Item item = container.getItem(itemId);
+		PropertyAccessor[] accessors = getAccessors(bean.getClass(), properties);
+		PropertyProfiler profiler = PropertyProfiler.getInstalled();
+		PropertyProfile[] profiles = (profiler != null) ? getProfiles(
+				profiler, bean.getClass(), container.getClass(), properties)
+				: null;
+		int i = 0;
 		for (PropertyMetadata metadata : properties) {
 			String propertyId = metadata.getPropertyName();
+			PropertyProfile profile = (profiles != null) ? profiles[i] : null;
+			boolean sampled = profile != null && profile.sample();
 			Object value = null;
+			boolean failed = true;
+			long start = sampled ? System.nanoTime() : 0L;
 			try {
-				value = PropertyUtils.getProperty(bean,
-						metadata.getPropertyAttribute());
+				value = accessors[i++].getValue(bean);
+				failed = false;
 			} catch (IllegalAccessException e) {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
@@ -245,69 +490,222 @@ public abstract class AbstractContainerFactory<BEAN> extends
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
-			container.getContainerProperty(itemId, propertyId).setValue(value);
+			if (failed && profile != null) {
+				profile.failure();
+			} else if (sampled) {
+				profile.record(System.nanoTime() - start);
+			}
+			setValue(item.getItemProperty(propertyId), value, onlyChanged);
 		}
-		// At the end, add the bean to the container (just in case)
-		container.getContainerProperty(itemId, getBeanProperty())
-				.setValue(bean);
-		if (introspect) {
-			Collection<BEAN> children;
-			try {
-				children = (Collection<BEAN>) PropertyUtils.getProperty(bean,
-						"children");
-				if (children != null && !children.isEmpty()) {
-					for (BEAN child : children) {
-						addItem(container, properties, child, introspect);
-					}
-				}
-			} catch (IllegalAccessException e) {
-				// TODO Auto-generated catch block
-			} catch (InvocationTargetException e) {
-				// TODO Auto-generated catch block
-			} catch (NoSuchMethodException e) {
-				// TODO Auto-generated catch block
-			} catch (RuntimeException e) {
-				// FIXME This is evil (but I need this temporarly for hibernate
-				// lazyInitialisation)
-				// e.printStackTrace();
+		// At the end, add the bean to the container (just in case), the
+		// latest instance even if it is equal to the current one
+		Property<?> beanProperty = item.getItemProperty(getBeanProperty());
+		if (beanProperty != null && beanProperty.getValue() != bean) {
+			setValue(beanProperty, bean, false);
+		}
+	}
+
+	/**
+	 * Set the value of a property.
+	 * 
+	 * @param property
+	 *            the property (null if the container did not add it, e.g.
+	 *            an {@link OffHeapColumnarContainer}).
+	 * @param value
+	 *            the value.
+	 * @param onlyChanged
+	 *            true to not set the value if it is equal to the current
+	 *            one.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void setValue(Property<?> property, Object value,
+			boolean onlyChanged) {
+		if (property == null) {
+			return;
+		}
+		if (onlyChanged) {
+			Object current = property.getValue();
+			if (current == value || (current != null && current.equals(value))) {
+				return;
 			}
 		}
-		return itemId;
+		((Property<Object>) property).setValue(value);
 	}
 
 	/**
-	 * Add a hierarchical item (using bean) to the container.
+	 * Merge the list of BEAN into the given container: the items are matched
+	 * by bean key (see {@link #setMergeIdResolver(BeanIdResolver)}, using the
+	 * bean property), the items of the beans that are gone are removed, the
+	 * values of the others are updated (only if they changed) and the items of
+	 * the new beans are added after the item of the bean that precedes them.
+	 * The parent of the items of a {@link Hierarchical} container is updated if
+	 * needed.
+	 * 
+	 * The ItemSetChange events of the container are held back during the
+	 * merge, the listeners are notified once if items were added, removed or
+	 * moved in the hierarchy.
 	 * 
 	 * @param container
-	 *            the container.
+	 *            the container to be updated.
 	 * @param properties
 	 *            the properties.
-	 * @param bean
-	 *            the bean to add.
-	 * @param parentId
-	 *            the parent of the bean.
+	 * @param beans
+	 *            the list of beans (might be null).
+	 * @throws IllegalArgumentException
+	 *             if the key of a bean is resolved to null.
 	 */
 	@SuppressWarnings("unchecked")
-	protected void addHierarchicalItem(Hierarchical container,
-			List<PropertyMetadata> properties, BEAN bean, Object parentId) {
-		Object itemId = addItem(container, properties, bean, false);
-		if (parentId != null) {
-			// Parent id can have children.
-			container.setChildrenAllowed(parentId, true);
-			// Set the parent for the current id.
-			container.setParent(itemId, parentId);
-			// Set no children by default
-			container.setChildrenAllowed(itemId, false);
+	private void mergeContainer(Container container,
+			List<PropertyMetadata> properties, Collection<BEAN> beans) {
+		boolean hierarchical = container instanceof Hierarchical;
+		// The beans (with their children) by key, in order, and the key of
+		// their parent
+		Map<Object, BEAN> targets = new LinkedHashMap<Object, BEAN>();
+		Map<Object, Object> parents = new HashMap<Object, Object>();
+		if (beans != null) {
+			Set<Object> visited = Collections
+					.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+			Deque<BEAN> stack = new ArrayDeque<BEAN>();
+			Object[] array = beans.toArray();
+			for (int i = array.length - 1; i >= 0; i--) {
+				stack.push((BEAN) array[i]);
+			}
+			while (!stack.isEmpty()) {
+				BEAN bean = stack.pop();
+				if (bean == null || !visited.add(bean)) {
+					continue;
+				}
+				Object key = getMergeKey(bean);
+				if (!targets.containsKey(key)) {
+					targets.put(key, bean);
+				}
+				int size = stack.size();
+				pushChildren(stack, bean);
+				Iterator<BEAN> children = stack.iterator();
+				for (int i = stack.size() - size; i > 0; i--) {
+					Object childKey = getMergeKey(children.next());
+					if (!parents.containsKey(childKey)) {
+						parents.put(childKey, key);
+					}
+				}
+			}
 		}
-		Collection<BEAN> children;
+		ItemSetChangeBatch batch = ItemSetChangeBatch.begin(container);
+		boolean modified = false;
 		try {
-			children = (Collection<BEAN>) PropertyUtils.getProperty(bean,
-					"children");
-			if (children != null && !children.isEmpty()) {
-				for (BEAN child : children) {
-					addHierarchicalItem(container, properties, child, itemId);
+			// The current items, by key
+			Map<Object, Object> itemIds = new HashMap<Object, Object>();
+			List<Object> staleItemIds = new ArrayList<Object>();
+			for (Object itemId : container.getItemIds()) {
+				Property<?> property = container.getContainerProperty(itemId,
+						getBeanProperty());
+				Object bean = (property != null) ? property.getValue() : null;
+				Object key = (bean != null) ? getMergeKey((BEAN) bean) : null;
+				if (key == null || itemIds.containsKey(key)
+						|| !targets.containsKey(key)) {
+					staleItemIds.add(itemId);
+				} else {
+					itemIds.put(key, itemId);
+				}
+			}
+			if (!staleItemIds.isEmpty()) {
+				modified = true;
+				if (itemIds.isEmpty()) {
+					// Nothing is kept, avoid the removal of each item
+					container.removeAllItems();
+				} else {
+					for (Object itemId : staleItemIds) {
+						container.removeItem(itemId);
+					}
 				}
 			}
+			Object previousItemId = null;
+			for (Map.Entry<Object, BEAN> entry : targets.entrySet()) {
+				Object key = entry.getKey();
+				BEAN bean = entry.getValue();
+				Object itemId = itemIds.get(key);
+				if (itemId == null) {
+					// HierarchicalContainer does not handle addItemAfter
+					if (container instanceof Ordered && !hierarchical) {
+						itemId = ((Ordered) container)
+								.addItemAfter(previousItemId);
+					} else {
+						itemId = container.addItem();
+					}
+					modified = true;
+					setItemValues(container, itemId, properties, bean, false);
+					itemIds.put(key, itemId);
+					if (hierarchical && parents.get(key) != null) {
+						// Set no children by default
+						((Hierarchical) container).setChildrenAllowed(itemId,
+								false);
+					}
+				} else {
+					setItemValues(container, itemId, properties, bean, true);
+				}
+				if (hierarchical) {
+					Hierarchical h = (Hierarchical) container;
+					Object parentKey = parents.get(key);
+					Object parentId = (parentKey != null) ? itemIds
+							.get(parentKey) : null;
+					Object currentParentId = h.getParent(itemId);
+					if (parentId == null ? currentParentId != null
+							: !parentId.equals(currentParentId)) {
+						if (parentId != null) {
+							h.setChildrenAllowed(parentId, true);
+						}
+						h.setParent(itemId, parentId);
+						modified = true;
+					}
+				}
+				previousItemId = itemId;
+			}
+		} finally {
+			batch.end(modified);
+		}
+	}
+
+	/**
+	 * Get the key the items of the given bean are matched by when merging.
+	 * 
+	 * @param bean
+	 *            the bean.
+	 * @return the identifier resolved by the merge resolver, or the bean
+	 *         itself if there is no resolver.
+	 * @throws IllegalArgumentException
+	 *             if the identifier is resolved to null.
+	 */
+	private Object getMergeKey(BEAN bean) {
+		BeanIdResolver<?, ? super BEAN> resolver = mergeIdResolver;
+		if (resolver == null) {
+			return bean;
+		}
+		Object key = resolver.getIdForBean(bean);
+		if (key == null) {
+			throw new IllegalArgumentException(
+					"Resolved identifier for a bean must not be null");
+		}
+		return key;
+	}
+
+	/**
+	 * Push the children of the given bean on the stack, so that they are
+	 * popped in order.
+	 * 
+	 * @param stack
+	 *            the stack.
+	 * @param bean
+	 *            the bean.
+	 */
+	@SuppressWarnings("unchecked")
+	private void pushChildren(Deque<BEAN> stack, BEAN bean) {
+		PropertyAccessor accessor = getChildrenAccessor(bean.getClass());
+		if (accessor == NO_CHILDREN) {
+			return;
+		}
+		Object children = null;
+		try {
+			children = accessor.getValue(bean);
 		} catch (IllegalAccessException e) {
 			// TODO Auto-generated catch block
 		} catch (InvocationTargetException e) {
@@ -315,10 +713,138 @@ public abstract class AbstractContainerFactory<BEAN> extends
 		} catch (NoSuchMethodException e) {
 			// TODO Auto-generated catch block
 		} catch (RuntimeException e) {
-			// FIXME This is evil (but I need this temporarly for hibernate
+			// FIXME This is evil (but I need this temporarly for hibernate
 			// lazyInitialisation)
 			// e.printStackTrace();
 		}
+		if (children instanceof Collection<?>
+				&& !((Collection<?>) children).isEmpty()) {
+			Object[] array = ((Collection<?>) children).toArray();
+			for (int i = array.length - 1; i >= 0; i--) {
+				stack.push((BEAN) array[i]);
+			}
+		}
+	}
+
+	/**
+	 * Get the accessor of the children property for the given type of bean,
+	 * resolved once per type of bean.
+	 * 
+	 * @param klass
+	 *            the type of the bean.
+	 * @return the accessor, or {@link #NO_CHILDREN} if this type of bean has
+	 *         no children.
+	 */
+	private PropertyAccessor getChildrenAccessor(Class<?> klass) {
+		PropertyAccessor accessor = childrenAccessors.get(klass);
+		if (accessor == null) {
+			accessor = PropertyAccessors.resolve(klass, childrenProperty);
+			if (accessor == null) {
+				accessor = NO_CHILDREN;
+			}
+			childrenAccessors.put(klass, accessor);
+		}
+		return accessor;
+	}
+
+	/**
+	 * Get the compiled accessors of the given properties for the given type of
+	 * bean. The accessors are compiled once per type of bean (and recompiled
+	 * only if the list of properties changes).
+	 * 
+	 * @param klass
+	 *            the type of the bean.
+	 * @param properties
+	 *            the properties.
+	 * @return the accessors, in the same order as properties.
+	 */
+	private PropertyAccessor[] getAccessors(Class<?> klass,
+			List<PropertyMetadata> properties) {
+		CompiledProperties compiled = compiledProperties.get(klass);
+		if (compiled == null || compiled.properties != properties) {
+			ContainerStatistics.accessorLookup(false);
+			compiled = new CompiledProperties(properties,
+					PropertyAccessors.compile(klass, properties));
+			compiledProperties.put(klass, compiled);
+		} else {
+			ContainerStatistics.accessorLookup(true);
+		}
+		return compiled.accessors;
+	}
+
+	/**
+	 * Get the profiles of the given properties, looked up once for the current
+	 * profiler, type of bean and of container (the items of a container are
+	 * usually created in a row).
+	 * 
+	 * @param profiler
+	 *            the installed profiler.
+	 * @param klass
+	 *            the type of the bean.
+	 * @param containerType
+	 *            the type of the container.
+	 * @param properties
+	 *            the properties.
+	 * @return the profiles, in the same order as properties.
+	 */
+	private PropertyProfile[] getProfiles(PropertyProfiler profiler,
+			Class<?> klass, Class<?> containerType,
+			List<PropertyMetadata> properties) {
+		ItemProfiles current = itemProfiles;
+		if (current == null || current.profiler != profiler
+				|| current.beanClass != klass
+				|| current.containerType != containerType
+				|| current.properties != properties) {
+			PropertyProfile[] profiles = new PropertyProfile[properties.size()];
+			int i = 0;
+			for (PropertyMetadata metadata : properties) {
+				profiles[i++] = profiler.getProfile(klass, containerType,
+						metadata.getPropertyName(),
+						metadata.getPropertyAttribute());
+			}
+			current = new ItemProfiles(profiler, klass, containerType,
+					properties, profiles);
+			itemProfiles = current;
+		}
+		return current.profiles;
+	}
+
+	/**
+	 * Get the number of entries of the accessor caches (for the
+	 * {@link ContainerStatistics}).
+	 * 
+	 * @return the number of cached accessors, by type of bean.
+	 */
+	int getAccessorCacheSize() {
+		return compiledProperties.size() + childrenAccessors.size();
+	}
+
+	/**
+	 * Set the resolver of the keys the items are matched by when the container
+	 * is merged (see {@link RefreshMode#MERGE}). Without resolver, the items
+	 * are matched by bean, using its <code>equals</code> method; a resolver
+	 * lets reloaded instances of a bean keep their item.
+	 * 
+	 * @param mergeIdResolver
+	 *            the resolver (might be null).
+	 * 
+	 * @since 0.4.0
+	 */
+	public void setMergeIdResolver(
+			BeanIdResolver<?, ? super BEAN> mergeIdResolver) {
+		this.mergeIdResolver = mergeIdResolver;
+	}
+
+	/**
+	 * Get the resolver of the keys the items are matched by when the container
+	 * is merged.
+	 * 
+	 * @return the resolver, or null if the items are matched by bean.
+	 * 
+	 * @since 0.4.0
+	 */
+	public BeanIdResolver<?, ? super BEAN> getMergeIdResolver() {
+		return mergeIdResolver;
 	}
 
 	/**
@@ -341,9 +867,76 @@ public abstract class AbstractContainerFactory<BEAN> extends
 		}
 	}
 
+	/**
+	 * Get the name of the children property.
+	 * 
+	 * @return the name of the property that holds the children (might be
+	 *         null)
+	 */
+	public String getChildrenProperty() {
+		return childrenProperty;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void setChildrenProperty(String name) {
+		this.childrenProperty = name;
+		childrenAccessors.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The items of the lazy container do not have the bean property, the
+	 * bean is given by {@link BeanItem#getBean()}.
+	 */
+	@SuppressWarnings("unchecked")
+	public Container getContainerFromDataSource(BeanDataSource<BEAN> dataSource) {
+		return new LazyBeanContainer<BEAN>((Class<BEAN>) beanClass, dataSource,
+				propertyReaderAlgorithm.getProperties(beanClass));
+	}
+
     @Override
     public Item newItem(BEAN bean) {
         return null;
     }
 
+	/**
+	 * Profiles of a list of properties.
+	 */
+	private static final class ItemProfiles {
+
+		private final PropertyProfiler profiler;
+		private final Class<?> beanClass;
+		private final Class<?> containerType;
+		private final List<PropertyMetadata> properties;
+		private final PropertyProfile[] profiles;
+
+		private ItemProfiles(PropertyProfiler profiler, Class<?> beanClass,
+				Class<?> containerType, List<PropertyMetadata> properties,
+				PropertyProfile[] profiles) {
+			this.profiler = profiler;
+			this.beanClass = beanClass;
+			this.containerType = containerType;
+			this.properties = properties;
+			this.profiles = profiles;
+		}
+	}
+
+	/**
+	 * Accessors compiled for a list of properties.
+	 */
+	private static final class CompiledProperties {
+
+		private final List<PropertyMetadata> properties;
+		private final PropertyAccessor[] accessors;
+
+		private CompiledProperties(List<PropertyMetadata> properties,
+				PropertyAccessor[] accessors) {
+			this.properties = properties;
+			this.accessors = accessors;
+		}
+	}
+
 }
@@ -3,13 +3,18 @@ package org.xgbi.vaadin.container;
 import java.io.InvalidClassException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.beanutils.ConstructorUtils;
+import org.xgbi.vaadin.container.metrics.Metrics;
+import org.xgbi.vaadin.container.metrics.Operation;
+import org.xgbi.vaadin.container.metrics.OperationTrace;
 import org.xgbi.vaadin.container.property.HierarchicalBeanBuilder;
+import org.xgbi.vaadin.container.property.BeanDataSource;
 import org.xgbi.vaadin.container.property.PropertyMetadata;
 import org.xgbi.vaadin.container.property.PropertyReaderAlgorithm;
 
@@ -20,11 +25,11 @@ import com.vaadin.data.Container.Hierarchical;
 import com.vaadin.data.util.AbstractBeanContainer;
 import com.vaadin.data.util.AbstractBeanContainer.BeanIdResolver;
 import com.vaadin.data.util.AbstractHierarchicalBeanContainer;
-import com.vaadin.data.util.AliasPropertyDescriptor;
 import com.vaadin.data.util.BeanContainer;
-import com.vaadin.data.util.BeanItem;
+import com.vaadin.data.util.BeanContainerMerger;
 import com.vaadin.data.util.BeanItemContainer;
-import com.vaadin.data.util.VaadinPropertyDescriptor;
+import com.vaadin.data.util.BeanItemTemplate;
+import com.vaadin.data.util.LazyBeanContainer;
 
 import static org.xgbi.vaadin.container.ContainerUtils.addContainerProperty;
 
@@ -52,8 +57,10 @@ public abstract class AbstractHierarchicalBeanContainerFactory<IDTYPE, BEANTYPE>
 
     private Constructor<? extends AbstractBeanContainer> containerConstructor;
 
-    private Method itemGropertyDescriptorsMethod;
-    private Constructor<? extends BeanItem> itemBeanItemConstructor;
+    /**
+     * The template used to create items (built on first use).
+     */
+    private volatile BeanItemTemplate<BEANTYPE> itemTemplate;
 
     private String propertyId;
 
@@ -61,6 +68,10 @@ public abstract class AbstractHierarchicalBeanContainerFactory<IDTYPE, BEANTYPE>
 
     private HierarchicalBeanBuilder<IDTYPE, BEANTYPE> beanBuilder;
 
+    private ExecutorService childrenExecutor;
+
+    private int parallelThreshold = AbstractHierarchicalBeanContainer.DEFAULT_PARALLEL_THRESHOLD;
+
     /**
      * The property reader algorithm.
      */
@@ -135,24 +146,6 @@ public abstract class AbstractHierarchicalBeanContainerFactory<IDTYPE, BEANTYPE>
         this.propertyId = propertyId;
         this.beanIdResolver = beanIdResolver;
         this.beanBuilder = beanBuilder;
-        try {
-            Method method = BeanItem.class.getDeclaredMethod("getPropertyDescriptors", Class.class);
-            if (!method.isAccessible()) {
-                method.setAccessible(true);
-            }
-            itemGropertyDescriptorsMethod = method;
-            Constructor<? extends BeanItem> constructor = BeanItem.class.getDeclaredConstructor(Object.class, Map.class);
-            if (!constructor.isAccessible()) {
-                constructor.setAccessible(true);
-            }
-            itemBeanItemConstructor = constructor;
-        } catch (SecurityException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        } catch (NoSuchMethodException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
     }
 
     /**
@@ -178,24 +171,44 @@ public abstract class AbstractHierarchicalBeanContainerFactory<IDTYPE, BEANTYPE>
     @Override
     public Container getContainerFromCollection(Container container, Collection<BEANTYPE> beans,
             Class<? extends Container> containerClass) {
+        OperationTrace trace = OperationTrace.begin(Operation.GET_CONTAINER);
         // Instansiate it
         // FIXME How to handle Exception ?
         try {
-            if (container == null || !(container instanceof AbstractBeanContainer<?, ?>)) {
-                container = initContainer(containerClass);
-            }
-            updateProperties(container);
-            if (container.removeAllItems()) {
-                // Re-add them
-                if (container instanceof BeanContainer<?, ?>) {
-                    ((BeanContainer<IDTYPE, BEANTYPE>) container).addAll(beans);
-                } else if (container instanceof BeanItemContainer<?>) {
-                    ((BeanItemContainer<BEANTYPE>) container).addAll(beans);
-                } else {
-                    // Should never happen
-                    throw new InvalidClassException("container class is not supported.");
+            container = prepareContainer(container, containerClass);
+            long start = Metrics.start(Operation.POPULATE);
+            if (getRefreshMode() == RefreshMode.MERGE) {
+                // Only the differences, the hierarchy is rebuilt once
+                BeanContainerMerger.merge((AbstractBeanContainer<IDTYPE, BEANTYPE>) container, beans);
+            } else {
+                // Build the hierarchy once, with a single event
+                AbstractHierarchicalBeanContainer hierarchicalContainer = null;
+                if (container instanceof AbstractHierarchicalBeanContainer<?, ?>
+                        && !((AbstractHierarchicalBeanContainer) container).isBulkLoading()) {
+                    hierarchicalContainer = (AbstractHierarchicalBeanContainer) container;
+                    hierarchicalContainer.beginBulkLoad();
+                }
+                try {
+                    if (container.removeAllItems()) {
+                        // Re-add them
+                        if (container instanceof BeanContainer<?, ?>) {
+                            ((BeanContainer<IDTYPE, BEANTYPE>) container).addAll(beans);
+                        } else if (container instanceof BeanItemContainer<?>) {
+                            ((BeanItemContainer<BEANTYPE>) container).addAll(beans);
+                        } else {
+                            // Should never happen
+                            throw new InvalidClassException("container class is not supported.");
+                        }
+                    }
+                } finally {
+                    if (hierarchicalContainer != null) {
+                        hierarchicalContainer.endBulkLoad();
+                    }
                 }
             }
+            if (start != Metrics.NOT_RECORDED) {
+                Metrics.stop(Operation.POPULATE, start, beanClass, container.size());
+            }
         } catch (IllegalArgumentException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
@@ -211,56 +224,122 @@ public abstract class AbstractHierarchicalBeanContainerFactory<IDTYPE, BEANTYPE>
         } catch (InvalidClassException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
+        } finally {
+            trace.end(beanClass, container, (container != null) ? container.size() : 0);
         }
         return container;
     }
 
+    /**
+     * {@inheritDoc}
+     */
     @Override
-    public Item newItem(BEANTYPE bean) {
-        Item item = null;
-        if (itemGropertyDescriptorsMethod != null) {
-            try {
-                // 1. Get propertyDescriptors
-                Map<String, VaadinPropertyDescriptor<BEANTYPE>> propertyDescriptors = (Map<String, VaadinPropertyDescriptor<BEANTYPE>>) itemGropertyDescriptorsMethod
-                        .invoke(null, beanClass);
-                // 2. Update propertyDescriptors
-                if (propertyReaderAlgorithm != null) {
-                    List<PropertyMetadata> properties = propertyReaderAlgorithm.getProperties(beanClass);
-                    for (PropertyMetadata property : properties) {
-                        if (beanContainerType.isAssignableFrom(AliasContainer.class)) {
-                            if (property.getPropertyAttribute() != null) {
-                                propertyDescriptors.put(
-                                        property.getPropertyName(),
-                                        new AliasPropertyDescriptor<BEANTYPE>(property.getPropertyName(), property
-                                                .getPropertyAttribute(), (Class<BEANTYPE>) beanClass));
-                            }
+    public Container getContainerFromIterator(Container container, Iterator<BEANTYPE> beans,
+            Class<? extends Container> containerClass) {
+        OperationTrace trace = OperationTrace.begin(Operation.GET_CONTAINER);
+        try {
+            container = prepareContainer(container, containerClass);
+            long start = Metrics.start(Operation.POPULATE);
+            // Always replace the items, whatever the refresh mode
+            container.removeAllItems();
+            if (beans != null) {
+                int chunkSize = getChunkSize();
+                List<BEANTYPE> chunk = new ArrayList<BEANTYPE>(Math.min(chunkSize, DEFAULT_CHUNK_SIZE));
+                while (beans.hasNext()) {
+                    chunk.add(beans.next());
+                    if (chunk.size() == chunkSize || !beans.hasNext()) {
+                        // One event per chunk
+                        if (container instanceof BeanContainer<?, ?>) {
+                            ((BeanContainer<IDTYPE, BEANTYPE>) container).addAll(chunk);
+                        } else {
+                            ((BeanItemContainer<BEANTYPE>) container).addAll(chunk);
                         }
+                        chunk.clear();
                     }
                 }
-                // 3. Instantiate beanItem
-                item = itemBeanItemConstructor.newInstance(bean, propertyDescriptors);
-            } catch (IllegalArgumentException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (IllegalAccessException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (InvocationTargetException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (InstantiationException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
             }
-        } else {
-            item = new BeanItem<BEANTYPE>(bean);
+            if (start != Metrics.NOT_RECORDED) {
+                Metrics.stop(Operation.POPULATE, start, beanClass, container.size());
+            }
+        } catch (InstantiationException e) {
+            throw new IllegalArgumentException("containerClass cannot be instantiated.", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("containerClass cannot be instantiated.", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("containerClass cannot be instantiated.", e);
+        } catch (InvalidClassException e) {
+            throw new IllegalArgumentException("containerClass is not supported.", e);
+        } finally {
+            trace.end(beanClass, container, (container != null) ? container.size() : 0);
         }
-        return item;
+        return container;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Container getContainerFromDataSource(BeanDataSource<BEANTYPE> dataSource) {
+        List<PropertyMetadata> properties = (propertyReaderAlgorithm != null) ? propertyReaderAlgorithm
+                .getProperties(beanClass) : null;
+        return new LazyBeanContainer<BEANTYPE>((Class<BEANTYPE>) beanClass, dataSource, properties);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setChildrenExecutor(ExecutorService childrenExecutor, int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("parallelThreshold must be greater than 0.");
+        }
+        this.childrenExecutor = childrenExecutor;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @Override
+    public Item newItem(BEANTYPE bean) {
+        return getItemTemplate().newItem(bean);
+    }
+
+    /**
+     * Get the template used to create items, building it if needed.
+     * 
+     * @return the item template.
+     */
+    private BeanItemTemplate<BEANTYPE> getItemTemplate() {
+        BeanItemTemplate<BEANTYPE> template = itemTemplate;
+        if (template == null) {
+            List<PropertyMetadata> properties = (propertyReaderAlgorithm != null) ? propertyReaderAlgorithm
+                    .getProperties(beanClass) : null;
+            template = new BeanItemTemplate<BEANTYPE>((Class<BEANTYPE>) beanClass, properties,
+                    AliasContainer.class.isAssignableFrom(beanContainerType), beanContainerType);
+            itemTemplate = template;
+        }
+        return template;
+    }
+
+    private Container prepareContainer(Container container, Class<? extends Container> containerClass)
+            throws InvalidClassException, IllegalArgumentException, InstantiationException, IllegalAccessException,
+            InvocationTargetException {
+        if (container == null || !(container instanceof AbstractBeanContainer<?, ?>)) {
+            long start = Metrics.start(Operation.INIT_CONTAINER);
+            container = initContainer(containerClass);
+            Metrics.stop(Operation.INIT_CONTAINER, start, beanClass, 0);
+            ContainerStatistics.track(container);
+        }
+        long start = Metrics.start(Operation.UPDATE_PROPERTIES);
+        updateProperties(container);
+        Metrics.stop(Operation.UPDATE_PROPERTIES, start, beanClass, 0);
+        return container;
     }
 
     private Container initContainer(Class<? extends Container> containerClass) throws InvalidClassException, IllegalArgumentException, InstantiationException, IllegalAccessException, InvocationTargetException {
         // FIXME Simplify everything (HierarchicalBeanContainerFactory instead)
         Container container = containerConstructor.newInstance(beanClass);
+        if (childrenExecutor != null) {
+            ((AbstractHierarchicalBeanContainer) container).setChildrenExecutor(childrenExecutor, parallelThreshold);
+        }
         if (beanBuilder != null) {
             ((AbstractHierarchicalBeanContainer)container).setHierarchicalBeanBuilder(beanBuilder);
         }
@@ -1,16 +1,54 @@
 package org.xgbi.vaadin.container;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.xgbi.vaadin.container.metrics.Operation;
+import org.xgbi.vaadin.container.metrics.OperationTrace;
+import org.xgbi.vaadin.container.property.PropertyAccessor;
+import org.xgbi.vaadin.container.property.PropertyAccessors;
+
+import com.vaadin.data.Container.Filter;
+import com.vaadin.data.Property;
 import com.vaadin.data.util.AbstractBeanContainer;
 import com.vaadin.data.util.AliasPropertyDescriptor;
 import com.vaadin.data.util.BeanContainer;
+import com.vaadin.data.util.BeanItem;
+import com.vaadin.data.util.ItemSorter;
+import com.vaadin.data.util.ListSet;
+import com.vaadin.data.util.MethodPropertyDescriptor;
+import com.vaadin.data.util.NestedPropertyDescriptor;
 import com.vaadin.data.util.VaadinPropertyDescriptor;
+import com.vaadin.data.util.filter.SimpleStringFilter;
 
 /**
  * An extension of the {@link BeanContainer}, which adds shorcuts properties.
  * 
+ * With the default item sorter, the container is sorted on values extracted
+ * once per item and sort property, instead of reading the (alias) properties
+ * of both items on each comparison.
+ * 
+ * The string filters ({@link SimpleStringFilter}) on the properties marked as
+ * indexed (see {@link #setFilterIndexed(Object, boolean)}) are evaluated on
+ * the items found by an index (prefix or trigrams) instead of on all items.
+ * The filters can be evaluated in parallel on an executor (see
+ * {@link #setFilterExecutor(ExecutorService, int)}).
+ * 
  * @author Vincent Demeester <vincent@shortbrain.org>
  * 
  * @param <IDTYPE>
@@ -26,8 +64,59 @@ public class AliasBeanContainer<IDTYPE, BEANTYPE> extends com.vaadin.data.util.B
         implements AliasContainer {
 
     private static final long serialVersionUID = 2865701930991415312L;
+
+    /**
+     * Default minimum number of items to evaluate the filters in parallel.
+     * 
+     * @since 0.4.0
+     */
+    public static final int DEFAULT_PARALLEL_FILTER_THRESHOLD = 10000;
+
+    /**
+     * Minimum number of items per parallel filter task.
+     */
+    private static final int MIN_FILTER_CHUNK_SIZE = 1024;
+
     private Field modelField;
 
+    /**
+     * The item sorter set at creation, replaced by the precomputed keys sort.
+     */
+    private final ItemSorter defaultItemSorter;
+
+    /**
+     * The paths of the alias properties, by property identifier.
+     */
+    private final Map<String, String> aliasPaths = new HashMap<String, String>();
+
+    private transient Object[] sortPropertyIds;
+    private transient boolean[] sortAscending;
+
+    /**
+     * The properties with a filter index.
+     */
+    private final Set<Object> indexedPropertyIds = new LinkedHashSet<Object>();
+
+    /**
+     * The filter indexes, by property identifier (populated on first filter).
+     */
+    private transient Map<Object, StringFilterIndex> filterIndexes;
+
+    /**
+     * The index of each item in the unfiltered list (built when needed).
+     */
+    private transient Map<Object, Integer> positions;
+
+    /**
+     * The executor used to evaluate the filters in parallel (might be null).
+     */
+    private transient ExecutorService filterExecutor;
+
+    /**
+     * Minimum number of items to evaluate the filters in parallel.
+     */
+    private int parallelFilterThreshold = DEFAULT_PARALLEL_FILTER_THRESHOLD;
+
     /**
      * Create a {@link AliasBeanContainer}
      * 
@@ -36,6 +125,7 @@ public class AliasBeanContainer<IDTYPE, BEANTYPE> extends com.vaadin.data.util.B
      */
     public AliasBeanContainer(Class<? super BEANTYPE> type) {
         super(type);
+        defaultItemSorter = getItemSorter();
         try {
             modelField = AbstractBeanContainer.class.getDeclaredField("model");
             modelField.setAccessible(true);
@@ -50,7 +140,12 @@ public class AliasBeanContainer<IDTYPE, BEANTYPE> extends com.vaadin.data.util.B
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public boolean addShortcutContainerProperty(String propertyId, String propertyPath) {
-        return addContainerProperty(propertyId, new AliasPropertyDescriptor(propertyId, propertyPath, getBeanType()));
+        boolean added = addContainerProperty(propertyId, new AliasPropertyDescriptor(propertyId, propertyPath,
+                getBeanType(), getClass()));
+        if (added) {
+            aliasPaths.put(propertyId, propertyPath);
+        }
+        return added;
     }
     
     public boolean removeContainerProperty(String propertyId) {
@@ -61,6 +156,8 @@ public class AliasBeanContainer<IDTYPE, BEANTYPE> extends com.vaadin.data.util.B
                 if (model.containsKey(propertyId)) {
                     model.remove(propertyId);
                 }
+                aliasPaths.remove(propertyId);
+                setFilterIndexed(propertyId, false);
                 return true;
             } catch (IllegalArgumentException e) {
                 // TODO Auto-generated catch block
@@ -72,4 +169,444 @@ public class AliasBeanContainer<IDTYPE, BEANTYPE> extends com.vaadin.data.util.B
         }
         return false;
     }
+
+    @Override
+    public void sort(Object[] propertyId, boolean[] ascending) {
+        sortPropertyIds = propertyId;
+        sortAscending = ascending;
+        try {
+            super.sort(propertyId, ascending);
+        } finally {
+            sortPropertyIds = null;
+            sortAscending = null;
+        }
+    }
+
+    @Override
+    protected void doSort() {
+        OperationTrace trace = OperationTrace.begin(Operation.SORT);
+        try {
+            sortItemIds();
+        } finally {
+            trace.end(getBeanType(), this, getAllItemIds().size());
+        }
+    }
+
+    /**
+     * Sort on precomputed keys if the default item sorter is used, as
+     * {@link com.vaadin.data.util.DefaultItemSorter} would (only the sortable
+     * properties, null first, stable).
+     */
+    private void sortItemIds() {
+        if (sortPropertyIds == null || getItemSorter() != defaultItemSorter) {
+            super.doSort();
+            positions = null;
+            return;
+        }
+        List<Object> propertyIds = new ArrayList<Object>();
+        List<Boolean> orders = new ArrayList<Boolean>();
+        Collection<?> sortable = getSortableContainerPropertyIds();
+        for (int i = 0; i < sortPropertyIds.length; i++) {
+            if (sortable.contains(sortPropertyIds[i])) {
+                propertyIds.add(sortPropertyIds[i]);
+                orders.add(i < sortAscending.length ? sortAscending[i] : true);
+            }
+        }
+        List<IDTYPE> itemIds = getAllItemIds();
+        Object[][] values = new Object[propertyIds.size()][];
+        boolean[] ascending = new boolean[orders.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getSortValues(itemIds, propertyIds.get(i));
+            ascending[i] = orders.get(i);
+        }
+        SortKeys.sort(itemIds, values, ascending);
+        positions = null;
+    }
+
+    /**
+     * Get the values of a property for the given items, through an accessor
+     * resolved once for the alias, bean and nested properties (falling back on
+     * the item property).
+     */
+    @SuppressWarnings("unchecked")
+    private Object[] getSortValues(List<IDTYPE> itemIds, Object propertyId) {
+        String path = getBeanPath(propertyId);
+        PropertyAccessor accessor = (path != null) ? PropertyAccessors.resolve(getBeanType(), path) : null;
+        Object[] values = new Object[itemIds.size()];
+        for (int i = 0; i < values.length; i++) {
+            BeanItem<BEANTYPE> item = getUnfilteredItem(itemIds.get(i));
+            if (accessor != null) {
+                try {
+                    values[i] = accessor.getValue(item.getBean());
+                    continue;
+                } catch (IllegalAccessException e) {
+                    // Fall back on the item property
+                } catch (InvocationTargetException e) {
+                    // Fall back on the item property
+                } catch (NoSuchMethodException e) {
+                    // Fall back on the item property
+                }
+            }
+            Property<Object> property = item.getItemProperty(propertyId);
+            values[i] = (property != null) ? property.getValue() : null;
+        }
+        return values;
+    }
+
+    /**
+     * Get the path of a property on the bean, or null if the property is not
+     * read from a path (e.g. a property with a custom descriptor).
+     */
+    @SuppressWarnings("unchecked")
+    private String getBeanPath(Object propertyId) {
+        if (aliasPaths.containsKey(propertyId)) {
+            return aliasPaths.get(propertyId);
+        }
+        if (modelField == null) {
+            return null;
+        }
+        VaadinPropertyDescriptor<BEANTYPE> descriptor;
+        try {
+            descriptor = ((Map<String, VaadinPropertyDescriptor<BEANTYPE>>) modelField.get(this)).get(propertyId);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        if (descriptor instanceof MethodPropertyDescriptor || descriptor instanceof NestedPropertyDescriptor) {
+            return descriptor.getName();
+        }
+        return null;
+    }
+
+    /**
+     * Mark a property as indexed (or not) for the string filters. The index is
+     * built on the first filter on the property, then kept up to date as
+     * items are added or removed ; if the values of the items change, the
+     * indexes have to be invalidated (see {@link #invalidateFilterIndexes()}).
+     * 
+     * @param propertyId
+     *            The property identifier
+     * @param indexed
+     *            true to index the property
+     * 
+     * @since 0.4.0
+     */
+    public void setFilterIndexed(Object propertyId, boolean indexed) {
+        if (propertyId == null) {
+            throw new IllegalArgumentException("propertyId cannot be null.");
+        }
+        if (indexed) {
+            indexedPropertyIds.add(propertyId);
+        } else {
+            indexedPropertyIds.remove(propertyId);
+            if (filterIndexes != null) {
+                filterIndexes.remove(propertyId);
+            }
+        }
+    }
+
+    /**
+     * Tell if a property is indexed for the string filters.
+     * 
+     * @param propertyId
+     *            The property identifier
+     * @return true if the property is indexed
+     * 
+     * @since 0.4.0
+     */
+    public boolean isFilterIndexed(Object propertyId) {
+        return indexedPropertyIds.contains(propertyId);
+    }
+
+    /**
+     * Drop the content of the filter indexes, to be built again on the next
+     * filter (e.g. after the values of indexed properties changed).
+     * 
+     * @since 0.4.0
+     */
+    public void invalidateFilterIndexes() {
+        filterIndexes = null;
+    }
+
+    @Override
+    protected void registerNewItem(int position, IDTYPE itemId, BeanItem<BEANTYPE> item) {
+        super.registerNewItem(position, itemId, item);
+        positions = null;
+        if (filterIndexes != null) {
+            for (Map.Entry<Object, StringFilterIndex> entry : filterIndexes.entrySet()) {
+                if (entry.getValue().isPopulated()) {
+                    entry.getValue().add(itemId, getValue(item, entry.getKey()));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean internalRemoveItem(Object itemId) {
+        boolean removed = super.internalRemoveItem(itemId);
+        if (removed) {
+            positions = null;
+            if (filterIndexes != null) {
+                for (StringFilterIndex index : filterIndexes.values()) {
+                    index.remove(itemId);
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    protected void internalRemoveAllItems() {
+        super.internalRemoveAllItems();
+        positions = null;
+        if (filterIndexes != null) {
+            for (StringFilterIndex index : filterIndexes.values()) {
+                index.reset();
+                index.setPopulated();
+            }
+        }
+    }
+
+    @Override
+    protected boolean doFilterContainer(boolean hasFilters) {
+        OperationTrace trace = OperationTrace.begin(Operation.FILTER);
+        try {
+            return filterContainer(hasFilters);
+        } finally {
+            trace.end(getBeanType(), this, size());
+        }
+    }
+
+    /**
+     * Filter on the items found by the filter indexes if one of the filters is
+     * an indexed string filter, on all the items otherwise ; in parallel on
+     * the filter executor if there are enough items. The filtered item
+     * identifiers can only be set through the deprecated setter, as
+     * {@link com.vaadin.data.util.AbstractInMemoryContainer} does.
+     */
+    @SuppressWarnings("deprecation")
+    private boolean filterContainer(boolean hasFilters) {
+        if (!hasFilters) {
+            return super.doFilterContainer(hasFilters);
+        }
+        Collection<Object> candidates = null;
+        if (!indexedPropertyIds.isEmpty()) {
+            for (Filter filter : getFilters()) {
+                if (filter instanceof SimpleStringFilter
+                        && indexedPropertyIds.contains(((SimpleStringFilter) filter).getPropertyId())) {
+                    Collection<Object> filterCandidates = getFilterIndex(((SimpleStringFilter) filter).getPropertyId())
+                            .getCandidates((SimpleStringFilter) filter);
+                    if (candidates == null || filterCandidates.size() < candidates.size()) {
+                        candidates = filterCandidates;
+                    }
+                }
+            }
+        }
+        List<IDTYPE> itemIds = (candidates != null) ? getOrderedItemIds(candidates) : getAllItemIds();
+        if (candidates == null && (filterExecutor == null || itemIds.size() < parallelFilterThreshold)) {
+            return super.doFilterContainer(hasFilters);
+        }
+        List<IDTYPE> originalFilteredItemIds = getFilteredItemIds();
+        List<IDTYPE> filteredItemIds = filterItemIds(itemIds);
+        setFilteredItemIds(filteredItemIds);
+        if (originalFilteredItemIds == null) {
+            return !getAllItemIds().isEmpty();
+        }
+        if (originalFilteredItemIds.size() != filteredItemIds.size()) {
+            return true;
+        }
+        for (int i = 0; i < filteredItemIds.size(); i++) {
+            // Both lists come from the full list, can use ==
+            if (originalFilteredItemIds.get(i) != filteredItemIds.get(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the items (of the given ones) that pass the filters, in the same
+     * order. The filters are evaluated in parallel chunks on the filter
+     * executor if there are enough items.
+     */
+    private List<IDTYPE> filterItemIds(List<IDTYPE> itemIds) {
+        ExecutorService executor = filterExecutor;
+        if (executor == null || itemIds.size() < parallelFilterThreshold) {
+            ListSet<IDTYPE> filteredItemIds = new ListSet<IDTYPE>();
+            for (IDTYPE itemId : itemIds) {
+                if (passesFilters(itemId)) {
+                    filteredItemIds.add(itemId);
+                }
+            }
+            return filteredItemIds;
+        }
+        int tasks = Runtime.getRuntime().availableProcessors() * 4;
+        int chunkSize = Math.max(MIN_FILTER_CHUNK_SIZE, (itemIds.size() + tasks - 1) / tasks);
+        List<FilterTask> filterTasks = new ArrayList<FilterTask>();
+        for (int from = 0; from < itemIds.size(); from += chunkSize) {
+            filterTasks.add(new FilterTask(itemIds.subList(from, Math.min(from + chunkSize, itemIds.size()))));
+        }
+        ListSet<IDTYPE> filteredItemIds = new ListSet<IDTYPE>();
+        try {
+            // The futures are in the order of the tasks
+            for (Future<List<IDTYPE>> future : executor.invokeAll(filterTasks)) {
+                filteredItemIds.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while filtering.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("cannot filter the container.", cause);
+        }
+        return filteredItemIds;
+    }
+
+    /**
+     * Set the executor used to evaluate the filters in parallel, when the
+     * container is filtered on at least {@link #DEFAULT_PARALLEL_FILTER_THRESHOLD}
+     * items. The filters must then be thread-safe (the ones of Vaadin are).
+     * 
+     * @param filterExecutor
+     *            the executor, or null to filter sequentially.
+     * 
+     * @since 0.4.0
+     */
+    public void setFilterExecutor(ExecutorService filterExecutor) {
+        setFilterExecutor(filterExecutor, DEFAULT_PARALLEL_FILTER_THRESHOLD);
+    }
+
+    /**
+     * Set the executor used to evaluate the filters in parallel, when the
+     * container is filtered on at least parallelFilterThreshold items. The
+     * filters must then be thread-safe (the ones of Vaadin are).
+     * 
+     * @param filterExecutor
+     *            the executor, or null to filter sequentially.
+     * @param parallelFilterThreshold
+     *            the minimum number of items to filter them in parallel.
+     * @throws IllegalArgumentException
+     *             if parallelFilterThreshold is lower than 1.
+     * 
+     * @since 0.4.0
+     */
+    public void setFilterExecutor(ExecutorService filterExecutor, int parallelFilterThreshold) {
+        if (parallelFilterThreshold < 1) {
+            throw new IllegalArgumentException("parallelFilterThreshold must be greater than 0.");
+        }
+        this.filterExecutor = filterExecutor;
+        this.parallelFilterThreshold = parallelFilterThreshold;
+    }
+
+    /**
+     * Get the executor used to evaluate the filters in parallel.
+     * 
+     * @return the executor (might be null).
+     * 
+     * @since 0.4.0
+     */
+    public ExecutorService getFilterExecutor() {
+        return filterExecutor;
+    }
+
+    /**
+     * Get the minimum number of items to evaluate the filters in parallel.
+     * 
+     * @return the parallel filter threshold.
+     * 
+     * @since 0.4.0
+     */
+    public int getParallelFilterThreshold() {
+        return parallelFilterThreshold;
+    }
+
+    /**
+     * Get the filter index of a property, populated.
+     */
+    private StringFilterIndex getFilterIndex(Object propertyId) {
+        if (filterIndexes == null) {
+            filterIndexes = new LinkedHashMap<Object, StringFilterIndex>();
+        }
+        StringFilterIndex index = filterIndexes.get(propertyId);
+        if (index == null) {
+            index = new StringFilterIndex();
+            filterIndexes.put(propertyId, index);
+        }
+        if (!index.isPopulated()) {
+            for (IDTYPE itemId : getAllItemIds()) {
+                index.add(itemId, getValue(getUnfilteredItem(itemId), propertyId));
+            }
+            index.setPopulated();
+        }
+        return index;
+    }
+
+    /**
+     * Get the given items in the order of the container.
+     */
+    @SuppressWarnings("unchecked")
+    private List<IDTYPE> getOrderedItemIds(Collection<Object> itemIds) {
+        List<IDTYPE> allItemIds = getAllItemIds();
+        List<IDTYPE> ordered = new ArrayList<IDTYPE>(itemIds.size());
+        if (itemIds.size() * 8L > allItemIds.size()) {
+            // Many items, a pass on the whole list is cheaper than a sort
+            Set<Object> set = new HashSet<Object>(itemIds);
+            for (IDTYPE itemId : allItemIds) {
+                if (set.contains(itemId)) {
+                    ordered.add(itemId);
+                }
+            }
+            return ordered;
+        }
+        if (positions == null) {
+            positions = new HashMap<Object, Integer>();
+            for (int i = 0; i < allItemIds.size(); i++) {
+                positions.put(allItemIds.get(i), i);
+            }
+        }
+        for (Object itemId : itemIds) {
+            ordered.add((IDTYPE) itemId);
+        }
+        final Map<Object, Integer> itemPositions = positions;
+        Collections.sort(ordered, new Comparator<IDTYPE>() {
+
+            @Override
+            public int compare(IDTYPE o1, IDTYPE o2) {
+                return itemPositions.get(o1).compareTo(itemPositions.get(o2));
+            }
+        });
+        return ordered;
+    }
+
+    private static Object getValue(BeanItem<?> item, Object propertyId) {
+        Property<?> property = item.getItemProperty(propertyId);
+        return (property != null) ? property.getValue() : null;
+    }
+
+    /**
+     * Evaluate the filters on a chunk of the items.
+     */
+    private final class FilterTask implements Callable<List<IDTYPE>> {
+
+        private final List<IDTYPE> itemIds;
+
+        private FilterTask(List<IDTYPE> itemIds) {
+            this.itemIds = itemIds;
+        }
+
+        @Override
+        public List<IDTYPE> call() {
+            List<IDTYPE> filteredItemIds = new ArrayList<IDTYPE>();
+            for (IDTYPE itemId : itemIds) {
+                if (passesFilters(itemId)) {
+                    filteredItemIds.add(itemId);
+                }
+            }
+            return filteredItemIds;
+        }
+    }
 }
@@ -0,0 +1,963 @@
+package org.xgbi.vaadin.container;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.ContainerHelpers;
+import com.vaadin.data.Item;
+import com.vaadin.data.Property;
+import com.vaadin.data.util.AbstractContainer;
+
+/**
+ * A {@link Container} that stores its values by column, in arrays of the type
+ * of each property: <code>int[]</code>, <code>long[]</code> and
+ * <code>double[]</code> for the numeric types, a {@link BitSet} for booleans,
+ * and an <code>Object[]</code> for the other types.
+ *
+ * <p>
+ * Unlike {@link com.vaadin.data.util.IndexedContainer}, there is no map nor
+ * boxed value per item: the items and their properties are views on the
+ * columns, created when asked for. It is meant to hold large tables of
+ * (mostly numeric) values, e.g. built by a {@link ContainerFactory} with
+ * <code>ColumnarContainer.class</code> as container class.
+ * </p>
+ *
+ * <p>
+ * The item identifiers are generated (as {@link Integer}) and stay the same
+ * until the item is removed ; the rows of the removed items are reused, so
+ * their identifiers might be given to new items. Values can be null, whatever
+ * the type of the column.
+ * </p>
+ *
+ * <p>
+ * As in {@link com.vaadin.data.util.IndexedContainer}, the value changes can
+ * be listened for on the container (any cell) or on a single property, and a
+ * property set read-only stays read-only until its item is removed.
+ * </p>
+ *
+ * @since 0.4.0
+ */
+public class ColumnarContainer extends AbstractContainer implements Container.Indexed,
+        Container.ItemSetChangeNotifier, Container.PropertySetChangeNotifier, Property.ValueChangeNotifier {
+
+    private static final long serialVersionUID = -4466206339813154035L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The columns, by property identifier.
+     */
+    private final Map<Object, Column> columns = new LinkedHashMap<Object, Column>();
+
+    /**
+     * The rows (slots of the columns) in item order.
+     */
+    private int[] order = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * The index of each row in {@link #order}, -1 for removed rows.
+     */
+    private int[] positions = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of rows allocated in the columns (removed ones included).
+     */
+    private int rowCount;
+
+    /**
+     * The removed rows, reused by the next added items.
+     */
+    private int[] freeRows = new int[INITIAL_CAPACITY];
+
+    private int freeCount;
+
+    private int capacity = INITIAL_CAPACITY;
+
+    /**
+     * The listeners of the value changes of any cell.
+     */
+    private List<Property.ValueChangeListener> valueChangeListeners;
+
+    /**
+     * The listeners of the value changes of a single cell, by property and
+     * row.
+     */
+    private Map<Object, Map<Integer, List<Property.ValueChangeListener>>> cellValueChangeListeners;
+
+    /**
+     * Create an empty {@link ColumnarContainer}.
+     */
+    public ColumnarContainer() {
+        Arrays.fill(positions, -1);
+    }
+
+    // Container
+
+    @Override
+    public Item getItem(Object itemId) {
+        return containsId(itemId) ? new RowItem((Integer) itemId) : null;
+    }
+
+    @Override
+    public Collection<?> getContainerPropertyIds() {
+        return Collections.unmodifiableCollection(columns.keySet());
+    }
+
+    @Override
+    public List<Integer> getItemIds() {
+        return new AbstractList<Integer>() {
+
+            @Override
+            public Integer get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return order[index];
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Property getContainerProperty(Object itemId, Object propertyId) {
+        Column column = columns.get(propertyId);
+        if (column == null || !containsId(itemId)) {
+            return null;
+        }
+        return new ColumnProperty((Integer) itemId, propertyId, column);
+    }
+
+    @Override
+    public Class<?> getType(Object propertyId) {
+        Column column = columns.get(propertyId);
+        return (column != null) ? column.type : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsId(Object itemId) {
+        if (!(itemId instanceof Integer)) {
+            return false;
+        }
+        int row = (Integer) itemId;
+        return row >= 0 && row < rowCount && positions[row] >= 0;
+    }
+
+    @Override
+    public Item addItem(Object itemId) {
+        throw new UnsupportedOperationException("ColumnarContainer generates its item identifiers.");
+    }
+
+    @Override
+    public Object addItem() {
+        return addItemAt(size);
+    }
+
+    @Override
+    public boolean removeItem(Object itemId) {
+        if (!containsId(itemId)) {
+            return false;
+        }
+        int row = (Integer) itemId;
+        int index = positions[row];
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        updatePositions(index);
+        positions[row] = -1;
+        for (Column column : columns.values()) {
+            column.clear(row);
+        }
+        if (cellValueChangeListeners != null) {
+            for (Map<Integer, List<Property.ValueChangeListener>> listeners : cellValueChangeListeners.values()) {
+                listeners.remove(row);
+            }
+        }
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+        fireItemSetChange();
+        return true;
+    }
+
+    @Override
+    public boolean addContainerProperty(Object propertyId, Class<?> type, Object defaultValue) {
+        if (propertyId == null || type == null) {
+            throw new NullPointerException("propertyId and type cannot be null.");
+        }
+        if (columns.containsKey(propertyId)) {
+            return false;
+        }
+        Column column = createColumn(type, defaultValue, capacity);
+        if (column == null) {
+            return false;
+        }
+        for (int row = 0; row < rowCount; row++) {
+            column.reset(row);
+        }
+        columns.put(propertyId, column);
+        fireContainerPropertySetChange();
+        return true;
+    }
+
+    @Override
+    public boolean removeContainerProperty(Object propertyId) {
+        Column column = columns.remove(propertyId);
+        if (column == null) {
+            return false;
+        }
+        column.release();
+        if (cellValueChangeListeners != null) {
+            cellValueChangeListeners.remove(propertyId);
+        }
+        fireContainerPropertySetChange();
+        return true;
+    }
+
+    @Override
+    public boolean removeAllItems() {
+        int origSize = size;
+        size = 0;
+        rowCount = 0;
+        capacity = INITIAL_CAPACITY;
+        order = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        freeRows = new int[INITIAL_CAPACITY];
+        freeCount = 0;
+        cellValueChangeListeners = null;
+        for (Column column : columns.values()) {
+            column.resize(capacity);
+        }
+        if (origSize != 0) {
+            fireItemSetChange();
+        }
+        return true;
+    }
+
+    // Container.Ordered
+
+    @Override
+    public Object nextItemId(Object itemId) {
+        int index = indexOfId(itemId);
+        return (index >= 0 && index < size - 1) ? order[index + 1] : null;
+    }
+
+    @Override
+    public Object prevItemId(Object itemId) {
+        int index = indexOfId(itemId);
+        return (index > 0) ? order[index - 1] : null;
+    }
+
+    @Override
+    public Object firstItemId() {
+        return (size > 0) ? order[0] : null;
+    }
+
+    @Override
+    public Object lastItemId() {
+        return (size > 0) ? order[size - 1] : null;
+    }
+
+    @Override
+    public boolean isFirstId(Object itemId) {
+        return size > 0 && itemId != null && itemId.equals(order[0]);
+    }
+
+    @Override
+    public boolean isLastId(Object itemId) {
+        return size > 0 && itemId != null && itemId.equals(order[size - 1]);
+    }
+
+    @Override
+    public Object addItemAfter(Object previousItemId) {
+        if (previousItemId == null) {
+            return addItemAt(0);
+        }
+        int index = indexOfId(previousItemId);
+        return (index >= 0) ? addItemAt(index + 1) : null;
+    }
+
+    @Override
+    public Item addItemAfter(Object previousItemId, Object newItemId) {
+        throw new UnsupportedOperationException("ColumnarContainer generates its item identifiers.");
+    }
+
+    // Container.Indexed
+
+    @Override
+    public int indexOfId(Object itemId) {
+        return containsId(itemId) ? positions[(Integer) itemId] : -1;
+    }
+
+    @Override
+    public Object getIdByIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return order[index];
+    }
+
+    @Override
+    public List<?> getItemIds(int startIndex, int numberOfItems) {
+        return ContainerHelpers.getItemIdsUsingGetIdByIndex(startIndex, numberOfItems, this);
+    }
+
+    @Override
+    public Object addItemAt(int index) {
+        if (index < 0 || index > size) {
+            return null;
+        }
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            row = rowCount;
+            if (row == capacity) {
+                capacity = capacity * 2;
+                positions = Arrays.copyOf(positions, capacity);
+                Arrays.fill(positions, row, capacity, -1);
+                for (Column column : columns.values()) {
+                    column.resize(capacity);
+                }
+            }
+            rowCount++;
+        }
+        if (size == order.length) {
+            order = Arrays.copyOf(order, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+        for (Column column : columns.values()) {
+            column.reset(row);
+        }
+        System.arraycopy(order, index, order, index + 1, size - index);
+        order[index] = row;
+        size++;
+        updatePositions(index);
+        fireItemSetChange();
+        return row;
+    }
+
+    @Override
+    public Item addItemAt(int index, Object newItemId) {
+        throw new UnsupportedOperationException("ColumnarContainer generates its item identifiers.");
+    }
+
+    // Container.ItemSetChangeNotifier
+
+    @Override
+    public void addItemSetChangeListener(Container.ItemSetChangeListener listener) {
+        super.addItemSetChangeListener(listener);
+    }
+
+    /**
+     * @deprecated As of 7.0, replaced by
+     *             {@link #addItemSetChangeListener(com.vaadin.data.Container.ItemSetChangeListener)}
+     **/
+    @Deprecated
+    @Override
+    public void addListener(Container.ItemSetChangeListener listener) {
+        addItemSetChangeListener(listener);
+    }
+
+    @Override
+    public void removeItemSetChangeListener(Container.ItemSetChangeListener listener) {
+        super.removeItemSetChangeListener(listener);
+    }
+
+    /**
+     * @deprecated As of 7.0, replaced by
+     *             {@link #removeItemSetChangeListener(com.vaadin.data.Container.ItemSetChangeListener)}
+     **/
+    @Deprecated
+    @Override
+    public void removeListener(Container.ItemSetChangeListener listener) {
+        removeItemSetChangeListener(listener);
+    }
+
+    // Container.PropertySetChangeNotifier
+
+    @Override
+    public void addPropertySetChangeListener(Container.PropertySetChangeListener listener) {
+        super.addPropertySetChangeListener(listener);
+    }
+
+    /**
+     * @deprecated As of 7.0, replaced by
+     *             {@link #addPropertySetChangeListener(com.vaadin.data.Container.PropertySetChangeListener)}
+     **/
+    @Deprecated
+    @Override
+    public void addListener(Container.PropertySetChangeListener listener) {
+        addPropertySetChangeListener(listener);
+    }
+
+    @Override
+    public void removePropertySetChangeListener(Container.PropertySetChangeListener listener) {
+        super.removePropertySetChangeListener(listener);
+    }
+
+    /**
+     * @deprecated As of 7.0, replaced by
+     *             {@link #removePropertySetChangeListener(com.vaadin.data.Container.PropertySetChangeListener)}
+     **/
+    @Deprecated
+    @Override
+    public void removeListener(Container.PropertySetChangeListener listener) {
+        removePropertySetChangeListener(listener);
+    }
+
+    // Property.ValueChangeNotifier
+
+    @Override
+    public void addValueChangeListener(Property.ValueChangeListener listener) {
+        if (valueChangeListeners == null) {
+            valueChangeListeners = new LinkedList<Property.ValueChangeListener>();
+        }
+        valueChangeListeners.add(listener);
+    }
+
+    /**
+     * @deprecated As of 7.0, replaced by
+     *             {@link #addValueChangeListener(com.vaadin.data.Property.ValueChangeListener)}
+     **/
+    @Deprecated
+    @Override
+    public void addListener(Property.ValueChangeListener listener) {
+        addValueChangeListener(listener);
+    }
+
+    @Override
+    public void removeValueChangeListener(Property.ValueChangeListener listener) {
+        if (valueChangeListeners != null) {
+            valueChangeListeners.remove(listener);
+        }
+    }
+
+    /**
+     * @deprecated As of 7.0, replaced by
+     *             {@link #removeValueChangeListener(com.vaadin.data.Property.ValueChangeListener)}
+     **/
+    @Deprecated
+    @Override
+    public void removeListener(Property.ValueChangeListener listener) {
+        removeValueChangeListener(listener);
+    }
+
+    private void addCellValueChangeListener(Object propertyId, int row, Property.ValueChangeListener listener) {
+        if (cellValueChangeListeners == null) {
+            cellValueChangeListeners = new HashMap<Object, Map<Integer, List<Property.ValueChangeListener>>>();
+        }
+        Map<Integer, List<Property.ValueChangeListener>> byRow = cellValueChangeListeners.get(propertyId);
+        if (byRow == null) {
+            byRow = new HashMap<Integer, List<Property.ValueChangeListener>>();
+            cellValueChangeListeners.put(propertyId, byRow);
+        }
+        List<Property.ValueChangeListener> listeners = byRow.get(row);
+        if (listeners == null) {
+            listeners = new LinkedList<Property.ValueChangeListener>();
+            byRow.put(row, listeners);
+        }
+        listeners.add(listener);
+    }
+
+    private void removeCellValueChangeListener(Object propertyId, int row, Property.ValueChangeListener listener) {
+        if (cellValueChangeListeners == null) {
+            return;
+        }
+        Map<Integer, List<Property.ValueChangeListener>> byRow = cellValueChangeListeners.get(propertyId);
+        List<Property.ValueChangeListener> listeners = (byRow != null) ? byRow.get(row) : null;
+        if (listeners != null) {
+            listeners.remove(listener);
+            if (listeners.isEmpty()) {
+                byRow.remove(row);
+            }
+        }
+    }
+
+    /**
+     * Notify the listeners of the container, then the ones of the cell.
+     */
+    private void fireValueChange(ColumnProperty property) {
+        List<Property.ValueChangeListener> cellListeners = null;
+        if (cellValueChangeListeners != null) {
+            Map<Integer, List<Property.ValueChangeListener>> byRow = cellValueChangeListeners.get(property.propertyId);
+            cellListeners = (byRow != null) ? byRow.get(property.row) : null;
+        }
+        if (valueChangeListeners == null && cellListeners == null) {
+            return;
+        }
+        Property.ValueChangeEvent event = new ValueChangeEvent(property);
+        if (valueChangeListeners != null) {
+            for (Object listener : valueChangeListeners.toArray()) {
+                ((Property.ValueChangeListener) listener).valueChange(event);
+            }
+        }
+        if (cellListeners != null) {
+            for (Object listener : cellListeners.toArray()) {
+                ((Property.ValueChangeListener) listener).valueChange(event);
+            }
+        }
+    }
+
+    /**
+     * Create the column of the given type.
+     *
+     * @param type
+     *            The type of the property
+     * @param defaultValue
+     *            The default value of the property
+     * @param capacity
+     *            The number of rows to allocate
+     * @return The column, or null if the type is not supported
+     */
+    Column createColumn(Class<?> type, Object defaultValue, int capacity) {
+        if (type == int.class || type == Integer.class) {
+            return new IntColumn(defaultValue, capacity);
+        } else if (type == long.class || type == Long.class) {
+            return new LongColumn(defaultValue, capacity);
+        } else if (type == double.class || type == Double.class) {
+            return new DoubleColumn(defaultValue, capacity);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return new BooleanColumn(defaultValue);
+        }
+        return new ObjectColumn(wrap(type), defaultValue, capacity);
+    }
+
+    /**
+     * Get the wrapper class of a primitive type (the type itself otherwise),
+     * as the values of the columns are boxed.
+     */
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return type;
+    }
+
+    /**
+     * Update the index of the rows moved by an insertion or a removal, from
+     * the given index (the shift of {@link #order} costs as much anyway).
+     */
+    private void updatePositions(int from) {
+        for (int i = from; i < size; i++) {
+            positions[order[i]] = i;
+        }
+    }
+
+    /**
+     * A row, as an {@link Item}.
+     */
+    private final class RowItem implements Item {
+
+        private static final long serialVersionUID = -8914567426355339236L;
+
+        private final int row;
+
+        private RowItem(int row) {
+            this.row = row;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Property getItemProperty(Object id) {
+            Column column = columns.get(id);
+            return (column != null) ? new ColumnProperty(row, id, column) : null;
+        }
+
+        @Override
+        public Collection<?> getItemPropertyIds() {
+            return getContainerPropertyIds();
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public boolean addItemProperty(Object id, Property property) {
+            throw new UnsupportedOperationException("ColumnarContainer item properties cannot be added.");
+        }
+
+        @Override
+        public boolean removeItemProperty(Object id) {
+            throw new UnsupportedOperationException("ColumnarContainer item properties cannot be removed.");
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (Column column : columns.values()) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(column.get(row));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * A cell, as a {@link Property}. Its state (value, read-only) is held by
+     * the column, so any instance for the same cell is equivalent.
+     */
+    @SuppressWarnings("rawtypes")
+    private final class ColumnProperty implements Property, Property.ValueChangeNotifier {
+
+        private static final long serialVersionUID = 4512283574930858318L;
+
+        private final int row;
+        private final Object propertyId;
+        private final Column column;
+
+        private ColumnProperty(int row, Object propertyId, Column column) {
+            this.row = row;
+            this.propertyId = propertyId;
+            this.column = column;
+        }
+
+        @Override
+        public Object getValue() {
+            return column.get(row);
+        }
+
+        @Override
+        public void setValue(Object newValue) throws ReadOnlyException {
+            if (isReadOnly()) {
+                throw new ReadOnlyException();
+            }
+            if (newValue != null && !column.type.isInstance(newValue)) {
+                throw new IllegalArgumentException("Value is not of type " + column.type.getName() + ".");
+            }
+            column.set(row, newValue);
+            fireValueChange(this);
+        }
+
+        @Override
+        public Class getType() {
+            return column.type;
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return column.readOnly.get(row);
+        }
+
+        @Override
+        public void setReadOnly(boolean newStatus) {
+            column.readOnly.set(row, newStatus);
+        }
+
+        @Override
+        public void addValueChangeListener(Property.ValueChangeListener listener) {
+            addCellValueChangeListener(propertyId, row, listener);
+        }
+
+        /**
+         * @deprecated As of 7.0, replaced by
+         *             {@link #addValueChangeListener(com.vaadin.data.Property.ValueChangeListener)}
+         **/
+        @Deprecated
+        @Override
+        public void addListener(Property.ValueChangeListener listener) {
+            addValueChangeListener(listener);
+        }
+
+        @Override
+        public void removeValueChangeListener(Property.ValueChangeListener listener) {
+            removeCellValueChangeListener(propertyId, row, listener);
+        }
+
+        /**
+         * @deprecated As of 7.0, replaced by
+         *             {@link #removeValueChangeListener(com.vaadin.data.Property.ValueChangeListener)}
+         **/
+        @Deprecated
+        @Override
+        public void removeListener(Property.ValueChangeListener listener) {
+            removeValueChangeListener(listener);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ColumnProperty)) {
+                return false;
+            }
+            ColumnProperty other = (ColumnProperty) obj;
+            return row == other.row && column == other.column;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * row + propertyId.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            Object value = getValue();
+            return (value != null) ? value.toString() : null;
+        }
+    }
+
+    /**
+     * The value change of a cell.
+     */
+    private static final class ValueChangeEvent extends EventObject implements Property.ValueChangeEvent {
+
+        private static final long serialVersionUID = -2879323937461829574L;
+
+        private ValueChangeEvent(Property<?> source) {
+            super(source);
+        }
+
+        @Override
+        public Property<?> getProperty() {
+            return (Property<?>) getSource();
+        }
+    }
+
+    /**
+     * The values of a property.
+     */
+    abstract static class Column implements Serializable {
+
+        private static final long serialVersionUID = 8145231981244651758L;
+
+        /**
+         * The type of the values (never primitive).
+         */
+        protected final Class<?> type;
+
+        protected final Object defaultValue;
+
+        /**
+         * The rows with a null value.
+         */
+        protected final BitSet nulls = new BitSet();
+
+        /**
+         * The rows with a read-only value.
+         */
+        final BitSet readOnly = new BitSet();
+
+        protected Column(Class<?> type, Object defaultValue) {
+            this.type = type;
+            this.defaultValue = defaultValue;
+        }
+
+        final Object get(int row) {
+            return nulls.get(row) ? null : getValue(row);
+        }
+
+        final void set(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                clear(row);
+            } else {
+                nulls.clear(row);
+                setValue(row, value);
+            }
+        }
+
+        /**
+         * Set the default value of a new row.
+         */
+        final void reset(int row) {
+            set(row, defaultValue);
+            readOnly.clear(row);
+        }
+
+        abstract Object getValue(int row);
+
+        abstract void setValue(int row, Object value);
+
+        /**
+         * Release the value of a removed row.
+         */
+        void clear(int row) {
+        }
+
+        /**
+         * Resize the column, keeping the values of the first rows.
+         */
+        abstract void resize(int capacity);
+
+        /**
+         * Release the storage of the column, once removed.
+         */
+        void release() {
+        }
+    }
+
+    private static final class IntColumn extends Column {
+
+        private static final long serialVersionUID = -6404018339917587440L;
+
+        private int[] values;
+
+        private IntColumn(Object defaultValue, int capacity) {
+            super(Integer.class, defaultValue);
+            values = new int[capacity];
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Integer) value;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        private static final long serialVersionUID = 2316934815412346254L;
+
+        private long[] values;
+
+        private LongColumn(Object defaultValue, int capacity) {
+            super(Long.class, defaultValue);
+            values = new long[capacity];
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Long) value;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        private static final long serialVersionUID = 6802405011234871126L;
+
+        private double[] values;
+
+        private DoubleColumn(Object defaultValue, int capacity) {
+            super(Double.class, defaultValue);
+            values = new double[capacity];
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Double) value;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+
+        private static final long serialVersionUID = -2262981578632170117L;
+
+        private final BitSet values = new BitSet();
+
+        private BooleanColumn(Object defaultValue) {
+            super(Boolean.class, defaultValue);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values.set(row, (Boolean) value);
+        }
+
+        @Override
+        void clear(int row) {
+            values.clear(row);
+        }
+
+        @Override
+        void resize(int capacity) {
+            if (capacity < values.length()) {
+                values.clear(capacity, values.length());
+            }
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        private static final long serialVersionUID = 4036318484367390717L;
+
+        private Object[] values;
+
+        private ObjectColumn(Class<?> type, Object defaultValue, int capacity) {
+            super(type, defaultValue);
+            values = new Object[capacity];
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = value;
+        }
+
+        @Override
+        void clear(int row) {
+            values[row] = null;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+}
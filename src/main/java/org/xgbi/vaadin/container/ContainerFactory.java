@@ -15,12 +15,16 @@
  */
 package org.xgbi.vaadin.container;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 import org.xgbi.vaadin.container.annotation.ContainerType;
 import org.xgbi.vaadin.container.property.AnnotationReaderAlgorithm;
 import org.xgbi.vaadin.container.property.AttributeReaderAlgorithm;
+import org.xgbi.vaadin.container.property.BeanDataSource;
+import org.xgbi.vaadin.container.property.CachingPropertyReaderAlgorithm;
 import org.xgbi.vaadin.container.property.GetterReaderAlgorithm;
 import org.xgbi.vaadin.container.property.PropertyReaderAlgorithm;
 
@@ -37,7 +41,30 @@ import com.vaadin.data.Container;
  * @param <BEAN>
  *            type of the beans.
  */
-public abstract class ContainerFactory<BEAN> implements IContainerFactory<BEAN> {
+public abstract class ContainerFactory<BEAN> implements
+		IExtendedContainerFactory<BEAN> {
+
+	/**
+	 * Shared (cached) {@link AttributeReaderAlgorithm}.
+	 */
+	private static final PropertyReaderAlgorithm ATTRIBUTE_READER_ALGORITHM = new CachingPropertyReaderAlgorithm(
+			new AttributeReaderAlgorithm());
+
+	/**
+	 * Shared (cached) {@link GetterReaderAlgorithm}.
+	 */
+	private static final PropertyReaderAlgorithm GETTER_READER_ALGORITHM = new CachingPropertyReaderAlgorithm(
+			new GetterReaderAlgorithm());
+
+	/**
+	 * How a container that already holds items is updated.
+	 */
+	private volatile RefreshMode refreshMode = RefreshMode.REPLACE;
+
+	/**
+	 * Number of beans inserted at once when populating from an iterator.
+	 */
+	private volatile int chunkSize = DEFAULT_CHUNK_SIZE;
 
 	/**
 	 * Return a container of type BEAN from a list of BEAN objects. It will
@@ -153,6 +180,128 @@ public abstract class ContainerFactory<BEAN> implements IContainerFactory<BEAN>
 	 */
 	public abstract void setBeanProperty(String name);
 
+	/**
+	 * Sets the name of the property that holds the children of a bean (used to
+	 * walk trees of beans).
+	 *
+	 * The default implementation does not support children, the factories
+	 * returned by this class look for <code>children</code> by default.
+	 *
+	 * @param name
+	 *            the name, or null to not look for children.
+	 * @throws UnsupportedOperationException
+	 *             if the factory does not support children.
+	 *
+	 * @since 0.4.0
+	 */
+	public void setChildrenProperty(String name) {
+		throw new UnsupportedOperationException(
+				"children are not supported by this factory.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The default implementation reads all the beans, then calls
+	 * {@link #getContainerFromCollection(Container, Collection, Class)}.
+	 */
+	@Override
+	public Container getContainerFromIterator(Container container,
+			Iterator<BEAN> beans, Class<? extends Container> containerClass) {
+		List<BEAN> list = new ArrayList<BEAN>();
+		if (beans != null) {
+			while (beans.hasNext()) {
+				list.add(beans.next());
+			}
+		}
+		return getContainerFromCollection(container, list, containerClass);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Container getContainerFromIterator(Iterator<BEAN> beans,
+			Class<? extends Container> containerClass) {
+		return getContainerFromIterator(null, beans, containerClass);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Container getContainerFromIterable(Container container,
+			Iterable<BEAN> beans, Class<? extends Container> containerClass) {
+		return getContainerFromIterator(container,
+				(beans != null) ? beans.iterator() : null, containerClass);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Container getContainerFromIterable(Iterable<BEAN> beans,
+			Class<? extends Container> containerClass) {
+		return getContainerFromIterable(null, beans, containerClass);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The default implementation does not support data sources.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if the factory does not support data sources.
+	 */
+	@Override
+	public Container getContainerFromDataSource(
+			BeanDataSource<BEAN> dataSource) {
+		throw new UnsupportedOperationException(
+				"data sources are not supported by this factory.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException(
+					"chunkSize must be greater than 0.");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The default implementation only records it, the subclasses are
+	 * responsible for honoring it.
+	 */
+	@Override
+	public void setRefreshMode(RefreshMode refreshMode) {
+		if (refreshMode == null) {
+			throw new IllegalArgumentException("refreshMode cannot be null.");
+		}
+		this.refreshMode = refreshMode;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RefreshMode getRefreshMode() {
+		return refreshMode;
+	}
+
 	/**
 	 * Create a ContainerFactory of type T using a default
 	 * {@link AttributeReaderAlgorithm}.
@@ -165,7 +314,7 @@ public abstract class ContainerFactory<BEAN> implements IContainerFactory<BEAN>
 	 */
 	public final static <BEANTYPE> ContainerFactory<BEANTYPE> getByAttributes(
 			Class<? extends BEANTYPE> beanClass) {
-		return getByAlgorithm(beanClass, new AttributeReaderAlgorithm());
+		return getByAlgorithm(beanClass, ATTRIBUTE_READER_ALGORITHM);
 	}
 
 	/**
@@ -180,7 +329,7 @@ public abstract class ContainerFactory<BEAN> implements IContainerFactory<BEAN>
 	 */
 	public final static <BEANTYPE> ContainerFactory<BEANTYPE> getByGetters(
 			Class<? extends BEANTYPE> beanClass) {
-		return getByAlgorithm(beanClass, new GetterReaderAlgorithm());
+		return getByAlgorithm(beanClass, GETTER_READER_ALGORITHM);
 	}
 
 	/**
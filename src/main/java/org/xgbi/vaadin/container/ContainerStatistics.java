@@ -0,0 +1,331 @@
+package org.xgbi.vaadin.container;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.xgbi.vaadin.container.metrics.HistogramMetricsRecorder;
+import org.xgbi.vaadin.container.metrics.Metrics;
+import org.xgbi.vaadin.container.metrics.MetricsRecorder;
+import org.xgbi.vaadin.container.metrics.Operation;
+import org.xgbi.vaadin.container.metrics.OperationStatistics;
+
+import com.vaadin.data.Container;
+
+/**
+ * Live statistics of the containers built by the factories, disabled by
+ * default (see {@link org.xgbi.vaadin.container.jmx.ContainerMonitor} to
+ * expose them through JMX).
+ *
+ * <p>
+ * Once enabled, the containers created by the factories are tracked through
+ * weak references (they are never kept in memory by the statistics), the
+ * lookups of the accessor caches of the factories are counted, and the
+ * population and hierarchy rebuild timings are recorded (as the statistics
+ * recorder of {@link Metrics}, along with the {@link MetricsRecorder} of the
+ * application).
+ * </p>
+ *
+ * <p>
+ * The item and property counts are read from the live containers without
+ * synchronization, they are approximate if the containers are modified
+ * meanwhile.
+ * </p>
+ *
+ * <p>
+ * The statistics are reported to a single instance, which can be replaced
+ * (see {@link #setInstance(ContainerStatistics)}), e.g. to count only some
+ * of the containers.
+ * </p>
+ *
+ * @since 0.4.0
+ */
+public class ContainerStatistics {
+
+    private static final Object LOCK = new Object();
+
+    /**
+     * The statistics used unless another instance is set.
+     */
+    private static final ContainerStatistics DEFAULT = new ContainerStatistics();
+
+    private static volatile ContainerStatistics instance = DEFAULT;
+
+    private static volatile boolean enabled;
+
+    /**
+     * Incremented each time the statistics are enabled (or replaced), so that
+     * the factories tracked before are tracked again.
+     */
+    private static volatile int generation;
+
+    private final List<WeakReference<Container>> containers = new ArrayList<WeakReference<Container>>();
+
+    private final List<WeakReference<AbstractContainerFactory<?>>> factories = new ArrayList<WeakReference<AbstractContainerFactory<?>>>();
+
+    /**
+     * The size of {@link #containers} above which the collected containers
+     * are purged on the next tracking.
+     */
+    private int purgeThreshold = 16;
+
+    private final AtomicLong accessorHits = new AtomicLong();
+
+    private final AtomicLong accessorMisses = new AtomicLong();
+
+    private final HistogramMetricsRecorder timings = new HistogramMetricsRecorder(Operation.POPULATE,
+            Operation.REBUILD_HIERARCHY);
+
+    /**
+     * The recorder of the timings, set on {@link Metrics} while enabled.
+     */
+    private final MetricsRecorder recorder = new MetricsRecorder() {
+
+        @Override
+        public boolean isEnabled(Operation operation) {
+            return timings.isEnabled(operation);
+        }
+
+        @Override
+        public void start(Operation operation) {
+            // Only the duration is recorded
+        }
+
+        @Override
+        public void record(Operation operation, long durationNanos, int itemCount) {
+            if (isCounted()) {
+                timings.record(operation, durationNanos, itemCount);
+            }
+        }
+    };
+
+    /**
+     * Create empty statistics, to be set with
+     * {@link #setInstance(ContainerStatistics)}.
+     */
+    public ContainerStatistics() {
+    }
+
+    /**
+     * Tell if the operations of the current thread are counted (all of them
+     * by default). A subclass can restrict the statistics, e.g. to the
+     * containers built by a given thread.
+     *
+     * @return true if the operations of the current thread are counted
+     */
+    protected boolean isCounted() {
+        return true;
+    }
+
+    /**
+     * Replace the statistics the factories report to (the counters of the
+     * previous statistics are no longer updated).
+     *
+     * @param statistics
+     *            The statistics, null for the default ones
+     */
+    public static void setInstance(ContainerStatistics statistics) {
+        synchronized (LOCK) {
+            instance = (statistics != null) ? statistics : DEFAULT;
+            generation++;
+            if (enabled) {
+                Metrics.setStatisticsRecorder(instance.recorder);
+            }
+        }
+    }
+
+    /**
+     * Enable (or disable) the statistics. Disabling them forgets the tracked
+     * containers, the counters are kept until {@link #reset()}.
+     *
+     * @param enabled
+     *            true to enable the statistics
+     */
+    public static void setEnabled(boolean enabled) {
+        synchronized (LOCK) {
+            if (enabled == ContainerStatistics.enabled) {
+                return;
+            }
+            if (enabled) {
+                generation++;
+                Metrics.setStatisticsRecorder(instance.recorder);
+            } else {
+                Metrics.setStatisticsRecorder(null);
+                instance.containers.clear();
+                instance.factories.clear();
+            }
+            ContainerStatistics.enabled = enabled;
+        }
+    }
+
+    /**
+     * Tell if the statistics are enabled.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reset the counters and timings.
+     */
+    public static void reset() {
+        ContainerStatistics statistics = instance;
+        statistics.accessorHits.set(0L);
+        statistics.accessorMisses.set(0L);
+        statistics.timings.reset();
+    }
+
+    /**
+     * Track a container created by a factory (if enabled).
+     */
+    static void track(Container container) {
+        ContainerStatistics statistics = instance;
+        if (!enabled || container == null || !statistics.isCounted()) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (statistics.containers.size() >= statistics.purgeThreshold) {
+                purge(statistics.containers);
+                statistics.purgeThreshold = Math.max(16, statistics.containers.size() * 2);
+            }
+            statistics.containers.add(new WeakReference<Container>(container));
+        }
+    }
+
+    /**
+     * Track a factory, for the size of its accessor cache (if enabled and
+     * not tracked yet).
+     *
+     * @param factory
+     *            The factory
+     * @param trackedGeneration
+     *            The generation the factory has been tracked in
+     * @return The current generation
+     */
+    static int track(AbstractContainerFactory<?> factory, int trackedGeneration) {
+        int current = generation;
+        ContainerStatistics statistics = instance;
+        if (!enabled || trackedGeneration == current || !statistics.isCounted()) {
+            return trackedGeneration;
+        }
+        synchronized (LOCK) {
+            purge(statistics.factories);
+            statistics.factories.add(new WeakReference<AbstractContainerFactory<?>>(factory));
+        }
+        return current;
+    }
+
+    /**
+     * Count a lookup of the accessor cache of a factory (if enabled).
+     */
+    static void accessorLookup(boolean hit) {
+        ContainerStatistics statistics = instance;
+        if (enabled && statistics.isCounted()) {
+            (hit ? statistics.accessorHits : statistics.accessorMisses).incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the number of tracked containers that are still in memory.
+     */
+    public static int getLiveContainerCount() {
+        return getContainers().size();
+    }
+
+    /**
+     * Get the number of items of the live containers.
+     */
+    public static long getItemCount() {
+        long count = 0L;
+        for (Container container : getContainers()) {
+            count += container.size();
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of properties of the live containers.
+     */
+    public static long getPropertyCount() {
+        long count = 0L;
+        for (Container container : getContainers()) {
+            count += container.getContainerPropertyIds().size();
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of entries of the accessor caches of the tracked
+     * factories.
+     */
+    public static int getAccessorCacheSize() {
+        List<AbstractContainerFactory<?>> factories = new ArrayList<AbstractContainerFactory<?>>();
+        synchronized (LOCK) {
+            for (WeakReference<AbstractContainerFactory<?>> reference : instance.factories) {
+                AbstractContainerFactory<?> factory = reference.get();
+                if (factory != null) {
+                    factories.add(factory);
+                }
+            }
+        }
+        int size = 0;
+        for (AbstractContainerFactory<?> factory : factories) {
+            size += factory.getAccessorCacheSize();
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of accessor lookups served from the caches.
+     */
+    public static long getAccessorCacheHitCount() {
+        return instance.accessorHits.get();
+    }
+
+    /**
+     * Get the number of accessor lookups that required to compile them.
+     */
+    public static long getAccessorCacheMissCount() {
+        return instance.accessorMisses.get();
+    }
+
+    /**
+     * Get the timings of an operation, recorded while enabled (only
+     * {@link Operation#POPULATE} and {@link Operation#REBUILD_HIERARCHY} are
+     * recorded).
+     *
+     * @param operation
+     *            The operation
+     * @return The statistics of the operation
+     */
+    public static OperationStatistics getOperationStatistics(Operation operation) {
+        return instance.timings.getStatistics(operation);
+    }
+
+    private static List<Container> getContainers() {
+        List<Container> containers = new ArrayList<Container>();
+        synchronized (LOCK) {
+            for (Iterator<WeakReference<Container>> it = instance.containers.iterator(); it.hasNext();) {
+                Container container = it.next().get();
+                if (container == null) {
+                    it.remove();
+                } else {
+                    containers.add(container);
+                }
+            }
+        }
+        return containers;
+    }
+
+    private static <T> void purge(List<WeakReference<T>> references) {
+        for (Iterator<WeakReference<T>> it = references.iterator(); it.hasNext();) {
+            if (it.next().get() == null) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -12,10 +12,15 @@
  */
 package org.xgbi.vaadin.container;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.xgbi.vaadin.container.annotation.ContainerType;
 import org.xgbi.vaadin.container.property.AnnotationReaderAlgorithm;
+import org.xgbi.vaadin.container.property.BeanDataSource;
 import org.xgbi.vaadin.container.property.HierarchicalBeanBuilder;
 import org.xgbi.vaadin.container.property.PropertyReaderAlgorithm;
 
@@ -24,6 +29,7 @@ import com.vaadin.data.Item;
 import com.vaadin.data.Container.Hierarchical;
 import com.vaadin.data.util.AbstractBeanContainer;
 import com.vaadin.data.util.AbstractBeanContainer.BeanIdResolver;
+import com.vaadin.data.util.AbstractHierarchicalBeanContainer;
 import com.vaadin.data.util.HierarchicalBeanContainer;
 import com.vaadin.data.util.HierarchicalBeanItemContainer;
 
@@ -45,7 +51,17 @@ import com.vaadin.data.util.HierarchicalBeanItemContainer;
  * @see com.vaadin.data.util.BeanContainer
  * @see com.vaadin.data.util.AbstractBeanContainer
  */
-public abstract class HierarchicalBeanContainerFactory<IDTYPE, BEANTYPE> implements IContainerFactory<BEANTYPE> {
+public abstract class HierarchicalBeanContainerFactory<IDTYPE, BEANTYPE> implements IExtendedContainerFactory<BEANTYPE> {
+
+    /**
+     * How a container that already holds items is updated.
+     */
+    private volatile RefreshMode refreshMode = RefreshMode.REPLACE;
+
+    /**
+     * Number of beans inserted at once when populating from an iterator.
+     */
+    private volatile int chunkSize = DEFAULT_CHUNK_SIZE;
 
     /**
      * Return a container of type BEAN from a collection of BEAN objects. It will update the given container if no null.
@@ -104,6 +120,121 @@ public abstract class HierarchicalBeanContainerFactory<IDTYPE, BEANTYPE> impleme
      * @since 0.3.0
      */
     public abstract Item newItem(BEANTYPE bean);
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The default implementation reads all the beans, then calls
+     * {@link #getContainerFromCollection(Container, Collection, Class)}.
+     */
+    @Override
+    public Container getContainerFromIterator(Container container, Iterator<BEANTYPE> beans,
+            Class<? extends Container> containerClass) {
+        List<BEANTYPE> list = new ArrayList<BEANTYPE>();
+        if (beans != null) {
+            while (beans.hasNext()) {
+                list.add(beans.next());
+            }
+        }
+        return getContainerFromCollection(container, list, containerClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Container getContainerFromIterator(Iterator<BEANTYPE> beans, Class<? extends Container> containerClass) {
+        return getContainerFromIterator(null, beans, containerClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Container getContainerFromIterable(Container container, Iterable<BEANTYPE> beans,
+            Class<? extends Container> containerClass) {
+        return getContainerFromIterator(container, (beans != null) ? beans.iterator() : null, containerClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Container getContainerFromIterable(Iterable<BEANTYPE> beans, Class<? extends Container> containerClass) {
+        return getContainerFromIterable(null, beans, containerClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The default implementation does not support data sources.
+     * 
+     * @throws UnsupportedOperationException
+     *             if the factory does not support data sources.
+     */
+    @Override
+    public Container getContainerFromDataSource(BeanDataSource<BEANTYPE> dataSource) {
+        throw new UnsupportedOperationException("data sources are not supported by this factory.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0.");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The default implementation only records it, the subclasses are responsible for honoring it.
+     */
+    @Override
+    public void setRefreshMode(RefreshMode refreshMode) {
+        if (refreshMode == null) {
+            throw new IllegalArgumentException("refreshMode cannot be null.");
+        }
+        this.refreshMode = refreshMode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RefreshMode getRefreshMode() {
+        return refreshMode;
+    }
+
+    /**
+     * Set the executor used by the created containers to resolve the children of the beans in parallel, when there are at
+     * least parallelThreshold beans.
+     * 
+     * The default implementation does not support it.
+     * 
+     * @param childrenExecutor
+     *            the executor, or null to resolve children sequentially.
+     * @param parallelThreshold
+     *            the minimum number of beans to resolve them in parallel.
+     * @throws UnsupportedOperationException
+     *             if the factory does not support it.
+     * @see AbstractHierarchicalBeanContainer#setChildrenExecutor(ExecutorService, int)
+     * @since 0.4.0
+     */
+    public void setChildrenExecutor(ExecutorService childrenExecutor, int parallelThreshold) {
+        throw new UnsupportedOperationException("children executors are not supported by this factory.");
+    }
     
     /**
      * Create a BeanContainerFactory of type T and idtype I using a default {@link AnnotationReaderAlgorithm} and the propertyId bean id
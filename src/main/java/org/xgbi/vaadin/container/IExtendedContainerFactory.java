@@ -0,0 +1,156 @@
+package org.xgbi.vaadin.container;
+
+import java.util.Iterator;
+
+import org.xgbi.vaadin.container.property.BeanDataSource;
+
+import com.vaadin.data.Container;
+
+/**
+ * Methods added to the container factories in 0.4.0, kept out of {@link IContainerFactory} so that its existing
+ * implementations still compile. {@link ContainerFactory}, {@link BeanContainerFactory} and
+ * {@link HierarchicalBeanContainerFactory} implement them with defaults that their subclasses might override.
+ * 
+ * @param <BEAN>
+ *            type of the beans.
+ * 
+ * @since 0.4.0
+ */
+public interface IExtendedContainerFactory<BEAN> extends IContainerFactory<BEAN> {
+
+    /**
+     * Default number of beans inserted at once by {@link #getContainerFromIterator(Container, Iterator, Class)}.
+     * 
+     * @since 0.4.0
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * Return a container of type BEAN from the BEAN objects of an iterator. It will update the given container if no
+     * null.
+     * 
+     * The iterator is consumed in chunks (see {@link #setChunkSize(int)}), each chunk being inserted at once, so that
+     * the beans can be streamed from a cursor without being all held in memory. The items of the container are always
+     * replaced, whatever the {@link RefreshMode}.
+     * 
+     * @param container
+     *            container to be populated.
+     * @param beans
+     *            iterator of beans (might be null).
+     * @param containerClass
+     *            type of the container to return.
+     * @return a container of Beans.
+     * @throws IllegalArgumentException
+     *             if the container class cannot be instantiated or is not supported.
+     * 
+     * @since 0.4.0
+     */
+    public abstract Container getContainerFromIterator(Container container, Iterator<BEAN> beans,
+            Class<? extends Container> containerClass);
+
+    /**
+     * Return a container of type BEAN from the BEAN objects of an iterator.
+     * 
+     * The returned container will be of the given type (containerClass).
+     * 
+     * @see #getContainerFromIterator(Container, Iterator, Class)
+     * 
+     * @param beans
+     *            iterator of beans (might be null).
+     * @param containerClass
+     *            type of the container to return.
+     * @return a container of Beans.
+     * 
+     * @since 0.4.0
+     */
+    public abstract Container getContainerFromIterator(Iterator<BEAN> beans, Class<? extends Container> containerClass);
+
+    /**
+     * Return a container of type BEAN from the BEAN objects of an iterable. It will update the given container if no
+     * null.
+     * 
+     * @see #getContainerFromIterator(Container, Iterator, Class)
+     * 
+     * @param container
+     *            container to be populated.
+     * @param beans
+     *            iterable of beans (might be null).
+     * @param containerClass
+     *            type of the container to return.
+     * @return a container of Beans.
+     * 
+     * @since 0.4.0
+     */
+    public abstract Container getContainerFromIterable(Container container, Iterable<BEAN> beans,
+            Class<? extends Container> containerClass);
+
+    /**
+     * Return a container of type BEAN from the BEAN objects of an iterable.
+     * 
+     * The returned container will be of the given type (containerClass).
+     * 
+     * @see #getContainerFromIterator(Container, Iterator, Class)
+     * 
+     * @param beans
+     *            iterable of beans (might be null).
+     * @param containerClass
+     *            type of the container to return.
+     * @return a container of Beans.
+     * 
+     * @since 0.4.0
+     */
+    public abstract Container getContainerFromIterable(Iterable<BEAN> beans, Class<? extends Container> containerClass);
+
+    /**
+     * Return a lazy container of type BEAN, that fetches the beans page by page from the given data source. Its
+     * properties are the ones found by the property reader algorithm of the factory.
+     * 
+     * @param dataSource
+     *            the data source.
+     * @return a {@link com.vaadin.data.util.LazyBeanContainer}.
+     * @throws IllegalArgumentException
+     *             if dataSource is null.
+     * 
+     * @since 0.4.0
+     */
+    public abstract Container getContainerFromDataSource(BeanDataSource<BEAN> dataSource);
+
+    /**
+     * Sets the number of beans inserted at once when a container is populated from an iterator,
+     * {@link #DEFAULT_CHUNK_SIZE} by default.
+     * 
+     * @param chunkSize
+     *            the chunk size.
+     * @throws IllegalArgumentException
+     *             if chunkSize is lower than 1.
+     * @since 0.4.0
+     */
+    public abstract void setChunkSize(int chunkSize);
+
+    /**
+     * Get the number of beans inserted at once when a container is populated from an iterator.
+     * 
+     * @return the chunk size.
+     * @since 0.4.0
+     */
+    public abstract int getChunkSize();
+
+    /**
+     * Sets how a container that already holds items is updated, {@link RefreshMode#REPLACE} by default.
+     * 
+     * @param refreshMode
+     *            the refresh mode.
+     * @throws IllegalArgumentException
+     *             if refreshMode is null.
+     * @since 0.4.0
+     */
+    public abstract void setRefreshMode(RefreshMode refreshMode);
+
+    /**
+     * Get how a container that already holds items is updated.
+     * 
+     * @return the refresh mode.
+     * @since 0.4.0
+     */
+    public abstract RefreshMode getRefreshMode();
+}
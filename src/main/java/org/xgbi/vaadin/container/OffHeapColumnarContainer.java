@@ -0,0 +1,276 @@
+package org.xgbi.vaadin.container;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link ColumnarContainer} that keeps its columns off-heap, in direct
+ * {@link ByteBuffer}s, for very large read-only containers (e.g. shared by the
+ * sessions of a dashboard).
+ *
+ * <p>
+ * The {@link Integer}, {@link Long} and {@link Double} columns are stored as
+ * fixed-width values and the {@link String} columns are dictionary-encoded
+ * (the codes are off-heap, the distinct values are on-heap, so they are meant
+ * for low-cardinality columns). The {@link Boolean} columns and the null flags
+ * stay in on-heap bitsets. The properties of any other type (e.g. the bean
+ * property of a {@link ContainerFactory}) are not added, so that the heap
+ * usage does not depend on the number of rows.
+ * </p>
+ *
+ * <p>
+ * The off-heap memory is released by {@link #release()}, which must be called
+ * once the container is not used anymore (by any thread) ; afterwards the
+ * container is empty and cannot be filled again. It cannot be serialized.
+ * </p>
+ *
+ * @since 0.4.0
+ */
+public class OffHeapColumnarContainer extends ColumnarContainer {
+
+    private static final long serialVersionUID = 6119307853386744539L;
+
+    private volatile boolean released;
+
+    /**
+     * Create an empty {@link OffHeapColumnarContainer}.
+     */
+    public OffHeapColumnarContainer() {
+        super();
+    }
+
+    /**
+     * Release the off-heap memory of the container. The container is emptied
+     * (items and properties) and cannot be used afterwards.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        removeAllItems();
+        for (Object propertyId : new ArrayList<Object>(getContainerPropertyIds())) {
+            removeContainerProperty(propertyId);
+        }
+        released = true;
+    }
+
+    /**
+     * Tell if the container has been released.
+     *
+     * @return true if {@link #release()} has been called
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    @Override
+    public boolean addContainerProperty(Object propertyId, Class<?> type, Object defaultValue) {
+        checkReleased();
+        return super.addContainerProperty(propertyId, type, defaultValue);
+    }
+
+    @Override
+    public Object addItemAt(int index) {
+        checkReleased();
+        return super.addItemAt(index);
+    }
+
+    @Override
+    Column createColumn(Class<?> type, Object defaultValue, int capacity) {
+        if (type == int.class || type == Integer.class) {
+            return new IntColumn(defaultValue, capacity);
+        } else if (type == long.class || type == Long.class) {
+            return new LongColumn(defaultValue, capacity);
+        } else if (type == double.class || type == Double.class) {
+            return new DoubleColumn(defaultValue, capacity);
+        } else if (type == String.class) {
+            return new DictionaryColumn(defaultValue, capacity);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return super.createColumn(type, defaultValue, capacity);
+        }
+        return null;
+    }
+
+    private void checkReleased() {
+        if (released) {
+            throw new IllegalStateException("The container has been released.");
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        throw new NotSerializableException(getClass().getName());
+    }
+
+    /**
+     * Free a direct buffer without waiting for the garbage collector, when
+     * the JVM allows it.
+     */
+    private static void free(ByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (Exception e) {
+            // Not available, the buffer is freed when collected
+        }
+    }
+
+    /**
+     * A column of fixed-width values, in a direct buffer.
+     */
+    private abstract static class FixedWidthColumn extends Column {
+
+        private static final long serialVersionUID = -3106329148613880545L;
+
+        private final int width;
+
+        protected transient ByteBuffer buffer;
+
+        protected FixedWidthColumn(Class<?> type, Object defaultValue, int width, int capacity) {
+            super(type, defaultValue);
+            this.width = width;
+            this.buffer = ByteBuffer.allocateDirect(capacity * width);
+        }
+
+        /**
+         * Get the offset of the given row, checking that the column has not
+         * been released.
+         */
+        protected final int offset(int row) {
+            if (buffer == null) {
+                throw new IllegalStateException("The container has been released.");
+            }
+            return row * width;
+        }
+
+        @Override
+        void resize(int capacity) {
+            ByteBuffer old = buffer;
+            ByteBuffer resized = ByteBuffer.allocateDirect(capacity * width);
+            ByteBuffer source = old.duplicate();
+            source.clear();
+            source.limit(Math.min(old.capacity(), resized.capacity()));
+            resized.put(source);
+            resized.clear();
+            buffer = resized;
+            free(old);
+        }
+
+        @Override
+        void release() {
+            ByteBuffer old = buffer;
+            buffer = null;
+            if (old != null) {
+                free(old);
+            }
+        }
+    }
+
+    private static final class IntColumn extends FixedWidthColumn {
+
+        private static final long serialVersionUID = 1590722960416513788L;
+
+        private IntColumn(Object defaultValue, int capacity) {
+            super(Integer.class, defaultValue, 4, capacity);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return buffer.getInt(offset(row));
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            buffer.putInt(offset(row), (Integer) value);
+        }
+    }
+
+    private static final class LongColumn extends FixedWidthColumn {
+
+        private static final long serialVersionUID = -1911593420155781947L;
+
+        private LongColumn(Object defaultValue, int capacity) {
+            super(Long.class, defaultValue, 8, capacity);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return buffer.getLong(offset(row));
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            buffer.putLong(offset(row), (Long) value);
+        }
+    }
+
+    private static final class DoubleColumn extends FixedWidthColumn {
+
+        private static final long serialVersionUID = 3365116693012410178L;
+
+        private DoubleColumn(Object defaultValue, int capacity) {
+            super(Double.class, defaultValue, 8, capacity);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return buffer.getDouble(offset(row));
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            buffer.putDouble(offset(row), (Double) value);
+        }
+    }
+
+    /**
+     * A column of strings, stored as codes in a dictionary.
+     */
+    private static final class DictionaryColumn extends FixedWidthColumn {
+
+        private static final long serialVersionUID = -5640531795937516212L;
+
+        private final List<String> values = new ArrayList<String>();
+
+        private final Map<String, Integer> codes = new HashMap<String, Integer>();
+
+        private DictionaryColumn(Object defaultValue, int capacity) {
+            super(String.class, defaultValue, 4, capacity);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values.get(buffer.getInt(offset(row)));
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add((String) value);
+                codes.put((String) value, code);
+            }
+            buffer.putInt(offset(row), code);
+        }
+
+        @Override
+        void release() {
+            super.release();
+            values.clear();
+            codes.clear();
+        }
+    }
+}
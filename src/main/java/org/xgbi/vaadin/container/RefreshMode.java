@@ -0,0 +1,24 @@
+package org.xgbi.vaadin.container;
+
+/**
+ * How {@link IContainerFactory#getContainerFromCollection(com.vaadin.data.Container, java.util.Collection)}
+ * updates a container that already holds items. The beans of an iterator can only be read once,
+ * {@link IExtendedContainerFactory#getContainerFromIterator(com.vaadin.data.Container, java.util.Iterator, Class)}
+ * always replaces the items.
+ * 
+ * @since 0.4.0
+ */
+public enum RefreshMode {
+    /**
+     * Remove all the items, then add the beans (default).
+     */
+    REPLACE,
+    /**
+     * Only remove the items of the beans that are gone, replace the items of
+     * the beans that changed and add the new beans ; items are matched by
+     * item identifier (bean containers) or by bean, or by the key of
+     * {@link AbstractContainerFactory#setMergeIdResolver(com.vaadin.data.util.AbstractBeanContainer.BeanIdResolver)}
+     * (other containers). The listeners are notified once.
+     */
+    MERGE;
+}
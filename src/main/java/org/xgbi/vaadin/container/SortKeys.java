@@ -0,0 +1,236 @@
+package org.xgbi.vaadin.container;
+
+import java.util.List;
+
+/**
+ * Sort a list of item identifiers on values extracted beforehand (one array
+ * per sort property), instead of reading the properties of both items on each
+ * comparison.
+ *
+ * The values are turned into keys of the narrowest type that holds them all
+ * (<code>long</code>, <code>double</code> or {@link Comparable}), and the
+ * order follows the one of {@link com.vaadin.data.util.DefaultItemSorter}:
+ * null is less than any value, and the sort is stable.
+ *
+ * @since 0.4.0
+ */
+final class SortKeys {
+
+    /**
+     * Below this size, the runs are sorted by insertion.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 8;
+
+    private final Key[] keys;
+    private final boolean[] ascending;
+
+    private SortKeys(Object[][] values, boolean[] ascending) {
+        this.keys = new Key[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = Key.create(values[i]);
+        }
+        this.ascending = ascending;
+    }
+
+    /**
+     * Sort the item identifiers.
+     *
+     * @param <T>
+     *            The type of the item identifiers
+     * @param itemIds
+     *            The item identifiers, reordered in place
+     * @param values
+     *            The values of each sort property, in the order of the item
+     *            identifiers
+     * @param ascending
+     *            The direction of each sort property
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void sort(List<T> itemIds, Object[][] values, boolean[] ascending) {
+        int size = itemIds.size();
+        if (size < 2 || values.length == 0) {
+            return;
+        }
+        int[] order = new SortKeys(values, ascending).sortedIndexes(size);
+        Object[] ids = itemIds.toArray();
+        for (int i = 0; i < size; i++) {
+            itemIds.set(i, (T) ids[order[i]]);
+        }
+    }
+
+    private int compare(int a, int b) {
+        for (int i = 0; i < keys.length; i++) {
+            int r = keys[i].compare(a, b);
+            if (r != 0) {
+                return ascending[i] ? r : -r;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sort the indexes with a (stable) bottom-up merge sort.
+     */
+    private int[] sortedIndexes(int size) {
+        int[] src = new int[size];
+        for (int i = 0; i < size; i++) {
+            src[i] = i;
+        }
+        for (int lo = 0; lo < size; lo += INSERTION_SORT_THRESHOLD) {
+            insertionSort(src, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, size));
+        }
+        int[] dst = new int[size];
+        for (int width = INSERTION_SORT_THRESHOLD; width < size; width *= 2) {
+            for (int lo = 0; lo < size; lo += 2 * width) {
+                int mid = Math.min(lo + width, size);
+                int hi = Math.min(lo + 2 * width, size);
+                merge(src, dst, lo, mid, hi);
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        return src;
+    }
+
+    private void insertionSort(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int index = a[i];
+            int j = i - 1;
+            while (j >= lo && compare(a[j], index) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = index;
+        }
+    }
+
+    private void merge(int[] src, int[] dst, int lo, int mid, int hi) {
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (j >= hi || (i < mid && compare(src[i], src[j]) <= 0)) {
+                dst[k] = src[i++];
+            } else {
+                dst[k] = src[j++];
+            }
+        }
+    }
+
+    /**
+     * The keys of a sort property.
+     */
+    private abstract static class Key {
+
+        /**
+         * The null values (might be null if there is none).
+         */
+        protected final boolean[] nulls;
+
+        protected Key(boolean[] nulls) {
+            this.nulls = nulls;
+        }
+
+        /**
+         * Create the keys of the given values.
+         */
+        static Key create(Object[] values) {
+            boolean integral = true;
+            boolean floating = true;
+            boolean[] nulls = null;
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    if (nulls == null) {
+                        nulls = new boolean[values.length];
+                    }
+                    nulls[i] = true;
+                } else {
+                    integral &= value instanceof Integer || value instanceof Long || value instanceof Short
+                            || value instanceof Byte;
+                    floating &= value instanceof Double || value instanceof Float;
+                }
+            }
+            if (integral) {
+                long[] keys = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        keys[i] = ((Number) values[i]).longValue();
+                    }
+                }
+                return new LongKey(keys, nulls);
+            } else if (floating) {
+                double[] keys = new double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        keys[i] = ((Number) values[i]).doubleValue();
+                    }
+                }
+                return new DoubleKey(keys, nulls);
+            }
+            return new ComparableKey(values, nulls);
+        }
+
+        final int compare(int a, int b) {
+            if (nulls != null && (nulls[a] || nulls[b])) {
+                return (nulls[a] == nulls[b]) ? 0 : (nulls[a] ? -1 : 1);
+            }
+            return compareValues(a, b);
+        }
+
+        /**
+         * Compare two non-null values.
+         */
+        abstract int compareValues(int a, int b);
+    }
+
+    private static final class LongKey extends Key {
+
+        private final long[] keys;
+
+        private LongKey(long[] keys, boolean[] nulls) {
+            super(nulls);
+            this.keys = keys;
+        }
+
+        @Override
+        int compareValues(int a, int b) {
+            long x = keys[a];
+            long y = keys[b];
+            return (x < y) ? -1 : ((x == y) ? 0 : 1);
+        }
+    }
+
+    private static final class DoubleKey extends Key {
+
+        private final double[] keys;
+
+        private DoubleKey(double[] keys, boolean[] nulls) {
+            super(nulls);
+            this.keys = keys;
+        }
+
+        @Override
+        int compareValues(int a, int b) {
+            return Double.compare(keys[a], keys[b]);
+        }
+    }
+
+    private static final class ComparableKey extends Key {
+
+        private final Object[] keys;
+
+        private ComparableKey(Object[] keys, boolean[] nulls) {
+            super(nulls);
+            this.keys = keys;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        int compareValues(int a, int b) {
+            // Same as the default item sorter: ClassCastException if not
+            // comparable
+            return ((Comparable<Object>) keys[a]).compareTo(keys[b]);
+        }
+    }
+}
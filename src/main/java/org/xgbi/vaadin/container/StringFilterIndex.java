@@ -0,0 +1,242 @@
+package org.xgbi.vaadin.container;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.vaadin.data.util.filter.SimpleStringFilter;
+
+/**
+ * An index of the (string) values of a property, to find the items that might
+ * pass a {@link SimpleStringFilter} without reading the property of each item.
+ *
+ * The prefix filters use a sorted map of the values, the substring filters use
+ * an index of the trigrams of the values. Both are built (for the case
+ * sensitive or insensitive values) on first use, and kept up to date as items
+ * are added or removed.
+ *
+ * @since 0.4.0
+ */
+final class StringFilterIndex {
+
+    /**
+     * The length of the n-grams of the substring index.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * The string values, by item identifier (the null values are not
+     * indexed).
+     */
+    private final Map<Object, String> values = new LinkedHashMap<Object, String>();
+
+    private boolean populated;
+
+    private TreeMap<String, Collection<Object>> prefixes;
+    private TreeMap<String, Collection<Object>> lowerCasePrefixes;
+    private Map<String, Set<Object>> grams;
+    private Map<String, Set<Object>> lowerCaseGrams;
+
+    /**
+     * Tell if the values of the items have been indexed.
+     */
+    boolean isPopulated() {
+        return populated;
+    }
+
+    /**
+     * Mark the index as populated (once the values of all the items have been
+     * added).
+     */
+    void setPopulated() {
+        populated = true;
+    }
+
+    /**
+     * Drop the values (the index has to be populated again).
+     */
+    void reset() {
+        values.clear();
+        prefixes = null;
+        lowerCasePrefixes = null;
+        grams = null;
+        lowerCaseGrams = null;
+        populated = false;
+    }
+
+    /**
+     * Add (or replace) the value of an item.
+     */
+    void add(Object itemId, Object value) {
+        remove(itemId);
+        if (value == null) {
+            return;
+        }
+        String string = value.toString();
+        values.put(itemId, string);
+        if (prefixes != null) {
+            addPrefix(prefixes, string, itemId);
+        }
+        if (lowerCasePrefixes != null) {
+            addPrefix(lowerCasePrefixes, string.toLowerCase(), itemId);
+        }
+        if (grams != null) {
+            addGrams(grams, string, itemId);
+        }
+        if (lowerCaseGrams != null) {
+            addGrams(lowerCaseGrams, string.toLowerCase(), itemId);
+        }
+    }
+
+    /**
+     * Remove the value of an item.
+     */
+    void remove(Object itemId) {
+        String string = values.remove(itemId);
+        if (string == null) {
+            return;
+        }
+        if (prefixes != null) {
+            removePrefix(prefixes, string, itemId);
+        }
+        if (lowerCasePrefixes != null) {
+            removePrefix(lowerCasePrefixes, string.toLowerCase(), itemId);
+        }
+        if (grams != null) {
+            removeGrams(grams, string, itemId);
+        }
+        if (lowerCaseGrams != null) {
+            removeGrams(lowerCaseGrams, string.toLowerCase(), itemId);
+        }
+    }
+
+    /**
+     * Get the items that might pass the given filter (a superset of them).
+     *
+     * @param filter
+     *            The filter (on the indexed property)
+     * @return The item identifiers, in no particular order
+     */
+    Collection<Object> getCandidates(SimpleStringFilter filter) {
+        String filterString = filter.getFilterString();
+        boolean ignoreCase = filter.isIgnoreCase();
+        if (filterString.length() == 0) {
+            return new ArrayList<Object>(values.keySet());
+        }
+        List<Object> candidates = new ArrayList<Object>();
+        if (filter.isOnlyMatchPrefix()) {
+            TreeMap<String, Collection<Object>> sorted = getPrefixes(ignoreCase);
+            for (Map.Entry<String, Collection<Object>> entry : sorted.tailMap(filterString, true).entrySet()) {
+                if (!entry.getKey().startsWith(filterString)) {
+                    break;
+                }
+                candidates.addAll(entry.getValue());
+            }
+        } else if (filterString.length() < GRAM_LENGTH) {
+            // Too short for the n-grams, scan the values
+            for (Map.Entry<Object, String> entry : values.entrySet()) {
+                String value = ignoreCase ? entry.getValue().toLowerCase() : entry.getValue();
+                if (value.contains(filterString)) {
+                    candidates.add(entry.getKey());
+                }
+            }
+        } else {
+            Map<String, Set<Object>> index = getGrams(ignoreCase);
+            // The item that contains the filter string contains all its
+            // n-grams, start from the rarest one
+            Set<Object> rarest = null;
+            for (int i = 0; i + GRAM_LENGTH <= filterString.length(); i++) {
+                Set<Object> itemIds = index.get(filterString.substring(i, i + GRAM_LENGTH));
+                if (itemIds == null) {
+                    return candidates;
+                }
+                if (rarest == null || itemIds.size() < rarest.size()) {
+                    rarest = itemIds;
+                }
+            }
+            for (Object itemId : rarest) {
+                String value = values.get(itemId);
+                if ((ignoreCase ? value.toLowerCase() : value).contains(filterString)) {
+                    candidates.add(itemId);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private TreeMap<String, Collection<Object>> getPrefixes(boolean ignoreCase) {
+        TreeMap<String, Collection<Object>> sorted = ignoreCase ? lowerCasePrefixes : prefixes;
+        if (sorted == null) {
+            sorted = new TreeMap<String, Collection<Object>>();
+            for (Map.Entry<Object, String> entry : values.entrySet()) {
+                addPrefix(sorted, ignoreCase ? entry.getValue().toLowerCase() : entry.getValue(), entry.getKey());
+            }
+            if (ignoreCase) {
+                lowerCasePrefixes = sorted;
+            } else {
+                prefixes = sorted;
+            }
+        }
+        return sorted;
+    }
+
+    private Map<String, Set<Object>> getGrams(boolean ignoreCase) {
+        Map<String, Set<Object>> index = ignoreCase ? lowerCaseGrams : grams;
+        if (index == null) {
+            index = new HashMap<String, Set<Object>>();
+            for (Map.Entry<Object, String> entry : values.entrySet()) {
+                addGrams(index, ignoreCase ? entry.getValue().toLowerCase() : entry.getValue(), entry.getKey());
+            }
+            if (ignoreCase) {
+                lowerCaseGrams = index;
+            } else {
+                grams = index;
+            }
+        }
+        return index;
+    }
+
+    private static void addPrefix(TreeMap<String, Collection<Object>> sorted, String value, Object itemId) {
+        Collection<Object> itemIds = sorted.get(value);
+        if (itemIds == null) {
+            itemIds = new HashSet<Object>(2);
+            sorted.put(value, itemIds);
+        }
+        itemIds.add(itemId);
+    }
+
+    private static void removePrefix(TreeMap<String, Collection<Object>> sorted, String value, Object itemId) {
+        Collection<Object> itemIds = sorted.get(value);
+        if (itemIds != null && itemIds.remove(itemId) && itemIds.isEmpty()) {
+            sorted.remove(value);
+        }
+    }
+
+    private static void addGrams(Map<String, Set<Object>> index, String value, Object itemId) {
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            String gram = value.substring(i, i + GRAM_LENGTH);
+            Set<Object> itemIds = index.get(gram);
+            if (itemIds == null) {
+                itemIds = new HashSet<Object>(4);
+                index.put(gram, itemIds);
+            }
+            itemIds.add(itemId);
+        }
+    }
+
+    private static void removeGrams(Map<String, Set<Object>> index, String value, Object itemId) {
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            String gram = value.substring(i, i + GRAM_LENGTH);
+            Set<Object> itemIds = index.get(gram);
+            if (itemIds != null && itemIds.remove(itemId) && itemIds.isEmpty()) {
+                index.remove(gram);
+            }
+        }
+    }
+}
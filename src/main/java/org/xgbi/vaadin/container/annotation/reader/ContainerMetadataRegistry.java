@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012 Vincent Demeester<vincent+shortbrain@demeester.fr>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.xgbi.vaadin.container.annotation.reader;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.xgbi.vaadin.container.annotation.Container;
+import org.xgbi.vaadin.container.annotation.ContainerType;
+import org.xgbi.vaadin.container.property.ClassMetadataCache;
+import org.xgbi.vaadin.container.property.PropertyMetadata;
+
+/**
+ * Global registry of the {@link Container} metadata, keyed by bean class and
+ * {@link ContainerType}.
+ *
+ * The metadata of a bean class is read once (using
+ * {@link ContainerBeanAnnotationReader}) and then shared, immutable, by every
+ * caller. The registry is safe for concurrent use.
+ *
+ * @since 0.4.0
+ */
+public final class ContainerMetadataRegistry {
+
+	private static final ClassMetadataCache<Map<ContainerType, List<PropertyMetadata>>> METADATAS = new ClassMetadataCache<Map<ContainerType, List<PropertyMetadata>>>() {
+
+		@Override
+		protected Map<ContainerType, List<PropertyMetadata>> computeValue(
+				Class<?> type) {
+			Map<ContainerType, List<PropertyMetadata>> metadatas;
+			try {
+				metadatas = ContainerBeanAnnotationReader
+						.getMetadataByContainerType(type);
+			} catch (IllegalArgumentException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IllegalArgumentException(
+						"cannot read @Container metadata of " + type.getName()
+								+ ".", e);
+			}
+			Map<ContainerType, List<PropertyMetadata>> ret = new EnumMap<ContainerType, List<PropertyMetadata>>(
+					ContainerType.class);
+			if (metadatas != null) {
+				for (Entry<ContainerType, List<PropertyMetadata>> entry : metadatas
+						.entrySet()) {
+					ret.put(entry.getKey(),
+							Collections.unmodifiableList(entry.getValue()));
+				}
+			}
+			return Collections.unmodifiableMap(ret);
+		}
+	};
+
+	/**
+	 * Private constructor to force the non-instantiation of this class.
+	 */
+	private ContainerMetadataRegistry() {
+	}
+
+	/**
+	 * Get the {@link Container} metadata of the given bean class, by
+	 * {@link ContainerType}.
+	 *
+	 * @param beanClass
+	 *            the bean class (or a child of the annotated class).
+	 * @return the metadata, by container type (immutable).
+	 * @throws IllegalArgumentException
+	 *             if beanClass is null, or if it (and its parents) is not
+	 *             annotated with {@link Container}.
+	 */
+	public static Map<ContainerType, List<PropertyMetadata>> getMetadataByContainerType(
+			Class<?> beanClass) {
+		if (beanClass == null) {
+			throw new IllegalArgumentException("beanClass cannot be null.");
+		}
+		return METADATAS.get(beanClass);
+	}
+
+	/**
+	 * Get the {@link Container} metadata of the given bean class, for the
+	 * given container type.
+	 *
+	 * @param beanClass
+	 *            the bean class (or a child of the annotated class).
+	 * @param containerType
+	 *            the container type.
+	 * @return the metadata (immutable), or null if there is no property for
+	 *         this container type.
+	 * @throws IllegalArgumentException
+	 *             if beanClass is null, or if it (and its parents) is not
+	 *             annotated with {@link Container}.
+	 */
+	public static List<PropertyMetadata> getMetadata(Class<?> beanClass,
+			Enum<?> containerType) {
+		return getMetadataByContainerType(beanClass).get(containerType);
+	}
+
+	/**
+	 * Get the number of lookups served from the registry.
+	 *
+	 * @return the hit count.
+	 */
+	public static long getHitCount() {
+		return METADATAS.getHitCount();
+	}
+
+	/**
+	 * Get the number of lookups that required to read the annotations.
+	 *
+	 * @return the miss count.
+	 */
+	public static long getMissCount() {
+		return METADATAS.getMissCount();
+	}
+
+	/**
+	 * Get the number of registered bean classes.
+	 *
+	 * @return the number of registered bean classes.
+	 */
+	public static int size() {
+		return METADATAS.size();
+	}
+
+	/**
+	 * Remove all the registered metadata.
+	 */
+	public static void clear() {
+		METADATAS.clear();
+	}
+}
@@ -0,0 +1,222 @@
+package org.xgbi.vaadin.container.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.xgbi.vaadin.container.ContainerStatistics;
+import org.xgbi.vaadin.container.metrics.Operation;
+import org.xgbi.vaadin.container.property.ClassMetadataCache;
+
+/**
+ * An MBean exposing the {@link ContainerStatistics}: live containers, cache
+ * statistics and cumulative population and hierarchy rebuild timings.
+ *
+ * Nothing is registered by default: {@link #register()} registers the MBean on
+ * the platform MBean server and enables the statistics, {@link #unregister()}
+ * removes it and disables them. The containers are only weakly referenced.
+ *
+ * @since 0.4.0
+ */
+public class ContainerMonitor implements ContainerMonitorMBean {
+
+    /**
+     * The name the MBean is registered with.
+     */
+    public static final String OBJECT_NAME = "org.xgbi.vaadin.container:type=ContainerMonitor";
+
+    private static final Object LOCK = new Object();
+
+    private static MBeanServer registeredServer;
+
+    /**
+     * Register the MBean on the platform MBean server (if it is not already)
+     * and enable the statistics.
+     */
+    public static void register() {
+        register(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Register the MBean on the given MBean server (if it is not already
+     * registered) and enable the statistics.
+     *
+     * @param server
+     *            The MBean server
+     * @throws IllegalStateException
+     *             if the registration fails
+     */
+    public static void register(MBeanServer server) {
+        if (server == null) {
+            throw new IllegalArgumentException("server cannot be null.");
+        }
+        synchronized (LOCK) {
+            if (registeredServer != null) {
+                return;
+            }
+            try {
+                server.registerMBean(new ContainerMonitor(), getObjectName());
+            } catch (InstanceAlreadyExistsException e) {
+                throw new IllegalStateException("An MBean is already registered as " + OBJECT_NAME + ".", e);
+            } catch (MBeanRegistrationException e) {
+                throw new IllegalStateException(e);
+            } catch (NotCompliantMBeanException e) {
+                throw new IllegalStateException(e);
+            }
+            registeredServer = server;
+            ContainerStatistics.setEnabled(true);
+        }
+    }
+
+    /**
+     * Unregister the MBean (if registered) and disable the statistics.
+     */
+    public static void unregister() {
+        synchronized (LOCK) {
+            if (registeredServer == null) {
+                return;
+            }
+            try {
+                registeredServer.unregisterMBean(getObjectName());
+            } catch (InstanceNotFoundException e) {
+                // Already unregistered (by someone else)
+            } catch (MBeanRegistrationException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                registeredServer = null;
+                ContainerStatistics.setEnabled(false);
+            }
+        }
+    }
+
+    /**
+     * Tell if the MBean is registered.
+     *
+     * @return true if registered
+     */
+    public static boolean isRegistered() {
+        synchronized (LOCK) {
+            return registeredServer != null;
+        }
+    }
+
+    private static ObjectName getObjectName() {
+        try {
+            return new ObjectName(OBJECT_NAME);
+        } catch (MalformedObjectNameException e) {
+            // Should never happen
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int getLiveContainerCount() {
+        return ContainerStatistics.getLiveContainerCount();
+    }
+
+    @Override
+    public long getItemCount() {
+        return ContainerStatistics.getItemCount();
+    }
+
+    @Override
+    public long getPropertyCount() {
+        return ContainerStatistics.getPropertyCount();
+    }
+
+    @Override
+    public int getMetadataCacheSize() {
+        return ClassMetadataCache.getTotalSize();
+    }
+
+    @Override
+    public long getMetadataCacheHitCount() {
+        return ClassMetadataCache.getTotalHitCount();
+    }
+
+    @Override
+    public long getMetadataCacheMissCount() {
+        return ClassMetadataCache.getTotalMissCount();
+    }
+
+    @Override
+    public double getMetadataCacheHitRatio() {
+        return ratio(getMetadataCacheHitCount(), getMetadataCacheMissCount());
+    }
+
+    @Override
+    public int getAccessorCacheSize() {
+        return ContainerStatistics.getAccessorCacheSize();
+    }
+
+    @Override
+    public long getAccessorCacheHitCount() {
+        return ContainerStatistics.getAccessorCacheHitCount();
+    }
+
+    @Override
+    public long getAccessorCacheMissCount() {
+        return ContainerStatistics.getAccessorCacheMissCount();
+    }
+
+    @Override
+    public double getAccessorCacheHitRatio() {
+        return ratio(getAccessorCacheHitCount(), getAccessorCacheMissCount());
+    }
+
+    @Override
+    public long getPopulateCount() {
+        return ContainerStatistics.getOperationStatistics(Operation.POPULATE).getCount();
+    }
+
+    @Override
+    public long getPopulateItemCount() {
+        return ContainerStatistics.getOperationStatistics(Operation.POPULATE).getItemCount();
+    }
+
+    @Override
+    public long getPopulateTotalMillis() {
+        return millis(ContainerStatistics.getOperationStatistics(Operation.POPULATE).getTotalNanos());
+    }
+
+    @Override
+    public long getPopulateMaxMillis() {
+        return millis(ContainerStatistics.getOperationStatistics(Operation.POPULATE).getMaxNanos());
+    }
+
+    @Override
+    public long getHierarchyRebuildCount() {
+        return ContainerStatistics.getOperationStatistics(Operation.REBUILD_HIERARCHY).getCount();
+    }
+
+    @Override
+    public long getHierarchyRebuildTotalMillis() {
+        return millis(ContainerStatistics.getOperationStatistics(Operation.REBUILD_HIERARCHY).getTotalNanos());
+    }
+
+    @Override
+    public long getHierarchyRebuildMaxMillis() {
+        return millis(ContainerStatistics.getOperationStatistics(Operation.REBUILD_HIERARCHY).getMaxNanos());
+    }
+
+    @Override
+    public void resetStatistics() {
+        ContainerStatistics.reset();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long lookups = hits + misses;
+        return (lookups == 0L) ? 0d : (double) hits / lookups;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,75 @@
+package org.xgbi.vaadin.container.jmx;
+
+/**
+ * The management interface of {@link ContainerMonitor}.
+ *
+ * @since 0.4.0
+ */
+public interface ContainerMonitorMBean {
+
+    /**
+     * The number of containers built by the factories that are still in
+     * memory.
+     */
+    int getLiveContainerCount();
+
+    /**
+     * The number of items of the live containers.
+     */
+    long getItemCount();
+
+    /**
+     * The number of properties of the live containers.
+     */
+    long getPropertyCount();
+
+    /**
+     * The number of bean types in the metadata caches.
+     */
+    int getMetadataCacheSize();
+
+    long getMetadataCacheHitCount();
+
+    long getMetadataCacheMissCount();
+
+    /**
+     * The ratio of the metadata lookups served from the caches (between 0 and
+     * 1, 0 if there was no lookup).
+     */
+    double getMetadataCacheHitRatio();
+
+    /**
+     * The number of bean types in the accessor caches of the factories.
+     */
+    int getAccessorCacheSize();
+
+    long getAccessorCacheHitCount();
+
+    long getAccessorCacheMissCount();
+
+    /**
+     * The ratio of the accessor lookups served from the caches (between 0 and
+     * 1, 0 if there was no lookup).
+     */
+    double getAccessorCacheHitRatio();
+
+    long getPopulateCount();
+
+    long getPopulateItemCount();
+
+    long getPopulateTotalMillis();
+
+    long getPopulateMaxMillis();
+
+    long getHierarchyRebuildCount();
+
+    long getHierarchyRebuildTotalMillis();
+
+    long getHierarchyRebuildMaxMillis();
+
+    /**
+     * Reset the counters and timings (the cache statistics of the metadata
+     * caches are kept).
+     */
+    void resetStatistics();
+}
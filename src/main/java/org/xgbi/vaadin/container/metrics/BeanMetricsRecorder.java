@@ -0,0 +1,25 @@
+package org.xgbi.vaadin.container.metrics;
+
+/**
+ * A {@link MetricsRecorder} that is also given the type of the beans of the
+ * operations, when known (e.g. to tell which screens are expensive).
+ *
+ * @since 0.4.0
+ */
+public interface BeanMetricsRecorder extends MetricsRecorder {
+
+    /**
+     * Record an operation on beans of the given type (called instead of
+     * {@link #record(Operation, long, int)}).
+     *
+     * @param operation
+     *            The operation
+     * @param beanClass
+     *            The type of the beans, null if unknown
+     * @param durationNanos
+     *            The duration of the operation, in nanoseconds
+     * @param itemCount
+     *            The number of items involved (see {@link Operation})
+     */
+    void record(Operation operation, Class<?> beanClass, long durationNanos, int itemCount);
+}
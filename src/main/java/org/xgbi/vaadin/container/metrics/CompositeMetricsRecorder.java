@@ -0,0 +1,100 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link MetricsRecorder} that forwards the operations to several recorders.
+ * An operation is timed if one of them records it, and only given to those
+ * (with the type of the beans, to the {@link BeanMetricsRecorder}).
+ *
+ * @since 0.4.0
+ */
+public class CompositeMetricsRecorder implements BeanMetricsRecorder {
+
+    private final MetricsRecorder[] recorders;
+
+    /**
+     * Create a {@link CompositeMetricsRecorder}.
+     *
+     * @param recorders
+     *            The recorders (the null ones are ignored)
+     */
+    public CompositeMetricsRecorder(MetricsRecorder... recorders) {
+        if (recorders == null) {
+            throw new IllegalArgumentException("recorders cannot be null.");
+        }
+        int count = 0;
+        for (MetricsRecorder recorder : recorders) {
+            if (recorder != null) {
+                count++;
+            }
+        }
+        this.recorders = new MetricsRecorder[count];
+        int i = 0;
+        for (MetricsRecorder recorder : recorders) {
+            if (recorder != null) {
+                this.recorders[i++] = recorder;
+            }
+        }
+    }
+
+    /**
+     * Get the recorders.
+     *
+     * @return The recorders, in order
+     */
+    public List<MetricsRecorder> getRecorders() {
+        return Collections.unmodifiableList(Arrays.asList(recorders));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled(Operation operation) {
+        for (MetricsRecorder recorder : recorders) {
+            if (recorder.isEnabled(operation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(Operation operation) {
+        for (MetricsRecorder recorder : recorders) {
+            if (recorder.isEnabled(operation)) {
+                recorder.start(operation);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void record(Operation operation, long durationNanos, int itemCount) {
+        record(operation, null, durationNanos, itemCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void record(Operation operation, Class<?> beanClass, long durationNanos, int itemCount) {
+        for (MetricsRecorder recorder : recorders) {
+            if (recorder.isEnabled(operation)) {
+                if (recorder instanceof BeanMetricsRecorder) {
+                    ((BeanMetricsRecorder) recorder).record(operation, beanClass, durationNanos, itemCount);
+                } else {
+                    recorder.record(operation, durationNanos, itemCount);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link MetricsRecorder} that keeps, in memory, a histogram of the
+ * durations of each operation along with its counts.
+ *
+ * The durations are counted in power of two buckets (of nanoseconds), so the
+ * percentiles are approximated by the upper bound of their bucket (at most
+ * twice the exact value). Recording is lock-free.
+ *
+ * @since 0.4.0
+ */
+public class HistogramMetricsRecorder implements MetricsRecorder {
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<Operation, Histogram>(Operation.class);
+
+    private final Set<Operation> operations;
+
+    /**
+     * Create a {@link HistogramMetricsRecorder} recording all the operations.
+     */
+    public HistogramMetricsRecorder() {
+        this(Operation.values());
+    }
+
+    /**
+     * Create a {@link HistogramMetricsRecorder} recording only the given
+     * operations.
+     *
+     * @param operations
+     *            The recorded operations
+     */
+    public HistogramMetricsRecorder(Operation... operations) {
+        if (operations == null) {
+            throw new IllegalArgumentException("operations cannot be null.");
+        }
+        this.operations = EnumSet.noneOf(Operation.class);
+        this.operations.addAll(Arrays.asList(operations));
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new Histogram());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled(Operation operation) {
+        return operations.contains(operation);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(Operation operation) {
+        // Only the duration is recorded
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void record(Operation operation, long durationNanos, int itemCount) {
+        histograms.get(operation).record(durationNanos, itemCount);
+    }
+
+    /**
+     * Get the statistics of an operation, since the creation of the recorder
+     * or the last {@link #reset()}.
+     *
+     * @param operation
+     *            The operation
+     * @return A snapshot of the statistics
+     */
+    public OperationStatistics getStatistics(Operation operation) {
+        if (operation == null) {
+            throw new IllegalArgumentException("operation cannot be null.");
+        }
+        return histograms.get(operation).snapshot(operation);
+    }
+
+    /**
+     * Forget all the recorded operations.
+     */
+    public void reset() {
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * The histogram of an operation.
+     */
+    private static final class Histogram {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong itemCount = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(OperationStatistics.BUCKETS);
+
+        void record(long durationNanos, int items) {
+            long duration = Math.max(0L, durationNanos);
+            count.incrementAndGet();
+            itemCount.addAndGet(items);
+            totalNanos.addAndGet(duration);
+            buckets.incrementAndGet(OperationStatistics.bucket(duration));
+            long max = maxNanos.get();
+            while (duration > max && !maxNanos.compareAndSet(max, duration)) {
+                max = maxNanos.get();
+            }
+        }
+
+        OperationStatistics snapshot(Operation operation) {
+            long[] counts = new long[OperationStatistics.BUCKETS];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new OperationStatistics(operation, count.get(), itemCount.get(), totalNanos.get(),
+                    maxNanos.get(), counts);
+        }
+
+        void reset() {
+            count.set(0L);
+            itemCount.set(0L);
+            totalNanos.set(0L);
+            maxNanos.set(0L);
+            for (int i = 0; i < OperationStatistics.BUCKETS; i++) {
+                buckets.set(i, 0L);
+            }
+        }
+    }
+}
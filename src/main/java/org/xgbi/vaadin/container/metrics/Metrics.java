@@ -0,0 +1,155 @@
+package org.xgbi.vaadin.container.metrics;
+
+/**
+ * The entry point of the instrumentation: holds the {@link MetricsRecorder}
+ * of the application (a {@link NoOpMetricsRecorder} by default) and times
+ * the operations for it.
+ *
+ * The instrumented code brackets an operation as follows, which costs a
+ * couple of volatile reads and a call when the operation is not recorded (the
+ * top-level operations use an {@link OperationTrace} instead):
+ *
+ * <pre>
+ * long start = Metrics.start(Operation.SORT);
+ * // ... sort
+ * Metrics.stop(Operation.SORT, start, size);
+ * </pre>
+ *
+ * @since 0.4.0
+ */
+public final class Metrics {
+
+    /**
+     * The start time of an operation that is not recorded.
+     */
+    public static final long NOT_RECORDED = Long.MIN_VALUE;
+
+    private static volatile MetricsRecorder recorder = NoOpMetricsRecorder.INSTANCE;
+
+    /**
+     * The recorder of the live statistics, called along with the recorder of
+     * the application.
+     */
+    private static volatile MetricsRecorder statisticsRecorder = NoOpMetricsRecorder.INSTANCE;
+
+    private Metrics() {
+    }
+
+    /**
+     * Get the current recorder.
+     *
+     * @return The recorder (never null)
+     */
+    public static MetricsRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Set the recorder of the operations.
+     *
+     * @param recorder
+     *            The recorder, null to not record anything
+     */
+    public static void setRecorder(MetricsRecorder recorder) {
+        Metrics.recorder = (recorder != null) ? recorder : NoOpMetricsRecorder.INSTANCE;
+    }
+
+    /**
+     * Get the recorder of the live statistics.
+     *
+     * @return The recorder (never null)
+     */
+    public static MetricsRecorder getStatisticsRecorder() {
+        return statisticsRecorder;
+    }
+
+    /**
+     * Set the recorder of the live statistics (see
+     * {@link org.xgbi.vaadin.container.ContainerStatistics}). It is called
+     * along with the recorder set by {@link #setRecorder(MetricsRecorder)},
+     * which can be replaced without losing the statistics.
+     *
+     * @param statisticsRecorder
+     *            The recorder, null to not record the statistics
+     */
+    public static void setStatisticsRecorder(MetricsRecorder statisticsRecorder) {
+        Metrics.statisticsRecorder = (statisticsRecorder != null) ? statisticsRecorder
+                : NoOpMetricsRecorder.INSTANCE;
+    }
+
+    /**
+     * Start an operation.
+     *
+     * @param operation
+     *            The operation
+     * @return The start time to give to {@link #stop(Operation, long, int)},
+     *         {@link #NOT_RECORDED} if the operation is not recorded
+     */
+    public static long start(Operation operation) {
+        boolean recorded = start(recorder, operation);
+        recorded |= start(statisticsRecorder, operation);
+        return (recorded || OperationTrace.isTracing()) ? System.nanoTime() : NOT_RECORDED;
+    }
+
+    private static boolean start(MetricsRecorder current, Operation operation) {
+        if (current.isEnabled(operation)) {
+            current.start(operation);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * End an operation, recording it if it has been timed.
+     *
+     * @param operation
+     *            The operation
+     * @param start
+     *            The value returned by {@link #start(Operation)}
+     * @param itemCount
+     *            The number of items involved
+     */
+    public static void stop(Operation operation, long start, int itemCount) {
+        stop(operation, start, null, itemCount);
+    }
+
+    /**
+     * End an operation on beans of a given type, recording it if it has been
+     * timed.
+     *
+     * @param operation
+     *            The operation
+     * @param start
+     *            The value returned by {@link #start(Operation)}
+     * @param beanClass
+     *            The type of the beans (might be null)
+     * @param itemCount
+     *            The number of items involved
+     */
+    public static void stop(Operation operation, long start, Class<?> beanClass, int itemCount) {
+        if (start != NOT_RECORDED) {
+            long duration = System.nanoTime() - start;
+            record(operation, beanClass, duration, itemCount);
+            OperationTrace.phase(operation, duration, itemCount);
+        }
+    }
+
+    /**
+     * Give an operation to the current recorders, if they record it.
+     */
+    static void record(Operation operation, Class<?> beanClass, long durationNanos, int itemCount) {
+        record(recorder, operation, beanClass, durationNanos, itemCount);
+        record(statisticsRecorder, operation, beanClass, durationNanos, itemCount);
+    }
+
+    private static void record(MetricsRecorder current, Operation operation, Class<?> beanClass,
+            long durationNanos, int itemCount) {
+        if (current.isEnabled(operation)) {
+            if (current instanceof BeanMetricsRecorder) {
+                ((BeanMetricsRecorder) current).record(operation, beanClass, durationNanos, itemCount);
+            } else {
+                current.record(operation, durationNanos, itemCount);
+            }
+        }
+    }
+}
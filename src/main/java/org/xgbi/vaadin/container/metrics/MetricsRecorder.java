@@ -0,0 +1,51 @@
+package org.xgbi.vaadin.container.metrics;
+
+/**
+ * Records the operations of the factories and containers (see
+ * {@link Metrics#setRecorder(MetricsRecorder)}).
+ *
+ * The implementations must be thread-safe, the operations might be recorded
+ * by many sessions at the same time.
+ *
+ * @since 0.4.0
+ */
+public interface MetricsRecorder {
+
+    /**
+     * Tell if the given operation is recorded: if not, it is not timed at
+     * all.
+     *
+     * @param operation
+     *            The operation
+     * @return true if {@link #record(Operation, long, int)} should be called
+     *         for this operation
+     */
+    boolean isEnabled(Operation operation);
+
+    /**
+     * Called when a recorded operation starts, on the thread of the
+     * operation, which is then recorded by
+     * {@link #record(Operation, long, int)} on the same thread (e.g. to
+     * begin an event spanning the operation).
+     *
+     * If the recorder is not enabled anymore when the operation ends, the
+     * operation is not recorded; if it was not enabled when the operation
+     * started, the operation is recorded without having been started.
+     *
+     * @param operation
+     *            The operation
+     */
+    void start(Operation operation);
+
+    /**
+     * Record an operation.
+     *
+     * @param operation
+     *            The operation
+     * @param durationNanos
+     *            The duration of the operation, in nanoseconds
+     * @param itemCount
+     *            The number of items involved (see {@link Operation})
+     */
+    void record(Operation operation, long durationNanos, int itemCount);
+}
@@ -0,0 +1,41 @@
+package org.xgbi.vaadin.container.metrics;
+
+/**
+ * A {@link MetricsRecorder} that records nothing, the default one.
+ *
+ * @since 0.4.0
+ */
+public final class NoOpMetricsRecorder implements MetricsRecorder {
+
+    /**
+     * The instance.
+     */
+    public static final NoOpMetricsRecorder INSTANCE = new NoOpMetricsRecorder();
+
+    private NoOpMetricsRecorder() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled(Operation operation) {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(Operation operation) {
+        // Nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void record(Operation operation, long durationNanos, int itemCount) {
+        // Nothing
+    }
+}
@@ -0,0 +1,60 @@
+package org.xgbi.vaadin.container.metrics;
+
+/**
+ * The operations of the factories and containers that are reported to the
+ * {@link MetricsRecorder}.
+ *
+ * @since 0.4.0
+ */
+public enum Operation {
+
+    /**
+     * The creation (or update) of a container from a collection of beans by a
+     * factory, the item count being the size of the container afterwards.
+     */
+    GET_CONTAINER,
+
+    /**
+     * The update of the hierarchy of a hierarchical bean container when the
+     * items of the wrapped container change.
+     */
+    ITEM_SET_CHANGE,
+
+    /**
+     * The instantiation of a container by a factory.
+     */
+    INIT_CONTAINER,
+
+    /**
+     * The update of the properties of a container by a factory.
+     */
+    UPDATE_PROPERTIES,
+
+    /**
+     * The population (or merge) of a container by a factory, the item count
+     * being the size of the container afterwards.
+     */
+    POPULATE,
+
+    /**
+     * The creation of a single item by a factory.
+     */
+    NEW_ITEM,
+
+    /**
+     * The rebuild of the whole hierarchy of a hierarchical bean container.
+     */
+    REBUILD_HIERARCHY,
+
+    /**
+     * The sort of a container, the item count being the number of sorted
+     * items.
+     */
+    SORT,
+
+    /**
+     * The filtering of a container, the item count being the number of items
+     * that passed the filters.
+     */
+    FILTER
+}
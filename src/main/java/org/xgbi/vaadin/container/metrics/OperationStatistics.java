@@ -0,0 +1,119 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.io.Serializable;
+
+/**
+ * The statistics of an operation recorded by a
+ * {@link HistogramMetricsRecorder} (an immutable snapshot).
+ *
+ * @since 0.4.0
+ */
+public final class OperationStatistics implements Serializable {
+
+    private static final long serialVersionUID = -2771587413569312470L;
+
+    /**
+     * The number of buckets: one per power of two of a (long) duration.
+     */
+    static final int BUCKETS = 64;
+
+    private final Operation operation;
+    private final long count;
+    private final long itemCount;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] buckets;
+
+    OperationStatistics(Operation operation, long count, long itemCount, long totalNanos, long maxNanos,
+            long[] buckets) {
+        this.operation = operation;
+        this.count = count;
+        this.itemCount = itemCount;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Get the bucket of a duration: the index of its highest bit.
+     */
+    static int bucket(long durationNanos) {
+        return (durationNanos <= 0L) ? 0 : 63 - Long.numberOfLeadingZeros(durationNanos);
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Get the number of recorded operations.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the total number of items of the recorded operations.
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Get the total duration of the recorded operations, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get the longest duration, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Get the mean duration, in nanoseconds (0 if nothing was recorded).
+     */
+    public long getMeanNanos() {
+        return (count == 0L) ? 0L : totalNanos / count;
+    }
+
+    /**
+     * Get an approximation of a percentile of the durations: the upper bound
+     * of the bucket it falls in (never more than the longest duration).
+     *
+     * @param percentile
+     *            The percentile, between 0 and 100 (e.g. 99.9)
+     * @return The duration, in nanoseconds (0 if nothing was recorded)
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0d || percentile > 100d) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100.");
+        }
+        long total = 0L;
+        for (long bucketCount : buckets) {
+            total += bucketCount;
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100d));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                long upperBound = (i >= 62) ? Long.MAX_VALUE : (2L << i) - 1L;
+                return Math.min(upperBound, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return operation + " [count=" + count + ", items=" + itemCount + ", total=" + totalNanos + "ns, mean="
+                + getMeanNanos() + "ns, max=" + maxNanos + "ns]";
+    }
+}
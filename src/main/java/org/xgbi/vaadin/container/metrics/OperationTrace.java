@@ -0,0 +1,165 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.vaadin.data.Container;
+
+/**
+ * The trace of a top-level operation (e.g. a sort), that is both recorded
+ * like any other operation by the {@link MetricsRecorder} and, when a
+ * {@link SlowOperationLogger} is installed, checked against its threshold
+ * along with the breakdown of the operations it involved (its phases).
+ *
+ * <pre>
+ * OperationTrace trace = OperationTrace.begin(Operation.SORT);
+ * try {
+ *     // ... sort
+ * } finally {
+ *     trace.end(beanClass, container, size);
+ * }
+ * </pre>
+ *
+ * The phases are the operations reported on the same thread until the end of
+ * the trace (a trace nested in another one is a phase of the outer trace).
+ *
+ * @since 0.4.0
+ */
+public class OperationTrace {
+
+    /**
+     * The trace returned when the operation is neither recorded nor checked.
+     */
+    private static final OperationTrace DISABLED = new OperationTrace(null, Metrics.NOT_RECORDED, null, null);
+
+    /**
+     * The innermost trace of each thread (only while a logger is installed).
+     */
+    private static final ThreadLocal<OperationTrace> CURRENT = new ThreadLocal<OperationTrace>();
+
+    private static volatile SlowOperationLogger logger;
+
+    private final Operation operation;
+    private final long start;
+    private final SlowOperationLogger traceLogger;
+    private final OperationTrace parent;
+    private Map<Operation, Phase> phases;
+
+    private OperationTrace(Operation operation, long start, SlowOperationLogger traceLogger, OperationTrace parent) {
+        this.operation = operation;
+        this.start = start;
+        this.traceLogger = traceLogger;
+        this.parent = parent;
+    }
+
+    /**
+     * Begin an operation.
+     *
+     * @param operation
+     *            The operation
+     * @return The trace, to end once the operation is done
+     */
+    public static OperationTrace begin(Operation operation) {
+        SlowOperationLogger currentLogger = logger;
+        if (currentLogger == null) {
+            long start = Metrics.start(operation);
+            return (start == Metrics.NOT_RECORDED) ? DISABLED : new OperationTrace(operation, start, null, null);
+        }
+        OperationTrace trace = new OperationTrace(operation, System.nanoTime(), currentLogger, CURRENT.get());
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * End the operation.
+     *
+     * @param beanClass
+     *            The type of the beans (might be null)
+     * @param container
+     *            The container (might be null)
+     * @param itemCount
+     *            The number of items involved
+     */
+    public void end(Class<?> beanClass, Container container, int itemCount) {
+        if (this == DISABLED) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        Metrics.record(operation, beanClass, duration, itemCount);
+        if (traceLogger == null) {
+            return;
+        }
+        if (parent != null) {
+            CURRENT.set(parent);
+            parent.addPhase(operation, duration, itemCount);
+        } else {
+            CURRENT.remove();
+            traceLogger.check(this, beanClass, (container != null) ? container.getClass() : null, itemCount,
+                    duration);
+        }
+    }
+
+    /**
+     * Tell if an operation reported now would be a phase of a trace.
+     */
+    static boolean isTracing() {
+        return logger != null && CURRENT.get() != null;
+    }
+
+    /**
+     * Add an operation to the phases of the current trace, if any.
+     */
+    static void phase(Operation operation, long durationNanos, int itemCount) {
+        if (logger != null) {
+            OperationTrace trace = CURRENT.get();
+            if (trace != null) {
+                trace.addPhase(operation, durationNanos, itemCount);
+            }
+        }
+    }
+
+    /**
+     * Install the logger that checks the traces (null to uninstall it).
+     */
+    static void setLogger(SlowOperationLogger slowOperationLogger) {
+        logger = slowOperationLogger;
+    }
+
+    static SlowOperationLogger getLogger() {
+        return logger;
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Get the phases, by operation (might be null if there was none).
+     */
+    Map<Operation, Phase> getPhases() {
+        return phases;
+    }
+
+    private void addPhase(Operation phaseOperation, long durationNanos, int itemCount) {
+        if (phases == null) {
+            phases = new EnumMap<Operation, Phase>(Operation.class);
+        }
+        Phase phase = phases.get(phaseOperation);
+        if (phase == null) {
+            phase = new Phase();
+            phases.put(phaseOperation, phase);
+        }
+        phase.count++;
+        phase.nanos += durationNanos;
+        phase.itemCount += itemCount;
+    }
+
+    /**
+     * The cumulated operations of a kind, in a trace.
+     */
+    static final class Phase {
+        int count;
+        long nanos;
+        long itemCount;
+    }
+}
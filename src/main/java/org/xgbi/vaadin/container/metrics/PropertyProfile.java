@@ -0,0 +1,179 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The extraction cost of a property, for a type of bean and of container,
+ * sampled by a {@link PropertyProfiler}.
+ *
+ * @since 0.4.0
+ */
+public class PropertyProfile {
+
+    private final PropertyProfiler profiler;
+    private final Class<?> beanClass;
+    private final Class<?> containerType;
+    private final String propertyId;
+    private final String path;
+    private final int samplingInterval;
+
+    /**
+     * The number of extractions of this property, to sample them.
+     */
+    private final AtomicInteger extractions = new AtomicInteger();
+
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    PropertyProfile(PropertyProfiler profiler, Class<?> beanClass, Class<?> containerType, String propertyId,
+            String path) {
+        this.profiler = profiler;
+        this.beanClass = beanClass;
+        this.containerType = containerType;
+        this.propertyId = propertyId;
+        this.path = path;
+        this.samplingInterval = profiler.getSamplingInterval();
+    }
+
+    /**
+     * Tell if the next extraction of the property should be timed.
+     *
+     * @return true one time out of {@link PropertyProfiler#getSamplingInterval()}
+     */
+    public boolean sample() {
+        return (extractions.getAndIncrement() & Integer.MAX_VALUE) % samplingInterval == 0;
+    }
+
+    /**
+     * Record a timed extraction.
+     *
+     * @param durationNanos
+     *            The duration of the extraction
+     */
+    public void record(long durationNanos) {
+        sampleCount.incrementAndGet();
+        totalNanos.addAndGet(durationNanos);
+        long max = maxNanos.get();
+        while (durationNanos > max && !maxNanos.compareAndSet(max, durationNanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Record a failed extraction.
+     */
+    public void failure() {
+        failureCount.incrementAndGet();
+    }
+
+    /**
+     * Forget the extractions recorded so far.
+     */
+    void reset() {
+        extractions.set(0);
+        sampleCount.set(0L);
+        totalNanos.set(0L);
+        maxNanos.set(0L);
+        failureCount.set(0L);
+    }
+
+    /**
+     * Tell if an extraction has been recorded since the creation (or reset)
+     * of the profile.
+     */
+    boolean isUsed() {
+        return extractions.get() != 0 || failureCount.get() != 0L;
+    }
+
+    /**
+     * Get the profiler of this profile.
+     */
+    public PropertyProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Get the type of the beans.
+     */
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Get the type of the container (might be null if unknown).
+     */
+    public Class<?> getContainerType() {
+        return containerType;
+    }
+
+    /**
+     * Get the identifier of the property.
+     */
+    public String getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * Get the path of the property in the bean (e.g.
+     * <code>customer.address.city</code>), null if it is a property of the
+     * bean itself.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Get the number of timed extractions.
+     */
+    public long getSampleCount() {
+        return sampleCount.get();
+    }
+
+    /**
+     * Get the total time of the timed extractions, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * Get the estimated time of all the extractions (timed or not), in
+     * nanoseconds.
+     */
+    public long getEstimatedTotalNanos() {
+        return totalNanos.get() * samplingInterval;
+    }
+
+    /**
+     * Get the mean time of an extraction, in nanoseconds.
+     */
+    public long getMeanNanos() {
+        long count = sampleCount.get();
+        return (count == 0L) ? 0L : totalNanos.get() / count;
+    }
+
+    /**
+     * Get the longest timed extraction, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Get the number of failed extractions (all of them, not only the timed
+     * ones).
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return propertyId + ((path != null) ? " (" + path + ")" : "") + ": " + sampleCount.get() + " samples, mean "
+                + getMeanNanos() / 1000L + " us, max " + maxNanos.get() / 1000L + " us, estimated total "
+                + getEstimatedTotalNanos() / 1000000L + " ms, " + failureCount.get() + " failures";
+    }
+}
@@ -0,0 +1,316 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An opt-in profiler of the extraction of the properties of the beans, by the
+ * factories (when they create the items) and by the alias properties (e.g.
+ * <code>customer.address.city</code>), to tell which properties dominate the
+ * population of the containers.
+ *
+ * One extraction out of {@link #getSamplingInterval()} of each property is
+ * timed, the failures are all counted. Nothing is profiled until the profiler is
+ * installed:
+ *
+ * <pre>
+ * PropertyProfiler profiler = new PropertyProfiler();
+ * profiler.install();
+ * // ... populate some containers
+ * log.info(profiler.report());
+ * PropertyProfiler.uninstall();
+ * </pre>
+ *
+ * @since 0.4.0
+ */
+public class PropertyProfiler {
+
+    /**
+     * The default sampling interval.
+     */
+    public static final int DEFAULT_SAMPLING_INTERVAL = 16;
+
+    private static volatile PropertyProfiler installed;
+
+    /**
+     * Orders the profiles by decreasing (estimated) total time.
+     */
+    private static final Comparator<PropertyProfile> BY_TOTAL_TIME = new Comparator<PropertyProfile>() {
+        @Override
+        public int compare(PropertyProfile o1, PropertyProfile o2) {
+            long t1 = o1.getTotalNanos();
+            long t2 = o2.getTotalNanos();
+            return (t1 > t2) ? -1 : ((t1 == t2) ? 0 : 1);
+        }
+    };
+
+    private final int samplingInterval;
+
+    private final ConcurrentMap<Key, PropertyProfile> profiles = new ConcurrentHashMap<Key, PropertyProfile>();
+
+    /**
+     * Create a {@link PropertyProfiler} that times one extraction out of
+     * {@value #DEFAULT_SAMPLING_INTERVAL}.
+     */
+    public PropertyProfiler() {
+        this(DEFAULT_SAMPLING_INTERVAL);
+    }
+
+    /**
+     * Create a {@link PropertyProfiler}.
+     *
+     * @param samplingInterval
+     *            Time one extraction out of samplingInterval (1 to time them
+     *            all)
+     */
+    public PropertyProfiler(int samplingInterval) {
+        if (samplingInterval < 1) {
+            throw new IllegalArgumentException("samplingInterval must be greater than 0.");
+        }
+        this.samplingInterval = samplingInterval;
+    }
+
+    /**
+     * Install this profiler (it replaces the one installed before, if any).
+     */
+    public void install() {
+        installed = this;
+    }
+
+    /**
+     * Uninstall the current profiler, if any.
+     */
+    public static void uninstall() {
+        installed = null;
+    }
+
+    /**
+     * Get the installed profiler.
+     *
+     * @return The profiler, null if none is installed
+     */
+    public static PropertyProfiler getInstalled() {
+        return installed;
+    }
+
+    /**
+     * Get the sampling interval.
+     *
+     * @return The number of extractions per timed one
+     */
+    public int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * Tell if the next extraction of a property should be timed, each
+     * property being sampled on its own.
+     *
+     * @param beanClass
+     *            The type of the bean
+     * @param containerType
+     *            The type of the container (might be null if unknown)
+     * @param propertyId
+     *            The identifier of the property
+     * @param path
+     *            The path of the property in the bean (might be null)
+     * @return true one time out of {@link #getSamplingInterval()} for the
+     *         property
+     */
+    public boolean sample(Class<?> beanClass, Class<?> containerType, String propertyId, String path) {
+        return getProfile(beanClass, containerType, propertyId, path).sample();
+    }
+
+    /**
+     * Record a timed extraction.
+     *
+     * @param beanClass
+     *            The type of the bean
+     * @param containerType
+     *            The type of the container (might be null if unknown)
+     * @param propertyId
+     *            The identifier of the property
+     * @param path
+     *            The path of the property in the bean (might be null)
+     * @param durationNanos
+     *            The duration of the extraction
+     */
+    public void record(Class<?> beanClass, Class<?> containerType, String propertyId, String path,
+            long durationNanos) {
+        getProfile(beanClass, containerType, propertyId, path).record(durationNanos);
+    }
+
+    /**
+     * Record a failed extraction.
+     *
+     * @param beanClass
+     *            The type of the bean
+     * @param containerType
+     *            The type of the container (might be null if unknown)
+     * @param propertyId
+     *            The identifier of the property
+     * @param path
+     *            The path of the property in the bean (might be null)
+     */
+    public void failure(Class<?> beanClass, Class<?> containerType, String propertyId, String path) {
+        getProfile(beanClass, containerType, propertyId, path).failure();
+    }
+
+    /**
+     * Get the profiles, ranked by decreasing total time.
+     *
+     * @return The profiles of all the properties
+     */
+    public List<PropertyProfile> getProfiles() {
+        List<PropertyProfile> ranked = new ArrayList<PropertyProfile>(profiles.size());
+        for (PropertyProfile profile : profiles.values()) {
+            if (profile.isUsed()) {
+                ranked.add(profile);
+            }
+        }
+        Collections.sort(ranked, BY_TOTAL_TIME);
+        return ranked;
+    }
+
+    /**
+     * Get the profiles of a type of bean and of container, ranked by
+     * decreasing total time.
+     *
+     * @param beanClass
+     *            The type of the beans
+     * @param containerType
+     *            The type of the container (null for the properties read
+     *            outside of a known container)
+     * @return The profiles of the properties
+     */
+    public List<PropertyProfile> getProfiles(Class<?> beanClass, Class<?> containerType) {
+        List<PropertyProfile> ranked = new ArrayList<PropertyProfile>();
+        for (PropertyProfile profile : getProfiles()) {
+            if (profile.getBeanClass() == beanClass && profile.getContainerType() == containerType) {
+                ranked.add(profile);
+            }
+        }
+        return ranked;
+    }
+
+    /**
+     * Forget the recorded extractions (the profiles kept by the instrumented
+     * code are reset, not replaced).
+     */
+    public void reset() {
+        for (PropertyProfile profile : profiles.values()) {
+            profile.reset();
+        }
+    }
+
+    /**
+     * Write the report of the profiles: by type of bean and of container
+     * (the most expensive first), the properties ranked by decreasing total
+     * time.
+     *
+     * @return The report
+     */
+    public String report() {
+        Map<String, List<PropertyProfile>> groups = new LinkedHashMap<String, List<PropertyProfile>>();
+        Map<String, Long> totals = new LinkedHashMap<String, Long>();
+        for (PropertyProfile profile : getProfiles()) {
+            String group = profile.getBeanClass().getName() + " in "
+                    + ((profile.getContainerType() != null) ? profile.getContainerType().getSimpleName() : "?");
+            List<PropertyProfile> properties = groups.get(group);
+            if (properties == null) {
+                properties = new ArrayList<PropertyProfile>();
+                groups.put(group, properties);
+                totals.put(group, 0L);
+            }
+            properties.add(profile);
+            totals.put(group, totals.get(group) + profile.getEstimatedTotalNanos());
+        }
+        // The groups are created in the order of their most expensive
+        // property, rank them on their total
+        List<Map.Entry<String, Long>> ranked = new ArrayList<Map.Entry<String, Long>>(totals.entrySet());
+        Collections.sort(ranked, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+        StringBuilder report = new StringBuilder("Property extraction profile (1 sample out of ")
+                .append(samplingInterval).append(')');
+        for (Map.Entry<String, Long> group : ranked) {
+            report.append('\n').append(group.getKey()).append(": estimated total ")
+                    .append(group.getValue() / 1000000L).append(" ms");
+            int rank = 1;
+            for (PropertyProfile profile : groups.get(group.getKey())) {
+                report.append("\n  ").append(rank++).append(". ").append(profile);
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Get the profile of a property, created on the first call. The
+     * instrumented code keeps it (while this profiler is installed) rather
+     * than looking it up for each extraction.
+     *
+     * @param beanClass
+     *            The type of the bean
+     * @param containerType
+     *            The type of the container (might be null if unknown)
+     * @param propertyId
+     *            The identifier of the property
+     * @param path
+     *            The path of the property in the bean (might be null)
+     * @return The profile of the property
+     */
+    public PropertyProfile getProfile(Class<?> beanClass, Class<?> containerType, String propertyId, String path) {
+        Key key = new Key(beanClass, containerType, propertyId);
+        PropertyProfile profile = profiles.get(key);
+        if (profile == null) {
+            PropertyProfile created = new PropertyProfile(this, beanClass, containerType, propertyId, path);
+            profile = profiles.putIfAbsent(key, created);
+            if (profile == null) {
+                profile = created;
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * The key of a profile.
+     */
+    private static final class Key {
+
+        private final Class<?> beanClass;
+        private final Class<?> containerType;
+        private final String propertyId;
+
+        private Key(Class<?> beanClass, Class<?> containerType, String propertyId) {
+            this.beanClass = beanClass;
+            this.containerType = containerType;
+            this.propertyId = propertyId;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = beanClass.hashCode();
+            hash = 31 * hash + ((containerType != null) ? containerType.hashCode() : 0);
+            return 31 * hash + propertyId.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return beanClass == other.beanClass && containerType == other.containerType
+                    && propertyId.equals(other.propertyId);
+        }
+    }
+}
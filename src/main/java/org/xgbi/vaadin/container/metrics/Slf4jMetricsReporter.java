@@ -0,0 +1,97 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the statistics of a {@link HistogramMetricsRecorder} through SLF4J, one
+ * line per recorded operation (at INFO level).
+ *
+ * It is a {@link Runnable}, to be scheduled periodically, e.g.
+ *
+ * <pre>
+ * executor.scheduleAtFixedRate(new Slf4jMetricsReporter(recorder), 1, 1, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * @since 0.4.0
+ */
+public class Slf4jMetricsReporter implements Runnable {
+
+    private static final Logger DEFAULT_LOGGER = LoggerFactory.getLogger(Slf4jMetricsReporter.class);
+
+    private final HistogramMetricsRecorder recorder;
+
+    private final Logger logger;
+
+    private final boolean resetAfterReport;
+
+    /**
+     * Create a {@link Slf4jMetricsReporter} that logs the cumulated statistics
+     * of the recorder.
+     *
+     * @param recorder
+     *            The recorder
+     */
+    public Slf4jMetricsReporter(HistogramMetricsRecorder recorder) {
+        this(recorder, DEFAULT_LOGGER, false);
+    }
+
+    /**
+     * Create a {@link Slf4jMetricsReporter}.
+     *
+     * @param recorder
+     *            The recorder
+     * @param logger
+     *            The logger
+     * @param resetAfterReport
+     *            true to reset the recorder after each report (each one then
+     *            covers the period since the previous one)
+     */
+    public Slf4jMetricsReporter(HistogramMetricsRecorder recorder, Logger logger, boolean resetAfterReport) {
+        if (recorder == null) {
+            throw new IllegalArgumentException("recorder cannot be null.");
+        }
+        if (logger == null) {
+            throw new IllegalArgumentException("logger cannot be null.");
+        }
+        this.recorder = recorder;
+        this.logger = logger;
+        this.resetAfterReport = resetAfterReport;
+    }
+
+    /**
+     * Log the statistics (see {@link #report()}).
+     */
+    @Override
+    public void run() {
+        report();
+    }
+
+    /**
+     * Log the statistics of the operations that have been recorded.
+     */
+    public void report() {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        for (Operation operation : Operation.values()) {
+            OperationStatistics statistics = recorder.getStatistics(operation);
+            if (statistics.getCount() > 0L) {
+                logger.info("{}: count={}, items={}, total={}ms, mean={}us, p50={}us, p99={}us, max={}us",
+                        new Object[] { operation, statistics.getCount(), statistics.getItemCount(),
+                                TimeUnit.NANOSECONDS.toMillis(statistics.getTotalNanos()),
+                                micros(statistics.getMeanNanos()), micros(statistics.getPercentileNanos(50d)),
+                                micros(statistics.getPercentileNanos(99d)), micros(statistics.getMaxNanos()) });
+            }
+        }
+        if (resetAfterReport) {
+            recorder.reset();
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,258 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xgbi.vaadin.container.metrics.OperationTrace.Phase;
+
+/**
+ * Logs (at WARN level) the top-level operations that take longer than their
+ * threshold, with the type of the beans and of the container, the number of
+ * items and the breakdown of the operations involved.
+ *
+ * The top-level operations are {@link Operation#GET_CONTAINER},
+ * {@link Operation#ITEM_SET_CHANGE}, {@link Operation#SORT} and
+ * {@link Operation#FILTER} (see {@link OperationTrace}) ; they all have the
+ * {@link #DEFAULT_THRESHOLD_MILLIS default threshold} at first. The number of
+ * logs is limited per period (by default {@value #DEFAULT_MAX_LOGS} per
+ * minute), the slow operations that are not logged are counted and reported
+ * with the next log.
+ *
+ * <pre>
+ * SlowOperationLogger logger = new SlowOperationLogger();
+ * logger.setThreshold(Operation.SORT, 200, TimeUnit.MILLISECONDS);
+ * logger.install();
+ * </pre>
+ *
+ * @since 0.4.0
+ */
+public class SlowOperationLogger {
+
+    /**
+     * The default threshold of the top-level operations, in milliseconds.
+     */
+    public static final long DEFAULT_THRESHOLD_MILLIS = 500L;
+
+    /**
+     * The default number of logs per period.
+     */
+    public static final int DEFAULT_MAX_LOGS = 10;
+
+    private static final Logger DEFAULT_LOGGER = LoggerFactory.getLogger(SlowOperationLogger.class);
+
+    private static final long NO_THRESHOLD = -1L;
+
+    private final Logger logger;
+
+    /**
+     * The thresholds in nanoseconds, by operation ordinal.
+     */
+    private final AtomicLongArray thresholds = new AtomicLongArray(Operation.values().length);
+
+    private volatile int maxLogs = DEFAULT_MAX_LOGS;
+
+    private volatile long periodNanos = TimeUnit.MINUTES.toNanos(1L);
+
+    private final AtomicLong periodStart = new AtomicLong(System.nanoTime());
+
+    private final AtomicInteger periodLogs = new AtomicInteger();
+
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private final AtomicLong totalSuppressed = new AtomicLong();
+
+    /**
+     * Create a {@link SlowOperationLogger} with the default thresholds and
+     * rate limit.
+     */
+    public SlowOperationLogger() {
+        this(DEFAULT_LOGGER);
+    }
+
+    /**
+     * Create a {@link SlowOperationLogger} with the default thresholds and
+     * rate limit.
+     *
+     * @param logger
+     *            The logger
+     */
+    public SlowOperationLogger(Logger logger) {
+        if (logger == null) {
+            throw new IllegalArgumentException("logger cannot be null.");
+        }
+        this.logger = logger;
+        for (int i = 0; i < thresholds.length(); i++) {
+            thresholds.set(i, NO_THRESHOLD);
+        }
+        long threshold = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD_MILLIS);
+        thresholds.set(Operation.GET_CONTAINER.ordinal(), threshold);
+        thresholds.set(Operation.ITEM_SET_CHANGE.ordinal(), threshold);
+        thresholds.set(Operation.SORT.ordinal(), threshold);
+        thresholds.set(Operation.FILTER.ordinal(), threshold);
+    }
+
+    /**
+     * Install this logger: the top-level operations are then traced and
+     * checked by it (it replaces the one installed before, if any).
+     */
+    public void install() {
+        OperationTrace.setLogger(this);
+    }
+
+    /**
+     * Uninstall the current logger, if any.
+     */
+    public static void uninstall() {
+        OperationTrace.setLogger(null);
+    }
+
+    /**
+     * Get the installed logger.
+     *
+     * @return The logger, null if none is installed
+     */
+    public static SlowOperationLogger getInstalled() {
+        return OperationTrace.getLogger();
+    }
+
+    /**
+     * Set the threshold of an operation.
+     *
+     * @param operation
+     *            The (top-level) operation
+     * @param threshold
+     *            The threshold, 0 to log all the operations
+     * @param unit
+     *            The unit of the threshold
+     */
+    public void setThreshold(Operation operation, long threshold, TimeUnit unit) {
+        if (operation == null) {
+            throw new IllegalArgumentException("operation cannot be null.");
+        }
+        if (threshold < 0L) {
+            throw new IllegalArgumentException("threshold cannot be negative.");
+        }
+        thresholds.set(operation.ordinal(), unit.toNanos(threshold));
+    }
+
+    /**
+     * Never log an operation.
+     *
+     * @param operation
+     *            The operation
+     */
+    public void removeThreshold(Operation operation) {
+        thresholds.set(operation.ordinal(), NO_THRESHOLD);
+    }
+
+    /**
+     * Get the threshold of an operation.
+     *
+     * @param operation
+     *            The operation
+     * @param unit
+     *            The unit of the result
+     * @return The threshold, -1 if the operation is never logged
+     */
+    public long getThreshold(Operation operation, TimeUnit unit) {
+        long threshold = thresholds.get(operation.ordinal());
+        return (threshold == NO_THRESHOLD) ? NO_THRESHOLD : unit.convert(threshold, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Set the maximum number of logs per period.
+     *
+     * @param maxLogs
+     *            The number of logs
+     * @param period
+     *            The period
+     * @param unit
+     *            The unit of the period
+     */
+    public void setRateLimit(int maxLogs, long period, TimeUnit unit) {
+        if (maxLogs < 1) {
+            throw new IllegalArgumentException("maxLogs must be greater than 0.");
+        }
+        if (period < 1L) {
+            throw new IllegalArgumentException("period must be greater than 0.");
+        }
+        this.maxLogs = maxLogs;
+        this.periodNanos = unit.toNanos(period);
+    }
+
+    /**
+     * Get the number of slow operations that were not logged because of the
+     * rate limit.
+     *
+     * @return The number of operations not logged since the creation
+     */
+    public long getSuppressedCount() {
+        return totalSuppressed.get();
+    }
+
+    /**
+     * Check a trace that just ended, logging it if it is slow (and the rate
+     * limit allows it).
+     */
+    void check(OperationTrace trace, Class<?> beanClass, Class<?> containerType, int itemCount, long durationNanos) {
+        long threshold = thresholds.get(trace.getOperation().ordinal());
+        if (threshold == NO_THRESHOLD || durationNanos < threshold) {
+            return;
+        }
+        if (!acquire()) {
+            suppressed.incrementAndGet();
+            totalSuppressed.incrementAndGet();
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        message.append("Slow ").append(trace.getOperation()).append(" (").append(millis(durationNanos))
+                .append(" ms) of ").append((beanClass != null) ? beanClass.getName() : "?").append(" in ")
+                .append((containerType != null) ? containerType.getSimpleName() : "?").append(", ")
+                .append(itemCount).append(" items");
+        Map<Operation, Phase> phases = trace.getPhases();
+        if (phases != null) {
+            message.append(", phases:");
+            for (Map.Entry<Operation, Phase> entry : phases.entrySet()) {
+                Phase phase = entry.getValue();
+                message.append(' ').append(entry.getKey()).append(" x").append(phase.count).append(' ')
+                        .append(millis(phase.nanos)).append(" ms (").append(phase.itemCount).append(" items)");
+            }
+        }
+        long notLogged = suppressed.getAndSet(0L);
+        if (notLogged > 0L) {
+            message.append(" [").append(notLogged).append(" slow operations not logged before]");
+        }
+        log(message.toString());
+    }
+
+    /**
+     * Log a slow operation.
+     *
+     * @param message
+     *            The description of the operation
+     */
+    protected void log(String message) {
+        logger.warn(message);
+    }
+
+    /**
+     * Take a log from the current period, if any left.
+     */
+    private boolean acquire() {
+        long now = System.nanoTime();
+        long start = periodStart.get();
+        if (now - start >= periodNanos && periodStart.compareAndSet(start, now)) {
+            periodLogs.set(0);
+        }
+        return periodLogs.incrementAndGet() <= maxLogs;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -15,7 +15,7 @@
  */
 package org.xgbi.vaadin.container.property;
 
-import static org.xgbi.vaadin.container.annotation.reader.ContainerBeanAnnotationReader.getMetadataByContainerType;
+import static org.xgbi.vaadin.container.annotation.reader.ContainerMetadataRegistry.getMetadataByContainerType;
 
 import java.util.List;
 import java.util.Map;
@@ -27,6 +27,10 @@ import org.xgbi.vaadin.container.annotation.ContainerType;
  * Implementation of {@link PropertyReaderAlgorithm} that looks for annotation
  * {@link Container}.
  * 
+ * The metadata are read through the global
+ * {@link org.xgbi.vaadin.container.annotation.reader.ContainerMetadataRegistry},
+ * so they are read once per bean class and this algorithm can be shared.
+ * 
  * @author Vincent Demeester <vincent@demeester.fr>
  * 
  */
@@ -36,7 +40,6 @@ public class AnnotationReaderAlgorithm<T extends Enum> implements PropertyReader
 	 * Container type.
 	 */
 	private final T containerType;
-	private Map<ContainerType, List<PropertyMetadata>> containersMeta;
 
 	/**
 	 * Create an {@link AnnotationReaderAlgorithm} with a {@link ContainerType}
@@ -62,19 +65,13 @@ public class AnnotationReaderAlgorithm<T extends Enum> implements PropertyReader
 	 */
 	@Override
 	public List<PropertyMetadata> getProperties(Class<?> beanClass) {
-		if (containersMeta == null) {
-			try {
-				containersMeta = getMetadataByContainerType(beanClass);
-			} catch (Exception e) {
-				// The beanClass passed is not annotated with Container
-				throw new IllegalArgumentException(
-						"the beanClass (or parent class) has to be annotated witch @Container.", e);
-			}
-		}
-		if (containersMeta == null) {
+		Map<ContainerType, List<PropertyMetadata>> containersMeta = null;
+		try {
+			containersMeta = getMetadataByContainerType(beanClass);
+		} catch (Exception e) {
 			// The beanClass passed is not annotated with Container
 			throw new IllegalArgumentException(
-					"the beanClass (or parent class) has to be annotated witch @Container.");
+					"the beanClass (or parent class) has to be annotated witch @Container.", e);
 		}
 		return containersMeta.get(containerType);
 	}
@@ -0,0 +1,52 @@
+package org.xgbi.vaadin.container.property;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.vaadin.data.Container.Filter;
+
+/**
+ * Count and fetch the beans of a lazy container, usually from a database.
+ *
+ * The filters and the sort are the ones of the container ; the data source is
+ * expected to apply them (e.g. by translating them into a query).
+ *
+ * A data source is serialized along with its container : it should reach the
+ * database through transient fields or a lookup, not hold a connection.
+ *
+ * @param <BEANTYPE>
+ *            The type of the Bean
+ *
+ * @since 0.4.0
+ *
+ * @see com.vaadin.data.util.LazyBeanContainer
+ */
+public interface BeanDataSource<BEANTYPE> extends Serializable {
+
+    /**
+     * Count the beans that pass the given filters.
+     *
+     * @param filters
+     *            The filters (might be empty)
+     * @return The number of beans
+     */
+    int count(List<Filter> filters);
+
+    /**
+     * Fetch a range of the beans that pass the given filters, sorted.
+     *
+     * @param offset
+     *            The index of the first bean
+     * @param limit
+     *            The maximum number of beans
+     * @param sortPropertyIds
+     *            The properties to sort on (might be empty)
+     * @param ascending
+     *            The sort order of each property
+     * @param filters
+     *            The filters (might be empty)
+     * @return The beans, at most limit
+     */
+    List<? extends BEANTYPE> fetch(int offset, int limit, Object[] sortPropertyIds, boolean[] ascending,
+            List<Filter> filters);
+}
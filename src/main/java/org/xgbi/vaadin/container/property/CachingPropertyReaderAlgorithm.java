@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012 Vincent Demeester<vincent+shortbrain@demeester.fr>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.xgbi.vaadin.container.property;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decorator of {@link PropertyReaderAlgorithm} that caches the properties per
+ * bean class.
+ *
+ * The decorated algorithm is called only once per bean class, the returned
+ * lists are immutable and shared by all callers. See
+ * {@link ClassMetadataCache} for the thread-safety and memory guarantees.
+ *
+ * The container factories use the algorithm they are given as is; wrap it
+ * with {@link #cached(PropertyReaderAlgorithm)} to opt in to the cache.
+ *
+ * @since 0.4.0
+ */
+public class CachingPropertyReaderAlgorithm implements PropertyReaderAlgorithm {
+
+	/**
+	 * The decorated algorithm.
+	 */
+	private final PropertyReaderAlgorithm algorithm;
+
+	/**
+	 * The properties, by bean class.
+	 */
+	private final ClassMetadataCache<List<PropertyMetadata>> cache = new ClassMetadataCache<List<PropertyMetadata>>() {
+
+		@Override
+		protected List<PropertyMetadata> computeValue(Class<?> type) {
+			List<PropertyMetadata> properties = algorithm.getProperties(type);
+			if (properties == null) {
+				return null;
+			}
+			return Collections
+					.unmodifiableList(new ArrayList<PropertyMetadata>(
+							properties));
+		}
+	};
+
+	/**
+	 * Create a {@link CachingPropertyReaderAlgorithm}.
+	 *
+	 * @param algorithm
+	 *            the algorithm to decorate.
+	 * @throws IllegalArgumentException
+	 *             if algorithm is null.
+	 */
+	public CachingPropertyReaderAlgorithm(PropertyReaderAlgorithm algorithm) {
+		if (algorithm == null) {
+			throw new IllegalArgumentException("algorithm cannot be null.");
+		}
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Decorate the given algorithm with a cache, if it is not already cached.
+	 *
+	 * @param algorithm
+	 *            the algorithm (might be null).
+	 * @return the cached algorithm, or null if algorithm is null.
+	 */
+	public static PropertyReaderAlgorithm cached(
+			PropertyReaderAlgorithm algorithm) {
+		if (algorithm == null
+				|| algorithm instanceof CachingPropertyReaderAlgorithm) {
+			return algorithm;
+		}
+		return new CachingPropertyReaderAlgorithm(algorithm);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throw {@link IllegalArgumentException} if beanClass is null.
+	 */
+	@Override
+	public List<PropertyMetadata> getProperties(Class<?> beanClass) {
+		if (beanClass == null) {
+			throw new IllegalArgumentException("beanClass cannot be null.");
+		}
+		return cache.get(beanClass);
+	}
+
+	/**
+	 * Get the decorated algorithm.
+	 *
+	 * @return the decorated algorithm.
+	 */
+	public PropertyReaderAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * Get the number of calls served from the cache.
+	 *
+	 * @return the hit count.
+	 */
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * Get the number of calls that required to call the decorated algorithm.
+	 *
+	 * @return the miss count.
+	 */
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * Remove the cached properties of the bean classes loaded by the given
+	 * classloader or one of its descendants.
+	 *
+	 * @param classLoader
+	 *            the classloader.
+	 * @throws IllegalArgumentException
+	 *             if classLoader is null.
+	 */
+	public void clear(ClassLoader classLoader) {
+		cache.clear(classLoader);
+	}
+
+	/**
+	 * Get the number of cached bean classes.
+	 *
+	 * @return the number of cached bean classes.
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Remove all the cached properties.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2012 Vincent Demeester<vincent+shortbrain@demeester.fr>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.xgbi.vaadin.container.property;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache of metadata computed per {@link Class}, in the spirit of
+ * <code>java.lang.ClassValue</code> (which is not available in Java 6).
+ *
+ * <p>
+ * Reads are lock-free (a single {@link ConcurrentHashMap} lookup). Classes are
+ * weakly referenced and values are softly referenced. A value is computed by
+ * {@link #computeValue(Class)} the first time it is requested (and again if it
+ * has been collected); <code>null</code> values are never cached.
+ * </p>
+ *
+ * <p>
+ * The values usually refer to their class (through its methods or property
+ * types), so a soft value keeps the classloader of its class alive until the
+ * garbage collector clears it, which might only happen under heap pressure.
+ * When this library is shared by several applications (i.e. loaded by a
+ * parent classloader), call {@link #clearAll(ClassLoader)} when an
+ * application is undeployed so that its classloader can be collected.
+ * </p>
+ *
+ * @param <V>
+ *            the type of the cached metadata.
+ *
+ * @since 0.4.0
+ */
+public abstract class ClassMetadataCache<V> {
+
+	/**
+	 * All the caches, for the overall statistics (weakly referenced).
+	 */
+	private static final Set<ClassMetadataCache<?>> INSTANCES = Collections
+			.synchronizedSet(Collections
+					.newSetFromMap(new WeakHashMap<ClassMetadataCache<?>, Boolean>()));
+
+	private final ConcurrentMap<ClassKey, SoftReference<V>> values = new ConcurrentHashMap<ClassKey, SoftReference<V>>();
+	private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * Create an empty cache.
+	 */
+	protected ClassMetadataCache() {
+		INSTANCES.add(this);
+	}
+
+	/**
+	 * Compute the metadata for the given type.
+	 *
+	 * @param type
+	 *            the type.
+	 * @return the metadata (might be null, it won't be cached then).
+	 */
+	protected abstract V computeValue(Class<?> type);
+
+	/**
+	 * Get the metadata for the given type, computing it if needed.
+	 *
+	 * @param type
+	 *            the type.
+	 * @return the metadata.
+	 * @throws IllegalArgumentException
+	 *             if type is null.
+	 */
+	public V get(Class<?> type) {
+		if (type == null) {
+			throw new IllegalArgumentException("type cannot be null.");
+		}
+		SoftReference<V> reference = values.get(new ClassKey(type));
+		V value = (reference != null) ? reference.get() : null;
+		if (value != null) {
+			hitCount.incrementAndGet();
+			return value;
+		}
+		missCount.incrementAndGet();
+		expungeStaleEntries();
+		value = computeValue(type);
+		if (value != null) {
+			values.put(new ClassKey(type, queue), new SoftReference<V>(value));
+		}
+		return value;
+	}
+
+	/**
+	 * Remove the metadata of the given type.
+	 *
+	 * @param type
+	 *            the type.
+	 */
+	public void remove(Class<?> type) {
+		if (type != null) {
+			values.remove(new ClassKey(type));
+		}
+	}
+
+	/**
+	 * Remove all the cached metadata (the statistics are kept).
+	 */
+	public void clear() {
+		values.clear();
+	}
+
+	/**
+	 * Remove the metadata of all the types loaded by the given classloader or
+	 * one of its descendants.
+	 *
+	 * @param classLoader
+	 *            the classloader.
+	 * @throws IllegalArgumentException
+	 *             if classLoader is null.
+	 */
+	public void clear(ClassLoader classLoader) {
+		if (classLoader == null) {
+			throw new IllegalArgumentException("classLoader cannot be null.");
+		}
+		for (ClassKey key : values.keySet()) {
+			Class<?> type = key.get();
+			if (type == null || isLoadedBy(type, classLoader)) {
+				values.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of cached types.
+	 *
+	 * @return the number of cached types.
+	 */
+	public int size() {
+		expungeStaleEntries();
+		return values.size();
+	}
+
+	/**
+	 * Get the number of lookups that were served from the cache.
+	 *
+	 * @return the hit count.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Get the number of lookups that required to compute the metadata.
+	 *
+	 * @return the miss count.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Get the number of cached types, over all the caches.
+	 *
+	 * @return the total number of cached types.
+	 */
+	public static int getTotalSize() {
+		int size = 0;
+		for (ClassMetadataCache<?> cache : getInstances()) {
+			size += cache.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Get the number of lookups that were served from a cache, over all the
+	 * caches (that have not been collected).
+	 *
+	 * @return the total hit count.
+	 */
+	public static long getTotalHitCount() {
+		long count = 0L;
+		for (ClassMetadataCache<?> cache : getInstances()) {
+			count += cache.getHitCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Get the number of lookups that required to compute the metadata, over
+	 * all the caches (that have not been collected).
+	 *
+	 * @return the total miss count.
+	 */
+	public static long getTotalMissCount() {
+		long count = 0L;
+		for (ClassMetadataCache<?> cache : getInstances()) {
+			count += cache.getMissCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Remove, from all the caches, the metadata of all the types loaded by the
+	 * given classloader or one of its descendants.
+	 *
+	 * @param classLoader
+	 *            the classloader (of an undeployed application for instance).
+	 * @throws IllegalArgumentException
+	 *             if classLoader is null.
+	 * @see #clear(ClassLoader)
+	 */
+	public static void clearAll(ClassLoader classLoader) {
+		if (classLoader == null) {
+			throw new IllegalArgumentException("classLoader cannot be null.");
+		}
+		for (ClassMetadataCache<?> cache : getInstances()) {
+			cache.clear(classLoader);
+		}
+	}
+
+	private static boolean isLoadedBy(Class<?> type, ClassLoader classLoader) {
+		for (ClassLoader loader = type.getClassLoader(); loader != null; loader = loader
+				.getParent()) {
+			if (loader == classLoader) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<ClassMetadataCache<?>> getInstances() {
+		synchronized (INSTANCES) {
+			return new ArrayList<ClassMetadataCache<?>>(INSTANCES);
+		}
+	}
+
+	private void expungeStaleEntries() {
+		Reference<? extends Class<?>> reference;
+		while ((reference = queue.poll()) != null) {
+			values.remove(reference);
+		}
+	}
+
+	/**
+	 * Weak key on a {@link Class}, compared by identity.
+	 */
+	private static final class ClassKey extends WeakReference<Class<?>> {
+
+		private final int hash;
+
+		private ClassKey(Class<?> type) {
+			super(type);
+			this.hash = System.identityHashCode(type);
+		}
+
+		private ClassKey(Class<?> type, ReferenceQueue<Class<?>> queue) {
+			super(type, queue);
+			this.hash = System.identityHashCode(type);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof ClassKey)) {
+				return false;
+			}
+			Class<?> type = get();
+			return type != null && type == ((ClassKey) obj).get();
+		}
+	}
+}
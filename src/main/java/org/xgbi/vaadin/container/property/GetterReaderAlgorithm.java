@@ -15,6 +15,7 @@
  */
 package org.xgbi.vaadin.container.property;
 
+import java.beans.Introspector;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.LinkedList;
@@ -24,6 +25,10 @@ import java.util.List;
  * Implementation of {@link PropertyReaderAlgorithm} that looks for method
  * (getter) of the beanClass.
  * 
+ * The properties are named after the getters (<code>Name</code> for
+ * <code>getName()</code>) and read through the matching bean attribute
+ * (<code>name</code>).
+ * 
  * @author Vincent Demeester <vincent@demeester.fr>
  * 
  */
@@ -46,7 +51,8 @@ public class GetterReaderAlgorithm implements PropertyReaderAlgorithm {
 					&& method.getName().startsWith("get")) {
 				String propertyName = method.getName().substring(3);
 				Class<?> propertyClass = method.getReturnType();
-				String propertyAttribute = propertyName;
+				String propertyAttribute = Introspector
+						.decapitalize(propertyName);
 				PropertyMetadata metadata = new PropertyMetadata(propertyName,
 						propertyClass, null, propertyAttribute);
 				metadatas.add(metadata);
@@ -0,0 +1,46 @@
+package org.xgbi.vaadin.container.property;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Load the beans of a tree on demand, for a lazy hierarchical container.
+ * 
+ * It is held by the container, so it is serialized with it (e.g. with the
+ * session) : keep the connections, sessions or DAOs it uses in transient
+ * fields, or look them up when needed.
+ * 
+ * @param <BEANTYPE>
+ *            The type of the Bean
+ * 
+ * @since 0.4.0
+ * 
+ * @see com.vaadin.data.util.LazyHierarchicalBeanContainer
+ */
+public interface HierarchicalBeanLoader<BEANTYPE> extends Serializable {
+
+    /**
+     * Get the root beans of the tree.
+     * 
+     * @return The root beans
+     */
+    Collection<? extends BEANTYPE> getRoots();
+
+    /**
+     * Check if the given bean has children, without loading them if possible.
+     * 
+     * @param bean
+     *            The bean
+     * @return true if the bean has children
+     */
+    boolean hasChildren(BEANTYPE bean);
+
+    /**
+     * Load the children of the given bean.
+     * 
+     * @param bean
+     *            The bean
+     * @return The children beans
+     */
+    Collection<? extends BEANTYPE> getChildren(BEANTYPE bean);
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012 Vincent Demeester<vincent+shortbrain@demeester.fr>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.xgbi.vaadin.container.property;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * A compiled accessor for a (possibly nested) property of a bean.
+ *
+ * An accessor is resolved once for a bean type (see {@link PropertyAccessors})
+ * and can then be used to read the property value of any bean of that type,
+ * without having to parse the property path or introspect the bean again.
+ *
+ * @since 0.4.0
+ */
+public interface PropertyAccessor {
+
+	/**
+	 * Get the path of the property, in the dotted notation (e.g.
+	 * "address.street").
+	 *
+	 * @return the path of the property.
+	 */
+	String getPath();
+
+	/**
+	 * Get the type of the property.
+	 *
+	 * @return the type of the property, or <code>null</code> if it could not
+	 *         be resolved.
+	 */
+	Class<?> getType();
+
+	/**
+	 * Get the value of the property for the given bean.
+	 *
+	 * If an intermediate value of a nested path is <code>null</code>, the
+	 * value returned is <code>null</code>.
+	 *
+	 * @param bean
+	 *            the bean.
+	 * @return the value of the property.
+	 * @throws IllegalAccessException
+	 *             if the getter is not accessible.
+	 * @throws InvocationTargetException
+	 *             if the getter throws an exception.
+	 * @throws NoSuchMethodException
+	 *             if the property does not exists for the given bean.
+	 */
+	Object getValue(Object bean) throws IllegalAccessException,
+			InvocationTargetException, NoSuchMethodException;
+}
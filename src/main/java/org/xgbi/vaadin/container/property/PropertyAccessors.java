@@ -0,0 +1,313 @@
+/*
+ * Copyright 2012 Vincent Demeester<vincent+shortbrain@demeester.fr>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.xgbi.vaadin.container.property;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import org.apache.commons.beanutils.PropertyUtils;
+
+/**
+ * Util class to compile {@link PropertyAccessor}.
+ *
+ * Simple and nested properties (dotted notation) are resolved once to a chain
+ * of getter {@link Method}. Indexed and mapped properties (or properties that
+ * cannot be resolved from the declared types) fall back to
+ * {@link PropertyUtils}.
+ *
+ * @since 0.4.0
+ */
+public final class PropertyAccessors {
+
+	/**
+	 * Private constructor to force the non-instantiation of this class.
+	 */
+	private PropertyAccessors() {
+	}
+
+	/**
+	 * Compile the accessors of the given properties for the given bean type.
+	 *
+	 * The returned array has the same order as the properties list.
+	 *
+	 * @param beanClass
+	 *            the type of the bean.
+	 * @param properties
+	 *            the properties.
+	 * @return the accessors.
+	 * @throws IllegalArgumentException
+	 *             if beanClass or properties is null.
+	 */
+	public static PropertyAccessor[] compile(Class<?> beanClass,
+			List<PropertyMetadata> properties) {
+		if (beanClass == null || properties == null) {
+			throw new IllegalArgumentException(
+					"beanClass and properties cannot be null.");
+		}
+		PropertyAccessor[] accessors = new PropertyAccessor[properties.size()];
+		int i = 0;
+		for (PropertyMetadata property : properties) {
+			accessors[i++] = compile(beanClass, property.getPropertyAttribute());
+		}
+		return accessors;
+	}
+
+	/**
+	 * Compile the accessor of the given property path for the given bean type.
+	 *
+	 * @param beanClass
+	 *            the type of the bean.
+	 * @param path
+	 *            the path of the property (e.g. "address.street").
+	 * @return the accessor.
+	 * @throws IllegalArgumentException
+	 *             if beanClass is null.
+	 */
+	public static PropertyAccessor compile(Class<?> beanClass, String path) {
+		if (beanClass == null) {
+			throw new IllegalArgumentException("beanClass cannot be null.");
+		}
+		if (path == null || path.length() == 0) {
+			return new NullPropertyAccessor(path);
+		}
+		if (path.indexOf('[') >= 0 || path.indexOf('(') >= 0) {
+			// Indexed or mapped property, let beanutils handle it.
+			return new DynamicPropertyAccessor(path);
+		}
+		Method[] getters = getReadMethods(beanClass, path);
+		if (getters == null) {
+			return new DynamicPropertyAccessor(path);
+		}
+		return new MethodChainPropertyAccessor(path, getters);
+	}
+
+	/**
+	 * Resolve the accessor of the given property path for the given bean type,
+	 * without falling back to {@link PropertyUtils} for simple and nested
+	 * properties.
+	 *
+	 * @param beanClass
+	 *            the type of the bean.
+	 * @param path
+	 *            the path of the property (e.g. "address.street").
+	 * @return the accessor, or null if the bean type has no such property.
+	 * @throws IllegalArgumentException
+	 *             if beanClass is null.
+	 */
+	public static PropertyAccessor resolve(Class<?> beanClass, String path) {
+		if (beanClass == null) {
+			throw new IllegalArgumentException("beanClass cannot be null.");
+		}
+		if (path == null || path.length() == 0) {
+			return null;
+		}
+		if (path.indexOf('[') >= 0 || path.indexOf('(') >= 0) {
+			// Indexed or mapped property, let beanutils handle it.
+			return new DynamicPropertyAccessor(path);
+		}
+		Method[] getters = getReadMethods(beanClass, path);
+		if (getters == null) {
+			return null;
+		}
+		return new MethodChainPropertyAccessor(path, getters);
+	}
+
+	/**
+	 * Get the chain of read methods of the given (nested) property.
+	 *
+	 * @param beanClass
+	 *            the type of the bean.
+	 * @param path
+	 *            the path of the property.
+	 * @return the read methods, or null if one of them is not found.
+	 */
+	private static Method[] getReadMethods(Class<?> beanClass, String path) {
+		String[] names = path.split("\\.");
+		Method[] getters = new Method[names.length];
+		Class<?> klass = beanClass;
+		for (int i = 0; i < names.length; i++) {
+			Method getter = getReadMethod(klass, names[i]);
+			if (getter == null) {
+				return null;
+			}
+			getters[i] = getter;
+			klass = getter.getReturnType();
+		}
+		return getters;
+	}
+
+	/**
+	 * Get the (accessible) read method of the given property.
+	 *
+	 * @param klass
+	 *            the type of the bean.
+	 * @param name
+	 *            the name of the property.
+	 * @return the read method, or null if not found.
+	 */
+	static Method getReadMethod(Class<?> klass, String name) {
+		PropertyDescriptor descriptor = getPropertyDescriptor(klass, name);
+		if (descriptor == null) {
+			return null;
+		}
+		return makeAccessible(descriptor.getReadMethod());
+	}
+
+	/**
+	 * Get the (accessible) write method of the given property.
+	 *
+	 * @param klass
+	 *            the type of the bean.
+	 * @param name
+	 *            the name of the property.
+	 * @return the write method, or null if not found.
+	 */
+	static Method getWriteMethod(Class<?> klass, String name) {
+		PropertyDescriptor descriptor = getPropertyDescriptor(klass, name);
+		if (descriptor == null) {
+			return null;
+		}
+		return makeAccessible(descriptor.getWriteMethod());
+	}
+
+	private static PropertyDescriptor getPropertyDescriptor(Class<?> klass,
+			String name) {
+		try {
+			BeanInfo info = Introspector.getBeanInfo(klass);
+			for (PropertyDescriptor descriptor : info.getPropertyDescriptors()) {
+				if (name.equals(descriptor.getName())) {
+					return descriptor;
+				}
+			}
+		} catch (IntrospectionException e) {
+			// Not a bean, nothing to resolve.
+		}
+		return null;
+	}
+
+	private static Method makeAccessible(Method method) {
+		if (method != null
+				&& (!Modifier.isPublic(method.getModifiers()) || !Modifier
+						.isPublic(method.getDeclaringClass().getModifiers()))) {
+			try {
+				method.setAccessible(true);
+			} catch (SecurityException e) {
+				return null;
+			}
+		}
+		return method;
+	}
+
+	/**
+	 * {@link PropertyAccessor} backed by a chain of resolved getters.
+	 */
+	private static final class MethodChainPropertyAccessor implements
+			PropertyAccessor {
+
+		private final String path;
+		private final Method[] getters;
+
+		private MethodChainPropertyAccessor(String path, Method[] getters) {
+			this.path = path;
+			this.getters = getters;
+		}
+
+		@Override
+		public String getPath() {
+			return path;
+		}
+
+		@Override
+		public Class<?> getType() {
+			return getters[getters.length - 1].getReturnType();
+		}
+
+		@Override
+		public Object getValue(Object bean) throws IllegalAccessException,
+				InvocationTargetException {
+			Object value = bean;
+			for (int i = 0; i < getters.length && value != null; i++) {
+				value = getters[i].invoke(value);
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * {@link PropertyAccessor} that delegates to {@link PropertyUtils} (used
+	 * when the path cannot be resolved statically).
+	 */
+	private static final class DynamicPropertyAccessor implements
+			PropertyAccessor {
+
+		private final String path;
+
+		private DynamicPropertyAccessor(String path) {
+			this.path = path;
+		}
+
+		@Override
+		public String getPath() {
+			return path;
+		}
+
+		@Override
+		public Class<?> getType() {
+			return null;
+		}
+
+		@Override
+		public Object getValue(Object bean) throws IllegalAccessException,
+				InvocationTargetException, NoSuchMethodException {
+			return PropertyUtils.getProperty(bean, path);
+		}
+	}
+
+	/**
+	 * {@link PropertyAccessor} for a property without path, always returns
+	 * null.
+	 */
+	private static final class NullPropertyAccessor implements
+			PropertyAccessor {
+
+		private final String path;
+
+		private NullPropertyAccessor(String path) {
+			this.path = path;
+		}
+
+		@Override
+		public String getPath() {
+			return path;
+		}
+
+		@Override
+		public Class<?> getType() {
+			return null;
+		}
+
+		@Override
+		public Object getValue(Object bean) {
+			return null;
+		}
+	}
+}
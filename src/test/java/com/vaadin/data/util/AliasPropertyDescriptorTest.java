@@ -0,0 +1,109 @@
+package com.vaadin.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AliasBeanContainerTest.BeanA;
+import org.xgbi.vaadin.container.AliasBeanContainerTest.BeanB;
+import org.xgbi.vaadin.container.AliasBeanContainerTest.BeanC;
+
+import com.vaadin.data.Property;
+
+/**
+ * Test class for {@link AliasPropertyDescriptor} and {@link AliasMethodProperty}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class AliasPropertyDescriptorTest {
+
+    @Test
+    public void invalidPath() {
+        try {
+            new AliasPropertyDescriptor<BeanA>("alias", "b.unknown", BeanA.class);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Bean property 'unknown' not found", e.getMessage());
+        }
+        try {
+            new AliasPropertyDescriptor<BeanA>("alias", "b.", BeanA.class);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid property name 'b.'", e.getMessage());
+        }
+    }
+
+    @Test
+    public void createProperty() {
+        AliasPropertyDescriptor<BeanA> descriptor = new AliasPropertyDescriptor<BeanA>("stringC", "b.c.stringC",
+                BeanA.class);
+        assertEquals("stringC", descriptor.getName());
+        assertEquals(String.class, descriptor.getPropertyType());
+        BeanA a = newBean("stringC");
+        // The type of the alias is String (checked below)
+        @SuppressWarnings("unchecked")
+        Property<String> property = (Property<String>) descriptor.createProperty(a);
+        assertEquals(String.class, property.getType());
+        assertFalse(property.isReadOnly());
+        assertEquals("stringC", property.getValue());
+        property.setValue("otherC");
+        assertEquals("otherC", a.getB().getC().getStringC());
+        // The chain is shared by all the properties
+        Property<?> other = descriptor.createProperty(newBean("anotherC"));
+        assertEquals("anotherC", other.getValue());
+        assertSame(((AliasMethodProperty<?>) property).getInstance(), a);
+    }
+
+    @Test
+    public void nullIntermediate() {
+        AliasPropertyDescriptor<BeanA> descriptor = new AliasPropertyDescriptor<BeanA>("stringC", "b.c.stringC",
+                BeanA.class);
+        BeanA a = new BeanA();
+        // The type of the alias is String
+        @SuppressWarnings("unchecked")
+        Property<String> property = (Property<String>) descriptor.createProperty(a);
+        assertNull(property.getValue());
+        try {
+            property.setValue("stringC");
+            fail("should throw a MethodException");
+        } catch (MethodProperty.MethodException e) {
+            assertTrue(e.getMessage().startsWith("Cannot set 'b.c.stringC'"));
+        }
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        AliasPropertyDescriptor<BeanA> descriptor = new AliasPropertyDescriptor<BeanA>("stringC", "b.c.stringC",
+                BeanA.class);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(descriptor);
+        out.close();
+        // The descriptor written just above
+        @SuppressWarnings("unchecked")
+        AliasPropertyDescriptor<BeanA> read = (AliasPropertyDescriptor<BeanA>) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(String.class, read.getPropertyType());
+        assertEquals("stringC", read.createProperty(newBean("stringC")).getValue());
+    }
+
+    private static BeanA newBean(String stringC) {
+        BeanC c = new BeanC();
+        c.setStringC(stringC);
+        BeanB b = new BeanB();
+        b.setC(c);
+        BeanA a = new BeanA();
+        a.setB(b);
+        return a;
+    }
+}
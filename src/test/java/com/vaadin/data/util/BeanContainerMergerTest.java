@@ -0,0 +1,155 @@
+package com.vaadin.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.property.HierarchicalBeanBuilder;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.Container.ItemSetChangeEvent;
+import com.vaadin.data.util.HierarchicalBeanContainerTest.Node;
+import com.vaadin.data.util.filter.SimpleStringFilter;
+
+/**
+ * Test class for {@link BeanContainerMerger}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class BeanContainerMergerTest {
+
+    private BeanContainer<String, Node> container;
+    private List<ItemSetChangeEvent> events;
+
+    @Before
+    public void setUp() {
+        container = new BeanContainer<String, Node>(Node.class);
+        container.setBeanIdProperty("name");
+        events = new ArrayList<ItemSetChangeEvent>();
+        container.addItemSetChangeListener(new Container.ItemSetChangeListener() {
+
+            @Override
+            public void containerItemSetChange(ItemSetChangeEvent event) {
+                events.add(event);
+            }
+        });
+    }
+
+    @Test
+    public void nulls() {
+        try {
+            BeanContainerMerger.merge(null, new ArrayList<Node>());
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("container cannot be null.", e.getMessage());
+        }
+        container.addBean(new Node("a"));
+        events.clear();
+        assertTrue(BeanContainerMerger.merge(container, null));
+        assertEquals(0, container.size());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void merge() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        Node c = new Node("c");
+        container.addAll(Arrays.asList(a, b, c));
+        events.clear();
+        Node b2 = new Node("b", "b1");
+        Node d = new Node("d");
+        Node e = new Node("e");
+        assertTrue(BeanContainerMerger.merge(container, Arrays.asList(e, a, b2, d)));
+        assertEquals(Arrays.asList("e", "a", "b", "d"), container.getItemIds());
+        assertSame(a, container.getItem("a").getBean());
+        assertSame(b2, container.getItem("b").getBean());
+        // A single event
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void mergeUnchanged() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        container.addAll(Arrays.asList(a, b));
+        BeanItem<Node> item = container.getItem("a");
+        events.clear();
+        assertFalse(BeanContainerMerger.merge(container, Arrays.asList(a, b)));
+        assertSame(item, container.getItem("a"));
+        assertEquals(0, events.size());
+    }
+
+    @Test
+    public void mergeEqualInstances() {
+        container.addAll(Arrays.asList(new Node("a", "a1"), new Node("b"), new Node("c")));
+        BeanItem<Node> item = container.getItem("a");
+        events.clear();
+        // A refresh loads new instances
+        assertFalse(BeanContainerMerger.merge(container,
+                Arrays.asList(new Node("a", "a1"), new Node("b"), new Node("c"))));
+        assertSame(item, container.getItem("a"));
+        assertEquals(Arrays.asList("a", "b", "c"), container.getItemIds());
+        assertEquals(0, events.size());
+    }
+
+    @Test
+    public void mergeReplacedInPlace() {
+        container.addAll(Arrays.asList(new Node("a"), new Node("b"), new Node("c")));
+        events.clear();
+        Node b2 = new Node("b", "b1");
+        assertTrue(BeanContainerMerger.merge(container, Arrays.asList(new Node("a"), b2, new Node("c"))));
+        assertEquals(Arrays.asList("a", "b", "c"), container.getItemIds());
+        assertSame(b2, container.getItem("b").getBean());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void mergeFiltered() {
+        container.addAll(Arrays.asList(new Node("a"), new Node("b"), new Node("ab")));
+        container.addContainerFilter(new SimpleStringFilter("name", "a", false, true));
+        assertEquals(Arrays.asList("a", "ab"), container.getItemIds());
+        assertTrue(BeanContainerMerger.merge(container,
+                Arrays.asList(new Node("a"), new Node("b"), new Node("ac"), new Node("ab"))));
+        assertEquals(Arrays.asList("a", "ac", "ab"), container.getItemIds());
+        container.removeAllContainerFilters();
+        assertEquals(4, container.size());
+    }
+
+    @Test
+    public void mergeHierarchical() {
+        HierarchicalBeanContainer<String, Node> hierarchical = new HierarchicalBeanContainer<String, Node>(
+                Node.class, new HierarchicalBeanBuilder<String, Node>() {
+
+                    @Override
+                    public Collection<String> getChildren(Node bean) {
+                        return bean.getChildren();
+                    }
+                });
+        hierarchical.setBeanIdProperty("name");
+        hierarchical.addAll(Arrays.asList(new Node("a", "a1"), new Node("a1"), new Node("b")));
+        events.clear();
+        hierarchical.addListener(new Container.ItemSetChangeListener() {
+
+            @Override
+            public void containerItemSetChange(ItemSetChangeEvent event) {
+                events.add(event);
+            }
+        });
+        assertTrue(BeanContainerMerger.merge(hierarchical,
+                Arrays.asList(new Node("a", "a2"), new Node("a1"), new Node("a2"))));
+        assertEquals(Arrays.asList("a", "a1"), new ArrayList<Object>(hierarchical.rootItemIds()));
+        assertEquals(Arrays.asList("a2"), new ArrayList<Object>(hierarchical.getChildren("a")));
+        assertEquals(1, events.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.vaadin.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AliasBeanContainerTest.BeanA;
+import org.xgbi.vaadin.container.AliasBeanContainerTest.BeanB;
+import org.xgbi.vaadin.container.property.PropertyMetadata;
+
+/**
+ * Test class for {@link BeanItemTemplate}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class BeanItemTemplateTest {
+
+    private static final List<PropertyMetadata> PROPERTIES = Arrays.asList(new PropertyMetadata("stringA",
+            String.class, null, null), new PropertyMetadata("stringB", String.class, null, "b.stringB"));
+
+    @Test
+    public void nulls() {
+        try {
+            new BeanItemTemplate<BeanA>(null, PROPERTIES, true);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("beanClass cannot be null.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void newItem() {
+        BeanItemTemplate<BeanA> template = new BeanItemTemplate<BeanA>(BeanA.class, PROPERTIES, true);
+        assertTrue(template.getPropertyDescriptors().containsKey("stringA"));
+        assertTrue(template.getPropertyDescriptors().containsKey("stringB"));
+        BeanA a = newBean("stringA", "stringB");
+        BeanItem<BeanA> item = template.newItem(a);
+        assertSame(a, item.getBean());
+        assertEquals("stringA", item.getItemProperty("stringA").getValue());
+        assertEquals("stringB", item.getItemProperty("stringB").getValue());
+        BeanItem<BeanA> other = template.newItem(newBean("otherA", "otherB"));
+        assertEquals("otherA", other.getItemProperty("stringA").getValue());
+        assertEquals("otherB", other.getItemProperty("stringB").getValue());
+    }
+
+    @Test
+    public void newItemWithoutAlias() {
+        BeanItemTemplate<BeanA> template = new BeanItemTemplate<BeanA>(BeanA.class, PROPERTIES, false);
+        assertFalse(template.getPropertyDescriptors().containsKey("stringB"));
+        assertEquals(null, template.newItem(newBean("stringA", "stringB")).getItemProperty("stringB"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void immutable() {
+        new BeanItemTemplate<BeanA>(BeanA.class, PROPERTIES, true).getPropertyDescriptors().clear();
+    }
+
+    private static BeanA newBean(String stringA, String stringB) {
+        BeanB b = new BeanB();
+        b.setStringB(stringB);
+        BeanA a = new BeanA();
+        a.setStringA(stringA);
+        a.setB(b);
+        return a;
+    }
+}
@@ -0,0 +1,249 @@
+package com.vaadin.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.property.HierarchicalBeanBuilder;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.Container.ItemSetChangeEvent;
+import com.vaadin.data.util.filter.SimpleStringFilter;
+
+/**
+ * Test class for {@link HierarchicalBeanContainer}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class HierarchicalBeanContainerTest {
+
+    private HierarchicalBeanContainer<String, Node> container;
+
+    @Before
+    public void setUp() {
+        container = new HierarchicalBeanContainer<String, Node>(Node.class, new NodeBuilder());
+        container.setBeanIdProperty("name");
+    }
+
+    @Test
+    public void addBean() {
+        container.addBean(new Node("a", "a1", "a2"));
+        container.addBean(new Node("a1", "a11"));
+        container.addBean(new Node("b"));
+        // Child added before its parent
+        container.addBean(new Node("a11"));
+        container.addBean(new Node("a2"));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<Object>(container.rootItemIds()));
+        assertEquals(Arrays.asList("a1", "a2"), new ArrayList<Object>(container.getChildren("a")));
+        assertEquals(Arrays.asList("a11"), new ArrayList<Object>(container.getChildren("a1")));
+        assertEquals("a1", container.getParent("a11"));
+        assertTrue(container.hasChildren("a"));
+        assertFalse(container.hasChildren("b"));
+        assertTrue(container.isRoot("b"));
+        assertFalse(container.isRoot("a2"));
+    }
+
+    @Test
+    public void addAll() {
+        container.addAll(Arrays.asList(new Node("a2"), new Node("a", "a1", "a2"), new Node("a1")));
+        assertEquals(Arrays.asList("a"), new ArrayList<Object>(container.rootItemIds()));
+        // Children are ordered as in the container
+        assertEquals(Arrays.asList("a2", "a1"), new ArrayList<Object>(container.getChildren("a")));
+    }
+
+    @Test
+    public void addBeanAt() {
+        container.addBean(new Node("a", "a1", "a2"));
+        container.addBean(new Node("a2"));
+        container.addBean(new Node("b"));
+        container.addBeanAt(0, new Node("c"));
+        container.addBeanAfter("a", new Node("a1"));
+        assertEquals(Arrays.asList("c", "a", "b"), new ArrayList<Object>(container.rootItemIds()));
+        assertEquals(Arrays.asList("a1", "a2"), new ArrayList<Object>(container.getChildren("a")));
+    }
+
+    @Test
+    public void removeItem() {
+        container.addAll(Arrays.asList(new Node("a", "a1", "a2"), new Node("a1"), new Node("a2"), new Node("b")));
+        assertTrue(container.removeItem("a"));
+        assertEquals(Arrays.asList("a1", "a2", "b"), new ArrayList<Object>(container.rootItemIds()));
+        assertNull(container.getParent("a1"));
+        assertNull(container.getChildren("a"));
+        assertFalse(container.isRoot("a"));
+        // Parent added back
+        container.addBean(new Node("a", "a1"));
+        assertEquals("a", container.getParent("a1"));
+        assertNull(container.getParent("a2"));
+        container.removeAllItems();
+        assertTrue(container.rootItemIds().isEmpty());
+    }
+
+    @Test
+    public void filter() {
+        container.addAll(Arrays.asList(new Node("a", "a1", "b1"), new Node("a1"), new Node("b1")));
+        container.addContainerFilter(new SimpleStringFilter("name", "a", false, true));
+        assertEquals(Arrays.asList("a"), new ArrayList<Object>(container.rootItemIds()));
+        assertEquals(Arrays.asList("a1"), new ArrayList<Object>(container.getChildren("a")));
+        assertFalse(container.isRoot("b1"));
+        container.removeAllContainerFilters();
+        assertEquals(Arrays.asList("a1", "b1"), new ArrayList<Object>(container.getChildren("a")));
+    }
+
+    @Test
+    public void setParent() {
+        container.addAll(Arrays.asList(new Node("a", "a1"), new Node("a1"), new Node("b")));
+        assertTrue(container.setParent("b", "a1"));
+        // No loop
+        assertFalse(container.setParent("a", "b"));
+        assertEquals("a1", container.getParent("b"));
+        assertTrue(container.setParent("b", null));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<Object>(container.rootItemIds()));
+    }
+
+    @Test
+    public void bulkLoad() {
+        final List<Object> events = new ArrayList<Object>();
+        container.addListener(new Container.ItemSetChangeListener() {
+
+            @Override
+            public void containerItemSetChange(ItemSetChangeEvent event) {
+                events.add(event);
+            }
+        });
+        container.beginBulkLoad();
+        assertTrue(container.isBulkLoading());
+        container.addBean(new Node("a1"));
+        container.addBean(new Node("a", "a1", "a2"));
+        container.addAll(Arrays.asList(new Node("a2"), new Node("b")));
+        assertEquals(0, events.size());
+        container.endBulkLoad();
+        assertFalse(container.isBulkLoading());
+        assertEquals(1, events.size());
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<Object>(container.rootItemIds()));
+        assertEquals(Arrays.asList("a1", "a2"), new ArrayList<Object>(container.getChildren("a")));
+        container.addBean(new Node("c"));
+        assertEquals(2, events.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void endBulkLoadNotStarted() {
+        container.endBulkLoad();
+    }
+
+    @Test
+    public void childrenExecutor() {
+        CountingExecutor executor = new CountingExecutor();
+        try {
+            container.setChildrenExecutor(executor, 10);
+            assertEquals(10, container.getParallelThreshold());
+            // Below the threshold: resolved by the calling thread
+            container.addAll(Arrays.asList(new Node("m0", "d0"), new Node("d0")));
+            assertEquals("m0", container.getParent("d0"));
+            assertEquals(0, executor.getTaskCount());
+            List<Node> nodes = new ArrayList<Node>();
+            for (int i = 0; i < 1000; i++) {
+                nodes.add(new Node("n" + i, "c" + i));
+                nodes.add(new Node("c" + i));
+            }
+            container.addAll(nodes);
+            assertTrue(executor.getTaskCount() >= 1);
+            assertEquals(1001, container.rootItemIds().size());
+            assertEquals("m0", container.rootItemIds().iterator().next());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("n" + i, container.getParent("c" + i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void childrenExecutorThreshold() {
+        container.setChildrenExecutor(null, 0);
+    }
+
+    /**
+     * Counts the tasks run by the pool.
+     */
+    private static class CountingExecutor extends AbstractExecutorService {
+
+        private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        private final AtomicInteger taskCount = new AtomicInteger();
+
+        public int getTaskCount() {
+            return taskCount.get();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            taskCount.incrementAndGet();
+            executor.execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+
+    public static class Node {
+        private final String name;
+        private final List<String> children;
+
+        public Node(String name, String... children) {
+            this.name = name;
+            this.children = Arrays.asList(children);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getChildren() {
+            return children;
+        }
+    }
+
+    private static class NodeBuilder implements HierarchicalBeanBuilder<String, Node> {
+
+        @Override
+        public Collection<String> getChildren(Node bean) {
+            return bean.getChildren();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.vaadin.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.property.BeanDataSource;
+import org.xgbi.vaadin.container.property.PropertyMetadata;
+
+import com.vaadin.data.Container.Filter;
+import com.vaadin.data.Container.ItemSetChangeEvent;
+import com.vaadin.data.Container.ItemSetChangeListener;
+import com.vaadin.data.util.filter.Compare;
+
+/**
+ * Test class for {@link LazyBeanContainer}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class LazyBeanContainerTest {
+
+    private ListDataSource dataSource;
+    private LazyBeanContainer<Row> container;
+
+    @Before
+    public void setUp() {
+        List<Row> rows = new ArrayList<Row>();
+        for (int i = 0; i < 1050; i++) {
+            rows.add(new Row(i, new Row(-i, null)));
+        }
+        dataSource = new ListDataSource(rows);
+        container = new LazyBeanContainer<Row>(Row.class, dataSource);
+    }
+
+    @Test
+    public void nulls() {
+        try {
+            new LazyBeanContainer<Row>(Row.class, null);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("dataSource cannot be null.", e.getMessage());
+        }
+        try {
+            container.setPageSize(0);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("pageSize must be greater than 0.", e.getMessage());
+        }
+        try {
+            container.setPrefetchPages(-1);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("prefetchPages cannot be negative.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void properties() {
+        assertTrue(container.getContainerPropertyIds().contains("value"));
+        assertEquals(Integer.class, container.getType("value"));
+        List<PropertyMetadata> properties = Arrays.asList(new PropertyMetadata("value", Integer.class, null, null),
+                new PropertyMetadata("parentValue", Integer.class, null, "parent.value"));
+        LazyBeanContainer<Row> c = new LazyBeanContainer<Row>(Row.class, dataSource, properties);
+        assertEquals(Arrays.asList("value", "parentValue"), c.getContainerPropertyIds());
+        assertEquals(Integer.valueOf(-5), c.getContainerProperty(5, "parentValue").getValue());
+    }
+
+    @Test
+    public void paging() {
+        assertEquals(1050, container.size());
+        assertEquals(1, dataSource.countCalls);
+        assertEquals(0, dataSource.fetchCalls);
+        assertEquals(Integer.valueOf(0), container.getItem(0).getBean().getValue());
+        // The first page and the next one
+        assertEquals(1, dataSource.fetchCalls);
+        assertTrue(container.isCached(199));
+        assertFalse(container.isCached(200));
+        assertEquals(Integer.valueOf(150), container.getItem(150).getBean().getValue());
+        assertEquals(1, dataSource.fetchCalls);
+        assertEquals(Integer.valueOf(250), container.getItem(250).getBean().getValue());
+        assertEquals(2, dataSource.fetchCalls);
+        // The last page is not full
+        assertEquals(Integer.valueOf(1049), container.getItem(1049).getBean().getValue());
+        assertEquals(Integer.valueOf(1049), container.lastItemId());
+        assertNull(container.getItem(1050));
+        assertEquals(Arrays.asList(10, 11), container.getItemIds(10, 2));
+        assertEquals(-1, container.indexOfId("a"));
+    }
+
+    @Test
+    public void backwardPrefetch() {
+        container.getItem(900);
+        container.getItem(800);
+        assertTrue(container.isCached(700));
+        assertEquals(2, dataSource.fetchCalls);
+        assertEquals(Integer.valueOf(700), container.getItem(700).getBean().getValue());
+        assertEquals(2, dataSource.fetchCalls);
+    }
+
+    @Test
+    public void cacheEviction() {
+        container.setMaxCachedPages(2);
+        container.setPrefetchPages(0);
+        container.getItem(0);
+        container.getItem(100);
+        container.getItem(0);
+        container.getItem(200);
+        assertTrue(container.isCached(0));
+        assertFalse(container.isCached(100));
+        assertEquals(3, dataSource.fetchCalls);
+    }
+
+    @Test
+    public void filterAndSort() {
+        final List<ItemSetChangeEvent> events = new ArrayList<ItemSetChangeEvent>();
+        container.addItemSetChangeListener(new ItemSetChangeListener() {
+
+            @Override
+            public void containerItemSetChange(ItemSetChangeEvent event) {
+                events.add(event);
+            }
+        });
+        container.getItem(0);
+        container.addContainerFilter(new Compare.Less("value", 10));
+        assertEquals(1, events.size());
+        assertFalse(container.isCached(0));
+        assertEquals(10, container.size());
+        container.sort(new Object[] { "value", "unknown" }, new boolean[] { false, true });
+        assertEquals(2, events.size());
+        assertEquals(Integer.valueOf(9), container.getItem(0).getBean().getValue());
+        assertEquals(Arrays.asList("value"), Arrays.asList(dataSource.lastSort));
+        container.removeAllContainerFilters();
+        assertEquals(1050, container.size());
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        container.getItem(0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(container);
+        out.close();
+        LazyBeanContainer<Row> read = (LazyBeanContainer<Row>) new ObjectInputStream(new ByteArrayInputStream(
+                bytes.toByteArray())).readObject();
+        assertEquals(1050, read.size());
+        // Fetched from the serialized data source
+        assertEquals(Integer.valueOf(-500), read.getItem(500).getBean().getParent().getValue());
+    }
+
+    private static class ListDataSource implements BeanDataSource<Row> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Row> rows;
+        private int countCalls;
+        private int fetchCalls;
+        private Object[] lastSort;
+
+        public ListDataSource(List<Row> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int count(List<Filter> filters) {
+            countCalls++;
+            return filter(filters).size();
+        }
+
+        @Override
+        public List<Row> fetch(int offset, int limit, Object[] sortPropertyIds, final boolean[] ascending,
+                List<Filter> filters) {
+            fetchCalls++;
+            lastSort = sortPropertyIds;
+            List<Row> filtered = filter(filters);
+            if (sortPropertyIds.length > 0) {
+                Collections.sort(filtered, new Comparator<Row>() {
+
+                    @Override
+                    public int compare(Row o1, Row o2) {
+                        int c = o1.getValue().compareTo(o2.getValue());
+                        return ascending[0] ? c : -c;
+                    }
+                });
+            }
+            return filtered.subList(Math.min(offset, filtered.size()), Math.min(offset + limit, filtered.size()));
+        }
+
+        private List<Row> filter(List<Filter> filters) {
+            List<Row> filtered = new ArrayList<Row>();
+            for (Row row : rows) {
+                boolean passes = true;
+                for (Filter filter : filters) {
+                    passes &= filter.passesFilter(row, new BeanItem<Row>(row));
+                }
+                if (passes) {
+                    filtered.add(row);
+                }
+            }
+            return filtered;
+        }
+    }
+
+    public static class Row implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Integer value;
+        private final Row parent;
+
+        public Row(Integer value, Row parent) {
+            this.value = value;
+            this.parent = parent;
+        }
+
+        public Integer getValue() {
+            return value;
+        }
+
+        public Row getParent() {
+            return parent;
+        }
+    }
+}
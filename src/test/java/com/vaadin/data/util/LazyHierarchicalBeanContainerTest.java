@@ -0,0 +1,178 @@
+package com.vaadin.data.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.property.HierarchicalBeanLoader;
+
+import com.vaadin.data.util.AbstractBeanContainer.BeanIdResolver;
+
+/**
+ * Test class for {@link LazyHierarchicalBeanContainer}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class LazyHierarchicalBeanContainerTest {
+
+    private PathLoader loader;
+    private LazyHierarchicalBeanContainer<String, String> container;
+
+    @Before
+    public void setUp() {
+        loader = new PathLoader();
+        container = new LazyHierarchicalBeanContainer<String, String>(String.class, loader);
+        container.setBeanIdResolver(new PathResolver());
+    }
+
+    @Test
+    public void lazyLoading() {
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<Object>(container.rootItemIds()));
+        assertEquals(2, container.size());
+        assertTrue(container.hasChildren("a"));
+        assertFalse(container.isLoaded("a"));
+        assertEquals(Arrays.asList("a", "b"), loader.loaded);
+        assertEquals(Arrays.asList("a/a", "a/b"), new ArrayList<Object>(container.getChildren("a")));
+        assertTrue(container.isLoaded("a"));
+        assertEquals("a", container.getParent("a/b"));
+        assertEquals(4, container.size());
+        // Loaded once
+        container.getChildren("a");
+        assertEquals(Arrays.asList("a", "b", "a"), loader.loaded);
+        // Leaves
+        assertFalse(container.hasChildren("a/a/a"));
+        assertNull(container.getChildren("b/a/a"));
+    }
+
+    @Test
+    public void eviction() {
+        container.setMaxLoadedParents(2);
+        container.rootItemIds();
+        container.getChildren("a");
+        container.getChildren("a/a");
+        assertEquals(6, container.size());
+        // "a" is used more recently than "a/a" (ancestor), so "a/a" goes first
+        container.getChildren("b");
+        assertFalse(container.isLoaded("a/a"));
+        assertFalse(container.containsId("a/a/a"));
+        assertTrue(container.isLoaded("a"));
+        assertTrue(container.isLoaded("b"));
+        assertEquals(6, container.size());
+        // Loaded again on demand
+        assertEquals(Arrays.asList("a/a/a", "a/a/b"), new ArrayList<Object>(container.getChildren("a/a")));
+    }
+
+    @Test
+    public void removeItem() {
+        container.rootItemIds();
+        container.getChildren("a");
+        container.getChildren("a/a");
+        assertTrue(container.removeItem("a"));
+        assertEquals(Arrays.asList("b"), new ArrayList<Object>(container.rootItemIds()));
+        assertEquals(1, container.size());
+        assertFalse(container.isLoaded("a/a"));
+    }
+
+    @Test
+    public void hasChildrenCached() {
+        container.setMaxLoadedParents(1);
+        container.rootItemIds();
+        assertTrue(container.hasChildren("a"));
+        assertTrue(container.hasChildren("a"));
+        assertEquals(1, loader.hasChildrenCalls);
+        // Answered by the hierarchy once loaded
+        container.getChildren("a");
+        assertTrue(container.hasChildren("a"));
+        assertTrue(container.hasChildren("a/a"));
+        assertEquals(2, loader.hasChildrenCalls);
+        // Evicted, asked again
+        container.getChildren("b");
+        assertTrue(container.hasChildren("a"));
+        assertEquals(3, loader.hasChildrenCalls);
+        // Refreshed, asked again
+        container.refresh();
+        assertTrue(container.hasChildren("b"));
+        assertEquals(4, loader.hasChildrenCalls);
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        container.rootItemIds();
+        container.getChildren("a");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(container);
+        out.close();
+        LazyHierarchicalBeanContainer<String, String> read = (LazyHierarchicalBeanContainer<String, String>) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(4, read.size());
+        assertEquals("a", read.getParent("a/b"));
+        assertEquals(Arrays.asList("b/a", "b/b"), new ArrayList<Object>(read.getChildren("b")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullLoader() {
+        new LazyHierarchicalBeanContainer<String, String>(String.class, null);
+    }
+
+    private static class PathResolver implements BeanIdResolver<String, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getIdForBean(String bean) {
+            return bean;
+        }
+    }
+
+    /**
+     * A tree of paths, 3 levels deep, with 2 children per node.
+     */
+    private static class PathLoader implements HierarchicalBeanLoader<String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> loaded = new ArrayList<String>();
+
+        private int hasChildrenCalls;
+
+        @Override
+        public Collection<String> getRoots() {
+            loaded.add("a");
+            loaded.add("b");
+            return Arrays.asList("a", "b");
+        }
+
+        @Override
+        public boolean hasChildren(String bean) {
+            hasChildrenCalls++;
+            return isParent(bean);
+        }
+
+        @Override
+        public Collection<String> getChildren(String bean) {
+            if (!isParent(bean)) {
+                return null;
+            }
+            loaded.add(bean);
+            return Arrays.asList(bean + "/a", bean + "/b");
+        }
+
+        private boolean isParent(String bean) {
+            return bean.length() < 5;
+        }
+    }
+}
@@ -17,7 +17,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -27,12 +29,20 @@ import org.junit.runner.RunWith;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.xgbi.vaadin.container.AbstractContainerFactory;
 import org.xgbi.vaadin.container.property.AttributeReaderAlgorithm;
+import org.xgbi.vaadin.container.property.BeanDataSource;
+import org.xgbi.vaadin.container.property.PropertyMetadata;
 import org.xgbi.vaadin.container.property.PropertyReaderAlgorithm;
 
 import com.vaadin.data.Container;
+import com.vaadin.data.Container.Filter;
 import com.vaadin.data.Container.Filterable;
 import com.vaadin.data.Container.Hierarchical;
+import com.vaadin.data.Container.ItemSetChangeEvent;
+import com.vaadin.data.Container.ItemSetChangeListener;
 import com.vaadin.data.Item;
+import com.vaadin.data.util.AbstractBeanContainer.BeanIdResolver;
+import com.vaadin.data.util.BeanContainer;
+import com.vaadin.data.util.LazyBeanContainer;
 import com.vaadin.data.util.HierarchicalContainer;
 import com.vaadin.data.util.IndexedContainer;
 
@@ -99,6 +109,279 @@ public class AbstractContainerFactoryTest extends AbstractContainerFactoryTestHe
         }
     }
 
+    @Test
+    public void deepHierarchy() {
+        SimpleHierarchicalBean root = new SimpleHierarchicalBean("string0", 0);
+        SimpleHierarchicalBean bean = root;
+        for (int i = 1; i < 10000; i++) {
+            SimpleHierarchicalBean child = new SimpleHierarchicalBean("string" + i, i);
+            bean.getChildren().add(child);
+            bean = child;
+        }
+        List<SimpleHierarchicalBean> roots = new LinkedList<SimpleHierarchicalBean>();
+        roots.add(root);
+        Container c1 = hierarchicalContainerFactory.getContainerFromCollection(roots, Filterable.class);
+        assertEquals(10000, c1.size());
+        Hierarchical c2 = (Hierarchical) hierarchicalContainerFactory.getContainerFromCollection(roots,
+                Hierarchical.class);
+        assertEquals(10000, c2.size());
+        assertEquals(1, c2.rootItemIds().size());
+        Object itemId = c2.rootItemIds().iterator().next();
+        for (int i = 1; i < 10000; i++) {
+            assertEquals(1, c2.getChildren(itemId).size());
+            itemId = c2.getChildren(itemId).iterator().next();
+            assertEquals(i, c2.getItem(itemId).getItemProperty("integer").getValue());
+        }
+        assertTrue(!c2.areChildrenAllowed(itemId));
+    }
+
+    @Test
+    public void childrenOrder() {
+        Container c = hierarchicalContainerFactory.getContainerFromCollection(hierarchicalBeans, Filterable.class);
+        assertEquals(40, c.size());
+        List<Object> values = new LinkedList<Object>();
+        for (Object itemId : c.getItemIds()) {
+            values.add(c.getItem(itemId).getItemProperty("integer").getValue());
+        }
+        assertEquals(0, values.get(0));
+        assertEquals(0, values.get(1));
+        assertEquals(1, values.get(2));
+        assertEquals(2, values.get(3));
+        assertEquals(1, values.get(4));
+        assertEquals(10, values.get(5));
+    }
+
+    @Test
+    public void setChildrenProperty() {
+        SimpleHierarchicalBeanContainerAttributeFactory factory = new SimpleHierarchicalBeanContainerAttributeFactory();
+        assertEquals("children", factory.getChildrenProperty());
+        factory.setChildrenProperty(null);
+        assertEquals(10, factory.getContainerFromCollection(hierarchicalBeans, Filterable.class).size());
+        factory.setChildrenProperty("unknown");
+        assertEquals(10, factory.getContainerFromCollection(hierarchicalBeans, Hierarchical.class).size());
+        factory.setChildrenProperty("children");
+        assertEquals(40, factory.getContainerFromCollection(hierarchicalBeans, Hierarchical.class).size());
+    }
+
+    @Test
+    public void addItemOverride() {
+        final List<SimpleHierarchicalBean> added = new ArrayList<SimpleHierarchicalBean>();
+        SimpleHierarchicalBeanContainerAttributeFactory factory = new SimpleHierarchicalBeanContainerAttributeFactory() {
+
+            @Override
+            protected Object addItem(Container container, List<PropertyMetadata> properties,
+                    SimpleHierarchicalBean bean, boolean introspect) {
+                added.add(bean);
+                return super.addItem(container, properties, bean, introspect);
+            }
+        };
+        // The children are added through the hook, with or without hierarchy
+        assertEquals(40, factory.getContainerFromCollection(hierarchicalBeans, Filterable.class).size());
+        assertEquals(40, added.size());
+        assertTrue(added.get(1) == hierarchicalBeans.get(0).getChildren().get(0));
+        added.clear();
+        assertEquals(40, factory.getContainerFromCollection(hierarchicalBeans, Hierarchical.class).size());
+        assertEquals(40, added.size());
+        assertTrue(added.get(1) == hierarchicalBeans.get(0).getChildren().get(0));
+    }
+
+    @Test
+    public void mergeRefreshMode() {
+        SimpleHierarchicalBeanContainerAttributeFactory factory = new SimpleHierarchicalBeanContainerAttributeFactory();
+        assertEquals(RefreshMode.REPLACE, factory.getRefreshMode());
+        try {
+            factory.setRefreshMode(null);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("refreshMode cannot be null.", e.getMessage());
+        }
+        factory.setRefreshMode(RefreshMode.MERGE);
+        Hierarchical c = (Hierarchical) factory.getContainerFromCollection(hierarchicalBeans, Hierarchical.class);
+        assertEquals(40, c.size());
+        Object firstId = c.rootItemIds().iterator().next();
+        // Remove a root, change a value, move a child
+        SimpleHierarchicalBean first = hierarchicalBeans.remove(0);
+        SimpleHierarchicalBean second = hierarchicalBeans.get(0);
+        SimpleHierarchicalBean moved = second.getChildren().remove(0);
+        hierarchicalBeans.get(1).getChildren().add(moved);
+        SimpleHierarchicalBean added = new SimpleHierarchicalBean("added", 100);
+        hierarchicalBeans.add(1, added);
+        Object secondId = c.rootItemIds().toArray()[1];
+        Object thirdId = c.rootItemIds().toArray()[2];
+        factory.getContainerFromCollection(c, hierarchicalBeans, Hierarchical.class);
+        assertEquals(37, c.size());
+        assertTrue(!c.containsId(firstId));
+        assertEquals(10, c.rootItemIds().size());
+        // Kept items keep their identifier
+        assertEquals(secondId, c.rootItemIds().toArray()[0]);
+        assertEquals(2, c.getChildren(secondId).size());
+        assertEquals(4, c.getChildren(thirdId).size());
+        assertEquals(thirdId, c.getParent(c.getChildren(thirdId).toArray()[3]));
+        Object addedId = c.rootItemIds().toArray()[9];
+        assertEquals(100, c.getItem(addedId).getItemProperty("integer").getValue());
+    }
+
+    @Test
+    public void mergeByIdResolver() {
+        SimpleBeanContainerAttributeFactory factory = new SimpleBeanContainerAttributeFactory();
+        factory.setRefreshMode(RefreshMode.MERGE);
+        factory.setMergeIdResolver(new BeanIdResolver<String, SimpleBean>() {
+
+            @Override
+            public String getIdForBean(SimpleBean bean) {
+                return bean.getString();
+            }
+        });
+        IndexedContainer c = (IndexedContainer) factory.getContainerFromCollection(beans, IndexedContainer.class);
+        List<Object> itemIds = new ArrayList<Object>(c.getItemIds());
+        final List<ItemSetChangeEvent> events = new LinkedList<ItemSetChangeEvent>();
+        c.addItemSetChangeListener(new ItemSetChangeListener() {
+
+            @Override
+            public void containerItemSetChange(ItemSetChangeEvent event) {
+                events.add(event);
+            }
+        });
+        // Reloaded instances keep their item, without event
+        List<SimpleBean> reloaded = new ArrayList<SimpleBean>();
+        for (SimpleBean bean : beans) {
+            reloaded.add(new SimpleBean(bean.getString(), bean.getInteger()));
+        }
+        reloaded.set(2, new SimpleBean(beans.get(2).getString(), 42));
+        factory.getContainerFromCollection(c, reloaded, IndexedContainer.class);
+        assertEquals(itemIds, new ArrayList<Object>(c.getItemIds()));
+        assertEquals(42, c.getItem(itemIds.get(2)).getItemProperty("integer").getValue());
+        assertTrue(reloaded.get(2) == c.getItem(itemIds.get(2)).getItemProperty("bean").getValue());
+        assertEquals(0, events.size());
+        // Removals and additions are notified once
+        reloaded.remove(0);
+        reloaded.remove(4);
+        reloaded.add(1, new SimpleBean("added", 100));
+        factory.getContainerFromCollection(c, reloaded, IndexedContainer.class);
+        assertEquals(9, c.size());
+        assertEquals("added", c.getItem(c.getIdByIndex(1)).getItemProperty("string").getValue());
+        assertEquals(itemIds.get(1), c.getIdByIndex(0));
+        assertEquals(1, events.size());
+        // Nothing kept
+        factory.getContainerFromCollection(c, Collections.singletonList(new SimpleBean("other", 0)),
+                IndexedContainer.class);
+        assertEquals(1, c.size());
+        assertEquals(2, events.size());
+        try {
+            factory.getContainerFromCollection(c, Collections.singletonList(new SimpleBean(null, 0)),
+                    IndexedContainer.class);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Resolved identifier for a bean must not be null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void getContainerFromIterator() {
+        try {
+            containerFactory.setChunkSize(0);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("chunkSize must be greater than 0.", e.getMessage());
+        }
+        Container c1 = containerFactory.getContainerFromIterator(beans.iterator(), Filterable.class);
+        assertEquals(10, c1.size());
+        Container c2 = containerFactory.getContainerFromIterable(c1, beans.subList(0, 3), Filterable.class);
+        assertTrue(c1 == c2);
+        assertEquals(3, c2.size());
+        assertEquals(0, containerFactory.getContainerFromIterable(c1, null, Filterable.class).size());
+        Hierarchical c3 = (Hierarchical) hierarchicalContainerFactory.getContainerFromIterable(hierarchicalBeans,
+                Hierarchical.class);
+        assertEquals(40, c3.size());
+        assertEquals(10, c3.rootItemIds().size());
+    }
+
+    @Test
+    public void getContainerFromIteratorUnsupportedClass() {
+        try {
+            containerFactory.getContainerFromIterator(beans.iterator(), Container.Sortable.class);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("containerClass cannot be instantiated.", e.getMessage());
+            assertTrue(e.getCause() instanceof InstantiationException);
+        }
+    }
+
+    @Test
+    public void beanContainerFromIterator() {
+        AbstractBeanContainerFactory<String, SimpleBean> factory = new AbstractBeanContainerFactory<String, SimpleBean>(
+                SimpleBean.class, new AttributeReaderAlgorithm(), BeanContainer.class, "string") {
+        };
+        assertEquals(IExtendedContainerFactory.DEFAULT_CHUNK_SIZE, factory.getChunkSize());
+        factory.setChunkSize(4);
+        BeanContainer<String, SimpleBean> c = (BeanContainer<String, SimpleBean>) factory.getContainerFromIterator(
+                null, Filterable.class);
+        final List<ItemSetChangeEvent> events = new LinkedList<ItemSetChangeEvent>();
+        c.addItemSetChangeListener(new ItemSetChangeListener() {
+
+            @Override
+            public void containerItemSetChange(ItemSetChangeEvent event) {
+                events.add(event);
+            }
+        });
+        factory.getContainerFromIterator(c, beans.iterator(), Filterable.class);
+        assertEquals(10, c.size());
+        assertEquals("string9", c.lastItemId());
+        // No event for the (already empty) container, then one per chunk
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    public void getContainerFromDataSource() {
+        Container c = containerFactory.getContainerFromDataSource(new BeanDataSource<SimpleBean>() {
+
+            @Override
+            public int count(List<Filter> filters) {
+                return beans.size();
+            }
+
+            @Override
+            public List<? extends SimpleBean> fetch(int offset, int limit, Object[] sortPropertyIds,
+                    boolean[] ascending, List<Filter> filters) {
+                return beans.subList(offset, Math.min(offset + limit, beans.size()));
+            }
+        });
+        assertTrue(c instanceof LazyBeanContainer);
+        assertProperties(new String[] { "string", "integer" }, c.getContainerPropertyIds());
+        assertEquals(10, c.size());
+        assertEquals("string3", c.getContainerProperty(3, "string").getValue());
+    }
+
+    @Test
+    public void getColumnarContainer() {
+        Container c = containerFactory.getContainerFromCollection(beans, ColumnarContainer.class);
+        assertTrue(c instanceof ColumnarContainer);
+        assertEquals(10, c.size());
+        assertEquals(Integer.class, c.getType("integer"));
+        Object itemId = ((ColumnarContainer) c).getIdByIndex(3);
+        assertEquals("string3", c.getContainerProperty(itemId, "string").getValue());
+        assertEquals(Integer.valueOf(3), c.getContainerProperty(itemId, "integer").getValue());
+        assertEquals(beans.get(3), c.getContainerProperty(itemId, "bean").getValue());
+    }
+
+    @Test
+    public void containerFactoryDefaults() {
+        // A factory written before 0.4.0
+        CollectingContainerFactory factory = new CollectingContainerFactory();
+        assertEquals(RefreshMode.REPLACE, factory.getRefreshMode());
+        assertEquals(IExtendedContainerFactory.DEFAULT_CHUNK_SIZE, factory.getChunkSize());
+        factory.getContainerFromIterable(beans, IndexedContainer.class);
+        assertEquals(beans, factory.beans);
+        factory.getContainerFromIterator(null, IndexedContainer.class);
+        assertTrue(factory.beans.isEmpty());
+        try {
+            factory.getContainerFromDataSource(null);
+            fail("should throw an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("data sources are not supported by this factory.", e.getMessage());
+        }
+    }
+
     protected static class SimpleBeanContainerAttributeFactory extends AbstractContainerFactory<SimpleBean> {
 
         public SimpleBeanContainerAttributeFactory() {
@@ -115,4 +398,53 @@ public class AbstractContainerFactoryTest extends AbstractContainerFactoryTestHe
         }
 
     }
+
+    private static class CollectingContainerFactory extends ContainerFactory<SimpleBean> {
+
+        private Collection<SimpleBean> beans;
+
+        @Override
+        public Container getContainerFromList(Container container, List<SimpleBean> beans) {
+            return getContainerFromCollection(container, beans);
+        }
+
+        @Override
+        public Container getContainerFromList(Container container, List<SimpleBean> beans,
+                Class<? extends Container> containerClass) {
+            return getContainerFromCollection(container, beans, containerClass);
+        }
+
+        @Override
+        public Container getContainerFromList(List<SimpleBean> beans, Class<? extends Container> containerClass) {
+            return getContainerFromCollection(beans, containerClass);
+        }
+
+        @Override
+        public Container getContainerFromCollection(Container container, Collection<SimpleBean> beans) {
+            return getContainerFromCollection(container, beans, IndexedContainer.class);
+        }
+
+        @Override
+        public Container getContainerFromCollection(Container container, Collection<SimpleBean> beans,
+                Class<? extends Container> containerClass) {
+            this.beans = beans;
+            return (container != null) ? container : new IndexedContainer();
+        }
+
+        @Override
+        public Container getContainerFromCollection(Collection<SimpleBean> beans,
+                Class<? extends Container> containerClass) {
+            return getContainerFromCollection(null, beans, containerClass);
+        }
+
+        @Override
+        public void setBeanProperty(String name) {
+        }
+
+        @Override
+        public Item newItem(SimpleBean bean) {
+            return null;
+        }
+
+    }
 }
@@ -5,7 +5,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.Test;
-import org.xgbi.vaadin.container.IContainerFactory;
+import org.xgbi.vaadin.container.IExtendedContainerFactory;
 import org.xgbi.vaadin.container.property.AttributeReaderAlgorithm;
 
 import com.vaadin.data.Container;
@@ -22,8 +22,8 @@ import static org.junit.Assert.fail;
 
 public class AbstractContainerFactoryTestHelper extends AbstractContainerUtilsTest {
 
-    protected IContainerFactory containerFactory;
-    protected IContainerFactory hierarchicalContainerFactory;
+    protected IExtendedContainerFactory containerFactory;
+    protected IExtendedContainerFactory hierarchicalContainerFactory;
     
     protected List<SimpleBean> beans;
     protected List<SimpleHierarchicalBean> hierarchicalBeans;
@@ -1,13 +1,28 @@
 package org.xgbi.vaadin.container;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.xgbi.vaadin.container.AliasBeanContainer;
 
+import com.vaadin.data.Property;
 import com.vaadin.data.util.AbstractBeanContainer.BeanIdResolver;
+import com.vaadin.data.util.DefaultItemSorter;
+import com.vaadin.data.util.ObjectProperty;
+import com.vaadin.data.util.VaadinPropertyDescriptor;
+import com.vaadin.data.util.filter.Not;
+import com.vaadin.data.util.filter.SimpleStringFilter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @RunWith(BlockJUnit4ClassRunner.class)
 public class AliasBeanContainerTest {
@@ -58,6 +73,198 @@ public class AliasBeanContainerTest {
         }
     }
 
+    @Test
+    public void sort() {
+        Random random = new Random(42);
+        String[] strings = new String[] { null, "x", "y", "z" };
+        List<BeanA> beans = new ArrayList<BeanA>();
+        for (int i = 0; i < 500; i++) {
+            BeanC c = new BeanC();
+            c.setStringC(strings[random.nextInt(strings.length)]);
+            BeanB b = new BeanB();
+            b.setC(c);
+            b.setStringB(strings[random.nextInt(strings.length)]);
+            BeanA a = new BeanA();
+            a.setB(b);
+            a.setStringA("stringA" + i);
+            beans.add(a);
+        }
+        AliasBeanContainer<BeanA, BeanA> c = createContainer(beans);
+        AliasBeanContainer<BeanA, BeanA> expected = createContainer(beans);
+        // Another item sorter is used as is
+        expected.setItemSorter(new DefaultItemSorter());
+        Object[] propertyIds = new Object[] { "stringB", "unknown", "b.c.stringC" };
+        boolean[] ascending = new boolean[] { false, true };
+        c.sort(propertyIds, ascending);
+        expected.sort(propertyIds, ascending);
+        assertEquals(expected.getItemIds(), c.getItemIds());
+        c.sort(new Object[] { "b.c.stringC" }, new boolean[] { true });
+        expected.sort(new Object[] { "b.c.stringC" }, new boolean[] { true });
+        assertEquals(expected.getItemIds(), c.getItemIds());
+    }
+
+    @Test
+    public void sortCustomProperty() {
+        Random random = new Random(42);
+        String[] strings = new String[] { null, "x", "y", "z" };
+        List<BeanA> beans = new ArrayList<BeanA>();
+        for (int i = 0; i < 100; i++) {
+            BeanB b = new BeanB();
+            b.setStringB(strings[random.nextInt(strings.length)]);
+            BeanA a = new BeanA();
+            a.setB(b);
+            a.setStringA("stringA" + i);
+            beans.add(a);
+        }
+        // stringA is replaced by a property that is not read from the bean path
+        AliasBeanContainer<BeanA, BeanA> c = new CustomPropertyContainer();
+        AliasBeanContainer<BeanA, BeanA> expected = new CustomPropertyContainer();
+        expected.setItemSorter(new DefaultItemSorter());
+        c.addAll(beans);
+        expected.addAll(beans);
+        c.sort(new Object[] { "stringA" }, new boolean[] { true });
+        expected.sort(new Object[] { "stringA" }, new boolean[] { true });
+        assertEquals(expected.getItemIds(), c.getItemIds());
+    }
+
+    @Test
+    public void filterIndex() {
+        Random random = new Random(42);
+        String[] strings = new String[] { null, "Alpha", "beta", "alphabet", "Gamma" };
+        List<BeanA> beans = new ArrayList<BeanA>();
+        for (int i = 0; i < 300; i++) {
+            BeanB b = new BeanB();
+            b.setStringB(strings[random.nextInt(strings.length)]);
+            BeanA a = new BeanA();
+            a.setB(b);
+            a.setStringA("stringA" + i);
+            beans.add(a);
+        }
+        AliasBeanContainer<BeanA, BeanA> c = createContainer(beans);
+        AliasBeanContainer<BeanA, BeanA> expected = createContainer(beans);
+        c.setFilterIndexed("stringB", true);
+        c.setFilterIndexed("stringA", true);
+        assertTrue(c.isFilterIndexed("stringB"));
+        assertFalse(expected.isFilterIndexed("stringB"));
+        SimpleStringFilter[] filters = new SimpleStringFilter[] { new SimpleStringFilter("stringB", "al", true, true),
+                new SimpleStringFilter("stringB", "Al", false, true),
+                new SimpleStringFilter("stringB", "ph", true, false),
+                new SimpleStringFilter("stringB", "ETA", true, false),
+                new SimpleStringFilter("stringB", "phab", false, false),
+                new SimpleStringFilter("stringB", "", false, false),
+                new SimpleStringFilter("stringA", "stringA1", false, true),
+                new SimpleStringFilter("stringA", "xyz", false, false) };
+        for (SimpleStringFilter filter : filters) {
+            c.addContainerFilter(filter);
+            expected.addContainerFilter(filter);
+            assertEquals(expected.getItemIds(), c.getItemIds());
+            c.removeAllContainerFilters();
+            expected.removeAllContainerFilters();
+        }
+        // The index follows the added and removed items
+        c.addContainerFilter(new SimpleStringFilter("stringB", "gam", true, true));
+        expected.addContainerFilter(new SimpleStringFilter("stringB", "gam", true, true));
+        BeanB b = new BeanB();
+        b.setStringB("gamma ray");
+        BeanA a = new BeanA();
+        a.setB(b);
+        a.setStringA("added");
+        c.addBean(a);
+        expected.addBean(a);
+        c.removeItem(expected.getIdByIndex(0));
+        expected.removeItem(expected.getIdByIndex(0));
+        c.removeAllContainerFilters();
+        expected.removeAllContainerFilters();
+        c.addContainerFilter(new SimpleStringFilter("stringB", "ray", false, false));
+        assertEquals(1, c.size());
+        c.removeAllContainerFilters();
+        c.addContainerFilter(new SimpleStringFilter("stringB", "gam", true, true));
+        expected.addContainerFilter(new SimpleStringFilter("stringB", "gam", true, true));
+        assertEquals(expected.getItemIds(), c.getItemIds());
+    }
+
+    @Test
+    public void parallelFilter() {
+        String[] strings = new String[] { null, "Alpha", "beta", "alphabet", "Gamma" };
+        List<BeanA> beans = new ArrayList<BeanA>();
+        for (int i = 0; i < 5000; i++) {
+            BeanB b = new BeanB();
+            b.setStringB(strings[i % strings.length]);
+            BeanA a = new BeanA();
+            a.setB(b);
+            a.setStringA("stringA" + i);
+            beans.add(a);
+        }
+        AliasBeanContainer<BeanA, BeanA> c = createContainer(beans);
+        AliasBeanContainer<BeanA, BeanA> expected = createContainer(beans);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            c.setFilterExecutor(executor, 100);
+            assertEquals(100, c.getParallelFilterThreshold());
+            c.addContainerFilter(new SimpleStringFilter("stringA", "1", false, false));
+            c.addContainerFilter(new Not(new SimpleStringFilter("stringB", "beta", false, false)));
+            expected.addContainerFilter(new SimpleStringFilter("stringA", "1", false, false));
+            expected.addContainerFilter(new Not(new SimpleStringFilter("stringB", "beta", false, false)));
+            assertEquals(expected.getItemIds(), c.getItemIds());
+            // Along with an index
+            c.setFilterIndexed("stringB", true);
+            c.removeAllContainerFilters();
+            expected.removeAllContainerFilters();
+            c.addContainerFilter(new SimpleStringFilter("stringB", "alpha", true, true));
+            expected.addContainerFilter(new SimpleStringFilter("stringB", "alpha", true, true));
+            assertEquals(expected.getItemIds(), c.getItemIds());
+        } finally {
+            executor.shutdown();
+        }
+        try {
+            c.setFilterExecutor(null, 0);
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("parallelFilterThreshold must be greater than 0.", e.getMessage());
+        }
+    }
+
+    private AliasBeanContainer<BeanA, BeanA> createContainer(List<BeanA> beans) {
+        AliasBeanContainer<BeanA, BeanA> c = new AliasBeanContainer<BeanA, BeanA>(BeanA.class);
+        c.addNestedContainerProperty("b.c.stringC");
+        c.addShortcutContainerProperty("stringB", "b.stringB");
+        c.setBeanIdResolver(new BeanAIdResolver());
+        c.addAll(beans);
+        return c;
+    }
+
+    private static class CustomPropertyContainer extends AliasBeanContainer<BeanA, BeanA> {
+
+        private static final long serialVersionUID = 1L;
+
+        private CustomPropertyContainer() {
+            super(BeanA.class);
+            setBeanIdResolver(new BeanAIdResolver());
+            removeContainerProperty("stringA");
+            addContainerProperty("stringA", new StringBDescriptor());
+        }
+    }
+
+    private static class StringBDescriptor implements VaadinPropertyDescriptor<BeanA> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getName() {
+            return "stringA";
+        }
+
+        @Override
+        public Class<?> getPropertyType() {
+            return String.class;
+        }
+
+        @Override
+        public Property<?> createProperty(BeanA bean) {
+            return new ObjectProperty<String>(bean.getB().getStringB(), String.class, true);
+        }
+    }
+
     public static class BeanAIdResolver implements BeanIdResolver<BeanA, BeanA> {
 
         @Override
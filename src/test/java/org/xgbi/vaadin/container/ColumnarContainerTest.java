@@ -0,0 +1,236 @@
+package org.xgbi.vaadin.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import com.vaadin.data.Container.ItemSetChangeEvent;
+import com.vaadin.data.Container.ItemSetChangeListener;
+import com.vaadin.data.Item;
+import com.vaadin.data.Property;
+import com.vaadin.data.Property.ReadOnlyException;
+import com.vaadin.data.Property.ValueChangeEvent;
+import com.vaadin.data.Property.ValueChangeListener;
+import com.vaadin.data.Property.ValueChangeNotifier;
+
+/**
+ * Test class for {@link ColumnarContainer}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ColumnarContainerTest {
+
+    private ColumnarContainer container;
+
+    @Before
+    public void setUp() {
+        container = new ColumnarContainer();
+        container.addContainerProperty("int", int.class, 0);
+        container.addContainerProperty("long", Long.class, null);
+        container.addContainerProperty("double", Double.class, 1.5d);
+        container.addContainerProperty("boolean", Boolean.class, Boolean.FALSE);
+        container.addContainerProperty("string", String.class, "");
+    }
+
+    @Test
+    public void types() {
+        assertEquals(Integer.class, container.getType("int"));
+        assertEquals(Long.class, container.getType("long"));
+        assertEquals(String.class, container.getType("string"));
+        assertNull(container.getType("unknown"));
+        assertFalse(container.addContainerProperty("int", Integer.class, null));
+    }
+
+    @Test
+    public void primitiveTypes() {
+        List<PrimitiveBean> beans = new ArrayList<PrimitiveBean>();
+        for (int i = 0; i < 10; i++) {
+            beans.add(new PrimitiveBean(i / 2f, (short) i, (char) ('a' + i)));
+        }
+        ColumnarContainer c = (ColumnarContainer) ContainerFactory.getByAttributes(PrimitiveBean.class)
+                .getContainerFromCollection(beans, ColumnarContainer.class);
+        assertEquals(Float.class, c.getType("ff"));
+        assertEquals(Short.class, c.getType("ss"));
+        assertEquals(Character.class, c.getType("cc"));
+        assertEquals(10, c.size());
+        Item item = c.getItem(c.getIdByIndex(3));
+        assertEquals(1.5f, item.getItemProperty("ff").getValue());
+        assertEquals((short) 3, item.getItemProperty("ss").getValue());
+        assertEquals('d', item.getItemProperty("cc").getValue());
+    }
+
+    @Test
+    public void values() {
+        for (int i = 0; i < 100; i++) {
+            Item item = container.getItem(container.addItem());
+            item.getItemProperty("int").setValue(i);
+            item.getItemProperty("long").setValue((long) i * 1000000000L);
+            item.getItemProperty("boolean").setValue(i % 2 == 0);
+            item.getItemProperty("string").setValue("s" + i);
+        }
+        assertEquals(100, container.size());
+        Object itemId = container.getIdByIndex(42);
+        assertEquals(Integer.valueOf(42), container.getContainerProperty(itemId, "int").getValue());
+        assertEquals(Long.valueOf(42000000000L), container.getContainerProperty(itemId, "long").getValue());
+        assertEquals(Double.valueOf(1.5d), container.getContainerProperty(itemId, "double").getValue());
+        assertEquals(Boolean.TRUE, container.getContainerProperty(itemId, "boolean").getValue());
+        assertEquals("s42", container.getContainerProperty(itemId, "string").getValue());
+        container.getContainerProperty(itemId, "int").setValue(null);
+        assertNull(container.getContainerProperty(itemId, "int").getValue());
+        try {
+            container.getContainerProperty(itemId, "int").setValue("a");
+            fail("should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Value is not of type java.lang.Integer.", e.getMessage());
+        }
+        // A column added afterwards gets the default value
+        container.addContainerProperty("other", Integer.class, 7);
+        assertEquals(Integer.valueOf(7), container.getContainerProperty(itemId, "other").getValue());
+    }
+
+    @Test
+    public void order() {
+        final List<ItemSetChangeEvent> events = new ArrayList<ItemSetChangeEvent>();
+        container.addItemSetChangeListener(new ItemSetChangeListener() {
+
+            @Override
+            public void containerItemSetChange(ItemSetChangeEvent event) {
+                events.add(event);
+            }
+        });
+        Object a = container.addItem();
+        Object c = container.addItem();
+        Object b = container.addItemAfter(a);
+        Object first = container.addItemAt(0);
+        assertEquals(4, events.size());
+        assertEquals(Arrays.asList(first, a, b, c), container.getItemIds());
+        assertEquals(2, container.indexOfId(b));
+        assertEquals(c, container.nextItemId(b));
+        assertEquals(a, container.prevItemId(b));
+        assertTrue(container.isFirstId(first));
+        assertTrue(container.isLastId(c));
+        assertTrue(container.removeItem(a));
+        assertFalse(container.removeItem(a));
+        assertFalse(container.containsId(a));
+        assertEquals(1, container.indexOfId(b));
+        assertEquals(Arrays.asList(first, b, c), container.getItemIds());
+        assertEquals(Arrays.asList(b, c), container.getItemIds(1, 2));
+        assertTrue(container.removeAllItems());
+        assertEquals(0, container.size());
+        assertNull(container.getItem(b));
+        try {
+            container.addItem("id");
+            fail("should throw an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("ColumnarContainer generates its item identifiers.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void reuseRows() {
+        List<Object> itemIds = new ArrayList<Object>();
+        for (int i = 0; i < 10; i++) {
+            Object itemId = container.addItem();
+            container.getContainerProperty(itemId, "int").setValue(i);
+            container.getContainerProperty(itemId, "string").setValue("s" + i);
+            itemIds.add(itemId);
+        }
+        assertTrue(container.removeItem(itemIds.get(3)));
+        assertTrue(container.removeItem(itemIds.get(7)));
+        assertEquals(6, container.indexOfId(itemIds.get(8)));
+        // The rows of the removed items are reused, with the default values
+        Object added = container.addItemAt(0);
+        assertEquals(itemIds.get(7), added);
+        assertEquals(Integer.valueOf(0), container.getContainerProperty(added, "int").getValue());
+        assertEquals("", container.getContainerProperty(added, "string").getValue());
+        assertEquals(itemIds.get(3), container.addItem());
+        assertEquals(10, container.size());
+        assertEquals(0, container.indexOfId(added));
+        assertEquals(7, container.indexOfId(itemIds.get(8)));
+        assertEquals(9, container.indexOfId(itemIds.get(3)));
+        assertEquals("s8", container.getContainerProperty(itemIds.get(8), "string").getValue());
+        // No free row left, a new one is allocated
+        assertEquals(Integer.valueOf(10), container.addItem());
+    }
+
+    @Test
+    public void readOnly() {
+        Object itemId = container.addItem();
+        container.getContainerProperty(itemId, "int").setReadOnly(true);
+        assertTrue(container.getItem(itemId).getItemProperty("int").isReadOnly());
+        assertFalse(container.getContainerProperty(itemId, "long").isReadOnly());
+        try {
+            container.getContainerProperty(itemId, "int").setValue(1);
+            fail("should throw a ReadOnlyException");
+        } catch (ReadOnlyException e) {
+            // Expected
+        }
+        // Not kept for a new item reusing the row
+        container.removeItem(itemId);
+        assertEquals(itemId, container.addItem());
+        assertFalse(container.getContainerProperty(itemId, "int").isReadOnly());
+    }
+
+    @Test
+    public void valueChange() {
+        final List<Property<?>> changes = new ArrayList<Property<?>>();
+        ValueChangeListener listener = new ValueChangeListener() {
+
+            @Override
+            public void valueChange(ValueChangeEvent event) {
+                changes.add(event.getProperty());
+            }
+        };
+        Object a = container.addItem();
+        Object b = container.addItem();
+        container.addValueChangeListener(listener);
+        ((ValueChangeNotifier) container.getContainerProperty(a, "string")).addValueChangeListener(listener);
+        container.getContainerProperty(a, "string").setValue("a");
+        container.getContainerProperty(b, "string").setValue("b");
+        container.getContainerProperty(a, "int").setValue(1);
+        // Twice for the cell with its own listener
+        assertEquals(4, changes.size());
+        assertEquals("a", changes.get(0).getValue());
+        assertEquals(container.getContainerProperty(a, "string"), changes.get(1));
+        assertEquals("b", changes.get(2).getValue());
+        container.removeValueChangeListener(listener);
+        ((ValueChangeNotifier) container.getItem(a).getItemProperty("string")).removeValueChangeListener(listener);
+        container.getContainerProperty(a, "string").setValue("c");
+        assertEquals(4, changes.size());
+    }
+
+    public static class PrimitiveBean {
+
+        private float ff;
+        private short ss;
+        private char cc;
+
+        public PrimitiveBean(float ff, short ss, char cc) {
+            this.ff = ff;
+            this.ss = ss;
+            this.cc = cc;
+        }
+
+        public float getFf() {
+            return ff;
+        }
+
+        public short getSs() {
+            return ss;
+        }
+
+        public char getCc() {
+            return cc;
+        }
+    }
+}
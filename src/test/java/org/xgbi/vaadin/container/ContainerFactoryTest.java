@@ -87,6 +87,19 @@ public class ContainerFactoryTest extends AbstractContainerUtilsTest {
 		assertNotNull(cf2);
 	}
 
+	@Test
+	public void testGetByGettersValues() {
+		com.vaadin.data.Container container = ContainerFactory.getByGetters(
+				SimpleBean.class).getContainerFromCollection(
+				Arrays.asList(new SimpleBean("string", 1)),
+				IndexedContainer.class);
+		Object itemId = container.getItemIds().iterator().next();
+		assertEquals("string", container.getItem(itemId)
+				.getItemProperty("String").getValue());
+		assertEquals(1, container.getItem(itemId).getItemProperty("Integer")
+				.getValue());
+	}
+
 	@Test
 	public void testGetByAnnotationNull() {
 		try {
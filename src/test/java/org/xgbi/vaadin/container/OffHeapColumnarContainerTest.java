@@ -0,0 +1,94 @@
+package org.xgbi.vaadin.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AbstractContainerFactoryTest.SimpleBeanContainerAttributeFactory;
+import org.xgbi.vaadin.container.AbstractContainerFactoryTestHelper.SimpleBean;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.Item;
+import com.vaadin.data.Property;
+
+/**
+ * Test class for {@link OffHeapColumnarContainer}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class OffHeapColumnarContainerTest {
+
+    @Test
+    public void values() {
+        OffHeapColumnarContainer container = new OffHeapColumnarContainer();
+        assertTrue(container.addContainerProperty("int", Integer.class, null));
+        assertTrue(container.addContainerProperty("long", long.class, 0L));
+        assertTrue(container.addContainerProperty("double", Double.class, 0d));
+        assertTrue(container.addContainerProperty("string", String.class, null));
+        assertFalse(container.addContainerProperty("object", Object.class, null));
+        for (int i = 0; i < 1000; i++) {
+            Item item = container.getItem(container.addItem());
+            item.getItemProperty("int").setValue(i);
+            item.getItemProperty("long").setValue(i * 10L);
+            item.getItemProperty("double").setValue(i / 2d);
+            item.getItemProperty("string").setValue("s" + (i % 3));
+        }
+        Object itemId = container.getIdByIndex(500);
+        assertEquals(Integer.valueOf(500), container.getContainerProperty(itemId, "int").getValue());
+        assertEquals(Long.valueOf(5000L), container.getContainerProperty(itemId, "long").getValue());
+        assertEquals(Double.valueOf(250d), container.getContainerProperty(itemId, "double").getValue());
+        assertEquals("s2", container.getContainerProperty(itemId, "string").getValue());
+        container.getContainerProperty(itemId, "string").setValue(null);
+        assertNull(container.getContainerProperty(itemId, "string").getValue());
+    }
+
+    @Test
+    public void release() {
+        OffHeapColumnarContainer container = new OffHeapColumnarContainer();
+        container.addContainerProperty("int", Integer.class, 1);
+        Property property = container.getContainerProperty(container.addItem(), "int");
+        assertEquals(Integer.valueOf(1), property.getValue());
+        container.release();
+        assertTrue(container.isReleased());
+        assertEquals(0, container.size());
+        assertTrue(container.getContainerPropertyIds().isEmpty());
+        try {
+            property.getValue();
+            fail("should throw an IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("The container has been released.", e.getMessage());
+        }
+        try {
+            container.addItem();
+            fail("should throw an IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("The container has been released.", e.getMessage());
+        }
+        // Twice is fine
+        container.release();
+    }
+
+    @Test
+    public void factory() {
+        List<SimpleBean> beans = new LinkedList<SimpleBean>();
+        for (int i = 0; i < 10; i++) {
+            beans.add(new SimpleBean("string" + i, i));
+        }
+        Container c = new SimpleBeanContainerAttributeFactory().getContainerFromCollection(beans,
+                OffHeapColumnarContainer.class);
+        assertEquals(10, c.size());
+        // The beans are not kept
+        assertFalse(c.getContainerPropertyIds().contains("bean"));
+        Object itemId = ((OffHeapColumnarContainer) c).getIdByIndex(4);
+        assertEquals("string4", c.getContainerProperty(itemId, "string").getValue());
+        assertEquals(Integer.valueOf(4), c.getContainerProperty(itemId, "integer").getValue());
+        ((OffHeapColumnarContainer) c).release();
+    }
+}
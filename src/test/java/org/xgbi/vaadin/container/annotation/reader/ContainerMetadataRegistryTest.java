@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012 Vincent Demeester<vincent+shortbrain@demeester.fr>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.xgbi.vaadin.container.annotation.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AbstractContainerUtilsTest;
+import org.xgbi.vaadin.container.annotation.Container;
+import org.xgbi.vaadin.container.annotation.ContainerType;
+import org.xgbi.vaadin.container.annotation.Property;
+import org.xgbi.vaadin.container.property.PropertyMetadata;
+
+/**
+ * Test class for {@link ContainerMetadataRegistry}.
+ */
+@SuppressWarnings("unused")
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ContainerMetadataRegistryTest extends AbstractContainerUtilsTest {
+
+	@Test
+	public void getMetadataNulls() {
+		try {
+			ContainerMetadataRegistry.getMetadataByContainerType(null);
+			fail("should throw an IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals("beanClass cannot be null.", e.getMessage());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getMetadataNonAnnotated() {
+		ContainerMetadataRegistry.getMetadata(NonAnnotatedBean.class,
+				ContainerType.RESUME);
+	}
+
+	@Test
+	public void getMetadata() {
+		Map<ContainerType, List<PropertyMetadata>> metadatas = ContainerMetadataRegistry
+				.getMetadataByContainerType(TestBean.class);
+		assertNotNull(metadatas);
+		assertSame(metadatas,
+				ContainerMetadataRegistry
+						.getMetadataByContainerType(TestBean.class));
+		List<PropertyMetadata> resume = ContainerMetadataRegistry.getMetadata(
+				TestBean.class, ContainerType.RESUME);
+		assertEquals(2, resume.size());
+		assertMetadata("string", String.class, null, "string", resume.get(0));
+		assertMetadata("number", Integer.class, null, "integer",
+				resume.get(1));
+		assertEquals(1,
+				ContainerMetadataRegistry.getMetadata(TestBean.class,
+						ContainerType.EXTENDED).size());
+		assertNull(ContainerMetadataRegistry.getMetadata(
+				EmptyContainerBean.class, ContainerType.RESUME));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void getMetadataImmutable() {
+		ContainerMetadataRegistry.getMetadata(TestBean.class,
+				ContainerType.RESUME).clear();
+	}
+
+	@Container(properties = {
+			@Property(name = "string", types = { ContainerType.RESUME }),
+			@Property(name = "number", attribute = "integer", types = { ContainerType.RESUME }),
+			@Property(name = "integer", types = { ContainerType.EXTENDED }) })
+	private static class TestBean {
+		private String string;
+		private Integer integer;
+	}
+
+	@Container(properties = {})
+	private static class EmptyContainerBean {
+		private String string;
+	}
+
+	private static class NonAnnotatedBean {
+		private String string;
+	}
+}
@@ -0,0 +1,140 @@
+package org.xgbi.vaadin.container.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AbstractContainerFactoryTestHelper.SimpleBean;
+import org.xgbi.vaadin.container.ContainerFactory;
+import org.xgbi.vaadin.container.ContainerStatistics;
+import org.xgbi.vaadin.container.metrics.HistogramMetricsRecorder;
+import org.xgbi.vaadin.container.metrics.Metrics;
+import org.xgbi.vaadin.container.metrics.MetricsRecorder;
+import org.xgbi.vaadin.container.metrics.NoOpMetricsRecorder;
+import org.xgbi.vaadin.container.metrics.Operation;
+import org.xgbi.vaadin.container.metrics.ThreadMetricsRecorder;
+
+import com.vaadin.data.Container;
+import com.vaadin.data.util.IndexedContainer;
+
+/**
+ * Test class for {@link ContainerMonitor}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ContainerMonitorTest {
+
+    /**
+     * Only count the containers built by the test thread, the other test
+     * classes run in parallel.
+     */
+    private static class ThreadStatistics extends ContainerStatistics {
+
+        private final Thread thread = Thread.currentThread();
+
+        @Override
+        protected boolean isCounted() {
+            return Thread.currentThread() == thread;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        ThreadMetricsRecorder.LOCK.lock();
+        ContainerStatistics.setInstance(new ThreadStatistics());
+    }
+
+    @After
+    public void tearDown() {
+        ContainerMonitor.unregister();
+        ContainerStatistics.setInstance(null);
+        ThreadMetricsRecorder.LOCK.unlock();
+    }
+
+    @Test
+    public void register() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ContainerMonitor.OBJECT_NAME);
+        assertFalse(server.isRegistered(name));
+        ContainerMonitor.register();
+        // Twice is fine
+        ContainerMonitor.register();
+        assertTrue(ContainerMonitor.isRegistered());
+        assertTrue(server.isRegistered(name));
+        assertTrue(ContainerStatistics.isEnabled());
+
+        List<SimpleBean> beans = new ArrayList<SimpleBean>();
+        for (int i = 0; i < 10; i++) {
+            beans.add(new SimpleBean("string" + i, i));
+        }
+        ContainerFactory<SimpleBean> factory = ContainerFactory.getByAttributes(SimpleBean.class);
+        Container container = factory.getContainerFromCollection(beans, IndexedContainer.class);
+        factory.getContainerFromCollection(container, beans, IndexedContainer.class);
+
+        assertEquals(Integer.valueOf(1), server.getAttribute(name, "LiveContainerCount"));
+        assertEquals(Long.valueOf(10L), server.getAttribute(name, "ItemCount"));
+        // string, integer and the bean
+        assertEquals(Long.valueOf(3L), server.getAttribute(name, "PropertyCount"));
+        assertEquals(Long.valueOf(2L), server.getAttribute(name, "PopulateCount"));
+        assertEquals(Long.valueOf(20L), server.getAttribute(name, "PopulateItemCount"));
+        assertEquals(Long.valueOf(1L), server.getAttribute(name, "AccessorCacheMissCount"));
+        // Compiled once for the 20 beans
+        assertEquals(Long.valueOf(19L), server.getAttribute(name, "AccessorCacheHitCount"));
+        assertEquals(Double.valueOf(0.95d), server.getAttribute(name, "AccessorCacheHitRatio"));
+        // The compiled properties and the (empty) children accessors of the bean
+        assertEquals(Integer.valueOf(2), server.getAttribute(name, "AccessorCacheSize"));
+        // Shared by the whole JVM
+        assertTrue((Integer) server.getAttribute(name, "MetadataCacheSize") >= 1);
+
+        server.invoke(name, "resetStatistics", null, null);
+        assertEquals(Long.valueOf(0L), server.getAttribute(name, "PopulateCount"));
+        assertEquals(Long.valueOf(0L), server.getAttribute(name, "AccessorCacheHitCount"));
+    }
+
+    @Test
+    public void recorderReplaced() throws Exception {
+        ContainerMonitor.register();
+        HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+        MetricsRecorder threadRecorder = new ThreadMetricsRecorder(recorder);
+        Metrics.setRecorder(threadRecorder);
+        try {
+            List<SimpleBean> beans = new ArrayList<SimpleBean>();
+            beans.add(new SimpleBean("string", 0));
+            ContainerFactory.getByAttributes(SimpleBean.class).getContainerFromCollection(beans,
+                    IndexedContainer.class);
+            // Both the statistics and the recorder of the application
+            assertEquals(1L, ContainerStatistics.getOperationStatistics(Operation.POPULATE).getCount());
+            assertEquals(1L, recorder.getStatistics(Operation.POPULATE).getCount());
+            // The recorder of the application is kept
+            ContainerMonitor.unregister();
+            assertSame(threadRecorder, Metrics.getRecorder());
+        } finally {
+            Metrics.setRecorder(null);
+        }
+    }
+
+    @Test
+    public void unregister() throws Exception {
+        ContainerMonitor.register();
+        ContainerMonitor.unregister();
+        assertFalse(ContainerMonitor.isRegistered());
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+                new ObjectName(ContainerMonitor.OBJECT_NAME)));
+        assertFalse(ContainerStatistics.isEnabled());
+        // The statistics are no longer recorded
+        assertSame(NoOpMetricsRecorder.INSTANCE, Metrics.getStatisticsRecorder());
+        assertEquals(0, ContainerStatistics.getLiveContainerCount());
+    }
+}
@@ -0,0 +1,51 @@
+package org.xgbi.vaadin.container.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+/**
+ * Test class for {@link HistogramMetricsRecorder}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class HistogramMetricsRecorderTest {
+
+    @Test
+    public void statistics() {
+        HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+        for (int i = 1; i <= 100; i++) {
+            recorder.record(Operation.SORT, i * 1000L, i);
+        }
+        OperationStatistics statistics = recorder.getStatistics(Operation.SORT);
+        assertEquals(100L, statistics.getCount());
+        assertEquals(5050L, statistics.getItemCount());
+        assertEquals(5050000L, statistics.getTotalNanos());
+        assertEquals(50500L, statistics.getMeanNanos());
+        assertEquals(100000L, statistics.getMaxNanos());
+        // Upper bound of the bucket, at most twice the exact value
+        long median = statistics.getPercentileNanos(50d);
+        assertTrue(median >= 50000L && median < 100000L);
+        assertEquals(100000L, statistics.getPercentileNanos(100d));
+        assertEquals(0L, recorder.getStatistics(Operation.FILTER).getCount());
+        assertEquals(0L, recorder.getStatistics(Operation.FILTER).getPercentileNanos(99d));
+    }
+
+    @Test
+    public void reset() {
+        HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+        recorder.record(Operation.FILTER, 10L, 1);
+        recorder.reset();
+        OperationStatistics statistics = recorder.getStatistics(Operation.FILTER);
+        assertEquals(0L, statistics.getCount());
+        assertEquals(0L, statistics.getMaxNanos());
+        assertEquals(0L, statistics.getPercentileNanos(50d));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPercentile() {
+        new HistogramMetricsRecorder().getStatistics(Operation.SORT).getPercentileNanos(101d);
+    }
+}
@@ -0,0 +1,59 @@
+package org.xgbi.vaadin.container.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AbstractContainerFactoryTestHelper.SimpleBean;
+import org.xgbi.vaadin.container.ContainerFactory;
+
+import com.vaadin.data.util.IndexedContainer;
+
+/**
+ * Test class for {@link Metrics}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class MetricsTest {
+
+    @Before
+    public void setUp() {
+        ThreadMetricsRecorder.LOCK.lock();
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.setRecorder(null);
+        ThreadMetricsRecorder.LOCK.unlock();
+    }
+
+    @Test
+    public void disabled() {
+        assertSame(NoOpMetricsRecorder.INSTANCE, Metrics.getRecorder());
+        assertEquals(Metrics.NOT_RECORDED, Metrics.start(Operation.SORT));
+    }
+
+    @Test
+    public void factory() {
+        HistogramMetricsRecorder recorder = new HistogramMetricsRecorder();
+        Metrics.setRecorder(new ThreadMetricsRecorder(recorder));
+        List<SimpleBean> beans = new ArrayList<SimpleBean>();
+        for (int i = 0; i < 10; i++) {
+            beans.add(new SimpleBean("string" + i, i));
+        }
+        ContainerFactory.getByAttributes(SimpleBean.class).getContainerFromCollection(beans, IndexedContainer.class);
+        assertEquals(1L, recorder.getStatistics(Operation.INIT_CONTAINER).getCount());
+        assertEquals(1L, recorder.getStatistics(Operation.UPDATE_PROPERTIES).getCount());
+        assertEquals(1L, recorder.getStatistics(Operation.POPULATE).getCount());
+        assertEquals(10L, recorder.getStatistics(Operation.POPULATE).getItemCount());
+        assertEquals(10L, recorder.getStatistics(Operation.NEW_ITEM).getCount());
+        assertTrue(recorder.getStatistics(Operation.POPULATE).getTotalNanos() > 0L);
+    }
+}
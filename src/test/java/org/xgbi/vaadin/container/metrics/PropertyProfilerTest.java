@@ -0,0 +1,204 @@
+package org.xgbi.vaadin.container.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AliasBeanItemContainer;
+import org.xgbi.vaadin.container.ContainerFactory;
+
+import com.vaadin.data.util.IndexedContainer;
+import com.vaadin.data.util.MethodProperty.MethodException;
+
+/**
+ * Test class for {@link PropertyProfiler}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class PropertyProfilerTest {
+
+    @After
+    public void tearDown() {
+        PropertyProfiler.uninstall();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSamplingInterval() {
+        new PropertyProfiler(0);
+    }
+
+    @Test
+    public void sampling() {
+        PropertyProfiler profiler = new PropertyProfiler(4);
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (profiler.sample(Customer.class, null, "name", null)) {
+                sampled++;
+            }
+        }
+        assertEquals(25, sampled);
+    }
+
+    @Test
+    public void samplingByProperty() {
+        PropertyProfiler profiler = new PropertyProfiler(4);
+        profiler.install();
+        AliasBeanItemContainer<Customer> container = new AliasBeanItemContainer<Customer>(Customer.class);
+        // As many columns as the sampling interval
+        container.addShortcutContainerProperty("city", "address.city");
+        container.addShortcutContainerProperty("street", "address.street");
+        container.addShortcutContainerProperty("country", "address.country");
+        container.addShortcutContainerProperty("phone", "address.phone");
+        List<Customer> customers = customers(20);
+        container.addAll(customers);
+        for (Customer customer : customers) {
+            for (Object propertyId : new Object[] { "city", "street", "country", "phone" }) {
+                container.getItem(customer).getItemProperty(propertyId).getValue();
+            }
+        }
+        List<PropertyProfile> profiles = profiler.getProfiles(Customer.class, AliasBeanItemContainer.class);
+        assertEquals(4, profiles.size());
+        for (PropertyProfile profile : profiles) {
+            assertEquals(profile.getPropertyId(), 5L, profile.getSampleCount());
+        }
+    }
+
+    @Test
+    public void factory() {
+        PropertyProfiler profiler = new PropertyProfiler(1);
+        profiler.install();
+        assertSame(profiler, PropertyProfiler.getInstalled());
+        ContainerFactory.getByAttributes(Customer.class).getContainerFromCollection(customers(10),
+                IndexedContainer.class);
+        List<PropertyProfile> profiles = profiler.getProfiles(Customer.class, IndexedContainer.class);
+        assertEquals(2, profiles.size());
+        for (PropertyProfile profile : profiles) {
+            assertEquals(10L, profile.getSampleCount());
+            assertEquals(0L, profile.getFailureCount());
+            assertTrue(profile.getTotalNanos() >= profile.getMaxNanos());
+        }
+        // Ranked
+        assertTrue(profiles.get(0).getTotalNanos() >= profiles.get(1).getTotalNanos());
+        String report = profiler.report();
+        assertTrue(report, report.contains(Customer.class.getName() + " in IndexedContainer"));
+    }
+
+    @Test
+    public void profileKept() {
+        PropertyProfiler profiler = new PropertyProfiler(1);
+        profiler.install();
+        ContainerFactory<Customer> factory = ContainerFactory.getByAttributes(Customer.class);
+        factory.getContainerFromCollection(customers(10), IndexedContainer.class);
+        PropertyProfile name = profiler.getProfile(Customer.class, IndexedContainer.class, "name", "name");
+        assertSame(profiler, name.getProfiler());
+        assertEquals(10L, name.getSampleCount());
+        // The kept profiles are reset, not replaced
+        profiler.reset();
+        assertTrue(profiler.getProfiles().isEmpty());
+        factory.getContainerFromCollection(customers(5), IndexedContainer.class);
+        assertSame(name, profiler.getProfile(Customer.class, IndexedContainer.class, "name", "name"));
+        assertEquals(5L, name.getSampleCount());
+        // Another profiler gets its own profiles
+        PropertyProfiler other = new PropertyProfiler(1);
+        other.install();
+        factory.getContainerFromCollection(customers(3), IndexedContainer.class);
+        assertEquals(5L, name.getSampleCount());
+        assertEquals(3L, other.getProfile(Customer.class, IndexedContainer.class, "name", "name").getSampleCount());
+    }
+
+    @Test
+    public void alias() {
+        PropertyProfiler profiler = new PropertyProfiler(1);
+        profiler.install();
+        AliasBeanItemContainer<Customer> container = new AliasBeanItemContainer<Customer>(Customer.class);
+        container.addShortcutContainerProperty("city", "address.city");
+        container.addShortcutContainerProperty("zip", "address.zip");
+        List<Customer> customers = customers(5);
+        container.addAll(customers);
+        for (Customer customer : customers) {
+            assertEquals("city", container.getItem(customer).getItemProperty("city").getValue());
+            try {
+                container.getItem(customer).getItemProperty("zip").getValue();
+                fail();
+            } catch (MethodException e) {
+                // Expected
+            }
+        }
+        List<PropertyProfile> profiles = profiler.getProfiles(Customer.class, AliasBeanItemContainer.class);
+        assertEquals(2, profiles.size());
+        PropertyProfile city = profiles.get(profiles.get(0).getPropertyId().equals("city") ? 0 : 1);
+        assertEquals("address.city", city.getPath());
+        assertEquals(5L, city.getSampleCount());
+        PropertyProfile zip = profiles.get(profiles.get(0).getPropertyId().equals("zip") ? 0 : 1);
+        assertEquals(5L, zip.getFailureCount());
+        assertEquals(0L, zip.getSampleCount());
+    }
+
+    @Test
+    public void uninstalled() {
+        PropertyProfiler profiler = new PropertyProfiler(1);
+        profiler.install();
+        PropertyProfiler.uninstall();
+        assertNull(PropertyProfiler.getInstalled());
+        ContainerFactory.getByAttributes(Customer.class).getContainerFromCollection(customers(10),
+                IndexedContainer.class);
+        assertTrue(profiler.getProfiles().isEmpty());
+    }
+
+    private static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<Customer>();
+        for (int i = 0; i < count; i++) {
+            customers.add(new Customer("name" + i, new Address()));
+        }
+        return customers;
+    }
+
+    public static class Customer {
+        private String name;
+        private Address address;
+
+        public Customer(String name, Address address) {
+            this.name = name;
+            this.address = address;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+    }
+
+    public static class Address {
+
+        public String getCity() {
+            return "city";
+        }
+
+        public String getStreet() {
+            return "street";
+        }
+
+        public String getCountry() {
+            return "country";
+        }
+
+        public String getPhone() {
+            return "phone";
+        }
+
+        public String getZip() {
+            throw new IllegalStateException("not loaded");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.xgbi.vaadin.container.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AbstractContainerFactoryTestHelper.SimpleBean;
+import org.xgbi.vaadin.container.ContainerFactory;
+
+import com.vaadin.data.util.IndexedContainer;
+
+/**
+ * Test class for {@link SlowOperationLogger}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class SlowOperationLoggerTest {
+
+    @Before
+    public void setUp() {
+        ThreadMetricsRecorder.LOCK.lock();
+    }
+
+    @After
+    public void tearDown() {
+        SlowOperationLogger.uninstall();
+        Metrics.setRecorder(null);
+        ThreadMetricsRecorder.LOCK.unlock();
+    }
+
+    @Test
+    public void install() {
+        assertNull(SlowOperationLogger.getInstalled());
+        SlowOperationLogger logger = new SlowOperationLogger();
+        logger.install();
+        assertSame(logger, SlowOperationLogger.getInstalled());
+        assertEquals(SlowOperationLogger.DEFAULT_THRESHOLD_MILLIS,
+                logger.getThreshold(Operation.GET_CONTAINER, TimeUnit.MILLISECONDS));
+        assertEquals(-1L, logger.getThreshold(Operation.POPULATE, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void slowOperation() {
+        CapturingLogger logger = new CapturingLogger();
+        logger.setThreshold(Operation.GET_CONTAINER, 0L, TimeUnit.MILLISECONDS);
+        logger.install();
+        ContainerFactory.getByAttributes(SimpleBean.class).getContainerFromCollection(beans(10),
+                IndexedContainer.class);
+        assertEquals(1, logger.messages.size());
+        String message = logger.messages.get(0);
+        assertTrue(message, message.startsWith("Slow GET_CONTAINER"));
+        assertTrue(message, message.contains(SimpleBean.class.getName()));
+        assertTrue(message, message.contains("IndexedContainer"));
+        assertTrue(message, message.contains("10 items"));
+        assertTrue(message, message.contains("POPULATE x1"));
+        assertTrue(message, message.contains("NEW_ITEM x10"));
+    }
+
+    @Test
+    public void fastOperation() {
+        CapturingLogger logger = new CapturingLogger();
+        logger.setThreshold(Operation.GET_CONTAINER, 1L, TimeUnit.HOURS);
+        logger.install();
+        ContainerFactory.getByAttributes(SimpleBean.class).getContainerFromCollection(beans(10),
+                IndexedContainer.class);
+        assertTrue(logger.messages.isEmpty());
+    }
+
+    @Test
+    public void rateLimit() {
+        CapturingLogger logger = new CapturingLogger();
+        // An operation that is not traced elsewhere, so that the other test
+        // classes do not use the permits
+        for (Operation operation : Operation.values()) {
+            logger.removeThreshold(operation);
+        }
+        logger.setThreshold(Operation.INIT_CONTAINER, 0L, TimeUnit.MILLISECONDS);
+        logger.setRateLimit(2, 1L, TimeUnit.HOURS);
+        logger.install();
+        for (int i = 0; i < 5; i++) {
+            OperationTrace.begin(Operation.INIT_CONTAINER).end(SimpleBean.class, null, 0);
+        }
+        assertEquals(2, logger.messages.size());
+        assertEquals(3L, logger.getSuppressedCount());
+        OperationTrace.begin(Operation.INIT_CONTAINER).end(SimpleBean.class, null, 0);
+        assertEquals(4L, logger.getSuppressedCount());
+    }
+
+    @Test
+    public void recorded() {
+        HistogramMetricsRecorder recorder = new HistogramMetricsRecorder(Operation.GET_CONTAINER);
+        Metrics.setRecorder(new ThreadMetricsRecorder(recorder));
+        new CapturingLogger().install();
+        ContainerFactory.getByAttributes(SimpleBean.class).getContainerFromCollection(beans(10),
+                IndexedContainer.class);
+        assertEquals(1L, recorder.getStatistics(Operation.GET_CONTAINER).getCount());
+        assertEquals(10L, recorder.getStatistics(Operation.GET_CONTAINER).getItemCount());
+        assertEquals(0L, recorder.getStatistics(Operation.POPULATE).getCount());
+    }
+
+    private static List<SimpleBean> beans(int count) {
+        List<SimpleBean> beans = new ArrayList<SimpleBean>();
+        for (int i = 0; i < count; i++) {
+            beans.add(new SimpleBean("string" + i, i));
+        }
+        return beans;
+    }
+
+    /**
+     * Capture the messages of the operations of the current thread (the other
+     * test classes run in parallel).
+     */
+    private static class CapturingLogger extends SlowOperationLogger {
+
+        private final Thread thread = Thread.currentThread();
+
+        private final List<String> messages = new ArrayList<String>();
+
+        @Override
+        protected void log(String message) {
+            if (Thread.currentThread() == thread) {
+                messages.add(message);
+            }
+        }
+    }
+}
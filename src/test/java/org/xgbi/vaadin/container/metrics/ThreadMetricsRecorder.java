@@ -0,0 +1,46 @@
+package org.xgbi.vaadin.container.metrics;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A recorder that only records the operations of the thread that created it
+ * (the test classes run in parallel).
+ *
+ * The tests that set the recorder of {@link Metrics} (or install a
+ * {@link SlowOperationLogger}) hold {@link #LOCK} meanwhile.
+ */
+public class ThreadMetricsRecorder implements MetricsRecorder {
+
+    /**
+     * The lock of the tests that change the global metrics state.
+     */
+    public static final Lock LOCK = new ReentrantLock();
+
+    private final Thread thread = Thread.currentThread();
+
+    private final MetricsRecorder recorder;
+
+    public ThreadMetricsRecorder(MetricsRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public boolean isEnabled(Operation operation) {
+        return recorder.isEnabled(operation);
+    }
+
+    @Override
+    public void start(Operation operation) {
+        if (Thread.currentThread() == thread) {
+            recorder.start(operation);
+        }
+    }
+
+    @Override
+    public void record(Operation operation, long durationNanos, int itemCount) {
+        if (Thread.currentThread() == thread) {
+            recorder.record(operation, durationNanos, itemCount);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 Vincent Demeester<vincent+shortbrain@demeester.fr>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.xgbi.vaadin.container.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.xgbi.vaadin.container.AbstractContainerUtilsTest;
+
+/**
+ * Test class for {@link CachingPropertyReaderAlgorithm}.
+ */
+@SuppressWarnings("unused")
+@RunWith(BlockJUnit4ClassRunner.class)
+public class CachingPropertyReaderAlgorithmTest extends
+		AbstractContainerUtilsTest {
+
+	@Test
+	public void nulls() {
+		try {
+			new CachingPropertyReaderAlgorithm(null);
+			fail("should throw a IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals("algorithm cannot be null.", e.getMessage());
+		}
+		CachingPropertyReaderAlgorithm c = new CachingPropertyReaderAlgorithm(
+				new AttributeReaderAlgorithm());
+		try {
+			c.getProperties(null);
+			fail("should throw a IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals("beanClass cannot be null.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void cached() {
+		PropertyReaderAlgorithm a = new AttributeReaderAlgorithm();
+		PropertyReaderAlgorithm c = CachingPropertyReaderAlgorithm.cached(a);
+		assertTrue(c instanceof CachingPropertyReaderAlgorithm);
+		assertSame(c, CachingPropertyReaderAlgorithm.cached(c));
+		assertEquals(null, CachingPropertyReaderAlgorithm.cached(null));
+	}
+
+	@Test
+	public void getProperties() {
+		CachingPropertyReaderAlgorithm c = new CachingPropertyReaderAlgorithm(
+				new AttributeReaderAlgorithm());
+		List<PropertyMetadata> metadatas = c.getProperties(TestBean.class);
+		assertNotNull(metadatas);
+		assertEquals(2, metadatas.size());
+		assertMetadata("string", String.class, null, "string",
+				metadatas.get(0));
+		assertMetadata("integer", Integer.class, null, "integer",
+				metadatas.get(1));
+		assertEquals(0, c.getHitCount());
+		assertEquals(1, c.getMissCount());
+		assertSame(metadatas, c.getProperties(TestBean.class));
+		assertEquals(1, c.getHitCount());
+		assertEquals(1, c.getMissCount());
+		assertEquals(1, c.size());
+		c.clear();
+		assertEquals(0, c.size());
+	}
+
+	@Test
+	public void clearByClassLoader() {
+		CachingPropertyReaderAlgorithm c = new CachingPropertyReaderAlgorithm(
+				new AttributeReaderAlgorithm());
+		try {
+			c.clear(null);
+			fail("should throw a IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals("classLoader cannot be null.", e.getMessage());
+		}
+		c.getProperties(TestBean.class);
+		c.getProperties(Integer.class);
+		assertEquals(2, c.size());
+		c.clear(new URLClassLoader(new URL[0]));
+		assertEquals(2, c.size());
+		c.clear(TestBean.class.getClassLoader());
+		assertEquals(1, c.size());
+		assertEquals(0, c.getHitCount());
+		c.getProperties(Integer.class);
+		assertEquals(1, c.getHitCount());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void getPropertiesImmutable() {
+		CachingPropertyReaderAlgorithm c = new CachingPropertyReaderAlgorithm(
+				new AttributeReaderAlgorithm());
+		c.getProperties(TestBean.class).clear();
+	}
+
+	private static class TestBean {
+		private String string;
+		private Integer integer;
+	}
+}
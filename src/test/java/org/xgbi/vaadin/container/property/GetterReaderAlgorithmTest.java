@@ -58,9 +58,9 @@ public class GetterReaderAlgorithmTest extends AbstractContainerUtilsTest {
 		List<PropertyMetadata> metadatas = g.getProperties(TestBean.class);
 		assertNotNull(metadatas);
 		assertEquals(2, metadatas.size());
-		assertMetadata("Integer", Integer.class, null, "Integer",
+		assertMetadata("Integer", Integer.class, null, "integer",
 				metadatas.get(0));
-		assertMetadata("String", String.class, null, "String", metadatas.get(1));
+		assertMetadata("String", String.class, null, "string", metadatas.get(1));
 	}
 
 	private static class SuperTestBean {
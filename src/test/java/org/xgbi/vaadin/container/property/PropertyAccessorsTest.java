@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012 Vincent Demeester<vincent+shortbrain@demeester.fr>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.xgbi.vaadin.container.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+/**
+ * Test class for {@link PropertyAccessors}.
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class PropertyAccessorsTest {
+
+	@Test
+	public void compileNulls() {
+		try {
+			PropertyAccessors.compile(null, "string");
+			fail("should throw a IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals("beanClass cannot be null.", e.getMessage());
+		}
+		try {
+			PropertyAccessors.compile(TestBean.class,
+					(List<PropertyMetadata>) null);
+			fail("should throw a IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals("beanClass and properties cannot be null.",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void compileSimple() throws Exception {
+		PropertyAccessor accessor = PropertyAccessors.compile(TestBean.class,
+				"string");
+		assertEquals("string", accessor.getPath());
+		assertEquals(String.class, accessor.getType());
+		assertEquals("string1", accessor.getValue(new TestBean("string1",
+				null)));
+	}
+
+	@Test
+	public void compileNested() throws Exception {
+		PropertyAccessor accessor = PropertyAccessors.compile(TestBean.class,
+				"nested.string");
+		assertEquals(String.class, accessor.getType());
+		TestBean bean = new TestBean("string1", new TestBean("string2", null));
+		assertEquals("string2", accessor.getValue(bean));
+		// Null intermediate value
+		assertNull(accessor.getValue(new TestBean("string1", null)));
+	}
+
+	@Test
+	public void compileUnknown() throws Exception {
+		PropertyAccessor accessor = PropertyAccessors.compile(TestBean.class,
+				"unknown");
+		assertNull(accessor.getType());
+		try {
+			accessor.getValue(new TestBean("string1", null));
+			fail("should throw a NoSuchMethodException");
+		} catch (NoSuchMethodException e) {
+			assertTrue(e instanceof NoSuchMethodException);
+		}
+	}
+
+	@Test
+	public void compileProperties() throws Exception {
+		List<PropertyMetadata> properties = Arrays.asList(
+				new PropertyMetadata("string", String.class, null, "string"),
+				new PropertyMetadata("nestedString", String.class, null,
+						"nested.string"));
+		PropertyAccessor[] accessors = PropertyAccessors.compile(
+				TestBean.class, properties);
+		assertEquals(2, accessors.length);
+		TestBean bean = new TestBean("string1", new TestBean("string2", null));
+		assertEquals("string1", accessors[0].getValue(bean));
+		assertEquals("string2", accessors[1].getValue(bean));
+	}
+
+	public static class TestBean {
+
+		private String string;
+		private TestBean nested;
+
+		public TestBean(String string, TestBean nested) {
+			this.string = string;
+			this.nested = nested;
+		}
+
+		public String getString() {
+			return string;
+		}
+
+		public TestBean getNested() {
+			return nested;
+		}
+	}
+}